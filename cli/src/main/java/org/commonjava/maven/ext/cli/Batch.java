@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.cli;
+
+import org.apache.commons.io.FileUtils;
+import org.commonjava.maven.ext.io.rest.CachingTranslator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.apache.commons.lang.StringUtils.isNotEmpty;
+
+/**
+ * Runs {@link Cli} against a list of project roots in one JVM.
+ * <p>
+ * Each worker thread owns a {@link Cli}, and therefore its own container and ManipulationSession, which it reuses for
+ * the roots it picks up; so at most <code>threads</code> roots are processed at once. Unless configured otherwise the
+ * roots share a Galley file cache (<code>manipulator.cache.dir</code>) and REST translations
+ * (<code>restSharedCache</code>), both discarded once the batch completes. Compiled Groovy scripts are shared by all
+ * roots through the bounded {@link org.commonjava.maven.ext.core.groovy.CompiledScripts#shared()} cache, which
+ * releases the class loaders of the scripts it evicts.
+ * <p>
+ * Every root writes its own result file as usual; a summary of the exit code of each root is logged and optionally
+ * written to a file.
+ */
+class Batch
+{
+    static final String CACHE_DIR_PROPERTY = "manipulator.cache.dir";
+
+    static final String REST_CACHE_PROPERTY = "restSharedCache";
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final List<File> roots;
+
+    private final List<String> args;
+
+    private final int threads;
+
+    private final String logContext;
+
+    /**
+     * @param roots the POM file of each root.
+     * @param args the arguments to pass to every root, besides the POM file.
+     * @param threads the maximum number of roots to process concurrently.
+     * @param logContext an optional log context, prefixed to the name of each root.
+     */
+    Batch( List<File> roots, List<String> args, int threads, String logContext )
+    {
+        this.roots = roots;
+        this.args = args;
+        this.threads = threads;
+        this.logContext = logContext;
+    }
+
+    /**
+     * Parse the roots from either a manifest file, listing one root per line, or a comma separated list. A root may
+     * either be a POM file or a directory containing a pom.xml. In a manifest blank lines and lines starting with '#'
+     * are ignored and relative paths are resolved against the directory of the manifest.
+     *
+     * @param value the manifest or list of roots.
+     * @return the POM file of each root.
+     * @throws IOException if the manifest cannot be read.
+     */
+    static List<File> parseRoots( String value ) throws IOException
+    {
+        final File manifest = new File( value );
+        final List<File> result = new ArrayList<>();
+
+        if ( manifest.isFile() && !manifest.getName().endsWith( ".xml" ) )
+        {
+            for ( String line : FileUtils.readLines( manifest, Charset.defaultCharset() ) )
+            {
+                line = line.trim();
+                if ( !line.isEmpty() && !line.startsWith( "#" ) )
+                {
+                    final File root = new File( line );
+                    result.add( toPom( root.isAbsolute() ? root : new File( manifest.getAbsoluteFile().getParentFile(),
+                                                                            line ) ) );
+                }
+            }
+        }
+        else
+        {
+            for ( String root : value.split( "," ) )
+            {
+                if ( !root.trim().isEmpty() )
+                {
+                    result.add( toPom( new File( root.trim() ) ) );
+                }
+            }
+        }
+        return result;
+    }
+
+    private static File toPom( File root )
+    {
+        return root.isDirectory() ? new File( root, "pom.xml" ) : root;
+    }
+
+    /**
+     * Process all roots.
+     *
+     * @param summary optional file to write the summary to.
+     * @return the highest exit code of any root, i.e. 0 if all succeeded.
+     */
+    int run( File summary )
+    {
+        final List<String> common = new ArrayList<>( args );
+        File sharedCache = null;
+
+        if ( args.stream().noneMatch( a -> a.startsWith( "-D" + CACHE_DIR_PROPERTY + '=' ) ) )
+        {
+            try
+            {
+                sharedCache = Files.createTempDirectory( "pme-batch-cache" ).toFile();
+                common.add( "-D" + CACHE_DIR_PROPERTY + '=' + sharedCache );
+            }
+            catch ( IOException e )
+            {
+                logger.warn( "Unable to create shared cache directory; each root will use its own", e );
+            }
+        }
+        if ( args.stream().noneMatch( a -> a.startsWith( "-D" + REST_CACHE_PROPERTY + '=' ) ) )
+        {
+            common.add( "-D" + REST_CACHE_PROPERTY + "=true" );
+        }
+
+        final Result[] results = new Result[roots.size()];
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicInteger workerId = new AtomicInteger();
+        final int workers = Math.max( 1, Math.min( threads, roots.size() ) );
+        final ExecutorService executor = Executors.newFixedThreadPool( workers, r -> {
+            final Thread t = new Thread( r, "pme-batch-" + workerId.incrementAndGet() );
+            t.setDaemon( true );
+            return t;
+        } );
+
+        logger.info( "Processing {} roots with {} workers", roots.size(), workers );
+        try
+        {
+            for ( int i = 0; i < workers; i++ )
+            {
+                executor.execute( () -> {
+                    final Cli cli = new Cli();
+                    int index;
+                    while ( ( index = next.getAndIncrement() ) < roots.size() )
+                    {
+                        results[index] = process( cli, roots.get( index ), common );
+                    }
+                } );
+            }
+            executor.shutdown();
+            while ( !executor.awaitTermination( 1, TimeUnit.MINUTES ) )
+            {
+                logger.debug( "Waiting for batch to complete" );
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+        finally
+        {
+            FileUtils.deleteQuietly( sharedCache );
+            // The translations are only valid for this batch.
+            CachingTranslator.clear();
+        }
+
+        return summarise( results, summary );
+    }
+
+    private Result process( Cli cli, File pom, List<String> common )
+    {
+        final File dir = pom.getAbsoluteFile().getParentFile();
+        final String context = ( isNotEmpty( logContext ) ? logContext + ' ' : "" ) + dir.getName();
+        final List<String> rootArgs = new ArrayList<>( common );
+        Collections.addAll( rootArgs, "-f", pom.getPath(), "--log-context", context );
+
+        final long start = System.nanoTime();
+        int exitCode;
+        try
+        {
+            exitCode = cli.run( rootArgs.toArray( new String[0] ) );
+        }
+        catch ( RuntimeException e )
+        {
+            logger.error( "Processing {} failed", pom, e );
+            exitCode = 100;
+        }
+        finally
+        {
+            MDC.clear();
+        }
+        final Result result = new Result( pom, exitCode, TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ) );
+        logger.info( "Processed {} with exit code {} in {} ms", pom, exitCode, result.millis );
+        return result;
+    }
+
+    private int summarise( Result[] results, File summary )
+    {
+        final StringBuilder report = new StringBuilder();
+        int exitCode = 0;
+        int failed = 0;
+
+        for ( int i = 0; i < results.length; i++ )
+        {
+            // Only missing if the batch was interrupted.
+            final Result result = results[i] == null ? new Result( roots.get( i ), 100, 0 ) : results[i];
+            if ( result.exitCode != 0 )
+            {
+                failed++;
+            }
+            exitCode = Math.max( exitCode, result.exitCode );
+            report.append( String.format( "%-4d%10d ms  %s%n", result.exitCode, result.millis, result.pom ) );
+        }
+
+        logger.info( "Batch of {} roots completed with {} failures:{}{}", results.length, failed,
+                     System.lineSeparator(), report );
+        if ( summary != null )
+        {
+            try
+            {
+                FileUtils.writeStringToFile( summary, report.toString(), Charset.defaultCharset() );
+            }
+            catch ( IOException e )
+            {
+                logger.error( "Unable to write batch summary to {}", summary, e );
+                exitCode = Math.max( exitCode, 100 );
+            }
+        }
+        return exitCode;
+    }
+
+    private static class Result
+    {
+        private final File pom;
+
+        private final int exitCode;
+
+        private final long millis;
+
+        Result( File pom, int exitCode, long millis )
+        {
+            this.pom = pom;
+            this.exitCode = exitCode;
+            this.millis = millis;
+        }
+    }
+}
@@ -74,8 +74,10 @@ import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathFactory;
 import java.io.File;
+import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -90,6 +92,17 @@ public class Cli
     private static final File DEFAULT_GLOBAL_SETTINGS_FILE =
         new File( System.getenv( "M2_HOME" ), "conf/settings.xml" );
 
+    /**
+     * System property to fall back to scanning every class for components rather than using the Sisu index.
+     */
+    private static final String CLASSPATH_SCANNING_PROPERTY = "manipulator.classpath.scanning";
+
+    /**
+     * Options that are not passed on to the roots of a batch.
+     */
+    private static final Set<String> BATCH_OPTIONS = new HashSet<>(
+                    Arrays.asList( "batch", "batch-threads", "batch-summary", "f", "l", "d", "t", "log-context" ) );
+
     private final Logger logger = LoggerFactory.getLogger( getClass() );
 
     private ManipulationSession session;
@@ -103,7 +116,7 @@ public class Cli
     /**
      * Default pom file to operate against.
      */
-    private File target = new File( System.getProperty( "user.dir" ), "pom.xml" );
+    private File target;
 
     /**
      * Optional settings.xml file.
@@ -128,6 +141,11 @@ public class Cli
     @SuppressWarnings("WeakerAccess") // Public API.
     public int run( String[] args )
     {
+        // Reset any per-invocation configuration in case this instance is reused by a Daemon.
+        target = new File( System.getProperty( "user.dir" ), "pom.xml" );
+        settings = null;
+        userProps = null;
+
         Options options = new Options();
         options.addOption( "h", false, "Print this help message." );
         options.addOption( Option.builder( "d" ).longOpt( "debug" ).desc( "Enable debug" ).build() );
@@ -176,6 +194,31 @@ public class Cli
                                  .valueSeparator( '=' )
                                  .desc( "Java Properties" )
                                  .build() );
+        options.addOption( Option.builder()
+                                 .longOpt( "daemon" )
+                                 .desc( "Run as a daemon serving requests on the given local port" )
+                                 .numberOfArgs( 1 )
+                                 .build() );
+        options.addOption( Option.builder()
+                                 .longOpt( "daemon-token" )
+                                 .desc( "File the daemon writes the token clients must send to (default ~/.pme/daemon-<port>.token)" )
+                                 .numberOfArgs( 1 )
+                                 .build() );
+        options.addOption( Option.builder()
+                                 .longOpt( "batch" )
+                                 .desc( "Run against each project root listed in the manifest file, or comma separated" )
+                                 .numberOfArgs( 1 )
+                                 .build() );
+        options.addOption( Option.builder()
+                                 .longOpt( "batch-threads" )
+                                 .desc( "Number of project roots to process concurrently in batch mode" )
+                                 .numberOfArgs( 1 )
+                                 .build() );
+        options.addOption( Option.builder()
+                                 .longOpt( "batch-summary" )
+                                 .desc( "File to write the batch summary to" )
+                                 .numberOfArgs( 1 )
+                                 .build() );
         options.addOption( Option.builder( "x" )
                                  .hasArgs()
                                  .numberOfArgs( 2 )
@@ -202,7 +245,40 @@ public class Cli
         {
             HelpFormatter formatter = new HelpFormatter();
             formatter.printHelp( "...", options );
-            System.exit( 0 );
+            return 0;
+        }
+        if ( cmd.hasOption( "daemon" ) )
+        {
+            try
+            {
+                new Daemon( this, Integer.parseInt( cmd.getOptionValue( "daemon" ) ),
+                            cmd.hasOption( "daemon-token" ) ? new File( cmd.getOptionValue( "daemon-token" ) ) : null )
+                                .serve();
+                return 0;
+            }
+            catch ( NumberFormatException | IOException e )
+            {
+                logger.error( "Unable to run daemon", e );
+                return 100;
+            }
+        }
+        if ( cmd.hasOption( "batch" ) )
+        {
+            configureLogging( cmd );
+            try
+            {
+                final Batch batch = new Batch( Batch.parseRoots( cmd.getOptionValue( "batch" ) ), batchArguments( cmd ),
+                                               Integer.parseInt( cmd.getOptionValue( "batch-threads", "1" ) ),
+                                               cmd.getOptionValue( "log-context" ) );
+                return batch.run( cmd.hasOption( "batch-summary" ) ?
+                                                  new File( cmd.getOptionValue( "batch-summary" ) ) :
+                                                  null );
+            }
+            catch ( NumberFormatException | IOException e )
+            {
+                logger.error( "Unable to run batch", e );
+                return 100;
+            }
         }
         if ( cmd.hasOption( 'D' ) )
         {
@@ -226,44 +302,40 @@ public class Cli
             }
         }
 
-        createSession( target, settings );
-
-        final Logger rootLogger = LoggerFactory.getLogger( org.slf4j.Logger.ROOT_LOGGER_NAME );
-
-        final ch.qos.logback.classic.Logger root = (ch.qos.logback.classic.Logger) rootLogger;
-
-        if ( cmd.hasOption( 'l' ) )
+        if ( userProps == null )
         {
-            LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
-            loggerContext.reset();
-
-            PatternLayoutEncoder ple = new PatternLayoutEncoder();
-            ple.setPattern( "%mdc{LOG-CONTEXT}%level %logger{36} %msg%n" );
-            ple.setContext( loggerContext );
-            ple.start();
-
-            FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
-            fileAppender.setEncoder( ple );
-            fileAppender.setContext( loggerContext );
-            fileAppender.setName( "fileLogging" );
-            fileAppender.setAppend( false );
-            fileAppender.setFile( cmd.getOptionValue( "l" ) );
-            fileAppender.start();
-
-            root.addAppender( fileAppender );
-            root.setLevel( Level.INFO );
+            userProps = new Properties();
         }
-        // Set debug logging after session creation else we get the log filled with Plexus
-        // creation stuff.
-        if ( cmd.hasOption( 'd' ) )
+        if ( target.exists() )
         {
-            root.setLevel( Level.DEBUG );
+            try
+            {
+                mergeConfigFile( target, userProps );
+            }
+            catch ( ManipulationException e )
+            {
+                configureLogging( cmd );
+                logger.error( "POM Manipulation failed: Unable to read config file ", e );
+                return 10;
+            }
+
+            // Checked before the container is created so that a run with nothing to do is cheap. Don't bother
+            // skipping if we're just trying to analyse deps.
+            if ( !cmd.hasOption( 'p' ) && ManipulationManager.isUpToDate( target, userProps ) )
+            {
+                configureLogging( cmd );
+                logger.info( "Skipping manipulation as previous execution found." );
+                return 0;
+            }
         }
-        if ( cmd.hasOption( 't' ) )
+
+        if ( !createSession( target, settings ) )
         {
-            root.setLevel( Level.TRACE );
+            return 100;
         }
 
+        configureLogging( cmd );
+
         if ( !session.isEnabled() )
         {
             logger.info( "Manipulation engine disabled via command-line option" );
@@ -274,36 +346,6 @@ public class Cli
             logger.info( "Manipulation engine disabled. Project {} cannot be found.", target );
             return 10;
         }
-        // Don't bother skipping if we're just trying to analyse deps.
-        else if ( new File( target.getParentFile(), ManipulationManager.MARKER_FILE ).exists() && !cmd.hasOption( 'p' ) )
-        {
-            logger.info( "Skipping manipulation as previous execution found." );
-            return 0;
-        }
-        try
-        {
-            Properties config = new ConfigIO().parse( target.getParentFile() );
-            String value = session.getUserProperties().getProperty( "allowConfigFilePrecedence" );
-            if ( isNotEmpty( value ) && "true".equalsIgnoreCase( value ) )
-            {
-                session.getUserProperties().putAll( config );
-            }
-            else
-            {
-                for ( String key : config.stringPropertyNames() )
-                {
-                    if ( ! session.getUserProperties().containsKey( key ) )
-                    {
-                        session.getUserProperties().setProperty( key, config.getProperty(key) );
-                    }
-                }
-            }
-        }
-        catch ( ManipulationException e )
-        {
-            logger.error( "POM Manipulation failed: Unable to read config file ", e );
-            return 10;
-        }
 
         try
         {
@@ -421,20 +463,124 @@ public class Cli
         return 0;
     }
 
+    /**
+     * Rebuilds the arguments to pass to each root of a batch; the batch, POM and logging options are handled by the
+     * batch itself.
+     */
+    private List<String> batchArguments( CommandLine cmd )
+    {
+        final List<String> result = new ArrayList<>();
+        for ( Option option : cmd.getOptions() )
+        {
+            final String name = option.getOpt() != null ? option.getOpt() : option.getLongOpt();
+            if ( BATCH_OPTIONS.contains( name ) )
+            {
+                continue;
+            }
+            final String[] values = option.getValues() == null ? new String[0] : option.getValues();
+            if ( "D".equals( name ) )
+            {
+                result.add( "-D" + values[0] + ( values.length > 1 ? "=" + values[1] : "" ) );
+            }
+            else
+            {
+                result.add( option.getOpt() != null ? "-" + name : "--" + name );
+                Collections.addAll( result, values );
+            }
+        }
+        return result;
+    }
+
+    private void configureLogging( CommandLine cmd )
+    {
+        final Logger rootLogger = LoggerFactory.getLogger( org.slf4j.Logger.ROOT_LOGGER_NAME );
+
+        final ch.qos.logback.classic.Logger root = (ch.qos.logback.classic.Logger) rootLogger;
+
+        if ( cmd.hasOption( 'l' ) )
+        {
+            LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+            loggerContext.reset();
+
+            PatternLayoutEncoder ple = new PatternLayoutEncoder();
+            ple.setPattern( "%mdc{LOG-CONTEXT}%level %logger{36} %msg%n" );
+            ple.setContext( loggerContext );
+            ple.start();
+
+            FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
+            fileAppender.setEncoder( ple );
+            fileAppender.setContext( loggerContext );
+            fileAppender.setName( "fileLogging" );
+            fileAppender.setAppend( false );
+            fileAppender.setFile( cmd.getOptionValue( "l" ) );
+            fileAppender.start();
+
+            root.addAppender( fileAppender );
+            root.setLevel( Level.INFO );
+        }
+        // Set debug logging after session creation else we get the log filled with Plexus
+        // creation stuff.
+        if ( cmd.hasOption( 'd' ) )
+        {
+            root.setLevel( Level.DEBUG );
+        }
+        if ( cmd.hasOption( 't' ) )
+        {
+            root.setLevel( Level.TRACE );
+        }
+    }
+
+    /**
+     * Merges the properties of the config file next to the target into the user properties. Properties set on the
+     * command line take precedence unless allowConfigFilePrecedence is set.
+     */
+    private static void mergeConfigFile( File target, Properties userProps ) throws ManipulationException
+    {
+        Properties config = new ConfigIO().parse( target.getParentFile() );
+        String value = userProps.getProperty( "allowConfigFilePrecedence" );
+        if ( isNotEmpty( value ) && "true".equalsIgnoreCase( value ) )
+        {
+            userProps.putAll( config );
+        }
+        else
+        {
+            for ( String key : config.stringPropertyNames() )
+            {
+                if ( ! userProps.containsKey( key ) )
+                {
+                    userProps.setProperty( key, config.getProperty(key) );
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the session for this invocation. The container, and therefore the ManipulationManager, Galley
+     * infrastructure and REST clients it holds, is only created on the first invocation so that a {@link Daemon}
+     * reuses it; the session state is reset each time.
+     */
     @SuppressWarnings( "deprecation" )
-    private void createSession( File target, File settings )
+    private boolean createSession( File target, File settings )
     {
         try
         {
-            final DefaultContainerConfiguration config = new DefaultContainerConfiguration();
-            config.setClassPathScanning( PlexusConstants.SCANNING_ON );
-            config.setComponentVisibility( PlexusConstants.GLOBAL_VISIBILITY );
-            config.setName( "PME-CLI" );
-            container = new DefaultPlexusContainer(config);
-
-            pomIO = container.lookup( PomIO.class );
-            session = container.lookup( ManipulationSession.class );
-            manipulationManager = container.lookup( ManipulationManager.class );
+            if ( container == null )
+            {
+                final DefaultContainerConfiguration config = new DefaultContainerConfiguration();
+                // The Sisu index lists every component, so the (slow) scan of every class on the classpath is only
+                // needed for components packaged without one.
+                config.setClassPathScanning( Boolean.getBoolean( CLASSPATH_SCANNING_PROPERTY ) ?
+                                                             PlexusConstants.SCANNING_ON :
+                                                             PlexusConstants.SCANNING_INDEX );
+                config.setComponentVisibility( PlexusConstants.GLOBAL_VISIBILITY );
+                config.setName( "PME-CLI" );
+                container = new DefaultPlexusContainer( config );
+
+                pomIO = container.lookup( PomIO.class );
+                session = container.lookup( ManipulationSession.class );
+                manipulationManager = container.lookup( ManipulationManager.class );
+            }
+            session.reset();
 
             final MavenExecutionRequest req = new DefaultMavenExecutionRequest().setSystemProperties( System.getProperties() )
                                                                                 .setUserProperties( userProps )
@@ -480,25 +626,24 @@ public class Cli
             mavenSession.getRequest().setPom( target );
 
             session.setMavenSession( mavenSession );
+            return true;
         }
         catch ( ComponentLookupException | PlexusContainerException e )
         {
             logger.debug( "Caught problem instantiating ", e );
             System.err.println( "Unable to start Cli subsystem" );
-            System.exit( 100 );
         }
         catch ( SettingsBuildingException e )
         {
             logger.debug( "Caught problem parsing settings file ", e );
             System.err.println( "Unable to parse settings.xml file" );
-            System.exit( 100 );
         }
         catch ( MavenExecutionRequestPopulationException e )
         {
             logger.debug( "Caught problem populating maven request from settings file ", e );
             System.err.println( "Unable to create maven execution request from settings.xml file" );
-            System.exit( 100 );
         }
+        return false;
     }
 
     private Settings parseSettings( File settings ) throws ComponentLookupException, SettingsBuildingException
@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.cli;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.util.ContextInitializer;
+import ch.qos.logback.core.joran.spi.JoranException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Long lived process serving {@link Cli} invocations over a local socket, so that the Plexus container and the
+ * components it holds (ManipulationManager, Galley infrastructure, REST clients) are only created once.
+ * <p>
+ * The protocol is line based and UTF-8 encoded. A client connects to the loopback address and sends the token read
+ * from the token file, then each argument exactly as it would be passed to {@link Cli} on its own line, followed by
+ * an empty line. The token file is only readable by the owner of the daemon, so other local users cannot run
+ * arbitrary code (e.g. Groovy scripts) as that user; a connection without the token is closed without a reply. The daemon replies with a
+ * single line holding the exit code and closes the connection. As the daemon's working directory is unrelated to the
+ * client's, the POM should always be given with <code>-f</code>. A request consisting solely of <code>--stop</code>
+ * shuts the daemon down.
+ * <p>
+ * Requests are served one at a time; the session state is reset between requests. While the Galley cache directory
+ * and transfer limits are unchanged the transfer threads, connections and URL cache are reused, as is the REST
+ * translator while its configuration is unchanged; compiled Groovy scripts are shared by all requests.
+ */
+class Daemon
+{
+    static final String STOP = "--stop";
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final Cli cli;
+
+    private final ServerSocket server;
+
+    private final File tokenFile;
+
+    private final byte[] token;
+
+    /**
+     * @param cli the Cli instance to reuse for every request.
+     * @param port the local port to listen on; 0 chooses a free port.
+     * @param tokenFile the file to write the client token to; if null <code>~/.pme/daemon-&lt;port&gt;.token</code>.
+     * @throws IOException if the port cannot be bound or the token file cannot be written.
+     */
+    Daemon( Cli cli, int port, File tokenFile ) throws IOException
+    {
+        this.cli = cli;
+        this.server = new ServerSocket( port, 50, InetAddress.getLoopbackAddress() );
+        this.tokenFile = tokenFile == null ?
+                        new File( System.getProperty( "user.home" ), ".pme/daemon-" + getPort() + ".token" ) :
+                        tokenFile;
+
+        final byte[] random = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes( random );
+        this.token = Base64.getUrlEncoder().withoutPadding().encodeToString( random ).getBytes( StandardCharsets.UTF_8 );
+        try
+        {
+            writeToken( this.tokenFile.toPath(), token );
+        }
+        catch ( IOException e )
+        {
+            server.close();
+            throw e;
+        }
+    }
+
+    int getPort()
+    {
+        return server.getLocalPort();
+    }
+
+    File getTokenFile()
+    {
+        return tokenFile;
+    }
+
+    /**
+     * Create the token file (and its directory if missing) so that only the owner can access it. The permissions are
+     * set on creation so the token is never readable by others, even briefly.
+     */
+    private static void writeToken( Path file, byte[] token ) throws IOException
+    {
+        final Path dir = file.toAbsolutePath().getParent();
+        final boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains( "posix" );
+
+        if ( !Files.isDirectory( dir ) )
+        {
+            if ( posix )
+            {
+                Files.createDirectories( dir, PosixFilePermissions.asFileAttribute(
+                                PosixFilePermissions.fromString( "rwx------" ) ) );
+            }
+            else
+            {
+                Files.createDirectories( dir );
+            }
+        }
+
+        Files.deleteIfExists( file );
+        if ( posix )
+        {
+            Files.createFile( file, PosixFilePermissions.asFileAttribute(
+                            PosixFilePermissions.fromString( "rw-------" ) ) );
+        }
+        else
+        {
+            final File f = Files.createFile( file ).toFile();
+            f.setReadable( false, false );
+            f.setWritable( false, false );
+            f.setReadable( true, true );
+            f.setWritable( true, true );
+        }
+        Files.write( file, token );
+    }
+
+    /**
+     * Serve requests until a stop request is received.
+     *
+     * @throws IOException if the server socket fails.
+     */
+    void serve() throws IOException
+    {
+        logger.info( "PME daemon listening on {}:{} with token file {}", server.getInetAddress().getHostAddress(),
+                     getPort(), tokenFile );
+
+        try (ServerSocket ignored = server)
+        {
+            boolean running = true;
+            while ( running )
+            {
+                try (Socket socket = server.accept())
+                {
+                    running = handle( socket );
+                }
+                catch ( IOException e )
+                {
+                    logger.warn( "Failed to handle daemon request", e );
+                }
+            }
+        }
+        finally
+        {
+            Files.deleteIfExists( tokenFile.toPath() );
+        }
+        logger.info( "PME daemon stopped" );
+    }
+
+    private boolean handle( Socket socket ) throws IOException
+    {
+        final BufferedReader reader =
+                        new BufferedReader( new InputStreamReader( socket.getInputStream(), StandardCharsets.UTF_8 ) );
+
+        // Authenticate before reading, let alone running, anything.
+        final String received = reader.readLine();
+        if ( received == null || !MessageDigest.isEqual( token, received.getBytes( StandardCharsets.UTF_8 ) ) )
+        {
+            logger.warn( "Rejected daemon request from {} without a valid token", socket.getRemoteSocketAddress() );
+            return true;
+        }
+
+        final List<String> args = new ArrayList<>();
+        String line;
+        while ( ( line = reader.readLine() ) != null && !line.isEmpty() )
+        {
+            args.add( line );
+        }
+
+        final Writer writer = new OutputStreamWriter( socket.getOutputStream(), StandardCharsets.UTF_8 );
+        if ( args.size() == 1 && STOP.equals( args.get( 0 ) ) )
+        {
+            writer.write( "0\n" );
+            writer.flush();
+            return false;
+        }
+
+        int result;
+        try
+        {
+            result = cli.run( args.toArray( new String[0] ) );
+        }
+        catch ( RuntimeException e )
+        {
+            logger.error( "PME daemon request failed", e );
+            result = 100;
+        }
+        finally
+        {
+            resetLogging();
+        }
+
+        writer.write( Integer.toString( result ) );
+        writer.write( '\n' );
+        writer.flush();
+        return true;
+    }
+
+    /**
+     * Cli may add file appenders, change levels or set a log context; restore the default configuration so a request
+     * does not affect the next.
+     */
+    private void resetLogging()
+    {
+        MDC.clear();
+
+        if ( LoggerFactory.getILoggerFactory() instanceof LoggerContext )
+        {
+            final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+            context.reset();
+            try
+            {
+                new ContextInitializer( context ).autoConfig();
+            }
+            catch ( JoranException e )
+            {
+                logger.warn( "Unable to restore logging configuration", e );
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.cli;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.java.lang.system.SystemOutRule;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BatchTest
+{
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Rule
+    public final SystemOutRule systemRule = new SystemOutRule().enableLog().muteForSuccessfulTests();
+
+    private File writeProject( String artifactId ) throws IOException
+    {
+        final File root = temp.newFolder( artifactId );
+        FileUtils.writeStringToFile( new File( root, "pom.xml" ),
+                                     "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                                                     + "  <modelVersion>4.0.0</modelVersion>\n"
+                                                     + "  <groupId>org.foo</groupId>\n"
+                                                     + "  <artifactId>" + artifactId + "</artifactId>\n"
+                                                     + "  <version>1.0</version>\n</project>\n",
+                                     Charset.defaultCharset() );
+        return root;
+    }
+
+    @Test
+    public void testParseRoots() throws Exception
+    {
+        final File first = writeProject( "first" );
+        final File manifest = temp.newFile( "roots.txt" );
+        FileUtils.writeLines( manifest, Arrays.asList( "# Roots", "", "first", first.getAbsolutePath() + "/pom.xml" ) );
+
+        final List<File> roots = Batch.parseRoots( manifest.getPath() );
+        assertEquals( 2, roots.size() );
+        assertEquals( new File( first, "pom.xml" ), roots.get( 0 ) );
+        assertEquals( new File( first, "pom.xml" ), roots.get( 1 ) );
+
+        assertEquals( Arrays.asList( new File( first, "pom.xml" ), new File( "missing" ) ),
+                      Batch.parseRoots( first.getPath() + ",missing" ) );
+    }
+
+    @Test
+    public void testBatch() throws Exception
+    {
+        final File first = writeProject( "first" );
+        final File second = writeProject( "second" );
+        final File missing = new File( temp.getRoot(), "missing" );
+        final File summary = new File( temp.getRoot(), "summary.txt" );
+
+        final int result = new Cli().run( new String[] {
+                        "--batch", first + "," + second + "," + missing, "--batch-threads", "2",
+                        "--batch-summary", summary.getPath(),
+                        "--settings=" + getClass().getResource( "/settings-test.xml" ).getFile(),
+                        "-Dmaven.repo.local=" + temp.newFolder(), "-DversionSuffix=rebuild-1" } );
+
+        // The missing root fails; the others are still processed.
+        assertEquals( 10, result );
+        assertTrue( FileUtils.readFileToString( new File( first, "pom.xml" ), Charset.defaultCharset() )
+                             .contains( "rebuild-1" ) );
+        assertTrue( FileUtils.readFileToString( new File( second, "pom.xml" ), Charset.defaultCharset() )
+                             .contains( "rebuild-1" ) );
+
+        final List<String> lines = FileUtils.readLines( summary, Charset.defaultCharset() );
+        assertEquals( 3, lines.size() );
+        assertTrue( lines.get( 0 ).startsWith( "0 " ) );
+        assertTrue( lines.get( 1 ).startsWith( "0 " ) );
+        assertTrue( lines.get( 2 ).startsWith( "10 " ) );
+    }
+}
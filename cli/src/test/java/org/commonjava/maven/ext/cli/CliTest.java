@@ -18,8 +18,10 @@ package org.commonjava.maven.ext.cli;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.reflect.FieldUtils;
 import org.apache.maven.execution.MavenSession;
+import org.commonjava.maven.ext.core.ManipulationManager;
 import org.commonjava.maven.ext.core.ManipulationSession;
 import org.commonjava.maven.ext.core.fixture.TestUtils;
+import org.commonjava.maven.ext.core.util.BuildFingerprint;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.contrib.java.lang.system.SystemOutRule;
@@ -32,9 +34,13 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Properties;
 import java.util.UUID;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class CliTest
@@ -225,4 +231,30 @@ public class CliTest
         assertEquals( ms.getRequest().getLocalRepository().getBasedir(),
                       ms.getRequest().getLocalRepositoryPath().toString() );
     }
+
+    @Test
+    public void checkUpToDateSkipsBeforeSessionCreation() throws Exception
+    {
+        final File root = temp.newFolder();
+        final File pom = new File( root, "pom.xml" );
+        FileUtils.writeStringToFile( pom, "<project/>", Charset.defaultCharset() );
+
+        final Properties userProps = new Properties();
+        userProps.setProperty( "versionSuffix", "redhat-1" );
+        BuildFingerprint.of( userProps )
+                        .write( new File( root, ManipulationManager.MARKER_FILE ), Collections.singletonList( pom ) );
+
+        Cli c = new Cli();
+        assertEquals( 0, TestUtils.executeMethod( c, "run", new Object[] {
+                        new String[] { "-DversionSuffix=redhat-1", "-f", pom.toString() } } ) );
+
+        assertTrue( systemRule.getLog().contains( "Skipping manipulation as previous execution found." ) );
+        assertNull( "Session should not have been created", FieldUtils.readField( c, "session", true ) );
+
+        // Different inputs must not be skipped.
+        c = new Cli();
+        TestUtils.executeMethod( c, "run", new Object[] {
+                        new String[] { "-DversionSuffix=redhat-2", "-f", pom.toString() } } );
+        assertNotNull( FieldUtils.readField( c, "session", true ) );
+    }
 }
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.cli;
+
+import org.apache.commons.lang.reflect.FieldUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.java.lang.system.SystemOutRule;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DaemonTest
+{
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Rule
+    public final SystemOutRule systemRule = new SystemOutRule().enableLog().muteForSuccessfulTests();
+
+    @Test
+    public void testRequests() throws Exception
+    {
+        final Cli cli = new Cli();
+        final Daemon daemon = new Daemon( cli, 0, new File( temp.getRoot(), "daemon.token" ) );
+        final Thread thread = start( daemon );
+
+        final File missing = new File( temp.getRoot(), "missing-pom.xml" );
+
+        assertEquals( "10", send( daemon.getPort(), "-f", missing.getAbsolutePath() ) );
+        final Object container = FieldUtils.readField( cli, "container", true );
+        assertNotNull( container );
+
+        assertEquals( "10", send( daemon.getPort(), "-f", missing.getAbsolutePath() ) );
+        assertSame( container, FieldUtils.readField( cli, "container", true ) );
+
+        assertEquals( "0", send( daemon.getPort(), Daemon.STOP ) );
+        thread.join( TimeUnit.SECONDS.toMillis( 10 ) );
+        assertFalse( thread.isAlive() );
+        assertFalse( daemon.getTokenFile().exists() );
+    }
+
+    @Test
+    public void testRejectsRequestWithoutToken() throws Exception
+    {
+        final Cli cli = new Cli();
+        final Daemon daemon = new Daemon( cli, 0, new File( temp.getRoot(), "daemon.token" ) );
+        final Thread thread = start( daemon );
+
+        if ( FileSystems.getDefault().supportedFileAttributeViews().contains( "posix" ) )
+        {
+            assertEquals( PosixFilePermissions.fromString( "rw-------" ),
+                          Files.getPosixFilePermissions( daemon.getTokenFile().toPath() ) );
+        }
+
+        final File missing = new File( temp.getRoot(), "missing-pom.xml" );
+        assertRejected( daemon.getPort(), null, "-f", missing.getAbsolutePath() );
+        assertRejected( daemon.getPort(), "wrong", "-f", missing.getAbsolutePath() );
+        assertRejected( daemon.getPort(), "wrong", Daemon.STOP );
+        // Nothing was run.
+        assertNull( FieldUtils.readField( cli, "container", true ) );
+        assertTrue( thread.isAlive() );
+
+        assertEquals( "0", send( daemon.getPort(), Daemon.STOP ) );
+        thread.join( TimeUnit.SECONDS.toMillis( 10 ) );
+        assertFalse( thread.isAlive() );
+    }
+
+    private void assertRejected( int port, String token, String... args ) throws Exception
+    {
+        try
+        {
+            assertNull( "Expected no reply", sendWithToken( port, token, args ) );
+        }
+        catch ( SocketException e )
+        {
+            // The daemon may close the connection before the client has finished.
+        }
+    }
+
+    private static Thread start( Daemon daemon )
+    {
+        final Thread thread = new Thread( () -> {
+            try
+            {
+                daemon.serve();
+            }
+            catch ( Exception e )
+            {
+                throw new RuntimeException( e );
+            }
+        } );
+        thread.start();
+        return thread;
+    }
+
+    private String send( int port, String... args ) throws Exception
+    {
+        final File tokenFile = new File( temp.getRoot(), "daemon.token" );
+        return sendWithToken( port, new String( Files.readAllBytes( tokenFile.toPath() ), StandardCharsets.UTF_8 ),
+                              args );
+    }
+
+    private String sendWithToken( int port, String token, String... args ) throws Exception
+    {
+        try (Socket socket = new Socket( InetAddress.getLoopbackAddress(), port ))
+        {
+            final Writer writer = new OutputStreamWriter( socket.getOutputStream(), StandardCharsets.UTF_8 );
+            if ( token != null )
+            {
+                writer.write( token + '\n' );
+            }
+            for ( String arg : args )
+            {
+                writer.write( arg + '\n' );
+            }
+            writer.write( '\n' );
+            writer.flush();
+
+            return new BufferedReader( new InputStreamReader( socket.getInputStream(), StandardCharsets.UTF_8 ) )
+                            .readLine();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.cli;
+
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time for a fresh JVM running {@link Cli} to complete a trivial manipulation (a version suffix on a
+ * single module project), which is dominated by JVM and container startup. Each iteration forks a new JVM with the
+ * current classpath. Not run as part of the build; run with e.g.
+ * <pre>
+ * mvn -pl cli test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.commonjava.maven.ext.cli.StartupBenchmark -Dexec.args="10"
+ * </pre>
+ * Extra arguments are passed as JVM options to the forked process, e.g. <code>-Dmanipulator.classpath.scanning=true</code>
+ * to compare against scanning the classpath.
+ */
+public class StartupBenchmark
+{
+    private static final String POM = "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                    + "  <modelVersion>4.0.0</modelVersion>\n"
+                    + "  <groupId>org.foo</groupId>\n"
+                    + "  <artifactId>startup</artifactId>\n"
+                    + "  <version>1.0</version>\n"
+                    + "</project>\n";
+
+    public static void main( String[] args ) throws Exception
+    {
+        final int iterations = args.length > 0 ? Integer.parseInt( args[0] ) : 5;
+        final List<String> jvmOptions = args.length > 1 ? Arrays.asList( args ).subList( 1, args.length ) :
+                        Collections.emptyList();
+
+        final File dir = Files.createTempDirectory( "pme-startup" ).toFile();
+        final File pom = new File( dir, "pom.xml" );
+        final List<Long> times = new ArrayList<>();
+
+        try
+        {
+            for ( int i = 0; i < iterations; i++ )
+            {
+                FileUtils.writeStringToFile( pom, POM, Charset.defaultCharset() );
+                FileUtils.deleteQuietly( new File( dir, "target" ) );
+
+                final List<String> command = new ArrayList<>();
+                command.add( new File( System.getProperty( "java.home" ), "bin/java" ).getPath() );
+                command.addAll( jvmOptions );
+                Collections.addAll( command, "-cp", System.getProperty( "java.class.path" ), Cli.class.getName(), "-f",
+                                    pom.getPath(), "-DversionSuffix=startup-1",
+                                    "-Dmaven.repo.local=" + new File( dir, "repository" ) );
+
+                final long start = System.nanoTime();
+                final Process process = new ProcessBuilder( command ).redirectErrorStream( true )
+                                                                     .redirectOutput( new File( dir, "output.log" ) )
+                                                                     .start();
+                final int exitCode = process.waitFor();
+                final long elapsed = TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start );
+
+                if ( exitCode != 0 || !FileUtils.readFileToString( pom, Charset.defaultCharset() )
+                                                  .contains( "startup-1" ) )
+                {
+                    throw new IllegalStateException( "Manipulation failed with exit code " + exitCode + "; see "
+                                                                     + new File( dir, "output.log" ) );
+                }
+                System.out.println( "Iteration " + ( i + 1 ) + ": " + elapsed + " ms" );
+                times.add( elapsed );
+            }
+
+            Collections.sort( times );
+            System.out.println( "Time to manipulate trivial project over " + iterations + " runs: min " + times.get(
+                            0 ) + " ms, median " + times.get( times.size() / 2 ) + " ms, max " + times.get(
+                            times.size() - 1 ) + " ms" );
+        }
+        finally
+        {
+            FileUtils.deleteQuietly( dir );
+        }
+    }
+}
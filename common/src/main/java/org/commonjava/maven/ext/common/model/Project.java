@@ -17,16 +17,18 @@ package org.commonjava.maven.ext.common.model;
 
 import org.apache.maven.model.Activation;
 import org.apache.maven.model.ActivationProperty;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.BuildBase;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.model.DependencyManagement;
 import org.apache.maven.model.Model;
+import org.apache.maven.model.ModelBase;
 import org.apache.maven.model.Parent;
 import org.apache.maven.model.Plugin;
 import org.apache.maven.model.PluginManagement;
 import org.apache.maven.model.Profile;
 import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
-import org.commonjava.maven.atlas.ident.ref.SimpleArtifactRef;
 import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
 import org.commonjava.maven.atlas.ident.util.VersionUtils;
 import org.commonjava.maven.ext.common.ManipulationException;
@@ -41,10 +43,12 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.Properties;
 
 import static org.apache.commons.lang.StringUtils.isEmpty;
 import static org.apache.commons.lang.StringUtils.isNotEmpty;
@@ -137,6 +141,142 @@ public class Project
         }
     }
 
+    private Project( final Project original, final Model model )
+    {
+        this.pom = original.pom;
+        this.model = model;
+        this.inheritanceRoot = original.inheritanceRoot;
+        this.executionRoot = original.executionRoot;
+        this.incrementalPME = original.incrementalPME;
+    }
+
+    /**
+     * Snapshot projects so that they may later be compared against their modified versions, as
+     * {@link org.commonjava.maven.ext.common.util.ProjectComparator} does. Unlike the copy constructor each project is
+     * copied only once, the snapshot of a module referring to the snapshot of its parent rather than a copy of the
+     * whole parent chain, and the copied model is restricted to what may be compared: the coordinates, properties,
+     * dependencies, plugin coordinates and profiles.
+     *
+     * @param projects the projects to snapshot.
+     * @return a snapshot of each project, in the same order.
+     */
+    public static List<Project> snapshot( final List<Project> projects )
+    {
+        final Map<Project, Project> snapshots = new IdentityHashMap<>();
+        final List<Project> result = new ArrayList<>( projects.size() );
+
+        for ( Project project : projects )
+        {
+            result.add( snapshot( project, snapshots ) );
+        }
+        return result;
+    }
+
+    private static Project snapshot( final Project original, final Map<Project, Project> snapshots )
+    {
+        Project result = snapshots.get( original );
+        if ( result == null )
+        {
+            result = new Project( original, snapshotModel( original.model ) );
+            if ( original.projectParent != null )
+            {
+                result.projectParent = snapshot( original.projectParent, snapshots );
+            }
+            snapshots.put( original, result );
+        }
+        return result;
+    }
+
+    private static Model snapshotModel( final Model original )
+    {
+        final Model result = new Model();
+
+        result.setModelVersion( original.getModelVersion() );
+        result.setGroupId( original.getGroupId() );
+        result.setArtifactId( original.getArtifactId() );
+        result.setVersion( original.getVersion() );
+        result.setPackaging( original.getPackaging() );
+        result.setPomFile( original.getPomFile() );
+        if ( original.getParent() != null )
+        {
+            result.setParent( original.getParent().clone() );
+        }
+        snapshotModelBase( original, result );
+
+        if ( original.getBuild() != null )
+        {
+            final Build build = new Build();
+            snapshotBuildBase( original.getBuild(), build );
+            result.setBuild( build );
+        }
+        for ( Profile profile : original.getProfiles() )
+        {
+            final Profile copy = new Profile();
+            copy.setId( profile.getId() );
+            copy.setSource( profile.getSource() );
+            if ( profile.getActivation() != null )
+            {
+                copy.setActivation( profile.getActivation().clone() );
+            }
+            snapshotModelBase( profile, copy );
+
+            if ( profile.getBuild() != null )
+            {
+                final BuildBase build = new BuildBase();
+                snapshotBuildBase( profile.getBuild(), build );
+                copy.setBuild( build );
+            }
+            result.addProfile( copy );
+        }
+        return result;
+    }
+
+    private static void snapshotModelBase( final ModelBase original, final ModelBase result )
+    {
+        final Properties properties = new Properties();
+        properties.putAll( original.getProperties() );
+        result.setProperties( properties );
+
+        for ( Dependency dependency : original.getDependencies() )
+        {
+            result.addDependency( dependency.clone() );
+        }
+        if ( original.getDependencyManagement() != null )
+        {
+            result.setDependencyManagement( original.getDependencyManagement().clone() );
+        }
+    }
+
+    private static void snapshotBuildBase( final BuildBase original, final BuildBase result )
+    {
+        for ( Plugin plugin : original.getPlugins() )
+        {
+            result.addPlugin( snapshotPlugin( plugin ) );
+        }
+        if ( original.getPluginManagement() != null )
+        {
+            final PluginManagement pluginManagement = new PluginManagement();
+            for ( Plugin plugin : original.getPluginManagement().getPlugins() )
+            {
+                pluginManagement.addPlugin( snapshotPlugin( plugin ) );
+            }
+            result.setPluginManagement( pluginManagement );
+        }
+    }
+
+    /**
+     * Plugins are only compared by their coordinates, so their configuration, executions and dependencies, often the
+     * bulk of a model, are not copied.
+     */
+    private static Plugin snapshotPlugin( final Plugin original )
+    {
+        final Plugin result = new Plugin();
+        result.setGroupId( original.getGroupId() );
+        result.setArtifactId( original.getArtifactId() );
+        result.setVersion( original.getVersion() );
+        return result;
+    }
+
     @Override
     public int hashCode()
     {
@@ -554,7 +694,7 @@ public class Project
             }
             if ( isNotEmpty( g ) && isNotEmpty( a ) && isNotEmpty( v ) )
             {
-                SimpleArtifactRef sar = new SimpleArtifactRef( g, a, v, d.getType(), d.getClassifier() );
+                ArtifactRef sar = session.getCoordinatePool().artifactRef( g, a, v, d.getType(), d.getClassifier() );
 
                 // If the GAVTC already exists within the map it means we have a duplicate entry. While Maven
                 // technically allows this it does warn that this leads to unstable models. In PME case this breaks
@@ -609,7 +749,7 @@ public class Project
             // this means managed plugins would be included which confuses things.
             if ( isNotEmpty( g ) && isNotEmpty( a ) && isNotEmpty( v ) )
             {
-                SimpleProjectVersionRef spv = new SimpleProjectVersionRef( g, a, v );
+                ProjectVersionRef spv = session.getCoordinatePool().projectVersionRef( g, a, v );
 
                 // If the GAV already exists within the map it means we have a duplicate entry. While Maven
                 // technically allows this it does warn that this leads to unstable models. In PME case this breaks
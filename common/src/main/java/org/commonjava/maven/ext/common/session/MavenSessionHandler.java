@@ -18,6 +18,8 @@ package org.commonjava.maven.ext.common.session;
 import org.apache.maven.artifact.repository.ArtifactRepository;
 import org.apache.maven.settings.Settings;
 import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.common.util.CoordinatePool;
+import org.commonjava.maven.ext.common.util.Deadline;
 
 import java.io.File;
 import java.util.List;
@@ -40,4 +42,20 @@ public interface MavenSessionHandler
     Settings getSettings();
 
     List<String> getExcludedScopes();
+
+    /**
+     * @return the deadline of the current run; by default there is none.
+     */
+    default Deadline getDeadline()
+    {
+        return Deadline.NONE;
+    }
+
+    /**
+     * @return the pool to allocate coordinates of the current run through; by default nothing is pooled.
+     */
+    default CoordinatePool getCoordinatePool()
+    {
+        return CoordinatePool.NONE;
+    }
 }
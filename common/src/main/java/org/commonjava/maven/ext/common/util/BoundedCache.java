@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A concurrent cache holding at most a fixed number of entries, for values that are cheap to recompute but are
+ * looked up far more often than they change (e.g. compiled patterns or parsed versions). Once the limit is reached the
+ * cache is simply emptied, so a long-lived process (e.g. the daemon) cannot grow it without bound while a normal run
+ * never reaches the limit.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values.
+ */
+public final class BoundedCache<K, V>
+{
+    private final Map<K, V> entries = new ConcurrentHashMap<>();
+
+    private final int limit;
+
+    /**
+     * @param limit the maximum number of entries.
+     */
+    public BoundedCache( int limit )
+    {
+        this.limit = limit;
+    }
+
+    /**
+     * @param key the key.
+     * @return the cached value, or null if absent.
+     */
+    public V get( K key )
+    {
+        return entries.get( key );
+    }
+
+    /**
+     * Return the value for the key, computing and storing it if absent. The value is computed outside of any lock, so
+     * concurrent callers may compute it more than once, but all receive the same stored instance.
+     *
+     * @param key the key.
+     * @param compute computes the value for an absent key; must not return null.
+     * @return the cached value.
+     */
+    public V computeIfAbsent( K key, Function<? super K, ? extends V> compute )
+    {
+        V result = entries.get( key );
+        if ( result == null )
+        {
+            if ( entries.size() >= limit )
+            {
+                entries.clear();
+            }
+            result = compute.apply( key );
+            final V existing = entries.putIfAbsent( key, result );
+            if ( existing != null )
+            {
+                result = existing;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of entries currently held.
+     */
+    public int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public void clear()
+    {
+        entries.clear();
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.util;
+
+import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonical instances of coordinate strings and refs for a run.
+ * <p>
+ * The same groupId, artifactId and version are resolved over and over again, once per module, profile and pass that
+ * examines them. Allocating them through the pool means that a run holds a single instance of each distinct string and
+ * ref. Besides the memory this saves, hash codes of pooled strings are computed only once and the version of a pooled
+ * ref is only parsed once, however many maps it is used in.
+ * <p>
+ * Refs are immutable so sharing them is safe. The pool only grows, so it must be cleared (or discarded) between runs.
+ */
+public class CoordinatePool
+{
+    /**
+     * A pool that does not retain anything, returning its arguments and new refs.
+     */
+    public static final CoordinatePool NONE = new CoordinatePool( false );
+
+    private final boolean enabled;
+
+    private final Map<String, String> strings = new ConcurrentHashMap<>();
+
+    private final Map<ProjectRef, ProjectRef> projectRefs = new ConcurrentHashMap<>();
+
+    private final Map<ProjectVersionRef, ProjectVersionRef> projectVersionRefs = new ConcurrentHashMap<>();
+
+    private final Map<ArtifactRef, ArtifactRef> artifactRefs = new ConcurrentHashMap<>();
+
+    public CoordinatePool()
+    {
+        this( true );
+    }
+
+    private CoordinatePool( boolean enabled )
+    {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @param value a coordinate, may be null.
+     * @return the pooled instance equal to value.
+     */
+    public String intern( String value )
+    {
+        if ( !enabled || value == null )
+        {
+            return value;
+        }
+        final String existing = strings.putIfAbsent( value, value );
+        return existing == null ? value : existing;
+    }
+
+    public ProjectRef projectRef( String groupId, String artifactId )
+    {
+        return intern( projectRefs, new SimpleProjectRef( intern( groupId ), intern( artifactId ) ) );
+    }
+
+    public ProjectVersionRef projectVersionRef( String groupId, String artifactId, String version )
+    {
+        return intern( projectVersionRefs,
+                       new SimpleProjectVersionRef( intern( groupId ), intern( artifactId ), intern( version ) ) );
+    }
+
+    public ArtifactRef artifactRef( String groupId, String artifactId, String version, String type,
+                                    String classifier )
+    {
+        return intern( artifactRefs,
+                       new SimpleArtifactRef( intern( groupId ), intern( artifactId ), intern( version ), intern( type ),
+                                              intern( classifier ) ) );
+    }
+
+    /**
+     * @return the number of pooled strings and refs.
+     */
+    public int size()
+    {
+        return strings.size() + projectRefs.size() + projectVersionRefs.size() + artifactRefs.size();
+    }
+
+    public void clear()
+    {
+        strings.clear();
+        projectRefs.clear();
+        projectVersionRefs.clear();
+        artifactRefs.clear();
+    }
+
+    private <T> T intern( Map<T, T> pool, T value )
+    {
+        if ( !enabled )
+        {
+            return value;
+        }
+        final T existing = pool.putIfAbsent( value, value );
+        return existing == null ? value : existing;
+    }
+}
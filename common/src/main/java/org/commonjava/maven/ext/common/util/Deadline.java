@@ -0,0 +1,293 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.util;
+
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An upper bound on the duration of a manipulation run.
+ * <p>
+ * Long running work (REST calls, remote transfers, Groovy scripts, manipulators) registers itself via
+ * {@link #track(String, Runnable)} for as long as it is in flight. When the deadline expires every registered piece of
+ * work is cancelled, by default by interrupting the thread that registered it, and {@link #check()} fails with a
+ * description of what was still pending. Blocking calls that cannot be interrupted should instead be bounded by
+ * {@link #limitMillis(int)} or {@link #limitSeconds(int)}.
+ */
+public class Deadline
+    implements AutoCloseable
+{
+    /**
+     * A deadline that never expires.
+     */
+    public static final Deadline NONE = new Deadline( 0 );
+
+    private static final Logger logger = LoggerFactory.getLogger( Deadline.class );
+
+    private final long timeoutMillis;
+
+    private final long expiry;
+
+    private final Set<Pending> pending = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledFuture<?> timer;
+
+    private volatile List<String> pendingAtExpiry;
+
+    private Deadline( long timeoutMillis )
+    {
+        this.timeoutMillis = timeoutMillis;
+        this.expiry = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( timeoutMillis );
+        this.timer = timeoutMillis > 0 ? Timer.INSTANCE.schedule( this::expire, timeoutMillis, TimeUnit.MILLISECONDS ) :
+                        null;
+    }
+
+    /**
+     * @param timeout the duration of the run.
+     * @param unit the unit of the duration.
+     * @return a deadline expiring after the duration, or {@link #NONE} if it is not positive.
+     */
+    public static Deadline after( long timeout, TimeUnit unit )
+    {
+        return timeout > 0 ? new Deadline( unit.toMillis( timeout ) ) : NONE;
+    }
+
+    public boolean isEnabled()
+    {
+        return timeoutMillis > 0;
+    }
+
+    public boolean isExpired()
+    {
+        if ( isEnabled() && pendingAtExpiry == null && System.nanoTime() - expiry >= 0 )
+        {
+            // The timer may not have fired yet.
+            expire();
+        }
+        return pendingAtExpiry != null;
+    }
+
+    /**
+     * @return the milliseconds until the deadline expires; {@link Long#MAX_VALUE} if it never does.
+     */
+    public long remainingMillis()
+    {
+        if ( !isEnabled() )
+        {
+            return Long.MAX_VALUE;
+        }
+        // Round up so that waiting for the time remaining always reaches the deadline.
+        return Math.max( 0, TimeUnit.NANOSECONDS.toMillis( expiry - System.nanoTime() + 999999 ) );
+    }
+
+    /**
+     * @param timeoutMillis a timeout in milliseconds, where zero or less means none.
+     * @return the timeout, reduced to the time remaining if that is shorter. If the deadline is enabled the result is
+     * always positive.
+     */
+    public int limitMillis( int timeoutMillis )
+    {
+        if ( !isEnabled() )
+        {
+            return timeoutMillis;
+        }
+        final long remaining = Math.max( 1, remainingMillis() );
+        return (int) ( timeoutMillis > 0 ? Math.min( timeoutMillis, remaining ) : Math.min( Integer.MAX_VALUE, remaining ) );
+    }
+
+    /**
+     * @param timeoutSeconds a timeout in seconds, where zero or less means none.
+     * @return the timeout, reduced to the time remaining (rounded up) if that is shorter. If the deadline is enabled
+     * the result is always positive.
+     */
+    public int limitSeconds( int timeoutSeconds )
+    {
+        if ( !isEnabled() )
+        {
+            return timeoutSeconds;
+        }
+        final long remaining = Math.max( 1, TimeUnit.MILLISECONDS.toSeconds( remainingMillis() + 999 ) );
+        return (int) ( timeoutSeconds > 0 ? Math.min( timeoutSeconds, remaining ) : remaining );
+    }
+
+    /**
+     * Register work running on the current thread, which is interrupted should the deadline expire.
+     *
+     * @param description what the work is, for the diagnostic.
+     * @return the registration, to be closed once the work completes.
+     */
+    public Pending track( String description )
+    {
+        final Thread thread = Thread.currentThread();
+        return track( description, thread, thread::interrupt );
+    }
+
+    /**
+     * Register work which is cancelled via the supplied action should the deadline expire.
+     *
+     * @param description what the work is, for the diagnostic.
+     * @param cancel cancels the work.
+     * @return the registration, to be closed once the work completes.
+     */
+    public Pending track( String description, Runnable cancel )
+    {
+        return track( description, null, cancel );
+    }
+
+    private Pending track( String description, Thread thread, Runnable cancel )
+    {
+        final Pending result = new Pending( description, thread, cancel );
+        if ( isEnabled() )
+        {
+            pending.add( result );
+            if ( pendingAtExpiry != null )
+            {
+                result.cancel();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @throws ManipulationException if the deadline has expired, describing the work that was pending at the time.
+     */
+    public void check() throws ManipulationException
+    {
+        if ( isExpired() )
+        {
+            throw exceeded( null );
+        }
+    }
+
+    /**
+     * @param cause the failure of the cancelled work, if any.
+     * @return an exception describing the expiry of the deadline and the work that was pending at the time.
+     */
+    public ManipulationException exceeded( Throwable cause )
+    {
+        final List<String> described = pendingAtExpiry == null ? describePending() : pendingAtExpiry;
+        return new ManipulationException( "Manipulation exceeded its deadline of {} seconds; still pending: {}", cause,
+                                          TimeUnit.MILLISECONDS.toSeconds( timeoutMillis ),
+                                          described.isEmpty() ? "nothing" : String.join( ", ", described ) );
+    }
+
+    /**
+     * @return the descriptions of the work currently in flight.
+     */
+    public List<String> describePending()
+    {
+        final List<String> result = new ArrayList<>();
+        pending.forEach( p -> result.add( p.description ) );
+        return result;
+    }
+
+    private synchronized void expire()
+    {
+        if ( pendingAtExpiry != null )
+        {
+            return;
+        }
+        pendingAtExpiry = describePending();
+        logger.error( "Manipulation exceeded its deadline of {} seconds; cancelling {}",
+                      TimeUnit.MILLISECONDS.toSeconds( timeoutMillis ), pendingAtExpiry );
+        pending.forEach( Pending::cancel );
+    }
+
+    /**
+     * Stop the timer, e.g. once the run has completed.
+     */
+    @Override
+    public void close()
+    {
+        if ( timer != null )
+        {
+            timer.cancel( false );
+        }
+    }
+
+    /**
+     * Registration of work in flight.
+     */
+    public class Pending
+        implements AutoCloseable
+    {
+        private final String description;
+
+        private final Thread thread;
+
+        private final Runnable cancel;
+
+        private boolean cancelled;
+
+        private boolean closed;
+
+        private Pending( String description, Thread thread, Runnable cancel )
+        {
+            this.description = description;
+            this.thread = thread;
+            this.cancel = cancel;
+        }
+
+        private synchronized void cancel()
+        {
+            if ( !closed && !cancelled )
+            {
+                cancelled = true;
+                cancel.run();
+            }
+        }
+
+        /**
+         * Deregister the work. Clears any interrupt delivered by the deadline so that the thread may be reused.
+         */
+        @Override
+        public void close()
+        {
+            // Should the deadline have just passed, ensure this work is reported as pending.
+            isExpired();
+
+            synchronized ( this )
+            {
+                closed = true;
+                pending.remove( this );
+                if ( cancelled && thread == Thread.currentThread() )
+                {
+                    //noinspection ResultOfMethodCallIgnored
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+
+    private static class Timer
+    {
+        private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor( r -> {
+            final Thread t = new Thread( r, "pme-deadline" );
+            t.setDaemon( true );
+            return t;
+        } );
+    }
+}
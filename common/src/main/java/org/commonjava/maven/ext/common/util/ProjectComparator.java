@@ -13,31 +13,40 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.commonjava.maven.ext.common.util;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.lang.StringUtils;
 import org.apache.maven.model.Profile;
 import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
 import org.commonjava.maven.ext.common.ManipulationException;
-import org.commonjava.maven.ext.common.ManipulationUncheckedException;
 import org.commonjava.maven.ext.common.model.Project;
 import org.commonjava.maven.ext.common.session.MavenSessionHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.helpers.MessageFormatter;
 
+import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import static org.apache.commons.lang.StringUtils.isNotEmpty;
@@ -52,6 +61,15 @@ import static org.commonjava.maven.ext.common.util.ProjectComparator.Type.PROFIL
 import static org.commonjava.maven.ext.common.util.ProjectComparator.Type.PROFILE_MANAGED_PLUGINS;
 import static org.commonjava.maven.ext.common.util.ProjectComparator.Type.PROFILE_PLUGINS;
 
+/**
+ * Reports the differences between the original and the manipulated projects, i.e. version changes of the projects,
+ * their properties, dependencies and plugins, relocations and optionally what was not aligned.
+ * <p>
+ * Projects, profiles, properties, dependencies and plugins are all matched by key, and the report is written out (to
+ * the log and any {@link #REPORT_OUTPUT_FILE}) a project at a time rather than being held in memory for the whole
+ * reactor. Each difference may also be written as JSON to {@link #REPORT_JSON_OUTPUT_FILE}, either as a single array
+ * or as newline delimited JSON (one object per line), according to {@link #REPORT_JSON_OUTPUT_FORMAT}.
+ */
 public class ProjectComparator
 {
     private static final Logger logger = LoggerFactory.getLogger( ProjectComparator.class );
@@ -60,12 +78,14 @@ public class ProjectComparator
 
     public static final String REPORT_OUTPUT_FILE = "reportOutputFile";
 
+    public static final String REPORT_JSON_OUTPUT_FILE = "reportJSONOutputFile";
 
     /**
-     * Used as toggle within lamdas to denote whether to add a new line or not.
+     * Either <code>json</code> (the default) or <code>ndjson</code>.
      */
-    private static final AtomicBoolean spacerLine = new AtomicBoolean();
+    public static final String REPORT_JSON_OUTPUT_FORMAT = "reportJSONOutputFormat";
 
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
 
     enum Type
     {
@@ -111,337 +131,542 @@ public class ProjectComparator
         }
     }
 
+    /**
+     * The kinds of difference in the JSON report.
+     */
+    enum Change
+    {
+        VERSION,
+        PROPERTY,
+        RELOCATION,
+        NON_ALIGNED
+    }
+
     public static void compareProjects( MavenSessionHandler session,
                                         WildcardMap<ProjectVersionRef> dependencyRelocations, List<Project> originalProjects, List<Project> newProjects )
                     throws ManipulationException
     {
-        final boolean reportNonAligned = Boolean.parseBoolean( session.getUserProperties().getProperty( REPORT_NON_ALIGNED, "false") );
-        final String reportOutputFile = session.getUserProperties().getProperty( REPORT_OUTPUT_FILE, "");
-        final StringBuilder builder = new StringBuilder( 500 );
+        final Properties userProperties = session.getUserProperties();
+        final boolean reportNonAligned = Boolean.parseBoolean( userProperties.getProperty( REPORT_NON_ALIGNED, "false") );
+        final String reportOutputFile = userProperties.getProperty( REPORT_OUTPUT_FILE, "");
+        final String jsonOutputFile = userProperties.getProperty( REPORT_JSON_OUTPUT_FILE, "" );
+        final String jsonFormat = userProperties.getProperty( REPORT_JSON_OUTPUT_FORMAT, "json" ).trim();
 
-        try
+        if ( !"json".equalsIgnoreCase( jsonFormat ) && !"ndjson".equalsIgnoreCase( jsonFormat ) )
         {
-            newProjects.forEach(
-                        newProject -> originalProjects.stream().
-                                        filter( originalProject -> newProject.getArtifactId().equals( originalProject.getArtifactId() )
-                                                                           && newProject.getGroupId().equals( originalProject.getGroupId() ) ).forEach( originalProject ->
-                        {
-                            append( builder, "------------------- project {}", newProject.getKey().asProjectRef() );
-                            if ( ! originalProject.getVersion().equals( newProject.getVersion() ) )
-                            {
-                                append( builder, "\tProject version : {} ---> {}", originalProject.getVersion(), newProject.getVersion() );
-                                spacerLine.set( true );
-                            }
-                            injectSpacerLine(builder);
-
-                            newProject.getModel().getProperties().forEach( ( nKey, nValue ) ->
-                                originalProject.getModel().getProperties().forEach( ( oKey, oValue ) -> {
-                                    if ( oKey != null && oKey.equals( nKey ) &&  oValue != null &&  !oValue.equals( nValue ) )
-                                    {
-                                        append( builder, "\tProperty : key {} ; value {} ---> {}", oKey, oValue, nValue);
-                                        spacerLine.set( true );
-                                    }
-                                } )
-                            );
-                            injectSpacerLine( builder );
-
-                            compareDependencies( DEPENDENCIES,
-                                                 builder,
-                                                 dependencyRelocations,
-                                                 reportNonAligned,
-                                                 handleDependencies( session, originalProject, null, DEPENDENCIES ),
-                                                 handleDependencies( session, newProject, null, DEPENDENCIES ) );
-
-                            injectSpacerLine( builder );
-
-                            compareDependencies( MANAGED_DEPENDENCIES, builder, dependencyRelocations, reportNonAligned,
-                                                 handleDependencies( session, originalProject, null,
-                                                                     MANAGED_DEPENDENCIES ),
-                                                 handleDependencies( session, newProject, null, MANAGED_DEPENDENCIES ) );
-
-                            injectSpacerLine( builder );
-
-                            compareDependencies( DEPENDENCIES_UNVERSIONED, builder, dependencyRelocations, reportNonAligned,
-                                                 handleDependencies( session, originalProject, null, DEPENDENCIES_UNVERSIONED ),
-                                                 handleDependencies( session, newProject, null, DEPENDENCIES_UNVERSIONED ) );
-
-                            injectSpacerLine( builder );
-
-                            comparePlugins( PLUGINS,
-                                                 builder,
-                                                 reportNonAligned,
-                                                 handlePlugins( session, originalProject, null, PLUGINS ),
-                                                 handlePlugins( session, newProject, null, PLUGINS ) );
-                            comparePlugins( MANAGED_PLUGINS, builder, reportNonAligned,
-                                            handlePlugins( session, originalProject, null,
-                                                           MANAGED_PLUGINS ),
-                                            handlePlugins( session, newProject, null, MANAGED_PLUGINS ) );
-
-                            List<Profile> oldProfiles = ProfileUtils.getProfiles( session, originalProject.getModel() );
-                            List<Profile> newProfiles = ProfileUtils.getProfiles( session, newProject.getModel() );
-
-                            newProfiles.forEach( newProfile -> oldProfiles.stream().
-                                            filter( oldProfile -> newProfile.getId().equals( oldProfile.getId() ) ).
-                                                                                          forEach( oldProfile ->
-                            {
-                                newProfile.getProperties().forEach( ( nKey, nValue ) ->
-                                    oldProfile.getProperties().forEach( ( oKey, oValue ) -> {
-                                        if ( oKey != null && oKey.equals( nKey ) &&  oValue != null &&  !oValue.equals( nValue ) )
-                                        {
-                                            append( builder, "\tProfile property : key {} ; value {} ---> {}", oKey, oValue, nValue );
-                                            spacerLine.set( true );
-                                        }
-                                    } )
-                                );
-
-                                injectSpacerLine( builder );
-
-                                compareDependencies( PROFILE_DEPENDENCIES, builder, dependencyRelocations, reportNonAligned,
-                                                     handleDependencies( session, originalProject, oldProfile, PROFILE_DEPENDENCIES ),
-                                                     handleDependencies( session, newProject, newProfile, PROFILE_DEPENDENCIES ) );
-
-                                injectSpacerLine( builder );
-
-                                compareDependencies( PROFILE_MANAGED_DEPENDENCIES, builder, dependencyRelocations,
-                                                     reportNonAligned,
-                                                     handleDependencies( session, originalProject,
-                                                                         oldProfile,
-                                                                         PROFILE_MANAGED_DEPENDENCIES ),
-                                                     handleDependencies( session, newProject, newProfile,
-                                                                         PROFILE_MANAGED_DEPENDENCIES ) );
-
-                                injectSpacerLine( builder );
-
-                                compareDependencies( PROFILE_DEPENDENCIES_UNVERSIONED, builder, dependencyRelocations,
-                                                     reportNonAligned,
-                                                     handleDependencies( session, originalProject, oldProfile, PROFILE_DEPENDENCIES_UNVERSIONED ),
-                                                     handleDependencies( session, newProject, newProfile, PROFILE_DEPENDENCIES_UNVERSIONED ) );
-
-                                injectSpacerLine( builder );
-
-                                comparePlugins( PROFILE_PLUGINS, builder, reportNonAligned,
-                                                handlePlugins( session, originalProject, oldProfile, PROFILE_PLUGINS ),
-                                                handlePlugins( session, newProject, newProfile, PROFILE_PLUGINS ) );
-
-                                injectSpacerLine( builder );
-
-                                comparePlugins( PROFILE_MANAGED_PLUGINS, builder, reportNonAligned,
-                                                handlePlugins( session, originalProject,
-                                                               oldProfile,
-                                                               PROFILE_MANAGED_PLUGINS ),
-                                                handlePlugins( session, newProject, newProfile,
-                                                                         PROFILE_MANAGED_PLUGINS ) );
-                            } ) );
-                        } ) );
-            if ( isNotEmpty( reportOutputFile ) )
-            {
-                File report = new File ( reportOutputFile);
-                FileUtils.writeStringToFile( report, builder.toString(), Charset.defaultCharset() );
+            throw new ManipulationException( "Invalid value {} for {}", jsonFormat, REPORT_JSON_OUTPUT_FORMAT );
+        }
+
+        final Map<ProjectRef, List<Project>> originals = new HashMap<>();
+        for ( Project originalProject : originalProjects )
+        {
+            originals.computeIfAbsent( new SimpleProjectRef( originalProject.getGroupId(),
+                                                             originalProject.getArtifactId() ),
+                                       k -> new ArrayList<>() ).add( originalProject );
+        }
+
+        try ( Report report = new Report( isNotEmpty( reportOutputFile ) ? new File( reportOutputFile ) : null,
+                                          isNotEmpty( jsonOutputFile ) ? new File( jsonOutputFile ) : null,
+                                          "ndjson".equalsIgnoreCase( jsonFormat ) ) )
+        {
+            for ( Project newProject : newProjects )
+            {
+                for ( Project originalProject : originals.getOrDefault(
+                                new SimpleProjectRef( newProject.getGroupId(), newProject.getArtifactId() ),
+                                Collections.emptyList() ) )
+                {
+                    compareProject( session, report, dependencyRelocations, reportNonAligned, originalProject,
+                                    newProject );
+                    report.endProject();
+                }
             }
-            logger.info( builder.toString() );
         }
-        catch ( ManipulationUncheckedException | IOException e)
+        catch ( IOException e )
         {
-            throw (ManipulationException)e.getCause();
+            throw new ManipulationException( "Unable to write project comparison report", e );
         }
     }
 
-
-    private static void compareDependencies( Type type, StringBuilder builder, WildcardMap<ProjectVersionRef> dependencyRelocations,
-                                             boolean reportNonAligned, Set<ArtifactRef> originalDeps,
-                                             Set<ArtifactRef> newDeps )
+    private static void compareProject( MavenSessionHandler session, Report report,
+                                        WildcardMap<ProjectVersionRef> dependencyRelocations, boolean reportNonAligned,
+                                        Project originalProject, Project newProject )
+                    throws ManipulationException, IOException
     {
-        Set<ArtifactRef> nonAligned = new HashSet<>();
-
-        if ( dependencyRelocations.size() > 0 && type == PROFILE_DEPENDENCIES_UNVERSIONED
-                        || type == DEPENDENCIES_UNVERSIONED )
+        report.startProject( newProject.getKey().asProjectRef() );
+        if ( ! originalProject.getVersion().equals( newProject.getVersion() ) )
         {
-            originalDeps.forEach( originalDep -> {
-                ProjectRef orig = originalDep.asProjectRef();
-                if ( dependencyRelocations.containsKey( orig ) )
-                {
-                    ProjectVersionRef p = dependencyRelocations.get( orig );
-                    append( builder, "\tUnversioned relocation : {} ---> {}:{}:{}", originalDep, p.getGroupId(),
-                            p.getArtifactId().equals( "*" ) ? orig.getArtifactId() : p.getArtifactId(), p.getVersionString() );
-                    spacerLine.set( true );
-                }
-            } );
-            injectSpacerLine( builder );
+            report.line( "\tProject version : {} ---> {}", originalProject.getVersion(), newProject.getVersion() );
+            report.difference( Change.VERSION, null, null, originalProject.getVersion(), newProject.getVersion() );
+            report.changed();
         }
-        else
+        report.spacer();
+
+        compareProperties( report, "\tProperty : key {} ; value {} ---> {}", originalProject.getModel().getProperties(),
+                           newProject.getModel().getProperties() );
+        report.spacer();
+
+        compareDependencies( DEPENDENCIES,
+                             report,
+                             dependencyRelocations,
+                             reportNonAligned,
+                             handleDependencies( session, originalProject, null, DEPENDENCIES ),
+                             handleDependencies( session, newProject, null, DEPENDENCIES ) );
+
+        report.spacer();
+
+        compareDependencies( MANAGED_DEPENDENCIES, report, dependencyRelocations, reportNonAligned,
+                             handleDependencies( session, originalProject, null,
+                                                 MANAGED_DEPENDENCIES ),
+                             handleDependencies( session, newProject, null, MANAGED_DEPENDENCIES ) );
+
+        report.spacer();
+
+        compareDependencies( DEPENDENCIES_UNVERSIONED, report, dependencyRelocations, reportNonAligned,
+                             handleDependencies( session, originalProject, null, DEPENDENCIES_UNVERSIONED ),
+                             handleDependencies( session, newProject, null, DEPENDENCIES_UNVERSIONED ) );
+
+        report.spacer();
+
+        comparePlugins( PLUGINS,
+                        report,
+                        reportNonAligned,
+                        handlePlugins( session, originalProject, null, PLUGINS ),
+                        handlePlugins( session, newProject, null, PLUGINS ) );
+        comparePlugins( MANAGED_PLUGINS, report, reportNonAligned,
+                        handlePlugins( session, originalProject, null,
+                                       MANAGED_PLUGINS ),
+                        handlePlugins( session, newProject, null, MANAGED_PLUGINS ) );
+
+        final Map<String, List<Profile>> oldProfiles = new HashMap<>();
+        for ( Profile oldProfile : ProfileUtils.getProfiles( session, originalProject.getModel() ) )
         {
-            originalDeps.forEach( originalArtifact -> newDeps.stream()
-                                                             .filter( newArtifact -> ( newArtifact.getGroupId().equals( originalArtifact.getGroupId() )
-                                                                             && newArtifact.getArtifactId().equals( originalArtifact.getArtifactId() )
-                                                                             && newArtifact.getType().equals( originalArtifact.getType() )
-                                                                             && StringUtils.equals( newArtifact.getClassifier(),
-                                                                                                    originalArtifact.getClassifier() ) ) )
-                                                             .forEach( newArtifact -> {
-                                                                 if ( !newArtifact.getVersionString().equals( originalArtifact.getVersionString() ) )
-                                                                 {
-                                                                     append( builder, "\t{} : {} --> {}", type, originalArtifact, newArtifact);
-                                                                     spacerLine.set( true );
-                                                                 }
-                                                                 else if ( reportNonAligned )
-                                                                 {
-                                                                     nonAligned.add( originalArtifact );
-                                                                 }
-                                                             } ) );
+            oldProfiles.computeIfAbsent( oldProfile.getId(), k -> new ArrayList<>() ).add( oldProfile );
+        }
 
-            if ( dependencyRelocations.size() > 0 )
+        for ( Profile newProfile : ProfileUtils.getProfiles( session, newProject.getModel() ) )
+        {
+            for ( Profile oldProfile : oldProfiles.getOrDefault( newProfile.getId(), Collections.emptyList() ) )
             {
-                injectSpacerLine( builder );
+                report.setProfile( newProfile.getId() );
 
-                originalDeps.forEach( originalDep -> {
-                    ProjectRef orig = originalDep.asProjectRef();
-                    if ( dependencyRelocations.containsKey( orig ) )
-                    {
-                        ProjectVersionRef p = dependencyRelocations.get( orig );
-                        append( builder, "\tRelocation : {} ---> {}:{}:{}", originalDep, p.getGroupId(),
-                                p.getArtifactId().equals( "*" ) ? orig.getArtifactId() : p.getArtifactId(),
-                                p.getVersionString() );
-                        spacerLine.set( true );
-                    }
-                } );
+                compareProperties( report, "\tProfile property : key {} ; value {} ---> {}",
+                                   oldProfile.getProperties(), newProfile.getProperties() );
+
+                report.spacer();
+
+                compareDependencies( PROFILE_DEPENDENCIES, report, dependencyRelocations, reportNonAligned,
+                                     handleDependencies( session, originalProject, oldProfile, PROFILE_DEPENDENCIES ),
+                                     handleDependencies( session, newProject, newProfile, PROFILE_DEPENDENCIES ) );
+
+                report.spacer();
+
+                compareDependencies( PROFILE_MANAGED_DEPENDENCIES, report, dependencyRelocations,
+                                     reportNonAligned,
+                                     handleDependencies( session, originalProject,
+                                                         oldProfile,
+                                                         PROFILE_MANAGED_DEPENDENCIES ),
+                                     handleDependencies( session, newProject, newProfile,
+                                                         PROFILE_MANAGED_DEPENDENCIES ) );
+
+                report.spacer();
+
+                compareDependencies( PROFILE_DEPENDENCIES_UNVERSIONED, report, dependencyRelocations,
+                                     reportNonAligned,
+                                     handleDependencies( session, originalProject, oldProfile, PROFILE_DEPENDENCIES_UNVERSIONED ),
+                                     handleDependencies( session, newProject, newProfile, PROFILE_DEPENDENCIES_UNVERSIONED ) );
+
+                report.spacer();
+
+                comparePlugins( PROFILE_PLUGINS, report, reportNonAligned,
+                                handlePlugins( session, originalProject, oldProfile, PROFILE_PLUGINS ),
+                                handlePlugins( session, newProject, newProfile, PROFILE_PLUGINS ) );
+
+                report.spacer();
+
+                comparePlugins( PROFILE_MANAGED_PLUGINS, report, reportNonAligned,
+                                handlePlugins( session, originalProject,
+                                               oldProfile,
+                                               PROFILE_MANAGED_PLUGINS ),
+                                handlePlugins( session, newProject, newProfile,
+                                               PROFILE_MANAGED_PLUGINS ) );
             }
         }
+    }
 
-        if ( nonAligned.size() > 0 )
+    private static void compareProperties( Report report, String message, Properties originalProperties,
+                                           Properties newProperties ) throws IOException
+    {
+        for ( Map.Entry<Object, Object> entry : newProperties.entrySet() )
         {
-            nonAligned.forEach( na -> append( builder, "\tNon-Aligned {} : {}", type, na));
-            builder.append( System.lineSeparator() );
+            final Object oValue = originalProperties.get( entry.getKey() );
+            if ( oValue != null && !oValue.equals( entry.getValue() ) )
+            {
+                report.line( message, entry.getKey(), oValue, entry.getValue() );
+                report.difference( Change.PROPERTY, null, entry.getKey(), oValue, entry.getValue() );
+                report.changed();
+            }
         }
     }
 
-    private static void comparePlugins( Type type, StringBuilder builder, boolean reportNonAligned, Set<ProjectVersionRef> originalPlugins, Set<ProjectVersionRef> newPlugins )
+    private static void compareDependencies( Type type, Report report, WildcardMap<ProjectVersionRef> dependencyRelocations,
+                                             boolean reportNonAligned, Set<ArtifactRef> originalDeps,
+                                             Set<ArtifactRef> newDeps ) throws IOException
     {
-        Set<ProjectVersionRef> nonAligned = new HashSet<>( );
-        AtomicBoolean spacerLine = new AtomicBoolean();
+        Set<ArtifactRef> nonAligned = new HashSet<>();
 
-        originalPlugins.forEach( originalPVR -> newPlugins.stream().filter(
-                        newPVR -> ( newPVR.getGroupId().equals( originalPVR.getGroupId() ) &&
-                                        newPVR.getArtifactId().equals( originalPVR.getArtifactId() ) ) ).forEach( newArtifact ->
+        if ( dependencyRelocations.size() > 0 && type == PROFILE_DEPENDENCIES_UNVERSIONED
+                        || type == DEPENDENCIES_UNVERSIONED )
+        {
+            compareRelocations( type, report, "\tUnversioned relocation : {} ---> {}", dependencyRelocations,
+                                originalDeps );
+            report.spacer();
+        }
+        else
+        {
+            // Match by everything but the version.
+            final Map<List<String>, List<ArtifactRef>> indexed = new HashMap<>();
+            for ( ArtifactRef newArtifact : newDeps )
+            {
+                indexed.computeIfAbsent( artifactKey( newArtifact ), k -> new ArrayList<>() ).add( newArtifact );
+            }
+
+            for ( ArtifactRef originalArtifact : originalDeps )
+            {
+                for ( ArtifactRef newArtifact : indexed.getOrDefault( artifactKey( originalArtifact ),
+                                                                      Collections.emptyList() ) )
                 {
-                    if ( ! newArtifact.getVersionString().equals( originalPVR.getVersionString() ) )
+                    if ( !newArtifact.getVersionString().equals( originalArtifact.getVersionString() ) )
                     {
-                        append( builder, "\t{} : {} --> {}", type, originalPVR, newArtifact );
-                        spacerLine.set( true );
+                        report.line( "\t{} : {} --> {}", type, originalArtifact, newArtifact );
+                        report.difference( Change.VERSION, type, originalArtifact.asProjectRef(), originalArtifact,
+                                           newArtifact );
+                        report.changed();
                     }
                     else if ( reportNonAligned )
                     {
-                        nonAligned.add( originalPVR );
+                        nonAligned.add( originalArtifact );
                     }
                 }
-        ) );
+            }
+
+            if ( dependencyRelocations.size() > 0 )
+            {
+                report.spacer();
+
+                compareRelocations( type, report, "\tRelocation : {} ---> {}", dependencyRelocations, originalDeps );
+            }
+        }
 
         if ( nonAligned.size() > 0 )
         {
-            nonAligned.forEach( pv -> append( builder, "\tNon-Aligned {} : {}", type, pv ));
-            builder.append( System.lineSeparator() );
+            for ( ArtifactRef na : nonAligned )
+            {
+                report.line( "\tNon-Aligned {} : {}", type, na );
+                report.difference( Change.NON_ALIGNED, type, na.asProjectRef(), na, null );
+            }
+            report.newLine();
         }
     }
 
-    private static void injectSpacerLine( StringBuilder builder )
+    private static void compareRelocations( Type type, Report report, String message,
+                                            WildcardMap<ProjectVersionRef> dependencyRelocations,
+                                            Set<ArtifactRef> originalDeps ) throws IOException
     {
-        if ( spacerLine.get() )
+        for ( ArtifactRef originalDep : originalDeps )
         {
-            builder.append( System.lineSeparator() );
-            spacerLine.set( false );
+            ProjectRef orig = originalDep.asProjectRef();
+            if ( dependencyRelocations.containsKey( orig ) )
+            {
+                ProjectVersionRef p = dependencyRelocations.get( orig );
+                String relocation = p.getGroupId() + ':' + ( p.getArtifactId().equals( "*" ) ?
+                                orig.getArtifactId() :
+                                p.getArtifactId() ) + ':' + p.getVersionString();
+                report.line( message, originalDep, relocation );
+                report.difference( Change.RELOCATION, type, orig, originalDep, relocation );
+                report.changed();
+            }
         }
     }
 
-    /**
-     * Wraps appending to the string builder using SLF4J style substitutions.
-     * @param builder the string builder
-     * @param message the message (possibly with parameters)
-     * @param args optional parameters.
-     */
-    private static void append (StringBuilder builder, String message, Object ...args)
+    private static void comparePlugins( Type type, Report report, boolean reportNonAligned,
+                                        Set<ProjectVersionRef> originalPlugins, Set<ProjectVersionRef> newPlugins )
+                    throws IOException
     {
-        builder.append( MessageFormatter.arrayFormat( message, args ).getMessage() );
-        builder.append( System.lineSeparator() );
-    }
+        Set<ProjectVersionRef> nonAligned = new HashSet<>( );
 
-    private static Set<ArtifactRef> handleDependencies( MavenSessionHandler session, Project project, Profile profile,
-                                                        Type type )
-                    throws ManipulationUncheckedException
-    {
-        try
+        final Map<ProjectRef, List<ProjectVersionRef>> indexed = new HashMap<>();
+        for ( ProjectVersionRef newPVR : newPlugins )
+        {
+            indexed.computeIfAbsent( newPVR.asProjectRef(), k -> new ArrayList<>() ).add( newPVR );
+        }
+
+        for ( ProjectVersionRef originalPVR : originalPlugins )
         {
-            switch (type)
+            for ( ProjectVersionRef newArtifact : indexed.getOrDefault( originalPVR.asProjectRef(),
+                                                                        Collections.emptyList() ) )
             {
-                case DEPENDENCIES:
-                {
-                    return project.getResolvedDependencies( session ).keySet();
-                }
-                case MANAGED_DEPENDENCIES:
-                {
-                    return project.getResolvedManagedDependencies( session ).keySet();
-                }
-                case PROFILE_DEPENDENCIES:
+                if ( ! newArtifact.getVersionString().equals( originalPVR.getVersionString() ) )
                 {
-                    return project.getResolvedProfileDependencies( session ).getOrDefault( profile, Collections.emptyMap() ).keySet();
+                    report.line( "\t{} : {} --> {}", type, originalPVR, newArtifact );
+                    report.difference( Change.VERSION, type, originalPVR.asProjectRef(), originalPVR, newArtifact );
                 }
-                case PROFILE_MANAGED_DEPENDENCIES:
+                else if ( reportNonAligned )
                 {
-                    return project.getResolvedProfileManagedDependencies( session ).getOrDefault( profile, Collections.emptyMap() ).keySet();
-                }
-                case DEPENDENCIES_UNVERSIONED:
-                {
-                    return project.getAllResolvedDependencies( session ).
-                                                  keySet().stream().filter( a -> a.getVersionString().equals( "*" ) ).collect( Collectors.toSet() );
-                }
-                case PROFILE_DEPENDENCIES_UNVERSIONED:
-                {
-                    return project.getAllResolvedProfileDependencies( session ).
-                                    getOrDefault( profile, Collections.emptyMap() ).
-                                                  keySet().stream().filter( a -> a.getVersionString().equals( "*" ) ).collect( Collectors.toSet() );
-                }
-                default:
-                {
-                    throw new ManipulationException( "Invalid type " + type.toString() );
+                    nonAligned.add( originalPVR );
                 }
             }
         }
-        catch ( ManipulationException e )
+
+        if ( nonAligned.size() > 0 )
+        {
+            for ( ProjectVersionRef pv : nonAligned )
+            {
+                report.line( "\tNon-Aligned {} : {}", type, pv );
+                report.difference( Change.NON_ALIGNED, type, pv.asProjectRef(), pv, null );
+            }
+            report.newLine();
+        }
+    }
+
+    private static List<String> artifactKey( ArtifactRef artifact )
+    {
+        return Arrays.asList( artifact.getGroupId(), artifact.getArtifactId(), artifact.getType(),
+                              artifact.getClassifier() );
+    }
+
+    private static Set<ArtifactRef> handleDependencies( MavenSessionHandler session, Project project, Profile profile,
+                                                        Type type )
+                    throws ManipulationException
+    {
+        switch (type)
         {
-            throw new ManipulationUncheckedException( e );
+            case DEPENDENCIES:
+            {
+                return project.getResolvedDependencies( session ).keySet();
+            }
+            case MANAGED_DEPENDENCIES:
+            {
+                return project.getResolvedManagedDependencies( session ).keySet();
+            }
+            case PROFILE_DEPENDENCIES:
+            {
+                return project.getResolvedProfileDependencies( session ).getOrDefault( profile, Collections.emptyMap() ).keySet();
+            }
+            case PROFILE_MANAGED_DEPENDENCIES:
+            {
+                return project.getResolvedProfileManagedDependencies( session ).getOrDefault( profile, Collections.emptyMap() ).keySet();
+            }
+            case DEPENDENCIES_UNVERSIONED:
+            {
+                return project.getAllResolvedDependencies( session ).
+                                              keySet().stream().filter( a -> a.getVersionString().equals( "*" ) ).collect( Collectors.toSet() );
+            }
+            case PROFILE_DEPENDENCIES_UNVERSIONED:
+            {
+                return project.getAllResolvedProfileDependencies( session ).
+                                getOrDefault( profile, Collections.emptyMap() ).
+                                              keySet().stream().filter( a -> a.getVersionString().equals( "*" ) ).collect( Collectors.toSet() );
+            }
+            default:
+            {
+                throw new ManipulationException( "Invalid type " + type.toString() );
+            }
         }
     }
 
     private static Set<ProjectVersionRef> handlePlugins( MavenSessionHandler session, Project project, Profile profile,
                                                         Type type )
-                    throws ManipulationUncheckedException
+                    throws ManipulationException
     {
-        try
+        switch (type)
         {
-            switch (type)
+            case PLUGINS:
             {
-                case PLUGINS:
-                {
-                    return project.getResolvedPlugins( session ).keySet();
-                }
-                case MANAGED_PLUGINS:
+                return project.getResolvedPlugins( session ).keySet();
+            }
+            case MANAGED_PLUGINS:
+            {
+                return project.getResolvedManagedPlugins( session ).keySet();
+            }
+            case PROFILE_PLUGINS:
+            {
+                return project.getResolvedProfilePlugins( session ).getOrDefault( profile, Collections.emptyMap() ).keySet();
+            }
+            case PROFILE_MANAGED_PLUGINS:
+            {
+                return project.getResolvedProfileManagedPlugins( session ).getOrDefault( profile, Collections.emptyMap() ).keySet();
+            }
+            default:
+            {
+                throw new ManipulationException( "Invalid type " + type.toString() );
+            }
+        }
+    }
+
+    /**
+     * The report being written. The text of the current project is buffered and written out once it is complete; the
+     * JSON differences are written as they are found.
+     */
+    private static final class Report
+        implements Closeable
+    {
+        private final StringBuilder builder = new StringBuilder( 500 );
+
+        private final Writer text;
+
+        private final JsonGenerator json;
+
+        private final boolean ndjson;
+
+        /**
+         * Whether a blank line should be added before the next section.
+         */
+        private boolean spacerLine;
+
+        private String project;
+
+        private String profile;
+
+        Report( File textFile, File jsonFile, boolean ndjson ) throws IOException
+        {
+            this.ndjson = ndjson;
+            this.text = textFile == null ? null : new BufferedWriter(
+                            new OutputStreamWriter( FileUtils.openOutputStream( textFile ),
+                                                    Charset.defaultCharset() ) );
+            if ( jsonFile == null )
+            {
+                this.json = null;
+            }
+            else
+            {
+                this.json = JSON_FACTORY.createGenerator( FileUtils.openOutputStream( jsonFile ), JsonEncoding.UTF8 );
+                if ( ndjson )
                 {
-                    return project.getResolvedManagedPlugins( session ).keySet();
+                    // Lines are terminated explicitly rather than separated.
+                    json.setRootValueSeparator( null );
                 }
-                case PROFILE_PLUGINS:
+                else
                 {
-                    return project.getResolvedProfilePlugins( session ).getOrDefault( profile, Collections.emptyMap() ).keySet();
+                    json.writeStartArray();
                 }
-                case PROFILE_MANAGED_PLUGINS:
+            }
+        }
+
+        void startProject( ProjectRef ga )
+        {
+            project = ga.toString();
+            profile = null;
+            line( "------------------- project {}", ga );
+        }
+
+        void setProfile( String profile )
+        {
+            this.profile = profile;
+        }
+
+        /**
+         * Appends a line using SLF4J style substitutions.
+         * @param message the message (possibly with parameters)
+         * @param args optional parameters.
+         */
+        void line( String message, Object... args )
+        {
+            builder.append( MessageFormatter.arrayFormat( message, args ).getMessage() );
+            builder.append( System.lineSeparator() );
+        }
+
+        void newLine()
+        {
+            builder.append( System.lineSeparator() );
+        }
+
+        /**
+         * Denotes that a blank line should follow the current section.
+         */
+        void changed()
+        {
+            spacerLine = true;
+        }
+
+        void spacer()
+        {
+            if ( spacerLine )
+            {
+                newLine();
+                spacerLine = false;
+            }
+        }
+
+        /**
+         * Writes a difference to the JSON report, if any.
+         */
+        void difference( Change change, Type type, Object key, Object from, Object to ) throws IOException
+        {
+            if ( json == null )
+            {
+                return;
+            }
+            json.writeStartObject();
+            json.writeStringField( "project", project );
+            if ( profile != null )
+            {
+                json.writeStringField( "profile", profile );
+            }
+            json.writeStringField( "change", change.name() );
+            if ( type != null )
+            {
+                json.writeStringField( "type", type.name() );
+            }
+            if ( key != null )
+            {
+                json.writeStringField( "key", key.toString() );
+            }
+            json.writeStringField( "from", from.toString() );
+            if ( to != null )
+            {
+                json.writeStringField( "to", to.toString() );
+            }
+            json.writeEndObject();
+            if ( ndjson )
+            {
+                json.writeRaw( '\n' );
+            }
+        }
+
+        /**
+         * Writes out the text of the current project.
+         */
+        void endProject() throws IOException
+        {
+            if ( text != null )
+            {
+                text.append( builder );
+            }
+            logger.info( builder.toString() );
+            builder.setLength( 0 );
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            try
+            {
+                if ( json != null )
                 {
-                    return project.getResolvedProfileManagedPlugins( session ).getOrDefault( profile, Collections.emptyMap() ).keySet();
+                    if ( !ndjson )
+                    {
+                        json.writeEndArray();
+                    }
+                    json.close();
                 }
-                default:
+            }
+            finally
+            {
+                if ( text != null )
                 {
-                    throw new ManipulationException( "Invalid type " + type.toString() );
+                    text.close();
                 }
             }
         }
-        catch ( ManipulationException e )
-        {
-            throw new ManipulationUncheckedException( e );
-        }
     }
 }
@@ -20,7 +20,9 @@ import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.TreeMap;
 
 /**
@@ -28,30 +30,40 @@ import java.util.TreeMap;
  * <p>
  *     String(groupId) : Map (where Map contains String(artifactId):String(value) ).
  * </p>
- * artifactId may be a wildcard (*) or an explicit value.
+ * artifactId may be a wildcard (*) or an explicit value. groupId may be a prefix wildcard such as <code>org.foo.*</code>,
+ * which matches every groupId starting with <code>org.foo.</code>, or <code>*</code>, which matches any groupId. An
+ * explicit groupId takes precedence over prefixes, and longer prefixes over shorter ones.
+ * <p>
+ * Explicit groupIds are looked up by hash and prefixes through a trie of their segments; the wildcard artifactId of
+ * each groupId is held separately from its explicit artifactIds.
  */
 public class WildcardMap<T>
 {
     public static final String WILDCARD = "*";
 
+    private static final String PREFIX_WILDCARD = ".*";
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     /**
-     * This map represents:
-     * <p>
-     * groupId : map where map is artifactId : value
-     * </p>
-     * artifactId may be a wildcard '*'.
+     * Explicit groupIds.
      */
-    private final TreeMap<String, LinkedHashMap<String,T>> map = new TreeMap<>();
+    private final Map<String, Group<T>> groups = new HashMap<>();
+
+    /**
+     * groupId prefixes, by segment; the root holds the <code>*</code> groupId.
+     */
+    private final Node<T> prefixes = new Node<>();
+
+    private int prefixCount;
 
     /**
      * Size implementation
-     * @return the size of the wildcard map
+     * @return the number of groupIds, including prefixes, in the wildcard map
      */
     public int size ()
     {
-        return map.size();
+        return groups.size() + prefixCount;
     }
 
     /**
@@ -61,10 +73,7 @@ public class WildcardMap<T>
      */
     public boolean containsKey(Dependency key)
     {
-        String groupId = key.getGroupId();
-        String artifactId = key.getArtifactId();
-
-        return internalContainsKey( groupId, artifactId );
+        return find( key.getGroupId(), key.getArtifactId() ) != null;
     }
 
     /**
@@ -74,37 +83,9 @@ public class WildcardMap<T>
      */
     public boolean containsKey(ProjectRef key)
     {
-        String groupId = key.getGroupId();
-        String artifactId = key.getArtifactId();
-
-        return internalContainsKey( groupId, artifactId );
+        return find( key.getGroupId(), key.getArtifactId() ) != null;
     }
 
-    private boolean internalContainsKey(String groupId, String artifactId)
-    {
-        boolean result;
-
-        LinkedHashMap vMap = map.get(groupId);
-
-        if ( vMap == null || vMap.isEmpty())
-        {
-            result = false;
-        }
-        else
-        {
-            if ( vMap.get(WILDCARD) != null)
-            {
-                result = true;
-            }
-            else
-            {
-                result = vMap.containsKey(artifactId);
-            }
-        }
-        return result;
-    }
-
-
     /**
      * Associates the specified value with the specified key in this map.
      * @param key key to associate with
@@ -112,49 +93,34 @@ public class WildcardMap<T>
      */
     public void put(ProjectRef key, T value)
     {
-        String groupId = key.getGroupId();
-        String artifactId = key.getArtifactId();
-
-        LinkedHashMap<String,T> vMap = map.get(groupId);
-        if ( vMap == null)
-        {
-            vMap = new LinkedHashMap<>();
-        }
-        boolean wildcard = false;
+        final String groupId = key.getGroupId();
+        final String artifactId = key.getArtifactId();
+        final Group<T> group = group( groupId );
 
-        if ( WILDCARD.equals(artifactId))
+        if ( WILDCARD.equals( artifactId ) )
         {
             // Erase any previous mappings.
-            if (!vMap.isEmpty())
-            {
-                logger.warn ("Emptying map with keys " + vMap.keySet() + " as replacing with wildcard mapping " + key);
-            }
-            vMap.clear();
-        }
-        else
-        {
-            for ( Object o : vMap.keySet() )
+            if ( !group.artifacts.isEmpty() )
             {
-                if ( o.equals( WILDCARD ) )
-                {
-                    wildcard = true;
-                }
+                logger.warn( "Emptying map with keys {} as replacing with wildcard mapping {}", group.artifacts.keySet(),
+                             key );
             }
+            group.artifacts.clear();
+            group.wildcard = true;
+            group.wildcardValue = value;
         }
-        if ( wildcard )
+        else if ( group.wildcard )
         {
-            logger.warn ("Unable to add " + key + " with value " + value +
-                    " as wildcard mapping for " + groupId + " already exists.");
+            logger.warn( "Unable to add {} with value {} as wildcard mapping for {} already exists.", key, value,
+                         groupId );
         }
         else
         {
-            logger.debug ("Entering artifact of " + artifactId + " and value " + value);
-            vMap.put(artifactId, value);
-            map.put(groupId, vMap);
+            logger.debug( "Entering artifact of {} and value {}", artifactId, value );
+            group.artifacts.put( artifactId, value );
         }
     }
 
-
     /**
      * @param key the groupId:artifactId key which is split to index purely
      * by groupId.
@@ -163,10 +129,7 @@ public class WildcardMap<T>
      */
     public T get(Dependency key)
     {
-        String groupId = key.getGroupId();
-        String artifactId = key.getArtifactId();
-
-        return get( groupId, artifactId );
+        return get( key.getGroupId(), key.getArtifactId() );
     }
 
     /**
@@ -177,48 +140,144 @@ public class WildcardMap<T>
      */
     public T get(ProjectRef key)
     {
-        String groupId = key.getGroupId();
-        String artifactId = key.getArtifactId();
-
-        return get( groupId, artifactId );
+        return get( key.getGroupId(), key.getArtifactId() );
     }
 
     private T get(String groupId, String artifactId)
     {
-        T result = null;
+        final Group<T> group = find( groupId, artifactId );
+        final T result = group == null ? null : group.get( artifactId );
 
-        LinkedHashMap<String, T> value = map.get(groupId);
-        if (value != null)
-        {
-            logger.debug("Retrieved value map of " + value);
-            if ( value.get(WILDCARD) != null)
-            {
-                result = value.get(WILDCARD);
-            }
-            else
-            {
-                result = value.get(artifactId);
-            }
-        }
-        logger.debug("Returning result of " + result);
+        logger.trace( "Returning result of {} for {}:{}", result, groupId, artifactId );
 
         return result;
     }
 
-
     /**
      * @return Returns true if the underlying map is empty.
      */
     public boolean isEmpty()
     {
-        return map.isEmpty();
+        return size() == 0;
     }
 
     @Override
     public String toString()
     {
+        final Map<String, Map<String, T>> map = new TreeMap<>();
+        groups.forEach( ( g, group ) -> map.put( g, group.toMap() ) );
+        prefixes.collect( "", map );
+
         return "WildcardMap{" +
                 "map=" + map +
                 '}';
     }
+
+    /**
+     * @return the group mapping the artifactId under the groupId, the most specific first, or null if there is none.
+     */
+    private Group<T> find( String groupId, String artifactId )
+    {
+        final Group<T> group = groups.get( groupId );
+        if ( group != null && group.contains( artifactId ) )
+        {
+            return group;
+        }
+        if ( prefixCount == 0 )
+        {
+            return null;
+        }
+
+        Group<T> result = prefixes.group != null && prefixes.group.contains( artifactId ) ? prefixes.group : null;
+        Node<T> node = prefixes;
+        int start = 0;
+        int end;
+
+        // A prefix only matches descendants, so the last segment is never examined.
+        while ( ( end = groupId.indexOf( '.', start ) ) >= 0 )
+        {
+            node = node.children.get( groupId.substring( start, end ) );
+            if ( node == null )
+            {
+                break;
+            }
+            if ( node.group != null && node.group.contains( artifactId ) )
+            {
+                result = node.group;
+            }
+            start = end + 1;
+        }
+        return result;
+    }
+
+    /**
+     * @return the group for the groupId or groupId prefix, created if necessary.
+     */
+    private Group<T> group( String groupId )
+    {
+        if ( !WILDCARD.equals( groupId ) && !groupId.endsWith( PREFIX_WILDCARD ) )
+        {
+            return groups.computeIfAbsent( groupId, g -> new Group<>() );
+        }
+
+        Node<T> node = prefixes;
+        if ( !WILDCARD.equals( groupId ) )
+        {
+            for ( String segment : groupId.substring( 0, groupId.length() - PREFIX_WILDCARD.length() ).split( "\\.", -1 ) )
+            {
+                node = node.children.computeIfAbsent( segment, s -> new Node<>() );
+            }
+        }
+        if ( node.group == null )
+        {
+            node.group = new Group<>();
+            prefixCount++;
+        }
+        return node.group;
+    }
+
+    private static class Group<T>
+    {
+        private final Map<String, T> artifacts = new LinkedHashMap<>();
+
+        private boolean wildcard;
+
+        private T wildcardValue;
+
+        boolean contains( String artifactId )
+        {
+            return wildcard || artifacts.containsKey( artifactId );
+        }
+
+        T get( String artifactId )
+        {
+            return wildcard ? wildcardValue : artifacts.get( artifactId );
+        }
+
+        Map<String, T> toMap()
+        {
+            final Map<String, T> result = new LinkedHashMap<>( artifacts );
+            if ( wildcard )
+            {
+                result.put( WILDCARD, wildcardValue );
+            }
+            return result;
+        }
+    }
+
+    private static class Node<T>
+    {
+        private final Map<String, Node<T>> children = new HashMap<>();
+
+        private Group<T> group;
+
+        void collect( String prefix, Map<String, Map<String, T>> map )
+        {
+            if ( group != null )
+            {
+                map.put( prefix + WILDCARD, group.toMap() );
+            }
+            children.forEach( ( segment, child ) -> child.collect( prefix + segment + '.', map ) );
+        }
+    }
 }
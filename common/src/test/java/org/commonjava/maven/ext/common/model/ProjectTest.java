@@ -15,11 +15,22 @@
  */
 package org.commonjava.maven.ext.common.model;
 
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Dependency;
 import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.model.Profile;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class ProjectTest
@@ -72,4 +83,60 @@ public class ProjectTest
 
         assertFalse (one.equals( three ));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void verifyProjectSnapshot() throws ManipulationException
+    {
+        Model parentModel = new Model();
+        parentModel.setGroupId( "org.foo" );
+        parentModel.setArtifactId( "parent" );
+        parentModel.setVersion( "1.0" );
+        parentModel.addProperty( "foo.version", "1.0" );
+        Project parent = new Project( parentModel );
+
+        Model childModel = new Model();
+        childModel.setArtifactId( "child" );
+        Parent p = new Parent();
+        p.setGroupId( "org.foo" );
+        p.setArtifactId( "parent" );
+        p.setVersion( "1.0" );
+        childModel.setParent( p );
+        Dependency d = new Dependency();
+        d.setGroupId( "org.foo" );
+        d.setArtifactId( "foo" );
+        d.setVersion( "${foo.version}" );
+        childModel.addDependency( d );
+        Plugin plugin = new Plugin();
+        plugin.setArtifactId( "maven-compiler-plugin" );
+        plugin.setVersion( "3.8.1" );
+        plugin.addExecution( new PluginExecution() );
+        childModel.setBuild( new Build() );
+        childModel.getBuild().addPlugin( plugin );
+        Profile profile = new Profile();
+        profile.setId( "extra" );
+        profile.addProperty( "bar.version", "2.0" );
+        childModel.addProfile( profile );
+        Project child = new Project( childModel );
+        child.setProjectParent( parent );
+
+        List<Project> snapshot = Project.snapshot( Arrays.asList( parent, child ) );
+        assertEquals( Arrays.asList( parent, child ), snapshot );
+        // The parent is shared rather than copied again for the child.
+        assertSame( snapshot.get( 0 ), snapshot.get( 1 ).getProjectParent() );
+
+        parentModel.setVersion( "1.0.rebuild-1" );
+        parentModel.addProperty( "foo.version", "1.0.rebuild-1" );
+        d.setVersion( "1.0.rebuild-2" );
+        plugin.setVersion( "3.8.2" );
+        profile.addProperty( "bar.version", "2.0.rebuild-1" );
+
+        Project snapshotChild = snapshot.get( 1 );
+        assertEquals( "1.0", snapshot.get( 0 ).getVersion() );
+        assertEquals( "${foo.version}", snapshotChild.getModel().getDependencies().get( 0 ).getVersion() );
+        assertEquals( "2.0", snapshotChild.getModel().getProfiles().get( 0 ).getProperties().get( "bar.version" ) );
+
+        Plugin snapshotPlugin = snapshotChild.getModel().getBuild().getPlugins().get( 0 );
+        assertEquals( "org.apache.maven.plugins:maven-compiler-plugin:3.8.1", snapshotPlugin.getId() );
+        assertTrue( snapshotPlugin.getExecutions().isEmpty() );
+    }
+}
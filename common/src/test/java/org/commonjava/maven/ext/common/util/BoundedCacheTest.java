@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedCacheTest
+{
+    @Test
+    public void testComputeOnce()
+    {
+        final BoundedCache<String, String> cache = new BoundedCache<>( 10 );
+        final AtomicInteger computed = new AtomicInteger();
+
+        final String value = cache.computeIfAbsent( "a", k -> new String( k + computed.incrementAndGet() ) );
+        assertSame( value, cache.computeIfAbsent( "a", k -> k + computed.incrementAndGet() ) );
+        assertEquals( 1, computed.get() );
+    }
+
+    @Test
+    public void testBounded()
+    {
+        final BoundedCache<Integer, Integer> cache = new BoundedCache<>( 3 );
+        for ( int i = 0; i < 100; i++ )
+        {
+            assertEquals( Integer.valueOf( i * 2 ), cache.computeIfAbsent( i, k -> k * 2 ) );
+            assertTrue( cache.size() <= 3 );
+        }
+        cache.clear();
+        assertEquals( 0, cache.size() );
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.util;
+
+import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class CoordinatePoolTest
+{
+    @Test
+    public void testPooling()
+    {
+        final CoordinatePool pool = new CoordinatePool();
+
+        final String groupId = pool.intern( "org.foo" );
+        assertSame( groupId, pool.intern( new String( "org.foo" ) ) );
+        assertNull( pool.intern( null ) );
+
+        final ProjectVersionRef pvr = pool.projectVersionRef( "org.foo", "bar", "1.0" );
+        assertEquals( new SimpleProjectVersionRef( "org.foo", "bar", "1.0" ), pvr );
+        assertSame( pvr, pool.projectVersionRef( new String( "org.foo" ), "bar", "1.0" ) );
+        assertSame( groupId, pvr.getGroupId() );
+
+        final ArtifactRef ar = pool.artifactRef( "org.foo", "bar", "1.0", "jar", null );
+        assertEquals( new SimpleArtifactRef( "org.foo", "bar", "1.0", "jar", null ), ar );
+        assertSame( ar, pool.artifactRef( "org.foo", "bar", "1.0", "jar", null ) );
+        assertNotSame( ar, pool.artifactRef( "org.foo", "bar", "1.0", "jar", "tests" ) );
+
+        assertEquals( new SimpleProjectRef( "org.foo", "bar" ), pool.projectRef( "org.foo", "bar" ) );
+        assertSame( pool.projectRef( "org.foo", "bar" ), pool.projectRef( "org.foo", "bar" ) );
+
+        pool.clear();
+        assertEquals( 0, pool.size() );
+        assertNotSame( pvr, pool.projectVersionRef( "org.foo", "bar", "1.0" ) );
+    }
+
+    @Test
+    public void testNone()
+    {
+        final String version = new String( "1.0" );
+        assertSame( version, CoordinatePool.NONE.intern( version ) );
+        assertNotSame( CoordinatePool.NONE.projectVersionRef( "org.foo", "bar", "1.0" ),
+                       CoordinatePool.NONE.projectVersionRef( "org.foo", "bar", "1.0" ) );
+        assertEquals( 0, CoordinatePool.NONE.size() );
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.util;
+
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DeadlineTest
+{
+    @Test
+    public void testNone() throws Exception
+    {
+        assertSame( Deadline.NONE, Deadline.after( 0, TimeUnit.SECONDS ) );
+        assertFalse( Deadline.NONE.isEnabled() );
+        assertFalse( Deadline.NONE.isExpired() );
+        assertEquals( 600000, Deadline.NONE.limitMillis( 600000 ) );
+        assertEquals( 0, Deadline.NONE.limitSeconds( 0 ) );
+
+        try ( Deadline.Pending ignored = Deadline.NONE.track( "work" ) )
+        {
+            assertTrue( Deadline.NONE.describePending().isEmpty() );
+        }
+        Deadline.NONE.check();
+    }
+
+    @Test
+    public void testLimits()
+    {
+        try ( Deadline deadline = Deadline.after( 10, TimeUnit.SECONDS ) )
+        {
+            assertTrue( deadline.isEnabled() );
+            assertEquals( 1000, deadline.limitMillis( 1000 ) );
+            assertTrue( deadline.limitMillis( 600000 ) <= 10000 );
+            assertTrue( deadline.limitMillis( 0 ) <= 10000 );
+            assertEquals( 10, deadline.limitSeconds( 60 ) );
+            assertEquals( 10, deadline.limitSeconds( 0 ) );
+            assertEquals( 5, deadline.limitSeconds( 5 ) );
+        }
+    }
+
+    @Test
+    public void testExpiry() throws Exception
+    {
+        final CountDownLatch cancelled = new CountDownLatch( 1 );
+
+        try ( Deadline deadline = Deadline.after( 1, TimeUnit.SECONDS ) )
+        {
+            try ( Deadline.Pending ignored = deadline.track( "REST call", cancelled::countDown ) )
+            {
+                deadline.check();
+                assertEquals( Collections.singletonList( "REST call" ), deadline.describePending() );
+                assertTrue( cancelled.await( 10, TimeUnit.SECONDS ) );
+            }
+            assertTrue( deadline.isExpired() );
+            assertTrue( deadline.describePending().isEmpty() );
+
+            try
+            {
+                deadline.check();
+                fail( "No exception thrown" );
+            }
+            catch ( ManipulationException e )
+            {
+                assertEquals( "Manipulation exceeded its deadline of 1 seconds; still pending: REST call",
+                              e.getMessage() );
+            }
+        }
+    }
+
+    @Test
+    public void testInterrupt() throws Exception
+    {
+        try ( Deadline deadline = Deadline.after( 1, TimeUnit.SECONDS ) )
+        {
+            try ( Deadline.Pending ignored = deadline.track( "script" ) )
+            {
+                Thread.sleep( TimeUnit.MINUTES.toMillis( 1 ) );
+                fail( "Not interrupted" );
+            }
+            catch ( InterruptedException e )
+            {
+                assertTrue( deadline.isExpired() );
+            }
+
+            // Work registered after expiry is cancelled immediately and the interrupt cleared once deregistered.
+            try ( Deadline.Pending ignored = deadline.track( "late" ) )
+            {
+                assertTrue( Thread.currentThread().isInterrupted() );
+            }
+            assertFalse( Thread.currentThread().isInterrupted() );
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.util;
+
+import ch.qos.logback.classic.Level;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures populating a {@link WildcardMap} the size of a large set of relocations or dependency overrides, and
+ * looking up the dependencies of a large reactor in it, with debug logging disabled as in a normal build. Not run as
+ * part of the build; run with e.g.
+ * <pre>
+ * mvn -pl common test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.commonjava.maven.ext.common.util.WildcardMapBenchmark -Dexec.args="20"
+ * </pre>
+ */
+public class WildcardMapBenchmark
+{
+    private static final int GROUPS = 2000;
+
+    public static void main( String[] args )
+    {
+        final int iterations = args.length > 0 ? Integer.parseInt( args[0] ) : 10;
+        ( (ch.qos.logback.classic.Logger) LoggerFactory.getLogger( WildcardMap.class ) ).setLevel( Level.INFO );
+
+        final Random random = new Random( 42 );
+        final List<ProjectRef> keys = new ArrayList<>();
+        for ( int i = 0; i < GROUPS; i++ )
+        {
+            // Every tenth group is mapped by a wildcard, and every hundredth by a groupId prefix.
+            final String groupId = "org.group" + ( i % 100 ) + ".sub" + i;
+            if ( i % 100 == 0 )
+            {
+                keys.add( new SimpleProjectRef( "org.prefix" + i + ".*", WildcardMap.WILDCARD ) );
+            }
+            else if ( i % 10 == 0 )
+            {
+                keys.add( new SimpleProjectRef( groupId, WildcardMap.WILDCARD ) );
+            }
+            else
+            {
+                for ( int j = 0; j < 5; j++ )
+                {
+                    keys.add( new SimpleProjectRef( groupId, "artifact" + j ) );
+                }
+            }
+        }
+
+        final List<ProjectRef> lookups = new ArrayList<>();
+        for ( int i = 0; i < 100000; i++ )
+        {
+            final int group = random.nextInt( GROUPS );
+            final String groupId = group % 100 == 0 ?
+                            "org.prefix" + group + ".child" :
+                            "org.group" + ( group % 100 ) + ".sub" + group;
+            lookups.add( new SimpleProjectRef( groupId, "artifact" + random.nextInt( 8 ) ) );
+        }
+
+        final List<Long> putTimes = new ArrayList<>();
+        final List<Long> getTimes = new ArrayList<>();
+        int found = 0;
+
+        for ( int i = 0; i < iterations * 2; i++ )
+        {
+            long start = System.nanoTime();
+            final WildcardMap<String> map = new WildcardMap<>();
+            for ( ProjectRef key : keys )
+            {
+                map.put( key, "1.0" );
+            }
+            final long put = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            found = 0;
+            for ( ProjectRef key : lookups )
+            {
+                if ( map.containsKey( key ) && map.get( key ) != null )
+                {
+                    found++;
+                }
+            }
+            final long get = System.nanoTime() - start;
+
+            // The first half warms up.
+            if ( i >= iterations )
+            {
+                putTimes.add( TimeUnit.NANOSECONDS.toMicros( put ) );
+                getTimes.add( TimeUnit.NANOSECONDS.toMicros( get ) );
+            }
+        }
+
+        Collections.sort( putTimes );
+        Collections.sort( getTimes );
+        System.out.println( "Put " + keys.size() + " keys over " + iterations + " runs: min " + putTimes.get( 0 )
+                                            + " us, median " + putTimes.get( putTimes.size() / 2 ) + " us" );
+        System.out.println( "Looked up " + lookups.size() + " keys (" + found + " found) over " + iterations
+                                            + " runs: min " + getTimes.get( 0 ) + " us, median " + getTimes.get(
+                        getTimes.size() / 2 ) + " us" );
+    }
+}
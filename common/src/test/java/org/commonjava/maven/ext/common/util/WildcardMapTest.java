@@ -137,4 +137,27 @@ public class WildcardMapTest
                            Matchers.containsString( "Emptying map with keys [artifact] as replacing with wildcard mapping org.group:*"));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPrefixWildcard()
+    {
+        map.put( SimpleProjectRef.parse( "org.group.*:*" ), "1.1" );
+        map.put( SimpleProjectRef.parse( "org.group.sub.*:artifact" ), "1.2" );
+        map.put( SimpleProjectRef.parse( "org.group.sub.child:other" ), "1.3" );
+
+        Assert.assertEquals( 3, map.size() );
+        Assert.assertEquals( "1.1", map.get( SimpleProjectRef.parse( "org.group.foo:artifact" ) ) );
+        Assert.assertEquals( "1.2", map.get( SimpleProjectRef.parse( "org.group.sub.child:artifact" ) ) );
+        Assert.assertEquals( "1.3", map.get( SimpleProjectRef.parse( "org.group.sub.child:other" ) ) );
+        Assert.assertEquals( "1.1", map.get( SimpleProjectRef.parse( "org.group.sub.child:another" ) ) );
+        Assert.assertFalse( map.containsKey( SimpleProjectRef.parse( "org.group:artifact" ) ) );
+        Assert.assertFalse( map.containsKey( SimpleProjectRef.parse( "org.groupie.foo:artifact" ) ) );
+
+        map.put( SimpleProjectRef.parse( "*:artifact" ), "1.4" );
+        Assert.assertEquals( "1.4", map.get( SimpleProjectRef.parse( "com.foo:artifact" ) ) );
+        Assert.assertEquals( "1.2", map.get( SimpleProjectRef.parse( "org.group.sub.child:artifact" ) ) );
+
+        Assert.assertEquals( "WildcardMap{map={*={artifact=1.4}, org.group.*={*=1.1}, org.group.sub.*={artifact=1.2}, "
+                                             + "org.group.sub.child={other=1.3}}}", map.toString() );
+    }
+}
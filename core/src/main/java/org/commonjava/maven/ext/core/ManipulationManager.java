@@ -15,32 +15,38 @@
  */
 package org.commonjava.maven.ext.core;
 
-import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.databind.introspect.VisibilityChecker;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.apache.maven.execution.MavenSession;
-import org.apache.maven.profiles.DefaultProfileManager;
-import org.apache.maven.profiles.activation.ProfileActivationException;
+import org.apache.maven.model.profile.ProfileSelector;
 import org.apache.maven.project.ProjectBuilder;
+import org.codehaus.plexus.component.repository.exception.ComponentLookupException;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.model.GAV;
 import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.common.util.Deadline;
 import org.commonjava.maven.ext.common.util.ProjectComparator;
 import org.commonjava.maven.ext.common.util.WildcardMap;
 import org.commonjava.maven.ext.core.impl.Manipulator;
+import org.commonjava.maven.ext.core.impl.ModelSection;
 import org.commonjava.maven.ext.core.state.CommonState;
+import org.commonjava.maven.ext.core.state.RESTState;
 import org.commonjava.maven.ext.core.state.RelocationState;
 import org.commonjava.maven.ext.core.state.State;
 import org.commonjava.maven.ext.core.state.VersioningState;
+import org.commonjava.maven.ext.core.util.ActiveProfileResolver;
+import org.commonjava.maven.ext.core.util.BuildFingerprint;
+import org.commonjava.maven.ext.core.util.Checkpoint;
+import org.commonjava.maven.ext.core.util.DependencyIndex;
 import org.commonjava.maven.ext.core.util.ManipulatorPriorityComparator;
+import org.commonjava.maven.ext.core.util.ManipulatorScheduler;
+import org.commonjava.maven.ext.core.util.ManipulatorTimings;
+import org.commonjava.maven.ext.core.util.ResultWriter;
 import org.commonjava.maven.ext.io.PomIO;
 import org.commonjava.maven.ext.io.resolver.ExtensionInfrastructure;
+import org.commonjava.maven.ext.io.resolver.GalleyInfrastructure;
+import org.commonjava.maven.ext.io.resolver.ResolutionBundle;
+import org.commonjava.maven.ext.io.resolver.TransferMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,16 +54,18 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import static org.apache.commons.lang.StringUtils.isEmpty;
+import static org.apache.commons.lang.StringUtils.isNotEmpty;
 import static org.commonjava.maven.ext.common.util.ProfileUtils.PROFILE_SCANNING;
 import static org.commonjava.maven.ext.common.util.ProfileUtils.PROFILE_SCANNING_DEFAULT;
 
@@ -69,7 +77,7 @@ import static org.commonjava.maven.ext.common.util.ProfileUtils.PROFILE_SCANNING
  * Sequence of calls:
  * <ol>
  *   <li>{@link #init(ManipulationSession)}</li>
- *   <li>{@link #applyManipulations(List)}</li>
+ *   <li>{@link #applyManipulations(ManipulationSession, List)}</li>
  * </ol>
  *
  * @author jdcasey
@@ -80,10 +88,72 @@ public class ManipulationManager
 {
     private static final String MARKER_PATH = "target";
 
+    /**
+     * Written after a run that changed the build; holds the {@link BuildFingerprint} of that run.
+     */
     public static final String MARKER_FILE =  MARKER_PATH + File.separatorChar + "pom-manip-ext-marker.txt";
 
     public static final String RESULT_FILE = MARKER_PATH + File.separatorChar + "pom-manip-ext-result.json";
 
+    /**
+     * Written instead of {@link #RESULT_FILE} when {@link #RESULT_FORMAT_PROPERTY} is <code>ndjson</code>.
+     */
+    public static final String RESULT_NDJSON_FILE = MARKER_PATH + File.separatorChar + "pom-manip-ext-result.ndjson";
+
+    /**
+     * Format of the result file: <code>json</code> (the default) or <code>ndjson</code>.
+     */
+    private static final String RESULT_FORMAT_PROPERTY = "manipulationResultFormat";
+
+    /**
+     * File to record every remote resource and REST response consumed by this run into.
+     */
+    private static final String BUNDLE_EXPORT_PROPERTY = "resolutionBundleExport";
+
+    /**
+     * File previously written via {@link #BUNDLE_EXPORT_PROPERTY} to use as the only remote source for this run.
+     */
+    private static final String BUNDLE_IMPORT_PROPERTY = "resolutionBundleImport";
+
+    /**
+     * Written when checkpointing is enabled; holds the remote content consumed by the run so far.
+     */
+    public static final String CHECKPOINT_FILE = MARKER_PATH + File.separatorChar + "pom-manip-ext-checkpoint.zip";
+
+    /**
+     * Write a checkpoint once the remote resolution phase has completed and whenever the run fails.
+     */
+    private static final String CHECKPOINT_PROPERTY = "manipulationCheckpoint";
+
+    /**
+     * Resume from the checkpoint of a previous failed run, if any; only content not in the checkpoint is fetched.
+     * Implies {@link #CHECKPOINT_PROPERTY}.
+     */
+    private static final String RESUME_PROPERTY = "manipulationResume";
+
+    /**
+     * Execution index of the last manipulator of the remote resolution phase: the REST collectors and the BOM loading
+     * in {@link org.commonjava.maven.ext.core.impl.PluginManipulator} and
+     * {@link org.commonjava.maven.ext.core.impl.DependencyManipulator}.
+     */
+    private static final int CHECKPOINT_INDEX = 40;
+
+    /**
+     * Maximum number of manipulators to run concurrently. Defaults to 1, running every manipulator in turn.
+     */
+    private static final String MANIPULATOR_THREADS_PROPERTY = "manipulatorThreads";
+
+    /**
+     * Maximum duration of the run in seconds, covering remote resolution, REST calls and Groovy scripts. Once expired
+     * all work in flight is cancelled and the run fails, reporting what was still pending. Unbounded by default.
+     */
+    private static final String TIMEOUT_PROPERTY = "manipulationTimeout";
+
+    /**
+     * Optional file to write the manipulator timings to in the Prometheus text format.
+     */
+    private static final String TIMINGS_PROMETHEUS_PROPERTY = "manipulatorTimingsPrometheus";
+
     private final Logger logger = LoggerFactory.getLogger( getClass() );
 
     private final ProjectBuilder projectBuilder;
@@ -109,6 +179,18 @@ public class ManipulationManager
      */
     private List<Manipulator> orderedManipulators;
 
+    private ManipulatorScheduler scheduler;
+
+    private int manipulatorThreads;
+
+    private ManipulatorTimings timings;
+
+    private BuildFingerprint fingerprint;
+
+    private Checkpoint checkpoint;
+
+    private ResultWriter.Format resultFormat;
+
     /**
      * Initialize {@link ManipulationSession} using the given {@link MavenSession} instance, along with any state managed by the individual
      * {@link Manipulator} components.
@@ -120,12 +202,24 @@ public class ManipulationManager
         throws ManipulationException
     {
         logger.debug( "Initialising ManipulationManager with user properties {}", session.getUserProperties() );
+        // The states are all initialised from a single snapshot of the (now complete) user properties.
+        session.updateConfiguration();
+        session.setDeadline( createDeadline( session ) );
+        fingerprint = BuildFingerprint.of( session.getConfiguration() );
+
+        final ResolutionBundle bundle = createResolutionBundle( session );
+        session.setResolutionBundle( bundle );
 
         for ( final ExtensionInfrastructure infra : infrastructure.values() )
         {
+            if ( infra instanceof GalleyInfrastructure )
+            {
+                ( (GalleyInfrastructure) infra ).setResolutionBundle( bundle );
+            }
             infra.init( );
         }
 
+        timings = new ManipulatorTimings();
         orderedManipulators = new ArrayList<>( manipulators.values() );
         // The RESTState depends upon the VersionState being initialised. Therefore initialise in reverse order
         // and do a final sort to run in the correct order. See the Manipulator interface for detailed discussion
@@ -136,26 +230,169 @@ public class ManipulationManager
         {
             logger.debug( "Initialising manipulator " + manipulator.getClass()
                                                                    .getSimpleName() );
+            final ManipulatorTimings.Sample sample = ManipulatorTimings.start();
             manipulator.init( session );
+            timings.recordInit( manipulator, sample );
         }
         orderedManipulators.sort( new ManipulatorPriorityComparator() );
+        scheduler = new ManipulatorScheduler( orderedManipulators, timings, session.getDeadline() );
+
+        checkpoint = null;
+        if ( bundle != null && !bundle.isReplaying() && isCheckpointing( session ) )
+        {
+            checkpoint = new Checkpoint( new File( session.getTargetDir().getParentFile(), CHECKPOINT_FILE ), bundle,
+                                         orderedManipulators.stream()
+                                                            .filter( m -> m.getExecutionIndex() <= CHECKPOINT_INDEX )
+                                                            .collect( Collectors.toList() ),
+                                         checkpointFingerprint( session ),
+                                         () -> session.getProjects()
+                                                      .stream()
+                                                      .map( Project::getPom )
+                                                      .collect( Collectors.toList() ) );
+        }
+
+        final String threads = session.getUserProperties().getProperty( MANIPULATOR_THREADS_PROPERTY, "1" );
+        try
+        {
+            manipulatorThreads = Integer.parseInt( threads.trim() );
+        }
+        catch ( NumberFormatException e )
+        {
+            throw new ManipulationException( "Invalid value {} for {}", e, threads, MANIPULATOR_THREADS_PROPERTY );
+        }
+
+        final String format = session.getUserProperties().getProperty( RESULT_FORMAT_PROPERTY, "json" );
+        try
+        {
+            resultFormat = ResultWriter.Format.valueOf( format.trim().toUpperCase() );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            throw new ManipulationException( "Invalid value {} for {}", e, format, RESULT_FORMAT_PROPERTY );
+        }
 
         // Now init the common state
-        session.setState( new CommonState( session.getUserProperties()) );
+        session.setState( new CommonState( session.getConfiguration() ) );
+    }
+
+    /**
+     * Determine whether a previous execution may be reused, i.e. a marker file exists whose fingerprint matches the
+     * given configuration and the current POM files. This needs no session or {@link #init(ManipulationSession)}, so
+     * that a run with nothing to do stays cheap; callers should check it before initialising.
+     *
+     * @param pom the top level POM of the build.
+     * @param userProperties the effective user properties, i.e. including those from the config file.
+     * @return true if manipulation may be skipped.
+     */
+    public static boolean isUpToDate( final File pom, final Properties userProperties )
+    {
+        return BuildFingerprint.of( userProperties )
+                               .matches( new File( pom.getAbsoluteFile().getParentFile(), MARKER_FILE ) );
+    }
+
+    private Deadline createDeadline( final ManipulationSession session ) throws ManipulationException
+    {
+        final String timeout = session.getUserProperties().getProperty( TIMEOUT_PROPERTY );
+        if ( isEmpty( timeout ) )
+        {
+            return Deadline.NONE;
+        }
+        try
+        {
+            final Deadline deadline = Deadline.after( Long.parseLong( timeout.trim() ), TimeUnit.SECONDS );
+            logger.info( "Manipulation must complete within {} seconds", timeout.trim() );
+            return deadline;
+        }
+        catch ( NumberFormatException e )
+        {
+            throw new ManipulationException( "Invalid value {} for {}", e, timeout, TIMEOUT_PROPERTY );
+        }
+    }
+
+    private ResolutionBundle createResolutionBundle( final ManipulationSession session )
+                    throws ManipulationException
+    {
+        final String importFile = session.getUserProperties().getProperty( BUNDLE_IMPORT_PROPERTY );
+        final String exportFile = session.getUserProperties().getProperty( BUNDLE_EXPORT_PROPERTY );
+
+        if ( isNotEmpty( importFile ) && isNotEmpty( exportFile ) )
+        {
+            throw new ManipulationException( "Only one of {} and {} may be specified", BUNDLE_IMPORT_PROPERTY,
+                                             BUNDLE_EXPORT_PROPERTY );
+        }
+        else if ( isNotEmpty( importFile ) )
+        {
+            return ResolutionBundle.load( new File( importFile ) );
+        }
+        else if ( Boolean.parseBoolean( session.getUserProperties().getProperty( RESUME_PROPERTY, "false" ) ) )
+        {
+            final File file = new File( session.getTargetDir().getParentFile(), CHECKPOINT_FILE );
+            final ResolutionBundle resumed = Checkpoint.resume( file, checkpointFingerprint( session ) );
+            if ( resumed != null )
+            {
+                return resumed;
+            }
+            logger.info( "No usable checkpoint found at {} ; running from the start", file );
+            return ResolutionBundle.recording();
+        }
+        else if ( isNotEmpty( exportFile ) || isCheckpointing( session ) )
+        {
+            return ResolutionBundle.recording();
+        }
+        return null;
+    }
+
+    /**
+     * The fingerprint a checkpoint is written with and validated against. Whether a run checkpoints or resumes does
+     * not affect the content it consumes, so those properties are excluded.
+     */
+    private static BuildFingerprint checkpointFingerprint( final ManipulationSession session )
+    {
+        final Properties properties = new Properties();
+        properties.putAll( session.getConfiguration() );
+        properties.remove( CHECKPOINT_PROPERTY );
+        properties.remove( RESUME_PROPERTY );
+        return BuildFingerprint.of( properties );
+    }
+
+    private static boolean isCheckpointing( final ManipulationSession session )
+    {
+        return Boolean.parseBoolean( session.getUserProperties().getProperty( CHECKPOINT_PROPERTY, "false" ) )
+                        || Boolean.parseBoolean( session.getUserProperties().getProperty( RESUME_PROPERTY, "false" ) );
     }
 
     /**
-     * Encapsulates {@link #applyManipulations(List)}
+     * Encapsulates {@link #applyManipulations(ManipulationSession, List)}
      *
      * @param session the container session for manipulation.
      * @throws ManipulationException if an error occurs.
      */
     public void scanAndApply( final ManipulationSession session )
                     throws ManipulationException
+    {
+        try
+        {
+            scanAndApplyInternal( session );
+        }
+        finally
+        {
+            session.getDeadline().close();
+
+            // Ensure shutdown of GalleyInfrastructure Executor Service
+            for ( ExtensionInfrastructure e : infrastructure.values() )
+            {
+                e.finish();
+            }
+        }
+
+        logger.info( "Maven-Manipulation-Extension: Finished." );
+    }
+
+    private void scanAndApplyInternal( final ManipulationSession session )
+                    throws ManipulationException
     {
         final List<Project> currentProjects = pomIO.parseProject( session.getPom() );
-        final List<Project> originalProjects = new ArrayList<>(  );
-        currentProjects.forEach( p -> originalProjects.add( new Project( p ) ) );
+        final List<Project> originalProjects = Project.snapshot( currentProjects );
 
         session.getActiveProfiles().addAll( parseActiveProfiles( session, currentProjects ) );
         session.setProjects( currentProjects );
@@ -166,9 +403,9 @@ public class ManipulationManager
             }
         }
 
-        Set<Project> changed = applyManipulations( currentProjects );
+        Set<Project> changed = applyManipulations( session, currentProjects );
 
-        // Create a marker file if we made some changes to prevent duplicate runs.
+        // Create a marker file if we made some changes to prevent duplicate runs with the same inputs.
         if ( !changed.isEmpty() )
         {
             logger.info( "Maven-Manipulation-Extension: Rewrite changed: {}", currentProjects );
@@ -180,14 +417,10 @@ public class ManipulationManager
                 final VersioningState state = session.getState( VersioningState.class );
                 state.setExecutionRootModified( gav );
 
-                new File( session.getTargetDir().getParentFile(), ManipulationManager.MARKER_PATH ).mkdirs();
+                fingerprint.write( new File( session.getTargetDir().getParentFile(), MARKER_FILE ),
+                                   currentProjects.stream().map( Project::getPom ).collect( Collectors.toList() ) );
 
-                new File( session.getTargetDir().getParentFile(), ManipulationManager.MARKER_FILE ).createNewFile();
-
-                try (FileWriter writer = new FileWriter( new File( session.getTargetDir().getParentFile(), RESULT_FILE ) ))
-                {
-                    writer.write( collectResults( session ) );
-                }
+                writeResults( session );
             }
             catch ( IOException e )
             {
@@ -199,43 +432,49 @@ public class ManipulationManager
             ProjectComparator.compareProjects( session, map , originalProjects, currentProjects );
         }
 
-        // Ensure shutdown of GalleyInfrastructure Executor Service
-        for ( ExtensionInfrastructure e : infrastructure.values() )
+        final String prometheusFile = session.getUserProperties().getProperty( TIMINGS_PROMETHEUS_PROPERTY );
+        if ( isNotEmpty( prometheusFile ) )
         {
-            e.finish();
+            try
+            {
+                timings.writePrometheus( new File( prometheusFile ) );
+            }
+            catch ( IOException e )
+            {
+                throw new ManipulationException( "Unable to write manipulator timings to {}", e, prometheusFile );
+            }
         }
 
-        logger.info( "Maven-Manipulation-Extension: Finished." );
+        if ( checkpoint != null )
+        {
+            checkpoint.complete();
+        }
+
+        final ResolutionBundle bundle = session.getResolutionBundle();
+        if ( bundle != null && !bundle.isReplaying() && isNotEmpty(
+                        session.getUserProperties().getProperty( BUNDLE_EXPORT_PROPERTY ) ) )
+        {
+            bundle.write( new File( session.getUserProperties().getProperty( BUNDLE_EXPORT_PROPERTY ) ) );
+        }
     }
 
 
-    @SuppressWarnings( {"unchecked", "deprecation" } )
     private Set<String> parseActiveProfiles( ManipulationSession session, List<Project> projects ) throws ManipulationException
     {
-        final Set<String> activeProfiles = new HashSet<>();
-        final DefaultProfileManager dpm = new DefaultProfileManager( session.getSession().getContainer(), session.getUserProperties() );
-
-        logger.debug("Explicitly activating {}", session.getActiveProfiles());
-        dpm.explicitlyActivate( session.getActiveProfiles() );
-
-        for ( Project p : projects )
+        final ProfileSelector selector;
+        try
         {
-            // We clone the original profile here to prevent the DefaultProfileManager affecting the original list
-            // during its activation calculation.
-            p.getModel().getProfiles().stream().filter( newProfile -> ! dpm.getProfilesById().containsKey( newProfile.getId() ) ).
-                            forEach( newProfile -> dpm.addProfile( newProfile.clone() ) );
-
-            try
-            {
-                List<org.apache.maven.model.Profile> ap = dpm.getActiveProfiles();
-                activeProfiles.addAll( ap.stream().map( org.apache.maven.model.Profile::getId ).collect( Collectors.toList() ) );
-            }
-            catch ( ProfileActivationException e )
-            {
-                throw new ManipulationException( "Activation detection failure", e );
-            }
+            selector = session.getSession().getContainer().lookup( ProfileSelector.class );
+        }
+        catch ( ComponentLookupException e )
+        {
+            throw new ManipulationException( "Unable to lookup profile selector", e );
         }
 
+        logger.debug("Explicitly activating {}", session.getActiveProfiles());
+        final Set<String> activeProfiles =
+                        new ActiveProfileResolver( selector, session.getUserProperties(), session.getActiveProfiles() )
+                                        .getActiveProfiles( projects );
 
         if (logger.isDebugEnabled())
         {
@@ -251,26 +490,51 @@ public class ManipulationManager
      * After projects are scanned for modifications, apply any modifications and rewrite POMs as needed. This method performs the following:
      * <ul>
      *   <li>read the raw models (uninherited, with only a bare minimum interpolation) from disk to escape any interpretation happening during project-building</li>
-     *   <li>apply any manipulations
+     *   <li>apply any manipulations, concurrently where {@link #MANIPULATOR_THREADS_PROPERTY} allows
      *   <li>rewrite any POMs that were changed</li>
      * </ul>
      *
+     * @param session the container session.
      * @param projects the list of Projects to apply the changes to.
      * @return collection of the changed projects.
      * @throws ManipulationException if an error occurs.
      */
-    private Set<Project> applyManipulations( final List<Project> projects )
+    private Set<Project> applyManipulations( final ManipulationSession session, final List<Project> projects )
         throws ManipulationException
     {
-        final Set<Project> changed = new HashSet<>();
-        for ( final Manipulator manipulator : orderedManipulators )
+        final RESTState restState = session.getState( RESTState.class );
+        final Set<Project> changed;
+        try
         {
-            final Set<Project> mChanged = manipulator.applyChanges( projects );
-
-            if ( mChanged != null )
+            changed = scheduler.apply( projects, manipulatorThreads, m -> {
+                if ( !m.maintainsDependencyIndex() && ModelSection.overlaps( m.getWrites(), DependencyIndex.SECTIONS ) )
+                {
+                    session.invalidateDependencyIndex();
+                }
+                if ( checkpoint != null )
+                {
+                    checkpoint.accept( m );
+                }
+            } );
+            if ( restState != null )
+            {
+                // Surface any failure of the REST call even if no manipulator consumed its results.
+                awaitRESTResults( session, restState );
+            }
+            session.getDeadline().check();
+        }
+        catch ( ManipulationException | RuntimeException e )
+        {
+            if ( restState != null )
             {
-                changed.addAll( mChanged );
+                // Don't leave the REST call running past the failed run.
+                restState.cancel();
             }
+            if ( checkpoint != null )
+            {
+                checkpoint.write();
+            }
+            throw e;
         }
 
         if ( changed.isEmpty() )
@@ -281,6 +545,23 @@ public class ManipulationManager
         return changed;
     }
 
+    private static void awaitRESTResults( final ManipulationSession session, final RESTState restState )
+                    throws ManipulationException
+    {
+        try
+        {
+            restState.awaitResults();
+        }
+        catch ( ManipulationException | RuntimeException e )
+        {
+            if ( session.getDeadline().isExpired() )
+            {
+                throw session.getDeadline().exceeded( e );
+            }
+            throw e;
+        }
+    }
+
     /**
      * After the modifications are applied, it may be useful for manipulators
      * to provide caller with a structured, computer-readable output or summary of the changes.
@@ -291,33 +572,33 @@ public class ManipulationManager
      * to be processed.
      * The result is a map from short state class names
      * to the result of the state serialization.
-     * Keys with empty values are excluded.
+     * Keys with empty values are excluded. Transfer statistics from the Galley infrastructure
+     * are recorded under {@link TransferMetrics} and the cost of each manipulator under <code>timings</code>.
+     * With {@link #RESULT_FORMAT_PROPERTY} set to <code>ndjson</code> each of these is instead written as a line of
+     * {@link #RESULT_NDJSON_FILE}.
      *
      * @param session the container session for manipulation.
      */
-    private String collectResults( final ManipulationSession session )
-                    throws JsonProcessingException
+    private void writeResults( final ManipulationSession session )
+                    throws IOException
     {
-        final ObjectMapper MAPPER = new ObjectMapper();
-        VisibilityChecker<?> vc = MAPPER.getSerializationConfig()
-                                        .getDefaultVisibilityChecker()
-                                        .withCreatorVisibility( JsonAutoDetect.Visibility.NONE )
-                                        .withFieldVisibility( JsonAutoDetect.Visibility.NONE )
-                                        .withGetterVisibility( JsonAutoDetect.Visibility.NONE )
-                                        .withIsGetterVisibility( JsonAutoDetect.Visibility.NONE )
-                                        .withSetterVisibility( JsonAutoDetect.Visibility.NONE );
-        MAPPER.setVisibility( vc );
-        MAPPER.configure( SerializationFeature.FAIL_ON_EMPTY_BEANS, false );
-        ObjectNode root = MAPPER.createObjectNode();
+        final ResultWriter writer = new ResultWriter();
         for ( final Map.Entry<Class<?>, State> stateEntry : session.getStatesCopy() )
         {
-            JsonNode node = MAPPER.convertValue( stateEntry.getValue(), JsonNode.class );
-            if ( node.isObject() && node.size() != 0 )
+            writer.add( stateEntry.getKey().getSimpleName(), stateEntry.getValue() );
+        }
+        for ( final ExtensionInfrastructure infra : infrastructure.values() )
+        {
+            if ( infra instanceof GalleyInfrastructure )
             {
-                root.set( stateEntry.getKey().getSimpleName(), node );
+                writer.add( TransferMetrics.class.getSimpleName(),
+                            ( (GalleyInfrastructure) infra ).getTransferMetrics() );
             }
         }
+        writer.add( "timings", timings.getManipulators() );
 
-        return MAPPER.writeValueAsString( root );
+        writer.write( new File( session.getTargetDir().getParentFile(),
+                                resultFormat == ResultWriter.Format.NDJSON ? RESULT_NDJSON_FILE : RESULT_FILE ),
+                      resultFormat );
     }
 }
@@ -21,11 +21,19 @@ import org.apache.maven.settings.Settings;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.model.Project;
 import org.commonjava.maven.ext.common.session.MavenSessionHandler;
+import org.commonjava.maven.ext.common.util.CoordinatePool;
+import org.commonjava.maven.ext.common.util.Deadline;
 import org.commonjava.maven.ext.common.util.ManifestUtils;
 import org.commonjava.maven.ext.core.impl.Manipulator;
 import org.commonjava.maven.ext.core.state.CommonState;
 import org.commonjava.maven.ext.core.state.State;
 import org.commonjava.maven.ext.core.state.VersioningState;
+import org.commonjava.maven.ext.core.util.DependencyIndex;
+import org.commonjava.maven.ext.core.util.PropertiesSnapshot;
+import org.commonjava.maven.ext.io.resolver.ResolutionBundle;
+import org.commonjava.maven.ext.io.rest.DefaultTranslator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -37,6 +45,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.function.Supplier;
 
 /**
  * Repository for components that help manipulate POMs as needed, and state related to each {@link Manipulator}
@@ -52,6 +61,8 @@ public class ManipulationSession
 {
     private static final String MANIPULATIONS_DISABLED_PROP = "manipulation.disable";
 
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
     private final Map<Class<?>, State> states = new HashMap<>();
 
     private MavenSession mavenSession;
@@ -63,6 +74,24 @@ public class ManipulationSession
 
     private ManipulationException error;
 
+    private ResolutionBundle resolutionBundle;
+
+    private Deadline deadline = Deadline.NONE;
+
+    private PropertiesSnapshot configuration;
+
+    private final CoordinatePool coordinatePool = new CoordinatePool();
+
+    private DependencyIndex dependencyIndex;
+
+    /**
+     * The REST translator and the configuration it was created with. Not per-run state: it is kept by
+     * {@link #reset()} so that a long lived container reuses it while the configuration is unchanged.
+     */
+    private DefaultTranslator translator;
+
+    private String translatorKey;
+
     public ManipulationSession()
     {
         try
@@ -88,23 +117,67 @@ public class ManipulationSession
         return !Boolean.parseBoolean( getUserProperties().getProperty( MANIPULATIONS_DISABLED_PROP, "false" ) );
     }
 
+    /**
+     * Clears all per-run state so that a long lived container may reuse this session for another run. Components
+     * reusable between runs, such as the REST translator, are kept.
+     */
+    public void reset()
+    {
+        states.clear();
+        mavenSession = null;
+        projects = null;
+        error = null;
+        resolutionBundle = null;
+        configuration = null;
+        coordinatePool.clear();
+        invalidateDependencyIndex();
+        setDeadline( Deadline.NONE );
+    }
+
     public void setState( final State state )
     {
         states.put( state.getClass(), state );
     }
 
     /**
-     * This will re-initialise any state linked to this session. This is useful if the control properties have been
-     * updated.
+     * This will re-initialise any state linked to this session from a new snapshot of the user properties. This is
+     * useful if the control properties have been updated. Every state is reinitialised, whether or not the properties
+     * it reads changed, so any updates made to the states since they were initialised are discarded.
      *
      * @throws ManipulationException if an error occurs
      */
     public void reinitialiseStates() throws ManipulationException
     {
+        updateConfiguration();
+
         for (State s : states.values() )
         {
-            s.initialise( getUserProperties() );
+            s.initialise( configuration );
+        }
+    }
+
+    /**
+     * Returns the snapshot of the user properties the states are initialised from. This is taken when the
+     * ManipulationManager is initialised and refreshed by {@link #reinitialiseStates()}; if there is none yet one is
+     * taken now.
+     *
+     * @return the snapshot of the user properties.
+     */
+    public PropertiesSnapshot getConfiguration()
+    {
+        if ( configuration == null )
+        {
+            configuration = PropertiesSnapshot.of( getUserProperties() );
         }
+        return configuration;
+    }
+
+    /**
+     * Take a new snapshot of the user properties for {@link #getConfiguration()}.
+     */
+    public void updateConfiguration()
+    {
+        configuration = PropertiesSnapshot.of( getUserProperties() );
     }
 
 
@@ -121,6 +194,7 @@ public class ManipulationSession
     public void setMavenSession( final MavenSession mavenSession )
     {
         this.mavenSession = mavenSession;
+        this.configuration = null;
     }
 
     @Override
@@ -133,6 +207,7 @@ public class ManipulationSession
     public void setProjects( final List<Project> projects )
     {
         this.projects = projects;
+        invalidateDependencyIndex();
     }
 
     public List<Project> getProjects()
@@ -140,6 +215,28 @@ public class ManipulationSession
         return projects;
     }
 
+    /**
+     * @return the index of the dependencies of the projects, built if there is none yet or it has been invalidated.
+     * @throws ManipulationException if the dependencies of a project cannot be resolved.
+     */
+    public synchronized DependencyIndex getDependencyIndex() throws ManipulationException
+    {
+        if ( dependencyIndex == null )
+        {
+            dependencyIndex = new DependencyIndex( this, projects );
+            logger.debug( "Indexed {} dependencies of {} projects", dependencyIndex.size(), projects.size() );
+        }
+        return dependencyIndex;
+    }
+
+    /**
+     * Discard the dependency index, after the dependencies have been changed without updating it.
+     */
+    public synchronized void invalidateDependencyIndex()
+    {
+        dependencyIndex = null;
+    }
+
     @Override
     public List<ArtifactRepository> getRemoteRepositories()
     {
@@ -248,6 +345,60 @@ public class ManipulationSession
         return Collections.emptyList();
     }
 
+    /**
+     * @return the bundle being recorded or replayed by this run, or null.
+     */
+    public ResolutionBundle getResolutionBundle()
+    {
+        return resolutionBundle;
+    }
+
+    public void setResolutionBundle( final ResolutionBundle resolutionBundle )
+    {
+        this.resolutionBundle = resolutionBundle;
+    }
+
+    @Override
+    public Deadline getDeadline()
+    {
+        return deadline;
+    }
+
+    @Override
+    public CoordinatePool getCoordinatePool()
+    {
+        return coordinatePool;
+    }
+
+    /**
+     * @param key identifies the configuration of the translator.
+     * @param create creates a translator for the configuration.
+     * @return the translator of the previous run if it had the same configuration, otherwise a new one. The caller
+     * must still apply the state of this run, e.g. its deadline.
+     */
+    public DefaultTranslator getTranslator( String key, Supplier<DefaultTranslator> create )
+    {
+        if ( translator == null || !key.equals( translatorKey ) )
+        {
+            translator = create.get();
+            translatorKey = key;
+        }
+        else
+        {
+            logger.debug( "Reusing REST translator for {}", key );
+        }
+        return translator;
+    }
+
+    /**
+     * @param deadline the deadline of this run; any previous deadline is closed.
+     */
+    public void setDeadline( final Deadline deadline )
+    {
+        this.deadline.close();
+        this.deadline = deadline;
+    }
+
     /**
      * @return Returns the current MavenSession
      */
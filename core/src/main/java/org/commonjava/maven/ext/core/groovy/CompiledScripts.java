@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.groovy;
+
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyShell;
+import groovy.lang.Script;
+import groovy.transform.ThreadInterrupt;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.customizers.ASTTransformationCustomizer;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Least recently used cache of compiled Groovy script classes, keyed by script name and a hash of the source. The
+ * {@link #shared()} instance lives for the lifetime of the JVM so that every run in one process (e.g. the roots of a
+ * batch or the requests to a daemon) compiles each script only once. As each class holds its own class loader the
+ * cache is bounded, and evicted classes are removed from the Groovy meta class registry and their loaders closed.
+ */
+public final class CompiledScripts
+{
+    /**
+     * Upper bound on the classes kept by the shared instance.
+     */
+    static final int LIMIT = 32;
+
+    private static final CompiledScripts SHARED = new CompiledScripts( LIMIT );
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final int limit;
+
+    private final Map<String, Class<? extends Script>> scripts = new LinkedHashMap<>( 16, 0.75f, true );
+
+    CompiledScripts( int limit )
+    {
+        this.limit = limit;
+    }
+
+    /**
+     * @return the instance shared by all runs in this JVM.
+     */
+    public static CompiledScripts shared()
+    {
+        return SHARED;
+    }
+
+    /**
+     * Returns the class compiled from the source, compiling it if not yet known. Every application should still create
+     * its own script instance from the class.
+     *
+     * @param name the class name of the script.
+     * @param source the script source.
+     * @return the compiled class.
+     */
+    public Class<? extends Script> compile( String name, String source )
+    {
+        final String key = name + '\n' + hash( source );
+        Class<? extends Script> compiled;
+        synchronized ( this )
+        {
+            compiled = scripts.get( key );
+        }
+        if ( compiled != null )
+        {
+            logger.debug( "Reusing compiled script {}", name );
+            return compiled;
+        }
+
+        // Compiled outside the lock so that other scripts need not wait; should another thread win the race its
+        // class is used and ours is released.
+        // Check for interruption within loops, methods and closures so a script can be cancelled at the deadline.
+        final CompilerConfiguration configuration = new CompilerConfiguration();
+        configuration.addCompilationCustomizers( new ASTTransformationCustomizer( ThreadInterrupt.class ) );
+        compiled = new GroovyShell( configuration ).parse( source, name ).getClass();
+
+        final List<Class<?>> evicted = new ArrayList<>();
+        final Class<? extends Script> existing;
+        synchronized ( this )
+        {
+            existing = scripts.putIfAbsent( key, compiled );
+            if ( existing == null )
+            {
+                while ( scripts.size() > limit )
+                {
+                    final Map.Entry<String, Class<? extends Script>> eldest = scripts.entrySet().iterator().next();
+                    evicted.add( eldest.getValue() );
+                    scripts.remove( eldest.getKey() );
+                }
+            }
+        }
+        if ( existing != null )
+        {
+            release( compiled );
+            return existing;
+        }
+        evicted.forEach( this::release );
+        return compiled;
+    }
+
+    /**
+     * @return the number of classes held.
+     */
+    public synchronized int size()
+    {
+        return scripts.size();
+    }
+
+    /**
+     * Release all classes held.
+     */
+    public void clear()
+    {
+        final List<Class<?>> evicted;
+        synchronized ( this )
+        {
+            evicted = new ArrayList<>( scripts.values() );
+            scripts.clear();
+        }
+        evicted.forEach( this::release );
+    }
+
+    /**
+     * Drops the class from the Groovy meta class registry, which would otherwise keep it and its loader reachable,
+     * and closes the loaders GroovyShell created for it. Instances still running are unaffected as all classes of the
+     * script were defined when it was compiled.
+     */
+    private void release( Class<?> compiled )
+    {
+        logger.debug( "Releasing compiled script {}", compiled.getName() );
+        InvokerHelper.removeClass( compiled );
+
+        final ClassLoader loader = compiled.getClassLoader();
+        if ( loader instanceof GroovyClassLoader.InnerLoader )
+        {
+            // The InnerLoader's parent is the loader of the GroovyShell, which was created for this script alone.
+            close( compiled, (GroovyClassLoader) loader.getParent() );
+        }
+        if ( loader instanceof GroovyClassLoader )
+        {
+            close( compiled, (GroovyClassLoader) loader );
+        }
+    }
+
+    private void close( Class<?> compiled, GroovyClassLoader loader )
+    {
+        try
+        {
+            loader.close();
+        }
+        catch ( IOException e )
+        {
+            logger.debug( "Unable to close class loader of {}", compiled.getName(), e );
+        }
+    }
+
+    private static String hash( String source )
+    {
+        try
+        {
+            return Base64.getEncoder()
+                         .encodeToString( MessageDigest.getInstance( "SHA-256" )
+                                                       .digest( source.getBytes( StandardCharsets.UTF_8 ) ) );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( "SHA-256 is a required JVM algorithm", e );
+        }
+    }
+}
@@ -78,7 +78,7 @@ public class BOMBuilderManipulator
     public void init( final ManipulationSession session )
     {
         this.session = session;
-        session.setState( new BOMInjectingState( session.getUserProperties() ) );
+        session.setState( new BOMInjectingState( session.getConfiguration() ) );
     }
 
     /**
@@ -15,17 +15,20 @@
  */
 package org.commonjava.maven.ext.core.impl;
 
-import groovy.lang.GroovyShell;
+import groovy.lang.Binding;
 import groovy.lang.MissingMethodException;
 import groovy.lang.Script;
 import org.apache.commons.io.FileUtils;
 import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.runtime.InvokerHelper;
 import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
 import org.commonjava.maven.atlas.ident.ref.SimpleArtifactRef;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.common.util.Deadline;
 import org.commonjava.maven.ext.core.ManipulationSession;
 import org.commonjava.maven.ext.core.groovy.BaseScript;
+import org.commonjava.maven.ext.core.groovy.CompiledScripts;
 import org.commonjava.maven.ext.core.groovy.InvocationStage;
 import org.commonjava.maven.ext.core.groovy.PMEInvocationPoint;
 import org.commonjava.maven.ext.core.state.GroovyState;
@@ -114,15 +117,33 @@ public abstract class BaseGroovyManipulator
     }
 
 
+    private Class<? extends Script> compile( File groovyScript ) throws IOException
+    {
+        // The class is shared by every project, stage and run in this JVM while each application still gets a fresh
+        // script instance.
+        return CompiledScripts.shared()
+                              .compile( scriptName( groovyScript ),
+                                        FileUtils.readFileToString( groovyScript, Charset.defaultCharset() ) );
+    }
+
+    /**
+     * The class name GroovyShell would have derived from the file name.
+     */
+    private static String scriptName( File groovyScript )
+    {
+        final String name = groovyScript.getName();
+        final int dot = name.lastIndexOf( '.' );
+        return ( dot > 0 ? name.substring( 0, dot ) : name ).replaceAll( "[^\\w$]", "_" );
+    }
+
     void applyGroovyScript( List<Project> projects, Project project, File groovyScript ) throws ManipulationException
     {
-        final GroovyShell shell = new GroovyShell( );
         final Script script;
         final InvocationStage stage;
 
         try
         {
-            script = shell.parse( groovyScript );
+            script = InvokerHelper.createScript( compile( groovyScript ), new Binding() );
 
             PMEInvocationPoint invocationPoint = script.getClass().getAnnotation( PMEInvocationPoint.class );
             if ( invocationPoint != null )
@@ -178,7 +199,12 @@ public abstract class BaseGroovyManipulator
             {
                 logger.info ("Executing {} on {} at invocation point {}", groovyScript, project, stage);
 
-                script.run();
+                try ( Deadline.Pending ignored = session.getDeadline()
+                                                       .track( "Groovy script " + groovyScript.getName() + " on "
+                                                                               + project ) )
+                {
+                    script.run();
+                }
 
                 logger.info ("Completed {}.", groovyScript);
             }
@@ -46,6 +46,7 @@ import javax.inject.Named;
 import javax.inject.Singleton;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -100,8 +101,10 @@ public class DependencyManipulator implements Manipulator
     @Override
     public void init( final ManipulationSession session ) throws ManipulationException
     {
-        session.setState( new DependencyState( session.getUserProperties() ) );
+        session.setState( new DependencyState( session.getConfiguration() ) );
         this.session = session;
+        explicitVersionPropertyUpdateMap.clear();
+        versionPropertyUpdateMap.clear();
     }
 
     /**
@@ -141,6 +144,10 @@ public class DependencyManipulator implements Manipulator
         // org.foo:foobar -> 1.2.0.redhat-2
         // org.foo:foobar -> 2.0.0.redhat-2
         // Which is useful for strictAlignment scenarios (although undefined for non-strict).
+        if ( restState != null )
+        {
+            restState.awaitResults();
+        }
         Map<ArtifactRef, String> restOverrides = depState.getRemoteRESTOverrides();
         Map<ArtifactRef, String> bomOverrides = new LinkedHashMap<>();
         Map<ArtifactRef, String> mergedOverrides = new LinkedHashMap<>();
@@ -225,6 +232,19 @@ public class DependencyManipulator implements Manipulator
         }
     }
 
+    @Override
+    public Set<ModelSection> getReads()
+    {
+        return EnumSet.of( ModelSection.PARENT, ModelSection.PROJECT_VERSION, ModelSection.PROPERTIES,
+                           ModelSection.PROFILES );
+    }
+
+    @Override
+    public Set<ModelSection> getWrites()
+    {
+        return EnumSet.of( ModelSection.PARENT, ModelSection.PROPERTIES, ModelSection.DEPENDENCIES );
+    }
+
     @Override
     public int getExecutionIndex()
     {
@@ -237,6 +257,10 @@ public class DependencyManipulator implements Manipulator
         final DependencyState state = session.getState( DependencyState.class );
         final CommonState cState = session.getState( CommonState.class );
         final Set<Project> result = new HashSet<>();
+        // Parse the module specific overrides once rather than for every module.
+        final ModuleOverrideIndex moduleOverrideIndex = new ModuleOverrideIndex( state.getDependencyExclusions() );
+
+        logger.debug( "Indexed {} module specific overrides", moduleOverrideIndex.size() );
 
         for ( final Project project : projects )
         {
@@ -244,7 +268,7 @@ public class DependencyManipulator implements Manipulator
 
             if (!overrides.isEmpty() || !state.getDependencyExclusions().isEmpty())
             {
-                apply( project, model, overrides );
+                apply( project, model, overrides, moduleOverrideIndex );
 
                 result.add( project );
             }
@@ -331,7 +355,8 @@ public class DependencyManipulator implements Manipulator
     /**
      * Applies dependency overrides to the project.
      */
-    private void apply( final Project project, final Model model, final Map<ArtifactRef, String> overrides )
+    private void apply( final Project project, final Model model, final Map<ArtifactRef, String> overrides,
+                        final ModuleOverrideIndex moduleOverrideIndex )
                     throws ManipulationException
     {
         // Map of Group : Map of artifactId [ may be wildcard ] : value
@@ -347,7 +372,7 @@ public class DependencyManipulator implements Manipulator
 
         try
         {
-            moduleOverrides = applyModuleVersionOverrides( projectGA, dependencyState.getDependencyExclusions(),
+            moduleOverrides = applyModuleVersionOverrides( projectGA, moduleOverrideIndex,
                                                            moduleOverrides, explicitOverrides,
                                                            dependencyState.getExtraBOMDepMgmts() );
             logger.debug( "Module overrides are:\n{}", moduleOverrides );
@@ -520,7 +545,8 @@ public class DependencyManipulator implements Manipulator
         // Apply matching overrides to dependencies
         for ( final ArtifactRef dependency : dependencies.keySet() )
         {
-            final ProjectRef groupIdArtifactId = new SimpleProjectRef( dependency.getGroupId(), dependency.getArtifactId() );
+            final ProjectRef groupIdArtifactId = session.getCoordinatePool()
+                                                        .projectRef( dependency.getGroupId(), dependency.getArtifactId() );
 
             if ( explicitOverrides.containsKey( groupIdArtifactId ) )
             {
@@ -603,7 +629,7 @@ public class DependencyManipulator implements Manipulator
         // Apply matching overrides to dependencies
         for ( final ArtifactRef dependency : dependencies.keySet() )
         {
-            ProjectRef depPr = new SimpleProjectRef( dependency.getGroupId(), dependency.getArtifactId() );
+            ProjectRef depPr = session.getCoordinatePool().projectRef( dependency.getGroupId(), dependency.getArtifactId() );
 
             // We might have junit:junit:3.8.2 and junit:junit:4.1 for differing override scenarios within the
             // overrides list. If strict mode alignment is enabled, using multiple overrides will work with
@@ -742,20 +768,20 @@ public class DependencyManipulator implements Manipulator
     }
 
     /**
-     * Remove module overrides which do not apply to the current module. Searches the full list of version overrides
-     * for any keys which contain the '@' symbol.  Removes these from the version overrides list, and add them back
-     * without the '@' symbol only if they apply to the current module.
+     * Remove module overrides which do not apply to the current module. The module specific version overrides, i.e.
+     * those keys which contain the '@' symbol, are removed from the version overrides list, and added back without the
+     * '@' symbol only if they apply to the current module.
      *
      * @param projectGA the current project group : artifact
+     * @param moduleOverrides the module specific overrides e.g. group:artifact@groupId:artifactId :: value
      * @param originalOverrides The full list of version overrides, both global and module specific
-     * @param moduleOverrides are individual overrides e.g. group:artifact@groupId:artifactId :: value
      * @param explicitOverrides a custom map to handle wildcard overrides
      * @param extraBOMOverrides a nested map of additional overrides, keyed on a String
      * @return The map of global and module specific overrides which apply to the given module
      * @throws ManipulationException if an error occurs
      */
     private Map<ArtifactRef, String> applyModuleVersionOverrides( final String projectGA,
-                                                                  final Map<String, String> moduleOverrides,
+                                                                  final ModuleOverrideIndex moduleOverrides,
                                                                   Map<ArtifactRef, String> originalOverrides,
                                                                   final WildcardMap<String> explicitOverrides,
                                                                   final Map<String, Map<ProjectRef, String>> extraBOMOverrides )
@@ -769,137 +795,91 @@ public class DependencyManipulator implements Manipulator
                     join(remainingOverrides.entrySet(), "\n  "));
         }
 
-        // These modes correspond to two different kinds of passes over the available override properties:
+        // There are two different kinds of passes over the override rules which apply to this module:
         // 1. Module-specific: Don't process wildcard overrides here, allow module-specific settings to take precedence.
-        // 2. Wildcards: Add these IF there is no corresponding module-specific override.
-        final boolean[] wildcardMode = { false, true };
-        for ( boolean aWildcardMode : wildcardMode )
+        for ( final ModuleOverrideIndex.Rule rule : moduleOverrides.getModuleRules( projectGA ) )
         {
-            for ( final String currentKey : new HashSet<>( moduleOverrides.keySet() ) )
-            {
-                final String currentValue = moduleOverrides.get( currentKey );
-
-                logger.debug( "Processing key {} for override with value {}", currentKey, currentValue );
-
-                if ( !currentKey.contains( "@" ) )
-                {
-                    logger.debug( "Not an override. Skip." );
-                    continue;
-                }
-
-                final boolean isModuleWildcard = currentKey.endsWith( "@*" );
-                logger.debug( "Is wildcard? {} and in module wildcard mode? {} ", isModuleWildcard, aWildcardMode );
+            final String currentValue = rule.getValue();
 
-                String artifactGA;
-                boolean replace = false;
-                // process module-specific overrides (first)
-                if ( !aWildcardMode )
-                {
-                    // skip wildcard overrides in this mode
-                    if ( isModuleWildcard )
-                    {
-                        logger.debug( "Not currently in wildcard mode. Skip." );
-                        continue;
-                    }
+            logger.debug( "For artifact override: {}, module override {} applies to current project: {}",
+                          rule.getArtifactGA(), rule.getKey(), projectGA );
 
-                    final String[] artifactAndModule = currentKey.split( "@" );
-                    if ( artifactAndModule.length != 2 )
-                    {
-                        throw new ManipulationException( "Invalid format for exclusion key " + currentKey );
-                    }
-                    artifactGA = artifactAndModule[0];
-                    final ProjectRef moduleGA = SimpleProjectRef.parse( artifactAndModule[1] );
-
-                    logger.debug( "For artifact override: {}, comparing parsed module: {} to current project: {}",
-                                  artifactGA, moduleGA, projectGA );
-
-                    if ( moduleGA.toString().equals( projectGA ) ||
-                                    (
-                                        moduleGA.getArtifactId().equals( "*" ) &&
-                                        SimpleProjectRef.parse( projectGA ).getGroupId().equals( moduleGA.getGroupId()
-                                    )
-                        ) )
-                    {
-                        if ( currentValue != null && !currentValue.isEmpty() )
-                        {
-                            replace = true;
-                            logger.debug( "Overriding module dependency for {} with {} : {}", moduleGA, artifactGA,
-                                          currentValue );
-                        }
-                        else
-                        {
-                            // Override prevention...
-                            removeGA( remainingOverrides, SimpleProjectRef.parse( artifactGA ) );
-                            logger.debug( "For module {}, ignoring dependency override for {} ", moduleGA, artifactGA);
-                        }
-                    }
-                }
-                // process wildcard overrides (second)
-                else
-                {
-                    // skip module-specific overrides in this mode i.e. format of groupdId:artifactId@*=
-                    if ( !isModuleWildcard )
-                    {
-                        logger.debug( "Currently in wildcard mode. Skip." );
-                        continue;
-                    }
+            if ( currentValue != null && !currentValue.isEmpty() )
+            {
+                logger.debug( "Overriding module dependency for {} with {} : {}", projectGA, rule.getArtifactGA(),
+                              currentValue );
+                replaceModuleOverride( rule, explicitOverrides, extraBOMOverrides );
+            }
+            else
+            {
+                // Override prevention...
+                removeGA( remainingOverrides, rule.getArtifact() );
+                logger.debug( "For module {}, ignoring dependency override for {} ", projectGA, rule.getArtifactGA() );
+            }
+        }
 
-                    artifactGA = currentKey.substring( 0, currentKey.length() - 2 );
-                    logger.debug( "For artifact override: {}, checking if current overrides already contain a module-specific version.",
-                                  artifactGA );
+        // 2. Wildcards: Add these IF there is no corresponding module-specific override.
+        for ( final ModuleOverrideIndex.Rule rule : moduleOverrides.getWildcardRules() )
+        {
+            final String currentValue = rule.getValue();
 
-                    if ( explicitOverrides.containsKey( SimpleProjectRef.parse( artifactGA ) ) )
-                    {
-                        logger.debug( "For artifact override: {}, current overrides already contain a module-specific version. Skip.",
-                                      artifactGA );
-                        continue;
-                    }
+            logger.debug( "For artifact override: {}, checking if current overrides already contain a module-specific version.",
+                          rule.getArtifactGA() );
 
-                    // I think this is only used for e.g. dependencyExclusion.groupId:artifactId@*=<explicitVersion>
-                    if ( currentValue != null && !currentValue.isEmpty() )
-                    {
-                        logger.debug( "Overriding module dependency for {} with {} : {}", projectGA, artifactGA,
-                                      currentValue );
-                        replace = true;
-                    }
-                    else
-                    {
-                        // If we have a wildcard artifact we want to replace any prior explicit overrides
-                        // with this one i.e. this takes precedence.
-                        removeGA( remainingOverrides, SimpleProjectRef.parse( artifactGA ) );
-                        logger.debug( "Removing artifactGA {} from overrides", artifactGA );
-                    }
-                }
+            if ( explicitOverrides.containsKey( rule.getArtifact() ) )
+            {
+                logger.debug( "For artifact override: {}, current overrides already contain a module-specific version. Skip.",
+                              rule.getArtifactGA() );
+                continue;
+            }
 
-                if ( replace )
-                {
-                    ProjectRef projectRef = SimpleProjectRef.parse( artifactGA );
-                    String newArtifactValue;
-                    // Expand values that reference an extra BOM
-                    Map<ProjectRef, String> extraBOM = extraBOMOverrides.get( currentValue );
-                    if ( extraBOM == null )
-                    {
-                        newArtifactValue = currentValue;
-                    }
-                    else
-                    {
-                        newArtifactValue = extraBOM.get( projectRef );
-                        if ( newArtifactValue == null )
-                        {
-                            throw new ManipulationException( "Extra BOM {} does not define a version for artifact {} targeted by {}",
-                                                             currentValue, artifactGA, currentKey );
-                        }
-                        logger.debug( "Dereferenced value {} for {} from extra BOM {}", newArtifactValue, artifactGA,
-                                      currentValue );
-                    }
-                    explicitOverrides.put( projectRef, newArtifactValue );
-                }
+            // I think this is only used for e.g. dependencyExclusion.groupId:artifactId@*=<explicitVersion>
+            if ( currentValue != null && !currentValue.isEmpty() )
+            {
+                logger.debug( "Overriding module dependency for {} with {} : {}", projectGA, rule.getArtifactGA(),
+                              currentValue );
+                replaceModuleOverride( rule, explicitOverrides, extraBOMOverrides );
+            }
+            else
+            {
+                // If we have a wildcard artifact we want to replace any prior explicit overrides
+                // with this one i.e. this takes precedence.
+                removeGA( remainingOverrides, rule.getArtifact() );
+                logger.debug( "Removing artifactGA {} from overrides", rule.getArtifactGA() );
             }
         }
 
         return remainingOverrides;
     }
 
+    private void replaceModuleOverride( final ModuleOverrideIndex.Rule rule,
+                                        final WildcardMap<String> explicitOverrides,
+                                        final Map<String, Map<ProjectRef, String>> extraBOMOverrides )
+                    throws ManipulationException
+    {
+        final ProjectRef projectRef = rule.getArtifact();
+        final String currentValue = rule.getValue();
+        String newArtifactValue;
+        // Expand values that reference an extra BOM
+        Map<ProjectRef, String> extraBOM = extraBOMOverrides.get( currentValue );
+        if ( extraBOM == null )
+        {
+            newArtifactValue = currentValue;
+        }
+        else
+        {
+            newArtifactValue = extraBOM.get( projectRef );
+            if ( newArtifactValue == null )
+            {
+                throw new ManipulationException( "Extra BOM {} does not define a version for artifact {} targeted by {}",
+                                                 currentValue, rule.getArtifactGA(), rule.getKey() );
+            }
+            logger.debug( "Dereferenced value {} for {} from extra BOM {}", newArtifactValue, rule.getArtifactGA(),
+                          currentValue );
+        }
+        explicitOverrides.put( projectRef, newArtifactValue );
+    }
+
     private void removeGA( Map<ArtifactRef, String> overrides, ProjectRef ref )
     {
         Iterator<ArtifactRef> it = overrides.keySet().iterator();
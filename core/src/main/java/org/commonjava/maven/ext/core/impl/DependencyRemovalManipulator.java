@@ -15,11 +15,6 @@
  */
 package org.commonjava.maven.ext.core.impl;
 
-import org.apache.maven.model.Dependency;
-import org.apache.maven.model.DependencyManagement;
-import org.apache.maven.model.Model;
-import org.apache.maven.model.Profile;
-import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.model.Project;
@@ -27,15 +22,17 @@ import org.commonjava.maven.ext.core.ManipulationSession;
 import org.commonjava.maven.ext.core.state.DependencyRemovalState;
 import org.commonjava.maven.ext.core.state.DependencyState;
 import org.commonjava.maven.ext.core.state.State;
+import org.commonjava.maven.ext.core.util.DependencyIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import static org.commonjava.maven.ext.core.util.IdUtils.ga;
@@ -61,7 +58,7 @@ public class DependencyRemovalManipulator
     @Override
     public void init( final ManipulationSession session )
     {
-        session.setState( new DependencyRemovalState( session.getUserProperties() ) );
+        session.setState( new DependencyRemovalState( session.getConfiguration() ) );
         this.session = session;
     }
 
@@ -81,77 +78,42 @@ public class DependencyRemovalManipulator
         }
 
         final Set<Project> changed = new HashSet<>();
+        final DependencyIndex index = session.getDependencyIndex();
 
-        for ( final Project project : projects )
+        // Dependencies are removed from the dependencies and dependencyManagement of each project and its profiles.
+        for ( final ProjectRef ga : session.getState( DependencyRemovalState.class ).getDependencyRemoval() )
         {
-            final Model model = project.getModel();
-
-            if ( apply( project, model ) )
+            for ( final DependencyIndex.Occurrence occurrence : new ArrayList<>( index.get( ga ) ) )
             {
-                changed.add( project );
+                logger.debug( "Removing {} ", occurrence );
+                index.remove( occurrence );
+                changed.add( occurrence.getProject() );
             }
         }
 
+        for ( final Project project : changed )
+        {
+            logger.info( "Applied Dependency changes to: " + ga( project ) );
+        }
         return changed;
     }
 
-    private boolean apply( final Project project, final Model model ) throws ManipulationException
+    @Override
+    public Set<ModelSection> getReads()
     {
-        final DependencyRemovalState state = session.getState(DependencyRemovalState.class);
-
-        logger.info("Applying Dependency changes to: " + ga(project));
-
-        List<ProjectRef> dependenciesToRemove = state.getDependencyRemoval();
-        boolean result = scanDependencies( project.getAllResolvedDependencies( session ), dependenciesToRemove, model.getDependencies());
-
-        if ( model.getDependencyManagement() != null &&
-             scanDependencies(project.getResolvedManagedDependencies( session ), dependenciesToRemove, model.getDependencyManagement().getDependencies()))
-        {
-            result = true;
-        }
+        return EnumSet.of( ModelSection.PARENT, ModelSection.PROPERTIES, ModelSection.PROFILES );
+    }
 
-        final Map<Profile, Map<ArtifactRef, Dependency>> pd = project.getAllResolvedProfileDependencies( session );
-        final Map<Profile, Map<ArtifactRef, Dependency>> pmd = project.getResolvedProfileManagedDependencies( session );
-        for ( Profile profile : pd.keySet())
-        {
-            int index = model.getProfiles().indexOf( profile );
-            if ( scanDependencies( pd.get( profile ), dependenciesToRemove, model.getProfiles().get( index ).getDependencies() ) )
-            {
-                result = true;
-            }
-        }
-        for ( Profile profile : pmd.keySet())
-        {
-            int index = model.getProfiles().indexOf( profile );
-            DependencyManagement dm = model.getProfiles().get( index ).getDependencyManagement();
-            if ( dm != null )
-            {
-                if ( scanDependencies( pmd.get( profile ), dependenciesToRemove, dm.getDependencies() ) )
-                {
-                    result = true;
-                }
-            }
-        }
-        return result;
+    @Override
+    public Set<ModelSection> getWrites()
+    {
+        return EnumSet.of( ModelSection.DEPENDENCIES );
     }
 
-    private boolean scanDependencies( Map<ArtifactRef, Dependency> resolvedDependencies,
-                                      List<ProjectRef> dependenciesToRemove, List<Dependency> dependencies )
+    @Override
+    public boolean maintainsDependencyIndex()
     {
-        boolean result = false;
-        if ( dependencies != null )
-        {
-            for ( ArtifactRef pvr : resolvedDependencies.keySet() )
-            {
-                if ( dependenciesToRemove.contains( pvr.asProjectRef() ) )
-                {
-                    logger.debug( "Removing {} ", resolvedDependencies.get( pvr ) );
-                    dependencies.remove( resolvedDependencies.get( pvr ) );
-                    result = true;
-                }
-            }
-        }
-        return result;
+        return true;
     }
 
     @Override
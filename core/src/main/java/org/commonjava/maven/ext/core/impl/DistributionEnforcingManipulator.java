@@ -118,7 +118,7 @@ public class DistributionEnforcingManipulator
         throws ManipulationException
     {
         this.session = session;
-        session.setState( new DistributionEnforcingState( session.getUserProperties() ) );
+        session.setState( new DistributionEnforcingState( session.getConfiguration() ) );
     }
 
     /**
@@ -59,7 +59,7 @@ public class InitialGroovyManipulator
     @Override
     public void init( final ManipulationSession session ) throws ManipulationException
     {
-        GroovyState gs = new GroovyState( session.getUserProperties() );
+        GroovyState gs = new GroovyState( session.getConfiguration() );
         this.session = session;
         session.setState( gs );
     }
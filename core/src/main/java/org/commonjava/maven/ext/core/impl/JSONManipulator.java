@@ -30,6 +30,7 @@ import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.File;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -67,7 +68,7 @@ public class JSONManipulator
                     throws ManipulationException
     {
         this.session = session;
-        session.setState( new JSONState( session.getUserProperties() ) );
+        session.setState( new JSONState( session.getConfiguration() ) );
     }
 
     /**
@@ -160,6 +161,18 @@ public class JSONManipulator
         }
     }
 
+    @Override
+    public Set<ModelSection> getReads()
+    {
+        return EnumSet.noneOf( ModelSection.class );
+    }
+
+    @Override
+    public Set<ModelSection> getWrites()
+    {
+        return EnumSet.of( ModelSection.FILES );
+    }
+
     @Override
     public int getExecutionIndex()
     {
@@ -20,8 +20,10 @@ import org.commonjava.maven.ext.common.model.Project;
 import org.commonjava.maven.ext.core.ManipulationSession;
 import org.commonjava.maven.ext.core.state.State;
 import org.commonjava.maven.ext.core.state.VersioningState;
+import org.commonjava.maven.ext.core.util.DependencyIndex;
 import org.commonjava.maven.ext.core.util.IdUtils;
 
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 
@@ -40,6 +42,9 @@ import java.util.Set;
  * .... rest of the manipulators ....
  * [ Groovy - optionally last ]
  *
+ * Manipulators may declare the {@link ModelSection}s they read and write. When running with more than one
+ * manipulator thread, manipulators whose declarations do not conflict may run concurrently; conflicting
+ * manipulators always run in execution index order.
  *
  * @author jdcasey
  */
@@ -74,4 +79,33 @@ public interface Manipulator
      * @return current index.
      */
     int getExecutionIndex();
+
+    /**
+     * The sections of the build this manipulator reads. The default is {@link ModelSection#ALL}.
+     * @return the set of sections read.
+     */
+    default Set<ModelSection> getReads()
+    {
+        return EnumSet.of( ModelSection.ALL );
+    }
+
+    /**
+     * The sections of the build this manipulator modifies. The default is {@link ModelSection#ALL} which means
+     * the manipulator never runs concurrently with any other.
+     * @return the set of sections written.
+     */
+    default Set<ModelSection> getWrites()
+    {
+        return EnumSet.of( ModelSection.ALL );
+    }
+
+    /**
+     * Whether this manipulator keeps the session's {@link DependencyIndex} up to date with the changes it makes. If
+     * not, and it writes any of the {@link DependencyIndex#SECTIONS}, the index is rebuilt after it completes.
+     * @return true if the index is maintained.
+     */
+    default boolean maintainsDependencyIndex()
+    {
+        return false;
+    }
 }
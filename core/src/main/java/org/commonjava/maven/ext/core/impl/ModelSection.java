@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.impl;
+
+import org.commonjava.maven.ext.core.ManipulationSession;
+import org.commonjava.maven.ext.core.state.State;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The parts of the build that a {@link Manipulator} may read or write. These are declared via
+ * {@link Manipulator#getReads()} and {@link Manipulator#getWrites()} so that manipulators touching disjoint
+ * sections may be run concurrently.
+ */
+public enum ModelSection
+{
+    /**
+     * Everything, including sections not listed here. This is the default for any manipulator that does not declare
+     * its access, and conflicts with every other section.
+     */
+    ALL,
+    /**
+     * The {@link State} instances held in the {@link ManipulationSession}. Manipulators only reading their own,
+     * already initialised, state need not declare this.
+     */
+    STATES,
+    PARENT,
+    PROJECT_VERSION,
+    PROPERTIES,
+    DEPENDENCIES,
+    PLUGINS,
+    PROFILES,
+    REPOSITORIES,
+    REPORTING,
+    /**
+     * Files other than the POMs themselves, e.g. JSON, XML or settings files.
+     */
+    FILES;
+
+    /**
+     * @param first a set of sections
+     * @param second a set of sections
+     * @return true if the two sets share a section, or either contains {@link #ALL}.
+     */
+    public static boolean overlaps( Set<ModelSection> first, Set<ModelSection> second )
+    {
+        if ( first.isEmpty() || second.isEmpty() )
+        {
+            return false;
+        }
+        if ( first.contains( ALL ) || second.contains( ALL ) )
+        {
+            return true;
+        }
+        final Set<ModelSection> common = EnumSet.copyOf( first );
+        common.retainAll( second );
+        return !common.isEmpty();
+    }
+}
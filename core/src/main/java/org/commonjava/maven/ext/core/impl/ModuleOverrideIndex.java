@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.impl;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.commonjava.maven.ext.common.ManipulationException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The module specific dependencyOverride and dependencyExclusion rules, i.e. those keyed
+ * <code>groupId:artifactId@moduleGroupId:moduleArtifactId</code>, parsed once and indexed by the module they apply to
+ * so that finding the rules of a module does not examine every rule.
+ * <p>
+ * Rules are returned in a fixed order, the same for every module, as where several rules target the same artifact the
+ * last one applied wins.
+ */
+final class ModuleOverrideIndex
+{
+    private static final String WILDCARD = "*";
+
+    private static final String MODULE_WILDCARD = "@*";
+
+    /**
+     * Rules for a single module, by module group : artifact.
+     */
+    private final Map<String, List<Rule>> modules = new HashMap<>();
+
+    /**
+     * Rules for every module of a group, i.e. <code>@moduleGroupId:*</code>, by module groupId.
+     */
+    private final Map<String, List<Rule>> moduleGroups = new HashMap<>();
+
+    /**
+     * Rules for every module, i.e. <code>@*</code>.
+     */
+    private final List<Rule> wildcards = new ArrayList<>();
+
+    private int size;
+
+    /**
+     * @param overrides the dependencyOverride and dependencyExclusion keys (without prefix) and values; keys without
+     *                  a '@' are global rather than module specific and are ignored.
+     * @throws ManipulationException if a key is not of the form artifact@module.
+     */
+    ModuleOverrideIndex( Map<String, String> overrides ) throws ManipulationException
+    {
+        for ( final String key : new HashSet<>( overrides.keySet() ) )
+        {
+            if ( !key.contains( "@" ) )
+            {
+                continue;
+            }
+
+            final String value = overrides.get( key );
+            final Rule rule;
+
+            if ( key.endsWith( MODULE_WILDCARD ) )
+            {
+                rule = new Rule( size, key, key.substring( 0, key.length() - MODULE_WILDCARD.length() ), value );
+                wildcards.add( rule );
+            }
+            else
+            {
+                final String[] artifactAndModule = key.split( "@" );
+                if ( artifactAndModule.length != 2 )
+                {
+                    throw new ManipulationException( "Invalid format for exclusion key " + key );
+                }
+                final ProjectRef module = SimpleProjectRef.parse( artifactAndModule[1] );
+
+                rule = new Rule( size, key, artifactAndModule[0], value );
+                if ( module.getArtifactId().equals( WILDCARD ) )
+                {
+                    moduleGroups.computeIfAbsent( module.getGroupId(), k -> new ArrayList<>() ).add( rule );
+                }
+                else
+                {
+                    modules.computeIfAbsent( module.toString(), k -> new ArrayList<>() ).add( rule );
+                }
+            }
+            size++;
+        }
+    }
+
+    /**
+     * @return the number of module specific rules.
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * @param projectGA the module group : artifact.
+     * @return the rules naming the module or its group, which take precedence over the rules for every module.
+     */
+    List<Rule> getModuleRules( String projectGA )
+    {
+        final List<Rule> module = modules.getOrDefault( projectGA, Collections.emptyList() );
+        final List<Rule> group = moduleGroups.getOrDefault( SimpleProjectRef.parse( projectGA ).getGroupId(),
+                                                            Collections.emptyList() );
+        if ( group.isEmpty() )
+        {
+            return module;
+        }
+        else if ( module.isEmpty() )
+        {
+            return group;
+        }
+
+        // Both are in rule order, so merge them.
+        final List<Rule> result = new ArrayList<>( module.size() + group.size() );
+        int m = 0;
+        int g = 0;
+        while ( m < module.size() || g < group.size() )
+        {
+            if ( g == group.size() || ( m < module.size() && module.get( m ).ordinal < group.get( g ).ordinal ) )
+            {
+                result.add( module.get( m++ ) );
+            }
+            else
+            {
+                result.add( group.get( g++ ) );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the rules for every module.
+     */
+    List<Rule> getWildcardRules()
+    {
+        return wildcards;
+    }
+
+    /**
+     * A single module specific rule.
+     */
+    static final class Rule
+    {
+        private final int ordinal;
+
+        private final String key;
+
+        private final String artifactGA;
+
+        private final String value;
+
+        private ProjectRef artifact;
+
+        private Rule( int ordinal, String key, String artifactGA, String value )
+        {
+            this.ordinal = ordinal;
+            this.key = key;
+            this.artifactGA = artifactGA;
+            this.value = value;
+        }
+
+        /**
+         * @return the original key, i.e. artifact@module.
+         */
+        String getKey()
+        {
+            return key;
+        }
+
+        String getArtifactGA()
+        {
+            return artifactGA;
+        }
+
+        /**
+         * @return the parsed artifact group : artifact, which is only parsed once the rule applies.
+         */
+        ProjectRef getArtifact()
+        {
+            if ( artifact == null )
+            {
+                artifact = SimpleProjectRef.parse( artifactGA );
+            }
+            return artifact;
+        }
+
+        /**
+         * @return the version, or an empty value to prevent overriding the artifact.
+         */
+        String getValue()
+        {
+            return value;
+        }
+
+        @Override
+        public String toString()
+        {
+            return key + '=' + value;
+        }
+    }
+}
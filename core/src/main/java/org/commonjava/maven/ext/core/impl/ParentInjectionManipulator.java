@@ -50,7 +50,7 @@ public class ParentInjectionManipulator
     public void init( final ManipulationSession session )
     {
         this.session = session;
-        session.setState( new ParentInjectionState( session.getUserProperties() ) );
+        session.setState( new ParentInjectionState( session.getConfiguration() ) );
     }
 
     /**
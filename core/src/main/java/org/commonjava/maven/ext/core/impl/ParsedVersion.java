@@ -0,0 +1,382 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.impl;
+
+import org.commonjava.maven.ext.common.util.BoundedCache;
+
+/**
+ * Immutable breakdown of a version string into the parts described by {@link Version}, i.e.
+ * &lt;major&gt;.&lt;minor&gt;.&lt;micro&gt;.&lt;qualifierBase&gt;-&lt;buildnumber&gt;-&lt;snapshot&gt;.
+ * <p>
+ * The string is tokenized by hand rather than by the regular expressions {@link Version} historically used, but the
+ * parts are exactly the groups those expressions captured, including their corner cases: only ASCII digits count as
+ * digits, "SNAPSHOT" is matched ignoring ASCII case only, and a version containing a line terminator does not parse.
+ * <p>
+ * Instances are interned, so the same version string is only parsed once however many times it is examined.
+ */
+@SuppressWarnings("WeakerAccess") // Public API.
+public final class ParsedVersion
+{
+    private static final BoundedCache<String, ParsedVersion> CACHE = new BoundedCache<>( 10000 );
+
+    private static final String EMPTY_STRING = "";
+
+    private static final String SNAPSHOT = "snapshot";
+
+    private final String version;
+
+    /**
+     * Whether the version has no line terminators, which the original expressions would not match.
+     */
+    private final boolean parseable;
+
+    /**
+     * Whether the version starts with &lt;major&gt;[.&lt;minor&gt;[.&lt;micro&gt;]].
+     */
+    private final boolean numeric;
+
+    private final String major;
+
+    private final String minor;
+
+    private final String micro;
+
+    private final String mmm;
+
+    private final String qualifierWithDelim;
+
+    private final String qualifier;
+
+    private final String qualifierBase;
+
+    private final String buildNumber;
+
+    private final boolean snapshot;
+
+    /**
+     * Start of the snapshot suffix including its delimiter, or the length of the version if not a snapshot.
+     */
+    private final int snapshotStart;
+
+    /**
+     * Bounds of the trailing build number of the whole version, and the end of what precedes it and its delimiter.
+     */
+    private final int baseEnd;
+
+    private final int buildStart;
+
+    private final int buildEnd;
+
+    private ParsedVersion( String version )
+    {
+        final int length = version.length();
+
+        this.version = version;
+        this.parseable = !hasLineTerminator( version );
+        this.snapshot = parseable && endsWithSnapshot( version );
+        this.snapshotStart = snapshot ? delimitedStart( version, 0, length - SNAPSHOT.length() ) : length;
+
+        // Leading <major>[.<minor>[.<micro>]], each delimited by a single delimiter.
+        int mmmEnd = parseable ? digits( version, 0 ) : 0;
+        this.numeric = mmmEnd > 0;
+        this.major = numeric ? version.substring( 0, mmmEnd ) : null;
+
+        final int minorEnd = numeric ? delimitedDigits( version, mmmEnd ) : mmmEnd;
+        this.minor = minorEnd > mmmEnd ? version.substring( mmmEnd + 1, minorEnd ) : null;
+        mmmEnd = minorEnd;
+
+        final int microEnd = minor != null ? delimitedDigits( version, mmmEnd ) : mmmEnd;
+        this.micro = microEnd > mmmEnd ? version.substring( mmmEnd + 1, microEnd ) : null;
+        mmmEnd = microEnd;
+
+        // Qualifier with its build number, from the end of the version.
+        final int qualifierStart;
+        if ( numeric )
+        {
+            qualifierStart = mmmEnd < length && isDelimiter( version.charAt( mmmEnd ) ) ? mmmEnd + 1 : mmmEnd;
+            this.mmm = version.substring( 0, mmmEnd );
+            this.qualifierWithDelim = version.substring( mmmEnd );
+        }
+        else
+        {
+            qualifierStart = length > 0 && isDelimiter( version.charAt( 0 ) ) ? 1 : 0;
+            this.mmm = EMPTY_STRING;
+            this.qualifierWithDelim = version;
+        }
+        this.qualifier = version.substring( qualifierStart );
+
+        this.buildEnd = snapshotStart;
+        this.buildStart = digitsBefore( version, 0, buildEnd );
+        this.baseEnd = buildStart < buildEnd ? delimitedStart( version, 0, buildStart ) : buildStart;
+
+        if ( !parseable )
+        {
+            this.qualifierBase = qualifier;
+            this.buildNumber = EMPTY_STRING;
+        }
+        else
+        {
+            // The qualifier may not reach back to the trailing build number or snapshot delimiter of the whole version.
+            final int qualifierBuildEnd = snapshot ? delimitedStart( version, qualifierStart,
+                                                                     length - SNAPSHOT.length() ) : length;
+            final int qualifierBuildStart = digitsBefore( version, qualifierStart, qualifierBuildEnd );
+            final int qualifierBaseEnd = qualifierBuildStart < qualifierBuildEnd ?
+                            delimitedStart( version, qualifierStart, qualifierBuildStart ) :
+                            qualifierBuildStart;
+
+            this.qualifierBase = numeric ?
+                            version.substring( qualifierStart, qualifierBaseEnd ) :
+                            version.substring( 0, baseEnd );
+            this.buildNumber = version.substring( qualifierBuildStart, qualifierBuildEnd );
+        }
+    }
+
+    /**
+     * Parse a version, reusing a previous result for the same string.
+     *
+     * @param version the version to parse.
+     * @return the parsed version.
+     */
+    public static ParsedVersion parse( String version )
+    {
+        return CACHE.computeIfAbsent( version, ParsedVersion::new );
+    }
+
+    public String getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * @return the initial numeric portion excluding any delimiter suffix, or an empty string if there is none.
+     */
+    public String getMMM()
+    {
+        return mmm;
+    }
+
+    /**
+     * @return the major version, or null if the version does not start with one.
+     */
+    public String getMajor()
+    {
+        return major;
+    }
+
+    /**
+     * @return the minor version, or null if there is none.
+     */
+    public String getMinor()
+    {
+        return minor;
+    }
+
+    /**
+     * @return the micro version, or null if there is none.
+     */
+    public String getMicro()
+    {
+        return micro;
+    }
+
+    public String getQualifier()
+    {
+        return qualifier;
+    }
+
+    public String getQualifierWithDelim()
+    {
+        return qualifierWithDelim;
+    }
+
+    /**
+     * @return the qualifier without the build number and snapshot; see {@link Version#getQualifierBase(String)}.
+     */
+    public String getQualifierBase()
+    {
+        return qualifierBase;
+    }
+
+    /**
+     * @return the build number of the qualifier, or an empty string if there is none.
+     */
+    public String getBuildNumber()
+    {
+        return buildNumber;
+    }
+
+    public boolean isSnapshot()
+    {
+        return snapshot;
+    }
+
+    public String getSnapshot()
+    {
+        return snapshot ? version.substring( version.length() - SNAPSHOT.length() ) : EMPTY_STRING;
+    }
+
+    public String getSnapshotWithDelim()
+    {
+        return snapshot ? version.substring( snapshotStart ) : EMPTY_STRING;
+    }
+
+    /**
+     * @return the version without the snapshot suffix and its delimiter.
+     */
+    public String removeSnapshot()
+    {
+        return version.substring( 0, snapshotStart );
+    }
+
+    /**
+     * @return the version without its trailing build number and the delimiter of that.
+     */
+    public String removeBuildNumber()
+    {
+        if ( !parseable )
+        {
+            return version;
+        }
+        return version.substring( 0, baseEnd ) + version.substring( buildEnd );
+    }
+
+    /**
+     * @return the whole version without its trailing build number, snapshot and their delimiters, or null if it does
+     * not parse.
+     */
+    String getBase()
+    {
+        return parseable ? version.substring( 0, baseEnd ) : null;
+    }
+
+    /**
+     * @return whether the whole version, rather than its qualifier, ends with a build number.
+     */
+    boolean hasTrailingBuildNumber()
+    {
+        return buildStart < buildEnd;
+    }
+
+    /**
+     * Replace the trailing build number of the whole version, keeping its delimiter and any snapshot suffix.
+     *
+     * @param replacement the new build number, including any delimiter to add.
+     * @return the new version, or the version itself if it does not parse.
+     */
+    String replaceBuildNumber( String replacement )
+    {
+        if ( !parseable )
+        {
+            return version;
+        }
+        return version.substring( 0, buildStart ) + replacement + version.substring( buildEnd );
+    }
+
+    @Override
+    public String toString()
+    {
+        return version;
+    }
+
+    static boolean isDelimiter( char c )
+    {
+        return c == '.' || c == '-' || c == '_';
+    }
+
+    private static boolean isDigit( char c )
+    {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * The characters a regular expression <code>.</code> does not match.
+     */
+    private static boolean hasLineTerminator( String version )
+    {
+        for ( int i = 0; i < version.length(); i++ )
+        {
+            final char c = version.charAt( i );
+            if ( c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029' )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean endsWithSnapshot( String version )
+    {
+        final int start = version.length() - SNAPSHOT.length();
+        if ( start < 0 )
+        {
+            return false;
+        }
+        for ( int i = 0; i < SNAPSHOT.length(); i++ )
+        {
+            final char c = version.charAt( start + i );
+            if ( ( c >= 'A' && c <= 'Z' ? (char) ( c + 'a' - 'A' ) : c ) != SNAPSHOT.charAt( i ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the end of the digits starting at index.
+     */
+    private static int digits( String version, int index )
+    {
+        while ( index < version.length() && isDigit( version.charAt( index ) ) )
+        {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * @return the end of a delimiter followed by digits at index, or index if there are none.
+     */
+    private static int delimitedDigits( String version, int index )
+    {
+        if ( index + 1 < version.length() && isDelimiter( version.charAt( index ) ) && isDigit(
+                        version.charAt( index + 1 ) ) )
+        {
+            return digits( version, index + 1 );
+        }
+        return index;
+    }
+
+    /**
+     * @return the start of the digits ending at end, not before from.
+     */
+    private static int digitsBefore( String version, int from, int end )
+    {
+        while ( end > from && isDigit( version.charAt( end - 1 ) ) )
+        {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * @return start, or the index of the delimiter preceding it if there is one not before from.
+     */
+    private static int delimitedStart( String version, int from, int start )
+    {
+        return start > from && isDelimiter( version.charAt( start - 1 ) ) ? start - 1 : start;
+    }
+}
@@ -78,7 +78,7 @@ public class PluginInjectingManipulator
     public void init( final ManipulationSession session )
     {
         this.session = session;
-        session.setState( new PluginInjectingState( session.getUserProperties() ) );
+        session.setState( new PluginInjectingState( session.getConfiguration() ) );
     }
 
     /**
@@ -43,6 +43,7 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -116,7 +117,8 @@ public class PluginManipulator
     public void init( final ManipulationSession session ) throws ManipulationException
     {
         this.session = session;
-        session.setState( new PluginState( session.getUserProperties() ) );
+        session.setState( new PluginState( session.getConfiguration() ) );
+        versionPropertyUpdateMap.clear();
     }
 
     /**
@@ -213,6 +215,10 @@ public class PluginManipulator
     {
         final RESTState rState = session.getState( RESTState.class );
         final PluginState pState = session.getState( PluginState.class );
+        if ( rState != null )
+        {
+            rState.awaitResults();
+        }
         final Set<Plugin> restOverrides = pState.getRemoteRESTOverrides();
         final Set<Plugin> bomOverrides = new LinkedHashSet<>();
         final List<ProjectVersionRef> gavs = pState.getRemotePluginMgmt();
@@ -573,6 +579,19 @@ public class PluginManipulator
         }
     }
 
+    @Override
+    public Set<ModelSection> getReads()
+    {
+        return EnumSet.of( ModelSection.PARENT, ModelSection.PROJECT_VERSION, ModelSection.PROPERTIES,
+                           ModelSection.PROFILES );
+    }
+
+    @Override
+    public Set<ModelSection> getWrites()
+    {
+        return EnumSet.of( ModelSection.PROPERTIES, ModelSection.PLUGINS );
+    }
+
     @Override
     public int getExecutionIndex()
     {
@@ -32,6 +32,7 @@ import org.slf4j.LoggerFactory;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -61,7 +62,7 @@ public class PluginRemovalManipulator
     public void init( final ManipulationSession session )
     {
         this.session = session;
-        session.setState( new PluginRemovalState( session.getUserProperties() ) );
+        session.setState( new PluginRemovalState( session.getConfiguration() ) );
     }
 
     /**
@@ -140,6 +141,18 @@ public class PluginRemovalManipulator
         return result;
     }
 
+    @Override
+    public Set<ModelSection> getReads()
+    {
+        return EnumSet.of( ModelSection.PROFILES );
+    }
+
+    @Override
+    public Set<ModelSection> getWrites()
+    {
+        return EnumSet.of( ModelSection.PLUGINS );
+    }
+
     @Override
     public int getExecutionIndex()
     {
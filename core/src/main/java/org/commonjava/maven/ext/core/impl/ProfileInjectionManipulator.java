@@ -66,7 +66,7 @@ public class ProfileInjectionManipulator
     public void init( final ManipulationSession session )
     {
         this.session = session;
-        session.setState( new ProfileInjectionState( session.getUserProperties() ) );
+        session.setState( new ProfileInjectionState( session.getConfiguration() ) );
     }
 
     /**
@@ -26,6 +26,7 @@ import org.slf4j.LoggerFactory;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -55,7 +56,7 @@ public class ProfileRemovalManipulator
     public void init( final ManipulationSession session )
     {
         this.session = session;
-        session.setState( new ProfileRemovalState( session.getUserProperties() ) );
+        session.setState( new ProfileRemovalState( session.getConfiguration() ) );
     }
 
     /**
@@ -103,6 +104,18 @@ public class ProfileRemovalManipulator
         return changed;
     }
 
+    @Override
+    public Set<ModelSection> getReads()
+    {
+        return EnumSet.noneOf( ModelSection.class );
+    }
+
+    @Override
+    public Set<ModelSection> getWrites()
+    {
+        return EnumSet.of( ModelSection.PROFILES );
+    }
+
     @Override
     public int getExecutionIndex()
     {
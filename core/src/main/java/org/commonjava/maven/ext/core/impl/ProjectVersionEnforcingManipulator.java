@@ -61,7 +61,7 @@ public class ProjectVersionEnforcingManipulator
     public void init( final ManipulationSession session )
     {
         this.session = session;
-        session.setState( new ProjectVersionEnforcingState( session.getUserProperties() ) );
+        session.setState( new ProjectVersionEnforcingState( session.getConfiguration() ) );
     }
 
     /**
@@ -62,7 +62,7 @@ public class PropertyManipulator
     public void init( final ManipulationSession session )
     {
         this.session = session;
-        session.setState( new PropertyState( session.getUserProperties() ) );
+        session.setState( new PropertyState( session.getConfiguration() ) );
     }
 
     /**
@@ -28,6 +28,7 @@ import org.commonjava.maven.atlas.ident.ref.SimpleTypeAndClassifier;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.model.Project;
 import org.commonjava.maven.ext.common.model.SimpleScopedArtifactRef;
+import org.commonjava.maven.ext.common.util.CoordinatePool;
 import org.commonjava.maven.ext.common.util.PropertyResolver;
 import org.commonjava.maven.ext.core.ManipulationSession;
 import org.commonjava.maven.ext.core.state.DependencyState;
@@ -37,6 +38,7 @@ import org.commonjava.maven.ext.core.state.VersioningState;
 import org.commonjava.maven.ext.core.util.PropertiesUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -47,6 +49,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 
 import static org.apache.commons.lang.StringUtils.isEmpty;
@@ -55,6 +58,9 @@ import static org.apache.commons.lang.StringUtils.isEmpty;
  * This Manipulator runs very early. It makes a REST call to an external service to loadRemoteOverrides the GAVs to align the project version
  * and dependencies to. It will prepopulate Project GA versions into the VersioningState in case the VersioningManipulator has been activated
  * and the remote overrides into the DependencyState for those as well.
+ * <p>
+ * The call is made in the background once the GAVs have been collected so that manipulators not needing its results
+ * may proceed ; those that do wait for it via {@link RESTState#awaitResults()}.
  */
 @Named("rest-manipulator")
 @Singleton
@@ -122,6 +128,40 @@ public class RESTCollector
         }
         final List<ProjectVersionRef> restParam = new ArrayList<>( restParamSet );
 
+        // The blacklist check only concerns the execution root ; capture what it needs now as the projects may be
+        // modified by other manipulators while the REST call is outstanding.
+        final Project root = projects.stream().filter( Project::isExecutionRoot ).findFirst().orElse( null );
+        final ProjectRef rootRef = root == null ? null : root.getKey().asProjectRef();
+        final String rootVersion = root == null ? null : root.getVersion();
+        final String suffix = PropertiesUtils.getSuffix( session );
+        final Map<String, String> logContext = MDC.getCopyOfContextMap();
+
+        // Call the REST in the background ; consumers of the results wait for it via RESTState::awaitResults.
+        state.callInBackground( () -> {
+            if ( logContext != null )
+            {
+                MDC.setContextMap( logContext );
+            }
+            try
+            {
+                translate( state, vs, ds, ps, restParam, newProjectKeys, localDeps, rootRef, rootVersion, suffix );
+            }
+            catch ( ManipulationException e )
+            {
+                throw new CompletionException( e );
+            }
+            finally
+            {
+                MDC.clear();
+            }
+        } );
+    }
+
+    private void translate( RESTState state, VersioningState vs, DependencyState ds, PluginState ps,
+                            List<ProjectVersionRef> restParam, List<ProjectVersionRef> newProjectKeys,
+                            Set<ArtifactRef> localDeps, ProjectRef rootRef, String rootVersion, String suffix )
+                    throws ManipulationException
+    {
         // Call the REST to populate the result.
         logger.debug ("Passing {} GAVs into the REST client api {} ", restParam.size(), restParam);
         logger.info ("Calling REST client... (with {} GAVs)", restParam.size());
@@ -138,7 +178,7 @@ public class RESTCollector
         }
         logger.info ("REST Client returned {} ", restResult);
 
-        vs.setRESTMetadata (parseVersions(session, projects, state, newProjectKeys, restResult));
+        vs.setRESTMetadata (parseVersions( state, newProjectKeys, restResult, rootRef, rootVersion, suffix ));
 
         final Map<ArtifactRef, String> overrides = new HashMap<>();
 
@@ -160,8 +200,9 @@ public class RESTCollector
      * Parse the rest result for the project GAs and store them in versioning state for use
      * there by incremental suffix calculation.
      */
-    private Map<ProjectRef, Set<String>> parseVersions( ManipulationSession session, List<Project> projects, RESTState state,
-                                                        List<ProjectVersionRef> newProjectKeys, Map<ProjectVersionRef, String> restResult )
+    private Map<ProjectRef, Set<String>> parseVersions( RESTState state, List<ProjectVersionRef> newProjectKeys,
+                                                        Map<ProjectVersionRef, String> restResult, ProjectRef rootRef,
+                                                        String rootVersion, String suffix )
                     throws ManipulationException
     {
         Map<ProjectRef, Set<String>> versionStates = new HashMap<>();
@@ -186,54 +227,44 @@ public class RESTCollector
         // affect the incremental potential options. The simplest option is simply to add those results to versionStates
         // list. This will cause the incremental build number to be set to greater than those.
 
-        List<ProjectVersionRef> blacklist;
-
-        for ( Project p : projects )
+        if ( rootRef != null )
         {
-            if ( p.isExecutionRoot() )
+            logger.debug ("Calling REST client for blacklist with {}...", rootRef);
+            List<ProjectVersionRef> blacklist = state.getVersionTranslator().findBlacklisted( rootRef );
+
+            if ( blacklist.size() > 0)
             {
-                logger.debug ("Calling REST client for blacklist with {}...", p.getKey().asProjectRef());
-                blacklist = state.getVersionTranslator().findBlacklisted( p.getKey().asProjectRef() );
+                String bVersion = blacklist.get( 0 ).getVersionString();
+                String pVersion = rootVersion;
+                logger.debug( "REST Client returned for blacklist {} ", blacklist );
 
-                if ( blacklist.size() > 0)
+                if ( isEmpty( suffix ) )
                 {
-                    String suffix = PropertiesUtils.getSuffix( session );
-                    String bVersion = blacklist.get( 0 ).getVersionString();
-                    String pVersion = p.getVersion();
-                    logger.debug( "REST Client returned for blacklist {} ", blacklist );
-
-                    if ( isEmpty( suffix ) )
+                    logger.warn( "No version suffix found ; unable to verify community blacklisting." );
+                }
+                else if ( blacklist.size() == 1 && !bVersion.contains( suffix ) )
+                {
+                    if ( pVersion.contains( suffix ) )
                     {
-                        logger.warn( "No version suffix found ; unable to verify community blacklisting." );
+                        pVersion = pVersion.substring( 0, pVersion.indexOf( suffix ) - 1 );
                     }
-                    else if ( blacklist.size() == 1 && !bVersion.contains( suffix ) )
+                    if ( pVersion.equals( bVersion ) )
                     {
-                        if ( pVersion.contains( suffix ) )
-                        {
-                            pVersion = pVersion.substring( 0, pVersion.indexOf( suffix ) - 1 );
-                        }
-                        if ( pVersion.equals( bVersion ) )
-                        {
-                            throw new ManipulationException( "community artifact '" + blacklist.get( 0 ) + "' has been blacklisted. Unable to build project version "
-                                                                             + p.getVersion() );
-                        }
+                        throw new ManipulationException( "community artifact '" + blacklist.get( 0 ) + "' has been blacklisted. Unable to build project version "
+                                                                         + rootVersion );
                     }
-
-                    // Found part of the current project to store in Versioning State
-                    Set<String> versions = versionStates.computeIfAbsent( p.getKey().asProjectRef(), k -> new HashSet<>() );
-                    for ( ProjectVersionRef b : blacklist )
-                    {
-                        versions.add( b.getVersionString() );
-                    }
-
                 }
-                // else no blacklisted artifacts so just continue
 
-                break;
+                // Found part of the current project to store in Versioning State
+                Set<String> versions = versionStates.computeIfAbsent( rootRef, k -> new HashSet<>() );
+                for ( ProjectVersionRef b : blacklist )
+                {
+                    versions.add( b.getVersionString() );
+                }
             }
+            // else no blacklisted artifacts so just continue
         }
 
-
         return versionStates;
     }
 
@@ -355,10 +386,13 @@ public class RESTCollector
     {
         final VersioningState vs = session.getState( VersioningState.class );
 
+        final CoordinatePool pool = session.getCoordinatePool();
+
         for ( ProjectVersionRef pvr : plugins.keySet() )
         {
             deps.add( new SimpleScopedArtifactRef(
-                            new SimpleProjectVersionRef( pvr.asProjectRef(), handlePotentialSnapshotVersion( vs, pvr.getVersionString() ) ),
+                            pool.projectVersionRef( pvr.getGroupId(), pvr.getArtifactId(),
+                                                    handlePotentialSnapshotVersion( vs, pvr.getVersionString() ) ),
                             new SimpleTypeAndClassifier( "maven-plugin", null ), ArtifactScopeEnum.compile.name() ) );
         }
     }
@@ -377,12 +411,14 @@ public class RESTCollector
     {
         final VersioningState vs = session.getState( VersioningState.class );
         final RESTState state = session.getState( RESTState.class );
+        final CoordinatePool pool = session.getCoordinatePool();
 
         for ( ArtifactRef pvr : dependencies.keySet() )
         {
             Dependency d = dependencies.get( pvr );
             SimpleScopedArtifactRef sa = new SimpleScopedArtifactRef(
-                            new SimpleProjectVersionRef( pvr.asProjectRef(), handlePotentialSnapshotVersion( vs, pvr.getVersionString() ) ),
+                            pool.projectVersionRef( pvr.getGroupId(), pvr.getArtifactId(),
+                                                    handlePotentialSnapshotVersion( vs, pvr.getVersionString() ) ),
                             new SimpleTypeAndClassifier( d.getType(), d.getClassifier() ), isEmpty( d.getScope() ) ?
                                                                    ArtifactScopeEnum.compile.name() :
                                                                    PropertyResolver.resolveInheritedProperties( session,
@@ -21,6 +21,7 @@ import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
 import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
 import org.apache.maven.artifact.versioning.VersionRange;
 import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
 import org.apache.maven.model.Plugin;
 import org.apache.maven.model.Profile;
 import org.commonjava.maven.atlas.ident.ref.ProjectRef;
@@ -39,17 +40,26 @@ import org.slf4j.LoggerFactory;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * This Manipulator runs first and is active by default. It will resolve any ranges and update
- * them to locked values.
+ * them to locked values. All ranged GAs are collected up front so that the metadata for each GA
+ * is only retrieved once (concurrently) regardless of how many modules or profiles reference it.
  */
 @Named("range-resolver")
 @Singleton
@@ -72,13 +82,12 @@ public class RangeResolver
     public void init( final ManipulationSession session )
     {
         this.session = session;
-        session.setState( new RangeResolverState( session.getUserProperties() ) );
+        session.setState( new RangeResolverState( session.getConfiguration() ) );
     }
 
     @Override
     public Set<Project> applyChanges( final List<Project> projects ) throws ManipulationException
     {
-        final Set<Project> changed = new HashSet<>();
         final RangeResolverState state = session.getState( RangeResolverState.class );
 
         if ( !session.isEnabled() || !session.anyStateEnabled( State.activeByDefault ) || state == null || !state.isEnabled() )
@@ -87,156 +96,187 @@ public class RangeResolver
             return Collections.emptySet();
         }
 
+        // TODO:
+        // Ranges in properties are not currently handled.
+
+        // Phase one: collect every ranged element across all projects and profiles, grouped by GA.
+        final List<RangedElement> ranged = new ArrayList<>();
         for ( Project p : projects )
         {
-            try
-            {
-                // TODO:
-                // Ranges in properties are not currently handled.
+            collectRanges( p, ranged );
+        }
+        if ( ranged.isEmpty() )
+        {
+            return Collections.emptySet();
+        }
 
-                if ( p.getModel().getBuild() != null )
-                {
-                    // PluginManagement
-                    if ( p.getModel().getBuild().getPluginManagement() != null )
-                    {
-                        p.getModel()
-                         .getBuild()
-                         .getPluginManagement()
-                         .getPlugins()
-                         .stream()
-                         .filter( d -> StringUtils.isNotEmpty( d.getVersion() ) )
-                         .forEach( this::handleVersionWithRange );
-                    }
-                    // Plugins
-                    p.getModel()
-                     .getBuild()
-                     .getPlugins()
-                     .stream()
-                     .filter( d -> StringUtils.isNotEmpty( d.getVersion() ) )
-                     .forEach( this::handleVersionWithRange );
-                }
+        // Phase two: retrieve the metadata once per GA.
+        final Set<ProjectRef> gas = ranged.stream().map( r -> r.ga ).collect( Collectors.toCollection( LinkedHashSet::new ) );
+        final Map<ProjectRef, List<ArtifactVersion>> versions = getVersions( gas, state.getThreads() );
 
-                // DependencyManagement
-                if ( p.getModel().getDependencyManagement() != null )
-                {
-                    p.getModel().getDependencyManagement().getDependencies().stream()
-                     .filter( d -> StringUtils.isNotEmpty( d.getVersion() ) )
-                     .forEach( this::handleVersionWithRange );
-                }
-                // Dependencies
-                p.getModel().getDependencies().stream()
-                 .filter( d -> StringUtils.isNotEmpty( d.getVersion() ) )
-                 .forEach( this::handleVersionWithRange );
-
-                asStream( p.getModel().getProfiles() ).forEach( profile -> {
-                    // DependencyManagement
-                    if ( profile.getDependencyManagement() != null )
-                    {
-                        profile.getDependencyManagement().getDependencies().stream()
-                         .filter( d -> StringUtils.isNotEmpty( d.getVersion() ) )
-                         .forEach( this::handleVersionWithRange );
-                    }
-                    // Dependencies
-                    profile.getDependencies().stream()
-                     .filter( d -> StringUtils.isNotEmpty( d.getVersion() ) )
-                     .forEach( this::handleVersionWithRange );
-
-                    if ( profile.getBuild() != null )
-                    {
-                        // PluginManagement
-                        if ( profile.getBuild().getPluginManagement() != null )
-                        {
-                            profile.getBuild()
-                             .getPluginManagement()
-                             .getPlugins()
-                             .stream()
-                             .filter( d -> StringUtils.isNotEmpty( d.getVersion() ) )
-                             .forEach( this::handleVersionWithRange );
-                        }
-                        // Plugins
-                        profile.getBuild()
-                         .getPlugins()
-                         .stream()
-                         .filter( d -> StringUtils.isNotEmpty( d.getVersion() ) )
-                         .forEach( this::handleVersionWithRange );
-                    }
-                } );
-
-                changed.add( p );
+        // Phase three: resolve the ranges from the in-memory version lists.
+        final Set<Project> changed = new HashSet<>();
+        for ( RangedElement r : ranged )
+        {
+            final ArtifactVersion result = r.range.matchVersion( versions.get( r.ga ) );
+
+            logger.debug( "Resolved range for {} {} got versionRange {} and potential replacement of {} ", r.type, r.ga, r.range, result );
+
+            if ( result == null )
+            {
+                logger.warn( "Unable to find replacement for range {} of {} {}", r.range, r.type, r.ga );
             }
-            catch ( RuntimeException e )
+            else if ( !result.toString().equals( r.version ) )
             {
-                if ( e.getCause() instanceof ManipulationException )
-                {
-                    throw (ManipulationException)e.getCause();
-                }
-                throw e;
+                r.setter.accept( result.toString() );
+                changed.add( r.project );
             }
         }
         return changed;
     }
 
-    private void handleVersionWithRange( Plugin p )
+    private void collectRanges( Project p, List<RangedElement> ranged ) throws ManipulationException
     {
-        try
+        final Model model = p.getModel();
+
+        if ( model.getBuild() != null )
         {
-            VersionRange versionRange = VersionRange.createFromVersionSpec( p.getVersion() );
+            // PluginManagement
+            if ( model.getBuild().getPluginManagement() != null )
+            {
+                collectPluginRanges( p, model.getBuild().getPluginManagement().getPlugins(), ranged );
+            }
+            // Plugins
+            collectPluginRanges( p, model.getBuild().getPlugins(), ranged );
+        }
+
+        // DependencyManagement
+        if ( model.getDependencyManagement() != null )
+        {
+            collectDependencyRanges( p, model.getDependencyManagement().getDependencies(), ranged );
+        }
+        // Dependencies
+        collectDependencyRanges( p, model.getDependencies(), ranged );
 
-            // If its a range then try to use a matching version...
-            if ( versionRange.hasRestrictions() )
+        for ( Profile profile : asList( model.getProfiles() ) )
+        {
+            // DependencyManagement
+            if ( profile.getDependencyManagement() != null )
             {
-                final List<ArtifactVersion> versions = getVersions( new SimpleProjectRef( p.getGroupId(), p.getArtifactId() ) );
-                final ArtifactVersion result = versionRange.matchVersion( versions );
+                collectDependencyRanges( p, profile.getDependencyManagement().getDependencies(), ranged );
+            }
+            // Dependencies
+            collectDependencyRanges( p, profile.getDependencies(), ranged );
+
+            if ( profile.getBuild() != null )
+            {
+                // PluginManagement
+                if ( profile.getBuild().getPluginManagement() != null )
+                {
+                    collectPluginRanges( p, profile.getBuild().getPluginManagement().getPlugins(), ranged );
+                }
+                // Plugins
+                collectPluginRanges( p, profile.getBuild().getPlugins(), ranged );
+            }
+        }
+    }
 
-                logger.debug( "Resolved range for plugin {} got versionRange {} and potential replacement of {} ", p, versionRange, result );
+    private void collectPluginRanges( Project project, List<Plugin> plugins, List<RangedElement> ranged )
+                    throws ManipulationException
+    {
+        for ( Plugin p : plugins )
+        {
+            if ( StringUtils.isNotEmpty( p.getVersion() ) )
+            {
+                final VersionRange versionRange = parseRange( p.getVersion() );
 
-                if ( result != null )
+                // If its a range then record it so a matching version may be used...
+                if ( versionRange.hasRestrictions() )
                 {
-                    p.setVersion( result.toString() );
+                    ranged.add( new RangedElement( project, "plugin", new SimpleProjectRef( p.getGroupId(), p.getArtifactId() ),
+                                                   p.getVersion(), versionRange, p::setVersion ) );
                 }
-                else
+            }
+        }
+    }
+
+    private void collectDependencyRanges( Project project, List<Dependency> dependencies, List<RangedElement> ranged )
+                    throws ManipulationException
+    {
+        for ( Dependency d : dependencies )
+        {
+            if ( StringUtils.isNotEmpty( d.getVersion() ) )
+            {
+                final VersionRange versionRange = parseRange( d.getVersion() );
+
+                // If its a range then record it so a matching version may be used...
+                if ( versionRange.hasRestrictions() )
                 {
-                    logger.warn( "Unable to find replacement for range." );
+                    ranged.add( new RangedElement( project, "dependency", new SimpleProjectRef( d.getGroupId(), d.getArtifactId() ),
+                                                   d.getVersion(), versionRange, d::setVersion ) );
                 }
             }
         }
+    }
+
+    private VersionRange parseRange( String version ) throws ManipulationException
+    {
+        try
+        {
+            return VersionRange.createFromVersionSpec( version );
+        }
         catch ( InvalidVersionSpecificationException e )
         {
-            throw new RuntimeException( "UNCHECKED LAMBDA", new ManipulationException( "Invalid range", e ) );
+            throw new ManipulationException( "Invalid range", e );
         }
     }
 
-    private void handleVersionWithRange( Dependency d )
+    /**
+     * Retrieves the available versions for each GA concurrently.
+     *
+     * @param gas the deduplicated set of GAs to look up.
+     * @param threads the maximum number of concurrent retrievals.
+     * @return a map of GA to its available versions.
+     * @throws ManipulationException if an error occurs.
+     */
+    private Map<ProjectRef, List<ArtifactVersion>> getVersions( Set<ProjectRef> gas, int threads )
+                    throws ManipulationException
     {
+        final Map<ProjectRef, List<ArtifactVersion>> result = new HashMap<>();
+        final ExecutorService executor = Executors.newFixedThreadPool( Math.min( threads, gas.size() ) );
         try
         {
-            VersionRange versionRange = VersionRange.createFromVersionSpec( d.getVersion() );
-
-            // If its a range then try to use a matching version...
-            if ( versionRange.hasRestrictions() )
+            final Map<ProjectRef, Future<List<ArtifactVersion>>> futures = new LinkedHashMap<>();
+            for ( ProjectRef ga : gas )
             {
-                final List<ArtifactVersion> versions = getVersions( new SimpleProjectRef( d.getGroupId(), d.getArtifactId() ) );
-                final ArtifactVersion result = versionRange.matchVersion( versions );
-
-                logger.debug( "Resolved range for dependency {} got versionRange {} and potential replacement of {} ", d, versionRange, result );
-
-                if ( result != null )
-                {
-                    d.setVersion( result.toString() );
-                }
-                else
-                {
-                    logger.warn( "Unable to find replacement for range." );
-                }
+                futures.put( ga, executor.submit( () -> getVersions( ga ) ) );
+            }
+            for ( Map.Entry<ProjectRef, Future<List<ArtifactVersion>>> entry : futures.entrySet() )
+            {
+                result.put( entry.getKey(), entry.getValue().get() );
             }
         }
-        catch ( InvalidVersionSpecificationException e )
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new ManipulationException( "Interrupted while retrieving metadata", e );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof ManipulationException )
+            {
+                throw (ManipulationException) e.getCause();
+            }
+            throw new ManipulationException( "Caught exception retrieving metadata", e.getCause() );
+        }
+        finally
         {
-            throw new RuntimeException( "UNCHECKED LAMBDA", new ManipulationException( "Invalid range", e ) );
+            executor.shutdownNow();
         }
+        return result;
     }
 
-    private List<ArtifactVersion> getVersions( ProjectRef ga )
+    private List<ArtifactVersion> getVersions( ProjectRef ga ) throws ManipulationException
     {
         MavenMetadataView mavenMetadataView;
         try
@@ -245,15 +285,13 @@ public class RangeResolver
         }
         catch ( GalleyMavenException e )
         {
-            throw new RuntimeException( "UNCHECKED-LAMBDA", new ManipulationException( "Caught Galley exception processing artifact", e ) );
+            throw new ManipulationException( "Caught Galley exception processing artifact", e );
         }
         return mavenMetadataView.resolveXPathToAggregatedStringList( "/metadata/versioning/versions/version", true, -1 )
                                 .stream()
                                 .distinct()
                                 .map( DefaultArtifactVersion::new )
                                 .collect( Collectors.toList() );
-
-
     }
 
     @Override
@@ -263,8 +301,37 @@ public class RangeResolver
         return 2;
     }
 
-    private static Stream<Profile> asStream ( final Collection<Profile> collection)
+    private static List<Profile> asList( final List<Profile> collection )
+    {
+        return ( collection == null ? Collections.emptyList() : collection );
+    }
+
+    /**
+     * A dependency or plugin whose version is a range, along with the means to update it.
+     */
+    private static class RangedElement
     {
-        return ( collection == null ? Stream.empty() : collection.stream() );
+        private final Project project;
+
+        private final String type;
+
+        private final ProjectRef ga;
+
+        private final String version;
+
+        private final VersionRange range;
+
+        private final Consumer<String> setter;
+
+        RangedElement( Project project, String type, ProjectRef ga, String version, VersionRange range,
+                       Consumer<String> setter )
+        {
+            this.project = project;
+            this.type = type;
+            this.ga = ga;
+            this.version = version;
+            this.range = range;
+            this.setter = setter;
+        }
     }
 }
@@ -16,36 +16,28 @@
 package org.commonjava.maven.ext.core.impl;
 
 import org.apache.maven.model.Dependency;
-import org.apache.maven.model.DependencyManagement;
-import org.apache.maven.model.Model;
-import org.apache.maven.model.Profile;
-import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
-import org.commonjava.maven.atlas.ident.ref.SimpleArtifactRef;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.model.Project;
-import org.commonjava.maven.ext.common.util.ProfileUtils;
 import org.commonjava.maven.ext.core.ManipulationSession;
 import org.commonjava.maven.ext.core.state.DependencyState;
 import org.commonjava.maven.ext.core.state.PluginState;
 import org.commonjava.maven.ext.core.state.RelocationState;
 import org.commonjava.maven.ext.core.state.State;
+import org.commonjava.maven.ext.core.util.DependencyIndex;
 import org.commonjava.maven.ext.common.util.WildcardMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
-import static org.commonjava.maven.ext.core.util.IdUtils.ga;
-
 /**
  * {@link Manipulator} implementation that can relocation specified groupIds. It will also handle version changes by
  * delegating to dependencyExclusions.
@@ -70,7 +62,7 @@ public class RelocationManipulator
                     throws ManipulationException
     {
         this.session = session;
-        session.setState( new RelocationState( session.getUserProperties() ) );
+        session.setState( new RelocationState( session.getConfiguration() ) );
     }
 
     /**
@@ -88,90 +80,51 @@ public class RelocationManipulator
             return Collections.emptySet();
         }
 
+        final WildcardMap<ProjectVersionRef> relocations = ( (RelocationState) state ).getDependencyRelocations();
+        final DependencyIndex index = session.getDependencyIndex();
         final Set<Project> changed = new HashSet<>();
-
-        for ( final Project project : projects )
-        {
-            final Model model = project.getModel();
-
-            if ( apply( project, model ) )
-            {
-                changed.add( project );
-            }
-        }
-
-        return changed;
-    }
-
-    private boolean apply( final Project project, final Model model ) throws ManipulationException
-    {
-        boolean result = false;
-        final RelocationState state = session.getState( RelocationState.class );
-        final WildcardMap<ProjectVersionRef> relocations = state.getDependencyRelocations();
-
-        logger.debug( "Applying relocation changes to: " + ga( project ) );
-
-        DependencyManagement dependencyManagement = model.getDependencyManagement();
-        if ( dependencyManagement != null )
-        {
-            result = updateDependencies( relocations, project.getResolvedManagedDependencies( session ) );
-        }
-        result |= updateDependencies( relocations, project.getAllResolvedDependencies( session ) );
-
-        for ( final Profile profile : ProfileUtils.getProfiles( session, model) )
-        {
-            dependencyManagement = profile.getDependencyManagement();
-            if ( dependencyManagement != null )
-            {
-                result |= updateDependencies( relocations, project.getResolvedProfileManagedDependencies( session ).get( profile ) );
-            }
-            result |= updateDependencies( relocations, project.getAllResolvedProfileDependencies( session ).get( profile ) );
-
-        }
-        return result;
-    }
-
-    private boolean updateDependencies( WildcardMap<ProjectVersionRef> relocations, Map<ArtifactRef, Dependency> dependencies )
-    {
-        boolean result = false;
-        final HashMap<ArtifactRef, Dependency> postFixUp = new HashMap<>(  );
+        final List<DependencyIndex.Occurrence> relocated = new ArrayList<>();
 
         // If we do a single pass over the dependencies that will handle the relocations *but* it will not handle
         // where one relocation alters the dependency and a subsequent relocation alters it again. For instance, the
-        // first might wildcard alter the groupId and the second, more specifically alters one with the artifactId
+        // first might wildcard alter the groupId and the second, more specifically alters one with the artifactId.
+        // Dependencies relocated by a pass are therefore only reindexed at its end, to be examined by the next pass.
         for ( int i = 0 ; i < relocations.size(); i++ )
         {
-            Iterator<ArtifactRef> it = dependencies.keySet().iterator();
-            while ( it.hasNext() )
+            for ( final ProjectRef ga : index.getProjectRefs() )
             {
-                final ArtifactRef pvr = it.next();
-                if ( relocations.containsKey( pvr.asProjectRef() ) )
+                if ( relocations.containsKey( ga ) )
                 {
-                    ProjectVersionRef relocation = relocations.get( pvr.asProjectRef() );
-                    updateDependencyExclusion( pvr, relocation );
-
-                    logger.info( "Replacing groupId {} by {} and artifactId {} with {}",
-                                 dependencies.get( pvr ).getGroupId(), relocation.getGroupId(), dependencies.get( pvr ).getArtifactId(), relocation.getArtifactId() );
+                    final ProjectVersionRef relocation = relocations.get( ga );
 
-                    if ( !relocation.getArtifactId().equals( WildcardMap.WILDCARD ) )
+                    for ( final DependencyIndex.Occurrence occurrence : index.get( ga ) )
                     {
-                        dependencies.get( pvr ).setArtifactId( relocation.getArtifactId() );
-                    }
-                    dependencies.get( pvr ).setGroupId( relocation.getGroupId() );
+                        final Dependency dependency = occurrence.getDependency();
+                        updateDependencyExclusion( occurrence.getArtifact(), relocation );
+
+                        logger.info( "Replacing groupId {} by {} and artifactId {} with {}",
+                                     dependency.getGroupId(), relocation.getGroupId(), dependency.getArtifactId(), relocation.getArtifactId() );
 
-                    // Unfortunately because we iterate using the resolved project keys if the relocation updates those
-                    // keys multiple iterations will not work. Therefore we need to remove the original key:dependency
-                    // to map to the relocated form.
-                    postFixUp.put( SimpleArtifactRef.parse( dependencies.get( pvr ).getManagementKey() ), dependencies.get( pvr ) );
-                    it.remove();
+                        if ( !relocation.getArtifactId().equals( WildcardMap.WILDCARD ) )
+                        {
+                            dependency.setArtifactId( relocation.getArtifactId() );
+                        }
+                        dependency.setGroupId( relocation.getGroupId() );
 
-                    result = true;
+                        relocated.add( occurrence );
+                        changed.add( occurrence.getProject() );
+                    }
                 }
             }
-            dependencies.putAll( postFixUp );
-            postFixUp.clear();
+            for ( final DependencyIndex.Occurrence occurrence : relocated )
+            {
+                index.relocate( occurrence, occurrence.getDependency().getGroupId(),
+                                occurrence.getDependency().getArtifactId() );
+            }
+            relocated.clear();
         }
-        return result;
+
+        return changed;
     }
 
     /**
@@ -200,6 +153,12 @@ public class RelocationManipulator
         }
     }
 
+    @Override
+    public boolean maintainsDependencyIndex()
+    {
+        return true;
+    }
+
     @Override
     public int getExecutionIndex()
     {
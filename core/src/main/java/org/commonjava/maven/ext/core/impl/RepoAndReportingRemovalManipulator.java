@@ -35,6 +35,7 @@ import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.File;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -74,7 +75,7 @@ public class RepoAndReportingRemovalManipulator
     public void init( final ManipulationSession session )
     {
         this.session = session;
-        session.setState( new RepoReportingState( session.getUserProperties() ) );
+        session.setState( new RepoReportingState( session.getConfiguration() ) );
     }
 
     /**
@@ -276,6 +277,18 @@ public class RepoAndReportingRemovalManipulator
     }
 
 
+    @Override
+    public Set<ModelSection> getReads()
+    {
+        return EnumSet.of( ModelSection.PARENT, ModelSection.PROPERTIES, ModelSection.PROFILES );
+    }
+
+    @Override
+    public Set<ModelSection> getWrites()
+    {
+        return EnumSet.of( ModelSection.REPOSITORIES, ModelSection.REPORTING, ModelSection.FILES );
+    }
+
     @Override
     public int getExecutionIndex()
     {
@@ -61,7 +61,7 @@ public class SuffixManipulator
     public void init( final ManipulationSession session )
     {
         this.session = session;
-        session.setState( new SuffixState( session.getUserProperties() ) );
+        session.setState( new SuffixState( session.getConfiguration() ) );
     }
 
 
@@ -15,12 +15,11 @@
  */
 package org.commonjava.maven.ext.core.impl;
 
+import org.commonjava.maven.ext.common.util.BoundedCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Arrays;
 import java.util.Comparator;
-import java.util.List;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -30,6 +29,8 @@ import java.util.regex.Pattern;
  * version string and/or incrementing a version suffix. See: http://www.aqute.biz/Bnd/Versioning for an explanation of
  * OSGi versioning. Parses versions into the following format: &lt;major&gt;.&lt;minor&gt;.&lt;micro&gt;
  * .&lt;qualifierBase&gt;-&lt;buildnumber&gt;-&lt;buildnumber&gt;-&lt;snapshot&gt;
+ * <p>
+ * The parts of a version are read from its {@link ParsedVersion}, so repeatedly examining the same version is cheap.
  */
 @SuppressWarnings("WeakerAccess") // Public API.
 public class Version
@@ -38,8 +39,6 @@ public class Version
 
     private final static String EMPTY_STRING = "";
 
-    private final static Character[] DEFAULT_DELIMITERS = {'.', '-', '_'};
-
     private final static String OSGI_VERSION_DELIMITER = ".";
 
     private final static String OSGI_QUALIFIER_DELIMITER = "-";
@@ -51,31 +50,13 @@ public class Version
      */
     private final static String DEFAULT_QUALIFIER_DELIMITER = "-";
 
-    private final static List<Character> versionStringDelimiters = Arrays.asList( DEFAULT_DELIMITERS );
-
     /**
      * Regular expression used to match version string delimiters
      */
     private final static String DELIMITER_REGEX = "[.\\-_]";
 
-    /**
-     * Regular expression used to match version string delimiters
-     */
-    private final static String LEADING_DELIMITER_REGEX = "^" + DELIMITER_REGEX;
-
-    /**
-     * Regular expression used to match the major, minor, and micro versions
-     */
-    private final static String MMM_REGEX = "(\\d+)(" + DELIMITER_REGEX + "(\\d+)(" + DELIMITER_REGEX + "(\\d+))?)?";
-
-    private final static Pattern mmmPattern = Pattern.compile(MMM_REGEX);
-
     private final static String SNAPSHOT_SUFFIX = "SNAPSHOT";
 
-    private final static String SNAPSHOT_REGEX = "(.*?)((" + DELIMITER_REGEX + ")?((?i:" + SNAPSHOT_SUFFIX + ")))$";
-
-    private final static Pattern snapshotPattern = Pattern.compile(SNAPSHOT_REGEX);
-
     /**
      * Regular expression used to match the parts of the qualifier "base-buildnum-snapshot"
      * Note : Technically within the rebuild-numeric the dash is currently optional and can be any
@@ -85,15 +66,6 @@ public class Version
 
     private final static Pattern qualifierPattern = Pattern.compile(QUALIFIER_REGEX);
 
-    /**
-     * Version string must start with a digit to match the regex.  Otherwise we have only a
-     * qualifier.
-     */
-    private final static String VERSION_REGEX = "(" + MMM_REGEX + ")" + "((" + DELIMITER_REGEX + ")?"
-            + "(" + QUALIFIER_REGEX + "))";
-
-    private final static Pattern versionPattern = Pattern.compile(VERSION_REGEX);
-
     /**
      * Used to match valid OSGi version based on section 3.2.5 of the OSGi specification
      */
@@ -101,17 +73,17 @@ public class Version
 
     private final static Pattern osgiPattern = Pattern.compile(OSGI_VERSION_REGEX);
 
+    /**
+     * Compiled suffix patterns, see {@link #createSuffixMatcher(String, String)}.
+     */
+    private final static BoundedCache<String, Pattern> suffixPatterns = new BoundedCache<>( 1000 );
+
     // Prevent construction.
     private Version () {}
 
     public static String getBuildNumber(String version)
     {
-        Matcher qualifierMatcher = qualifierPattern.matcher( getQualifier( version ) );
-        if( qualifierMatcher.matches() && !isEmpty( qualifierMatcher.group( 4 ) ) )
-        {
-            return qualifierMatcher.group( 4 );
-        }
-        return EMPTY_STRING;
+        return ParsedVersion.parse( version ).getBuildNumber();
     }
 
     /**
@@ -144,12 +116,7 @@ public class Version
      */
     public static String getMMM(String version)
     {
-        Matcher versionMatcher = versionPattern.matcher( version );
-        if ( versionMatcher.matches() )
-        {
-            return versionMatcher.group( 1 );
-        }
-        return EMPTY_STRING;
+        return ParsedVersion.parse( version ).getMMM();
     }
 
     /**
@@ -161,12 +128,11 @@ public class Version
      */
     static String getOsgiMMM(String version, boolean fill)
     {
-        String mmm = getMMM( version );
-        Matcher mmmMatcher = mmmPattern.matcher( mmm );
-        if ( mmmMatcher.matches() )
+        ParsedVersion parsed = ParsedVersion.parse( version );
+        if ( !isEmpty( parsed.getMMM() ) )
         {
-            String osgiMMM = mmmMatcher.group( 1 );
-            String minorVersion = mmmMatcher.group( 3 );
+            String osgiMMM = parsed.getMajor();
+            String minorVersion = parsed.getMinor();
             if ( !isEmpty( minorVersion ) )
             {
                 osgiMMM += OSGI_VERSION_DELIMITER + minorVersion;
@@ -175,7 +141,7 @@ public class Version
             {
                 osgiMMM += OSGI_VERSION_DELIMITER + "0";
             }
-            String microVersion = mmmMatcher.group( 5 );
+            String microVersion = parsed.getMicro();
             if ( !isEmpty( microVersion ) )
             {
                 osgiMMM += OSGI_VERSION_DELIMITER + microVersion;
@@ -207,12 +173,7 @@ public class Version
 
     public static String getQualifier(String version)
     {
-        Matcher versionMatcher = versionPattern.matcher( version );
-        if ( versionMatcher.matches() )
-        {
-            return versionMatcher.group( 9 );
-        }
-        return removeLeadingDelimiter( version );
+        return ParsedVersion.parse( version ).getQualifier();
     }
 
     /**
@@ -235,47 +196,22 @@ public class Version
      */
     public static String getQualifierBase(String version)
     {
-        Matcher versionMatcher = versionPattern.matcher( version );
-        if ( versionMatcher.matches() )
-        {
-            return versionMatcher.group( 10 );
-        }
-        Matcher qualifierMatcher = qualifierPattern.matcher( version );
-        if ( qualifierMatcher.matches() )
-        {
-            return qualifierMatcher.group( 1 );
-        }
-        return removeLeadingDelimiter( version );
+        return ParsedVersion.parse( version ).getQualifierBase();
     }
 
     public static String getQualifierWithDelim(String version)
     {
-        Matcher versionMatcher = versionPattern.matcher( version );
-        if ( versionMatcher.matches() )
-        {
-            return versionMatcher.group( 7 );
-        }
-        return version;
+        return ParsedVersion.parse( version ).getQualifierWithDelim();
     }
 
     public static String getSnapshot( String version )
     {
-        Matcher snapshotMatcher = snapshotPattern.matcher( version );
-        if ( snapshotMatcher.matches() )
-        {
-            return snapshotMatcher.group(4);
-        }
-        return EMPTY_STRING;
+        return ParsedVersion.parse( version ).getSnapshot();
     }
 
     public static String getSnapshotWithDelim( String version )
     {
-        Matcher snapshotMatcher = snapshotPattern.matcher( version );
-        if ( snapshotMatcher.matches() )
-        {
-            return snapshotMatcher.group(2);
-        }
-        return EMPTY_STRING;
+        return ParsedVersion.parse( version ).getSnapshotWithDelim();
     }
 
     public static boolean hasBuildNumber( String version )
@@ -295,8 +231,7 @@ public class Version
 
     public static boolean isSnapshot( String version )
     {
-        Matcher snapshotMatcher = snapshotPattern.matcher( version );
-        return snapshotMatcher.matches();
+        return ParsedVersion.parse( version ).isSnapshot();
     }
 
     /**
@@ -314,12 +249,7 @@ public class Version
      */
     public static String removeBuildNumber( String version )
     {
-        Matcher qualifierMatcher = qualifierPattern.matcher( version );
-        if ( qualifierMatcher.matches() )
-        {
-            return qualifierMatcher.replaceFirst( "$1$5" );
-        }
-        return version;
+        return ParsedVersion.parse( version ).removeBuildNumber();
     }
 
     /**
@@ -328,12 +258,7 @@ public class Version
      */
     public static String removeSnapshot( String version )
     {
-        Matcher snapshotMatcher = snapshotPattern.matcher( version );
-        if ( snapshotMatcher.matches() )
-        {
-            return snapshotMatcher.group(1);
-        }
-        return version;
+        return ParsedVersion.parse( version ).removeSnapshot();
     }
 
     private static boolean hasLeadingDelimiter( String versionPart )
@@ -342,7 +267,7 @@ public class Version
         {
             return false;
         }
-        return versionStringDelimiters.contains( versionPart.charAt( 0 ) );
+        return ParsedVersion.isDelimiter( versionPart.charAt( 0 ) );
     }
 
     /**
@@ -350,7 +275,7 @@ public class Version
      */
     static String removeLeadingDelimiter(String versionPart )
     {
-        return versionPart.replaceAll(LEADING_DELIMITER_REGEX, "");
+        return hasLeadingDelimiter( versionPart ) ? versionPart.substring( 1 ) : versionPart;
     }
 
     /**
@@ -461,9 +386,11 @@ public class Version
 
     private static Matcher createSuffixMatcher( String version, String suffix )
     {
-        final String SUFFIX_REGEX = "(.*?)(" + DELIMITER_REGEX + ")?(" + suffix + ")(("
-                + DELIMITER_REGEX + ")?(\\d+))?((" + DELIMITER_REGEX + ")?((?i:" + SNAPSHOT_SUFFIX + ")))?$";
-        return Pattern.compile( SUFFIX_REGEX ).matcher( version );
+        return suffixPatterns.computeIfAbsent( suffix, s -> {
+            final String SUFFIX_REGEX = "(.*?)(" + DELIMITER_REGEX + ")?(" + s + ")(("
+                    + DELIMITER_REGEX + ")?(\\d+))?((" + DELIMITER_REGEX + ")?((?i:" + SNAPSHOT_SUFFIX + ")))?$";
+            return Pattern.compile( SUFFIX_REGEX );
+        } ).matcher( version );
     }
 
     /**
@@ -483,20 +410,16 @@ public class Version
         {
             buildNumber = EMPTY_STRING;
         }
-        if ( isEmpty( getQualifier( version ) ) )
+        final ParsedVersion parsed = ParsedVersion.parse( version );
+        if ( isEmpty( parsed.getQualifier() ) )
         {
             return version + DEFAULT_DELIMITER + buildNumber;
         }
-        Matcher qualifierMatcher = qualifierPattern.matcher( version );
-        if ( qualifierMatcher.matches() )
+        if ( !parsed.hasTrailingBuildNumber() )
         {
-            if ( isEmpty( qualifierMatcher.group( 2 ) ) )
-            {
-                buildNumber = prependDelimiter( buildNumber, DEFAULT_QUALIFIER_DELIMITER );
-            }
-            return qualifierMatcher.replaceFirst( "$1$3" + buildNumber + "$5" );
+            buildNumber = prependDelimiter( buildNumber, DEFAULT_QUALIFIER_DELIMITER );
         }
-        return version;
+        return parsed.replaceBuildNumber( buildNumber );
     }
 
     /**
@@ -528,7 +451,8 @@ public class Version
 
     /**
      * Matches a version object to versions in a set by comparing the non build number portion of the string. Then find
-     * which of the matching versions has the highest build number and is therefore the latest version.
+     * which of the matching versions has the highest build number and is therefore the latest version. To match the
+     * same set repeatedly use a {@link VersionCandidateIndex}.
      *
      * @param version the Version object to use.
      * @param versionSet a collection of versions to compare to.
@@ -536,47 +460,7 @@ public class Version
      */
     public static int findHighestMatchingBuildNumber(String version, Set<String> versionSet )
     {
-        int highestBuildNum = 0;
-
-        String osgiVersion = getOsgiVersion( version );
-        String qualifier = getQualifier( osgiVersion );
-        Matcher qualifierMatcher = qualifierPattern.matcher( qualifier );
-        if ( qualifierMatcher.matches() )
-        {
-            qualifier = removeLeadingDelimiter( qualifierMatcher.group( 1 ) );
-        }
-
-        // Build version pattern regex, matches something like "<mmm>.<qualifier>.<buildnum>".
-        StringBuilder versionPatternBuf = new StringBuilder();
-        versionPatternBuf.append( '(' )
-                .append( Pattern.quote( getMMM( version ) ) ).append('(').append( DELIMITER_REGEX ).append("0)*") // Match zeros appended to a major only version
-                .append( ")?" )
-                .append( DELIMITER_REGEX );
-
-        if ( !isEmpty( qualifier ) )
-        {
-            versionPatternBuf.append( Pattern.quote( qualifier ) );
-            versionPatternBuf.append( DELIMITER_REGEX );
-        }
-        versionPatternBuf.append( "(\\d+)" );
-        String candidatePatternStr = versionPatternBuf.toString();
-
-        logger.debug( "Using pattern: '{}' to find compatible versions from metadata.", candidatePatternStr );
-        final Pattern candidateSuffixPattern = Pattern.compile( candidatePatternStr );
-
-        for ( final String compareVersion : versionSet )
-        {
-            final Matcher candidateSuffixMatcher = candidateSuffixPattern.matcher( compareVersion );
-            if ( candidateSuffixMatcher.matches() )
-            {
-                String buildNumberStr = candidateSuffixMatcher.group( 3 );
-                int compareBuildNum = Integer.parseInt( buildNumberStr );
-                if ( compareBuildNum > highestBuildNum )
-                {
-                    highestBuildNum = compareBuildNum;
-                }
-            }
-        }
+        int highestBuildNum = new VersionCandidateIndex( versionSet ).findHighestMatchingBuildNumber( version );
         logger.debug ("Found highest matching build number {} from set {} ", highestBuildNum, versionSet);
 
         return highestBuildNum;
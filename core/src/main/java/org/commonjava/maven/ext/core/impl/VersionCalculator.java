@@ -21,8 +21,10 @@ import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
 import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.common.util.BoundedCache;
 import org.commonjava.maven.ext.common.util.PropertyResolver;
 import org.commonjava.maven.ext.core.ManipulationSession;
+import org.commonjava.maven.ext.core.state.RESTState;
 import org.commonjava.maven.ext.core.state.VersioningState;
 import org.commonjava.maven.ext.io.resolver.GalleyAPIWrapper;
 import org.commonjava.maven.galley.maven.GalleyMavenException;
@@ -41,7 +43,6 @@ import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import static org.commonjava.maven.ext.core.impl.Version.findHighestMatchingBuildNumber;
 import static org.commonjava.maven.ext.core.util.IdUtils.gav;
 
 /**
@@ -58,6 +59,11 @@ import static org.commonjava.maven.ext.core.util.IdUtils.gav;
 @SuppressWarnings("WeakerAccess") // Public API.
 public class VersionCalculator
 {
+    /**
+     * Compiled patterns for each alternate suffix, see {@link #handleAlternate(VersioningState, String)}.
+     */
+    private static final BoundedCache<String, Pattern> alternatePatterns = new BoundedCache<>( 1000 );
+
     private final Logger logger = LoggerFactory.getLogger( getClass() );
 
     private GalleyAPIWrapper readerWrapper;
@@ -82,8 +88,16 @@ public class VersionCalculator
         throws ManipulationException
     {
         final VersioningState state = session.getState( VersioningState.class );
+        final RESTState restState = session.getState( RESTState.class );
         final Map<ProjectVersionRef, String> versionsByGAV = new HashMap<>();
-        final Set<String> versionsWithBuildNums = new HashSet<>();
+        // Indexed as it is matched against once per project.
+        final VersionCandidateIndex versionsWithBuildNums = new VersionCandidateIndex();
+
+        if ( restState != null && state.getSuffix() == null && state.getIncrementalSerialSuffix() != null )
+        {
+            // The REST metadata is only used to calculate the incremental suffix, so must be available before that.
+            restState.awaitResults();
+        }
 
         for ( final Project project : projects )
         {
@@ -112,15 +126,15 @@ public class VersionCalculator
 
             // If there is only a single version there is no real need to try and find the highest matching.
             // This also fixes the problem where there is a single version and leading zeros.
-            int buildNumber = findHighestMatchingBuildNumber( modifiedVersion, versionsWithBuildNums );
+            int buildNumber = versionsWithBuildNums.findHighestMatchingBuildNumber( modifiedVersion );
 
             // If the buildNumber is greater than zero, it means we found a match and have to
             // set the build number to avoid version conflicts.
             if ( buildNumber > 0 )
             {
                 String paddedBuildNum = StringUtils.leftPad( Integer.toString( buildNumber ),
-                                                             Version.getBuildNumberPadding( state.getIncrementalSerialSuffixPadding(),
-                                                                                            versionsWithBuildNums ), '0' );
+                                                             versionsWithBuildNums.getBuildNumberPadding(
+                                                                             state.getIncrementalSerialSuffixPadding() ), '0' );
                 modifiedVersion = Version.setBuildNumber( modifiedVersion, paddedBuildNum );
             }
 
@@ -208,15 +222,16 @@ public class VersionCalculator
         }
         else if ( incrementalSuffix != null )
         {
-            final Set<String> versionCandidates = getVersionCandidates(state, groupId, artifactId);
+            final VersionCandidateIndex versionCandidates =
+                            new VersionCandidateIndex( getVersionCandidates( state, groupId, artifactId ) );
 
             newVersion = Version.appendQualifierSuffix( newVersion, incrementalSuffix );
-            int highestRemoteBuildNumPlusOne = findHighestMatchingBuildNumber( newVersion, versionCandidates ) + 1;
+            int highestRemoteBuildNumPlusOne = versionCandidates.findHighestMatchingBuildNumber( newVersion ) + 1;
 
             if ( highestRemoteBuildNumPlusOne > Version.getIntegerBuildNumber( newVersion ) )
             {
                 String paddedBuildNumber = StringUtils.leftPad( Integer.toString( highestRemoteBuildNumPlusOne ),
-                                     Version.getBuildNumberPadding( state.getIncrementalSerialSuffixPadding(), versionCandidates ), '0' );
+                                     versionCandidates.getBuildNumberPadding( state.getIncrementalSerialSuffixPadding() ), '0' );
                 newVersion = Version.setBuildNumber( newVersion, paddedBuildNumber );
             }
         }
@@ -304,8 +319,8 @@ public class VersionCalculator
     {
         for ( String suffix : state.getSuffixAlternatives() )
         {
-            final String suffixStripRegExp = "(.*)([.|-])(" + suffix + "-\\d+)";
-            final Pattern suffixStripPattern = Pattern.compile( suffixStripRegExp );
+            final Pattern suffixStripPattern = alternatePatterns.computeIfAbsent(
+                            suffix, s -> Pattern.compile( "(.*)([.|-])(" + s + "-\\d+)" ) );
             final Matcher suffixMatcher = suffixStripPattern.matcher( version );
 
             if ( suffixMatcher.matches() && !version.contains( state.getRebuildSuffix() ) )
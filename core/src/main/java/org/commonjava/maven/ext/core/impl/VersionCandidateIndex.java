@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of candidate versions for {@link #findHighestMatchingBuildNumber(String)}, so that finding the highest build
+ * number a version must be incremented over does not match every candidate.
+ * <p>
+ * A candidate &lt;prefix&gt;&lt;delimiter&gt;&lt;buildnumber&gt; is indexed under every way its prefix may be read as
+ * an optional numeric part followed by an optional qualifier, keyed by the numeric part with any trailing ".0"
+ * segments removed, and the qualifier. A lookup then only examines the few numeric parts sharing the normalized
+ * major, minor and micro of the version. The results are exactly those of matching each candidate against
+ * <code>(&lt;mmm&gt;(\.0)*)?\.(&lt;qualifier&gt;\.)?(\d+)</code> (any delimiter standing for '.'), as
+ * {@link Version#findHighestMatchingBuildNumber(String, java.util.Set)} used to.
+ * <p>
+ * The index also tracks the longest build number of all versions added, i.e. the padding to preserve. It is not
+ * thread safe.
+ */
+@SuppressWarnings("WeakerAccess") // Public API.
+public final class VersionCandidateIndex
+{
+    private static final Logger logger = LoggerFactory.getLogger( VersionCandidateIndex.class );
+
+    private static final String EMPTY_STRING = "";
+
+    /**
+     * Highest build number for each numeric part, by normalized numeric part and qualifier.
+     */
+    private final Map<List<String>, Map<String, Highest>> candidates = new HashMap<>();
+
+    private int padding;
+
+    public VersionCandidateIndex()
+    {
+    }
+
+    public VersionCandidateIndex( Collection<String> versions )
+    {
+        versions.forEach( this::add );
+    }
+
+    /**
+     * Add a candidate version.
+     *
+     * @param version the version to add.
+     */
+    public void add( String version )
+    {
+        padding = Math.max( padding, Version.getBuildNumber( version ).length() );
+
+        int buildStart = version.length();
+        while ( buildStart > 0 && isDigit( version.charAt( buildStart - 1 ) ) )
+        {
+            buildStart--;
+        }
+        if ( buildStart == version.length() || buildStart == 0 || !ParsedVersion.isDelimiter(
+                        version.charAt( buildStart - 1 ) ) )
+        {
+            return;
+        }
+
+        final String prefix = version.substring( 0, buildStart - 1 );
+        final String buildNumber = version.substring( buildStart );
+
+        // Either the whole prefix is the numeric part, or it is followed by a delimiter and the qualifier.
+        for ( int i = 0; i < prefix.length(); i++ )
+        {
+            final char c = prefix.charAt( i );
+            if ( ParsedVersion.isDelimiter( c ) )
+            {
+                if ( i + 1 < prefix.length() )
+                {
+                    highest( prefix.substring( 0, i ), prefix.substring( i + 1 ) ).add( buildNumber );
+                }
+            }
+            else if ( !isDigit( c ) )
+            {
+                return;
+            }
+        }
+        highest( prefix, EMPTY_STRING ).add( buildNumber );
+    }
+
+    /**
+     * Matches a version to the candidates by comparing the non build number portion of the string, and finds the
+     * highest build number of the matching candidates. See {@link Version#findHighestMatchingBuildNumber(String,
+     * java.util.Set)}.
+     *
+     * @param version the version to match.
+     * @return the highest build number, or 0 if no matching build numbers are found.
+     * @throws NumberFormatException if a matching build number exceeds an int.
+     */
+    public int findHighestMatchingBuildNumber( String version )
+    {
+        String qualifier = Version.getQualifier( Version.getOsgiVersion( version ) );
+        final String base = ParsedVersion.parse( qualifier ).getBase();
+        if ( base != null )
+        {
+            qualifier = Version.removeLeadingDelimiter( base );
+        }
+        if ( Version.isEmpty( qualifier ) )
+        {
+            qualifier = EMPTY_STRING;
+        }
+        final String mmm = Version.getMMM( version );
+        final String normalized = normalize( mmm );
+
+        logger.debug( "Finding highest build number matching '{}' and qualifier '{}'", mmm, qualifier );
+
+        int result = 0;
+        for ( Map.Entry<String, Highest> e : candidates.getOrDefault( Arrays.asList( normalized, qualifier ),
+                                                                      Collections.emptyMap() ).entrySet() )
+        {
+            // Sharing the normalized form, the numeric part is that of the version plus any ".0" segments.
+            if ( e.getKey().startsWith( mmm ) )
+            {
+                result = Math.max( result, e.getValue().get() );
+            }
+        }
+        if ( !normalized.isEmpty() )
+        {
+            // The numeric part is optional.
+            final Highest highest = candidates.getOrDefault( Arrays.asList( EMPTY_STRING, qualifier ),
+                                                             Collections.emptyMap() ).get( EMPTY_STRING );
+            if ( highest != null )
+            {
+                result = Math.max( result, highest.get() );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Assuming there is no explicit padding, the padding of the longest build number of the versions added. See
+     * {@link Version#getBuildNumberPadding(int, java.util.Set)}.
+     *
+     * @param incrementalSerialSuffixPadding if there is an explicit padding override.
+     * @return the amount of padding (indexed from 1) to apply.
+     */
+    public int getBuildNumberPadding( int incrementalSerialSuffixPadding )
+    {
+        return incrementalSerialSuffixPadding == 0 ? padding : incrementalSerialSuffixPadding;
+    }
+
+    private Highest highest( String numeric, String qualifier )
+    {
+        return candidates.computeIfAbsent( Arrays.asList( normalize( numeric ), qualifier ), k -> new HashMap<>() )
+                         .computeIfAbsent( numeric, k -> new Highest() );
+    }
+
+    /**
+     * Remove any trailing ".0" segments.
+     */
+    private static String normalize( String numeric )
+    {
+        int end = numeric.length();
+        while ( end > 1 && numeric.charAt( end - 1 ) == '0' && ParsedVersion.isDelimiter( numeric.charAt( end - 2 ) ) )
+        {
+            end -= 2;
+        }
+        return numeric.substring( 0, end );
+    }
+
+    private static boolean isDigit( char c )
+    {
+        return c >= '0' && c <= '9';
+    }
+
+    private static class Highest
+    {
+        private int buildNumber;
+
+        /**
+         * A build number too large for an int, reported only if it matches.
+         */
+        private String invalid;
+
+        void add( String buildNumber )
+        {
+            try
+            {
+                this.buildNumber = Math.max( this.buildNumber, Integer.parseInt( buildNumber ) );
+            }
+            catch ( NumberFormatException e )
+            {
+                invalid = buildNumber;
+            }
+        }
+
+        int get()
+        {
+            if ( invalid != null )
+            {
+                // As when matching each candidate.
+                return Integer.parseInt( invalid );
+            }
+            return buildNumber;
+        }
+    }
+}
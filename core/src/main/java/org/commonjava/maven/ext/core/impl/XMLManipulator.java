@@ -35,6 +35,7 @@ import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 import java.io.File;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -74,7 +75,7 @@ public class XMLManipulator
                     throws ManipulationException
     {
         this.session = session;
-        session.setState( new XMLState( session.getUserProperties() ) );
+        session.setState( new XMLState( session.getConfiguration() ) );
     }
 
     /**
@@ -163,6 +164,18 @@ public class XMLManipulator
         }
     }
 
+    @Override
+    public Set<ModelSection> getReads()
+    {
+        return EnumSet.noneOf( ModelSection.class );
+    }
+
+    @Override
+    public Set<ModelSection> getWrites()
+    {
+        return EnumSet.of( ModelSection.FILES );
+    }
+
     @Override
     public int getExecutionIndex()
     {
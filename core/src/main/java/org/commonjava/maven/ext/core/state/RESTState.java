@@ -18,11 +18,17 @@ package org.commonjava.maven.ext.core.state;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.core.ManipulationSession;
 import org.commonjava.maven.ext.core.impl.DependencyManipulator;
+import org.commonjava.maven.ext.io.rest.BundleTranslator;
+import org.commonjava.maven.ext.io.rest.CachingTranslator;
 import org.commonjava.maven.ext.io.rest.DefaultTranslator;
 import org.commonjava.maven.ext.io.rest.Translator;
 import org.commonjava.maven.ext.io.rest.Translator.RestProtocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Captures configuration relating to dependency alignment from the POMs. Used by {@link DependencyManipulator}.
@@ -37,11 +43,22 @@ public class RESTState implements State
 
     private boolean restSuffixAlign;
 
+    /**
+     * How long {@link #cancel()} waits for the thread of an abandoned REST call to finish.
+     */
+    private static final long CANCEL_WAIT_MILLIS = 10000;
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private CompletableFuture<Void> results = CompletableFuture.completedFuture( null );
+
+    private volatile Thread worker;
+
     public RESTState( final ManipulationSession session ) throws ManipulationException
     {
         this.session = session;
 
-        initialise( session.getUserProperties() );
+        initialise( session.getConfiguration() );
     }
 
     public void initialise( Properties userProps ) throws ManipulationException
@@ -58,7 +75,26 @@ public class RESTState implements State
 
         RestProtocol protocol = RestProtocol.parse ( userProps.getProperty( "restProtocol", RestProtocol.CURRENT.toString() ) );
 
-        restEndpoint = new DefaultTranslator( restURL, protocol, restMaxSize, restMinSize, repositoryGroup, vState.getIncrementalSerialSuffix() );
+        final String key = String.join( "|", restURL, protocol.toString(), Integer.toString( restMaxSize ),
+                                        Integer.toString( restMinSize ), repositoryGroup,
+                                        vState.getIncrementalSerialSuffix() );
+        final DefaultTranslator translator = session.getTranslator( key, () -> new DefaultTranslator(
+                        restURL, protocol, restMaxSize, restMinSize, repositoryGroup,
+                        vState.getIncrementalSerialSuffix() ) );
+        translator.setDeadline( session.getDeadline() );
+        translator.setCoordinatePool( session.getCoordinatePool() );
+        restEndpoint = translator;
+
+        if ( Boolean.parseBoolean( userProps.getProperty( "restSharedCache", "false" ) ) )
+        {
+            restEndpoint = new CachingTranslator( String.join( "|", restURL, protocol.toString(), repositoryGroup,
+                                                               vState.getIncrementalSerialSuffix() ), restEndpoint );
+        }
+
+        if ( session.getResolutionBundle() != null )
+        {
+            restEndpoint = new BundleTranslator( session.getResolutionBundle(), restEndpoint );
+        }
     }
 
     /**
@@ -81,4 +117,86 @@ public class RESTState implements State
     {
         return restSuffixAlign;
     }
+
+    /**
+     * Makes the REST call on a new background thread, recording it as the outstanding call; see
+     * {@link #awaitResults()} and {@link #cancel()}.
+     *
+     * @param call stores the REST results in the Versioning, Dependency and Plugin states.
+     */
+    public void callInBackground( Runnable call )
+    {
+        setPendingResults( CompletableFuture.runAsync( call, r -> {
+            final Thread t = new Thread( r, "pme-rest" );
+            t.setDaemon( true );
+            worker = t;
+            t.start();
+        } ) );
+    }
+
+    /**
+     * Records the outstanding REST call started by the RESTCollector; see {@link #awaitResults()}.
+     *
+     * @param results completes once the REST results have been stored in the Versioning, Dependency and Plugin states.
+     */
+    public void setPendingResults( CompletableFuture<Void> results )
+    {
+        this.results = results;
+    }
+
+    /**
+     * Wait for any outstanding REST call to complete. Must be called before reading the REST results from the
+     * Versioning, Dependency or Plugin states.
+     *
+     * @throws ManipulationException if the REST call failed.
+     */
+    public void awaitResults() throws ManipulationException
+    {
+        try
+        {
+            results.join();
+        }
+        catch ( CompletionException e )
+        {
+            if ( e.getCause() instanceof ManipulationException )
+            {
+                throw (ManipulationException) e.getCause();
+            }
+            else if ( e.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ManipulationException( "REST call failed", e.getCause() );
+        }
+    }
+
+    /**
+     * Abandon any outstanding REST call, e.g. as a manipulator has failed, so that it does not outlive the run. Its
+     * thread is interrupted and waited for, up to {@link #CANCEL_WAIT_MILLIS}; a later {@link #awaitResults()} throws
+     * {@link java.util.concurrent.CancellationException}.
+     */
+    public void cancel()
+    {
+        if ( !results.cancel( true ) )
+        {
+            return;
+        }
+        final Thread t = worker;
+        if ( t != null )
+        {
+            t.interrupt();
+            try
+            {
+                t.join( CANCEL_WAIT_MILLIS );
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+            if ( t.isAlive() )
+            {
+                logger.warn( "Abandoned REST call is still running after {} ms", CANCEL_WAIT_MILLIS );
+            }
+        }
+    }
 }
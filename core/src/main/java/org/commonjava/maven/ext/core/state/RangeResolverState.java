@@ -29,6 +29,11 @@ public class RangeResolverState
      */
     private static final String RESOLVE_RANGES_PROPERTY = "resolveRanges";
 
+    /**
+     * Number of concurrent metadata retrievals used while resolving ranges.
+     */
+    private static final String RESOLVE_RANGES_THREADS_PROPERTY = "resolveRangesThreads";
+
     static
     {
         State.activeByDefault.add( RangeResolverState.class );
@@ -36,6 +41,8 @@ public class RangeResolverState
 
     private Boolean enabled;
 
+    private int threads;
+
     public RangeResolverState( final Properties userProps )
     {
         initialise( userProps );
@@ -44,6 +51,7 @@ public class RangeResolverState
     public void initialise( Properties userProps )
     {
          enabled = Boolean.parseBoolean( userProps.getProperty( RESOLVE_RANGES_PROPERTY, "true" ) );
+         threads = Math.max( 1, Integer.parseInt( userProps.getProperty( RESOLVE_RANGES_THREADS_PROPERTY, "8" ) ) );
     }
 
     /**
@@ -57,5 +65,14 @@ public class RangeResolverState
     {
         return enabled;
     }
+
+    /**
+     * @see #RESOLVE_RANGES_THREADS_PROPERTY
+     * @return the maximum number of concurrent metadata retrievals.
+     */
+    public int getThreads()
+    {
+        return threads;
+    }
 }
 
@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import org.apache.maven.model.Activation;
+import org.apache.maven.model.ActivationFile;
+import org.apache.maven.model.ActivationOS;
+import org.apache.maven.model.ActivationProperty;
+import org.apache.maven.model.Profile;
+import org.apache.maven.model.building.ModelProblem;
+import org.apache.maven.model.building.ModelProblemCollector;
+import org.apache.maven.model.building.ModelProblemCollectorRequest;
+import org.apache.maven.model.profile.DefaultProfileActivationContext;
+import org.apache.maven.model.profile.ProfileActivationContext;
+import org.apache.maven.model.profile.ProfileSelector;
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.common.model.Project;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Determines the profiles of a reactor that would be active, as the legacy DefaultProfileManager does when the profiles
+ * of each project are added to it in turn, and its active profiles collected after each project.
+ * <p>
+ * Rather than reevaluating every profile added so far after each project, each profile is evaluated once: whether its
+ * activation conditions (JDK, OS, property and file) hold is determined by the {@link ProfileSelector}, and cached by
+ * those conditions as many profiles share them. The only interaction between profiles is that of profiles active by
+ * default, which are only active until a POM profile is activated otherwise; as profiles are only ever added, a
+ * default profile is active if no POM profile of that or an earlier project has been activated otherwise. As with the
+ * profile manager the first profile with a given id wins, and the profile itself is never modified.
+ */
+public class ActiveProfileResolver
+{
+    private final ProfileSelector selector;
+
+    private final ProfileActivationContext context;
+
+    private final Set<String> explicitlyActivated;
+
+    private final Map<List<Object>, Boolean> conditions = new HashMap<>();
+
+    private final List<ModelProblemCollectorRequest> problems = new ArrayList<>();
+
+    private final ModelProblemCollector collector = request -> {
+        if ( request.getSeverity() != ModelProblem.Severity.WARNING )
+        {
+            problems.add( request );
+        }
+    };
+
+    /**
+     * @param selector the selector, for evaluating activation conditions.
+     * @param userProperties the user properties for property activation (besides the system properties).
+     * @param explicitlyActivated the ids of the profiles activated explicitly.
+     */
+    public ActiveProfileResolver( ProfileSelector selector, Properties userProperties,
+                                  Collection<String> explicitlyActivated )
+    {
+        this.selector = selector;
+        this.context = new DefaultProfileActivationContext().setSystemProperties( System.getProperties() )
+                                                            .setUserProperties( userProperties );
+        this.explicitlyActivated = new HashSet<>( explicitlyActivated );
+    }
+
+    /**
+     * @param projects the projects, in reactor order.
+     * @return the ids of the active profiles of all projects.
+     * @throws ManipulationException if activation of a profile cannot be determined.
+     */
+    public Set<String> getActiveProfiles( List<Project> projects ) throws ManipulationException
+    {
+        final Set<String> result = new HashSet<>();
+        final Set<String> seen = new HashSet<>();
+        boolean activatedPomProfile = false;
+
+        for ( Project project : projects )
+        {
+            final List<String> pomDefaults = new ArrayList<>();
+
+            for ( Profile profile : project.getModel().getProfiles() )
+            {
+                if ( !seen.add( profile.getId() ) )
+                {
+                    continue;
+                }
+
+                if ( explicitlyActivated.contains( profile.getId() ) || isActive( profile ) )
+                {
+                    result.add( profile.getId() );
+                    activatedPomProfile |= Profile.SOURCE_POM.equals( profile.getSource() );
+                }
+                else if ( profile.getActivation() != null && profile.getActivation().isActiveByDefault() )
+                {
+                    if ( Profile.SOURCE_POM.equals( profile.getSource() ) )
+                    {
+                        pomDefaults.add( profile.getId() );
+                    }
+                    else
+                    {
+                        result.add( profile.getId() );
+                    }
+                }
+            }
+
+            if ( !activatedPomProfile )
+            {
+                result.addAll( pomDefaults );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return whether the activation conditions of the profile, if any, hold.
+     */
+    private boolean isActive( Profile profile ) throws ManipulationException
+    {
+        final Activation activation = profile.getActivation();
+        if ( activation == null )
+        {
+            return false;
+        }
+
+        final ActivationOS os = activation.getOs();
+        final ActivationProperty property = activation.getProperty();
+        final ActivationFile file = activation.getFile();
+        final List<Object> key = Arrays.asList( activation.getJdk(), os != null, os == null ? null : os.getName(),
+                                                os == null ? null : os.getFamily(), os == null ? null : os.getArch(),
+                                                os == null ? null : os.getVersion(), property != null,
+                                                property == null ? null : property.getName(),
+                                                property == null ? null : property.getValue(), file != null,
+                                                file == null ? null : file.getExists(),
+                                                file == null ? null : file.getMissing() );
+
+        Boolean result = conditions.get( key );
+        if ( result == null )
+        {
+            // Evaluate just the conditions, so that neither the id nor activeByDefault affect the selection.
+            final Activation conditionsOnly = new Activation();
+            conditionsOnly.setJdk( activation.getJdk() );
+            conditionsOnly.setOs( os );
+            conditionsOnly.setProperty( property );
+            conditionsOnly.setFile( file );
+
+            final Profile candidate = new Profile();
+            candidate.setId( profile.getId() );
+            candidate.setActivation( conditionsOnly );
+
+            problems.clear();
+            result = !selector.getActiveProfiles( Collections.singletonList( candidate ), context, collector )
+                              .isEmpty();
+            if ( !problems.isEmpty() )
+            {
+                throw new ManipulationException( "Activation detection failure for profile {}: {}",
+                                                 problems.get( 0 ).getException(), profile.getId(),
+                                                 problems.get( 0 ).getMessage() );
+            }
+            conditions.put( key, result );
+        }
+        return result;
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Fingerprint of the inputs to a manipulation run, written into the marker file once a run has changed the build.
+ * A later run is only skipped if the fingerprint still matches, i.e. the POMs are exactly as the previous run left
+ * them and the configuration is unchanged.
+ * <p>
+ * The configuration is captured from the effective user properties, once any configuration file has been merged,
+ * so it covers the remote BOM GAVs and the REST endpoint settings as well as every other option.
+ */
+public class BuildFingerprint
+{
+    private static final Logger logger = LoggerFactory.getLogger( BuildFingerprint.class );
+
+    private static final String INPUTS = "inputs";
+
+    private static final String POMS = "poms";
+
+    private static final String POM_FILES = "pomFiles";
+
+    private final String inputs;
+
+    private BuildFingerprint( String inputs )
+    {
+        this.inputs = inputs;
+    }
+
+    /**
+     * @param userProperties the effective user properties of the run.
+     * @return a fingerprint of the configuration of the run.
+     */
+    public static BuildFingerprint of( Properties userProperties )
+    {
+        final MessageDigest digest = newDigest();
+        final String version = BuildFingerprint.class.getPackage().getImplementationVersion();
+
+        update( digest, version == null ? "" : version );
+        for ( String key : new TreeSet<>( userProperties.stringPropertyNames() ) )
+        {
+            update( digest, key );
+            update( digest, userProperties.getProperty( key ) );
+        }
+        return new BuildFingerprint( toHex( digest.digest() ) );
+    }
+
+    /**
+     * Determine whether a previous run, recorded in the marker file, may be reused.
+     *
+     * @param marker the marker file.
+     * @return true if the marker exists and matches this fingerprint and the POMs it lists are unchanged.
+     */
+    public boolean matches( File marker )
+    {
+        if ( !marker.exists() )
+        {
+            return false;
+        }
+        if ( marker.length() == 0 )
+        {
+            // Written by a version that did not record fingerprints; keep the previous behaviour.
+            logger.debug( "Found marker file {} without fingerprint", marker );
+            return true;
+        }
+
+        final Properties manifest = new Properties();
+        try (InputStream in = new FileInputStream( marker ))
+        {
+            manifest.load( in );
+        }
+        catch ( IOException e )
+        {
+            logger.warn( "Unable to read marker file {} ; rerunning manipulation", marker, e );
+            return false;
+        }
+
+        if ( !inputs.equals( manifest.getProperty( INPUTS ) ) )
+        {
+            logger.info( "Configuration has changed since previous execution." );
+            return false;
+        }
+
+        final TreeMap<String, File> poms = new TreeMap<>();
+        final File base = marker.getAbsoluteFile().getParentFile().getParentFile();
+        for ( String path : manifest.getProperty( POM_FILES, "" ).split( "," ) )
+        {
+            if ( !path.isEmpty() )
+            {
+                poms.put( path, new File( base, path ) );
+            }
+        }
+
+        try
+        {
+            if ( !hashPoms( poms ).equals( manifest.getProperty( POMS ) ) )
+            {
+                logger.info( "POM files have changed since previous execution." );
+                return false;
+            }
+        }
+        catch ( IOException e )
+        {
+            logger.info( "Unable to read POM files recorded in {} ({}) ; rerunning manipulation", marker,
+                         e.getMessage() );
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Write the fingerprint to the marker file.
+     *
+     * @param marker the marker file.
+     * @param poms the POM files of the build, as they have been written.
+     * @throws ManipulationException if an error occurs.
+     */
+    public void write( File marker, Collection<File> poms ) throws ManipulationException
+    {
+        final File base = marker.getAbsoluteFile().getParentFile().getParentFile();
+        final TreeMap<String, File> relative = new TreeMap<>();
+        for ( File pom : poms )
+        {
+            relative.put( base.toURI().relativize( pom.toURI() ).getPath(), pom );
+        }
+
+        try
+        {
+            final Properties manifest = new Properties();
+            manifest.setProperty( INPUTS, inputs );
+            manifest.setProperty( POMS, hashPoms( relative ) );
+            manifest.setProperty( POM_FILES, String.join( ",", relative.keySet() ) );
+
+            marker.getParentFile().mkdirs();
+            try (OutputStream out = new FileOutputStream( marker ))
+            {
+                manifest.store( out, "PME build fingerprint" );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new ManipulationException( "Unable to write marker file {}", e, marker );
+        }
+    }
+
+    private static String hashPoms( TreeMap<String, File> poms ) throws IOException
+    {
+        final MessageDigest digest = newDigest();
+        for ( Map.Entry<String, File> pom : poms.entrySet() )
+        {
+            update( digest, pom.getKey() );
+            digest.update( Files.readAllBytes( pom.getValue().toPath() ) );
+        }
+        return toHex( digest.digest() );
+    }
+
+    private static void update( MessageDigest digest, String value )
+    {
+        digest.update( value.getBytes( StandardCharsets.UTF_8 ) );
+        // Separator so that adjacent values cannot run together.
+        digest.update( (byte) 0 );
+    }
+
+    private static MessageDigest newDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance( "SHA-256" );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( "SHA-256 is a required JVM algorithm", e );
+        }
+    }
+
+    private static String toHex( byte[] bytes )
+    {
+        final StringBuilder result = new StringBuilder( bytes.length * 2 );
+        for ( byte b : bytes )
+        {
+            result.append( Character.forDigit( ( b >> 4 ) & 0xF, 16 ) ).append( Character.forDigit( b & 0xF, 16 ) );
+        }
+        return result.toString();
+    }
+}
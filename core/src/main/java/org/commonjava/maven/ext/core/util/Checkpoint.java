@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.core.impl.Manipulator;
+import org.commonjava.maven.ext.io.resolver.ResolutionBundle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Writes the remote content consumed by a run, as a {@link ResolutionBundle}, once the manipulators performing the
+ * remote resolution (REST alignment and BOM loading) have completed, and again if the run fails. A later run may
+ * resume from it via {@link ResolutionBundle#resume(File)} rather than repeating the remote calls. The checkpoint is
+ * removed once the run succeeds.
+ * <p>
+ * The manipulator state is not itself persisted: the remote content is what the states are computed from, so
+ * replaying it reproduces them. A {@link BuildFingerprint} of the POMs and the configuration (including the REST
+ * endpoint and protocol) is written alongside, and a checkpoint not matching the resuming run is discarded.
+ */
+public class Checkpoint
+    implements Consumer<Manipulator>
+{
+    private static final Logger logger = LoggerFactory.getLogger( Checkpoint.class );
+
+    private final File file;
+
+    private final ResolutionBundle bundle;
+
+    private final BuildFingerprint fingerprint;
+
+    private final Supplier<Collection<File>> poms;
+
+    private final Set<Manipulator> pending = Collections.newSetFromMap( new ConcurrentHashMap<>() );
+
+    /**
+     * @param file the checkpoint file.
+     * @param bundle the recording bundle of this run.
+     * @param remotePhase the manipulators to wait for before writing the checkpoint.
+     * @param fingerprint the fingerprint of the configuration of this run.
+     * @param poms supplies the POM files of the build, which are unmodified while a checkpoint may be written.
+     */
+    public Checkpoint( File file, ResolutionBundle bundle, Collection<Manipulator> remotePhase,
+                       BuildFingerprint fingerprint, Supplier<Collection<File>> poms )
+    {
+        this.file = file;
+        this.bundle = bundle;
+        this.fingerprint = fingerprint;
+        this.poms = poms;
+        this.pending.addAll( remotePhase );
+    }
+
+    /**
+     * Load the checkpoint of a previous run, provided it was written for the same POMs and configuration. Otherwise
+     * its content may not be what this run would have fetched, so it is discarded with a warning.
+     *
+     * @param file the checkpoint file.
+     * @param fingerprint the fingerprint of the configuration of this run.
+     * @return the bundle to resume from, or null if there is no usable checkpoint.
+     * @throws ManipulationException if the checkpoint cannot be read.
+     */
+    public static ResolutionBundle resume( File file, BuildFingerprint fingerprint ) throws ManipulationException
+    {
+        if ( !file.exists() )
+        {
+            return null;
+        }
+        if ( !fingerprint.matches( fingerprintFile( file ) ) )
+        {
+            logger.warn( "Discarding checkpoint {} as it was written for a different build or configuration", file );
+            delete( file );
+            return null;
+        }
+        logger.info( "Resuming from checkpoint {}", file );
+        return ResolutionBundle.resume( file );
+    }
+
+    /**
+     * Called as each manipulator completes.
+     */
+    @Override
+    public void accept( Manipulator manipulator )
+    {
+        if ( pending.remove( manipulator ) && pending.isEmpty() )
+        {
+            write();
+        }
+    }
+
+    /**
+     * Write the checkpoint with everything consumed so far. Failure to do so is logged rather than failing the run.
+     */
+    public synchronized void write()
+    {
+        try
+        {
+            bundle.write( file );
+            fingerprint.write( fingerprintFile( file ), poms.get() );
+            logger.info( "Wrote checkpoint {}", file );
+        }
+        catch ( ManipulationException e )
+        {
+            logger.warn( "Unable to write checkpoint {}", file, e );
+        }
+    }
+
+    /**
+     * Remove the checkpoint as the run has succeeded.
+     */
+    public synchronized void complete()
+    {
+        delete( file );
+    }
+
+    private static File fingerprintFile( File file )
+    {
+        return new File( file.getParentFile(), file.getName() + ".fingerprint" );
+    }
+
+    private static void delete( File file )
+    {
+        for ( File f : new File[] { file, fingerprintFile( file ) } )
+        {
+            if ( f.exists() && !f.delete() )
+            {
+                logger.warn( "Unable to remove checkpoint {}", f );
+            }
+        }
+    }
+}
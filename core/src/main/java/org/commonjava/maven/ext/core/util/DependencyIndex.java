@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.ModelBase;
+import org.apache.maven.model.Profile;
+import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleArtifactRef;
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.common.session.MavenSessionHandler;
+import org.commonjava.maven.ext.core.impl.Manipulator;
+import org.commonjava.maven.ext.core.impl.ModelSection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of where each groupId:artifactId is used as a dependency across the reactor, i.e. in the dependencies and
+ * dependencyManagement of every project and of the profiles {@link Project} resolves dependencies for. Dependencies
+ * are resolved as {@link Project#getAllResolvedDependencies}, {@link Project#getResolvedManagedDependencies} and their
+ * profile equivalents resolve them, so a manipulator may look up the occurrences of the dependencies it changes
+ * rather than resolving the dependencies of every project.
+ * <p>
+ * The index is held by the session, built on first use and updated by the manipulators changing dependencies through
+ * it (see {@link #remove(Occurrence)} and {@link #relocate(Occurrence, String, String)}). Once any other manipulator
+ * writing one of the {@link #SECTIONS} the index depends upon completes it is discarded, to be rebuilt on next use;
+ * see {@link Manipulator#maintainsDependencyIndex()}.
+ */
+public class DependencyIndex
+{
+    /**
+     * The sections whose changes affect the index.
+     */
+    public static final Set<ModelSection> SECTIONS =
+                    Collections.unmodifiableSet( EnumSet.of( ModelSection.PARENT, ModelSection.PROPERTIES,
+                                                             ModelSection.DEPENDENCIES, ModelSection.PROFILES ) );
+
+    public enum Section
+    {
+        DEPENDENCIES,
+        MANAGED_DEPENDENCIES
+    }
+
+    private final MavenSessionHandler session;
+
+    private final Map<ProjectRef, List<Occurrence>> occurrences = new LinkedHashMap<>();
+
+    private int size;
+
+    /**
+     * @param session the current session.
+     * @param projects the projects of the reactor.
+     * @throws ManipulationException if the dependencies of a project cannot be resolved.
+     */
+    public DependencyIndex( MavenSessionHandler session, List<Project> projects ) throws ManipulationException
+    {
+        this.session = session;
+
+        for ( Project project : projects )
+        {
+            add( project, null, Section.DEPENDENCIES, project.getAllResolvedDependencies( session ) );
+            if ( project.getModel().getDependencyManagement() != null )
+            {
+                add( project, null, Section.MANAGED_DEPENDENCIES, project.getResolvedManagedDependencies( session ) );
+            }
+            for ( Map.Entry<Profile, Map<ArtifactRef, Dependency>> entry : project.getAllResolvedProfileDependencies(
+                            session ).entrySet() )
+            {
+                add( project, entry.getKey(), Section.DEPENDENCIES, entry.getValue() );
+            }
+            for ( Map.Entry<Profile, Map<ArtifactRef, Dependency>> entry : project.getResolvedProfileManagedDependencies(
+                            session ).entrySet() )
+            {
+                if ( entry.getKey().getDependencyManagement() != null )
+                {
+                    add( project, entry.getKey(), Section.MANAGED_DEPENDENCIES, entry.getValue() );
+                }
+            }
+        }
+    }
+
+    private void add( Project project, Profile profile, Section section, Map<ArtifactRef, Dependency> dependencies )
+    {
+        for ( Map.Entry<ArtifactRef, Dependency> entry : dependencies.entrySet() )
+        {
+            add( new Occurrence( project, profile, section, entry.getValue(), entry.getKey() ) );
+        }
+    }
+
+    private void add( Occurrence occurrence )
+    {
+        occurrences.computeIfAbsent( key( occurrence.artifact ), k -> new ArrayList<>() ).add( occurrence );
+        size++;
+    }
+
+    private ProjectRef key( ArtifactRef artifact )
+    {
+        return session.getCoordinatePool().projectRef( artifact.getGroupId(), artifact.getArtifactId() );
+    }
+
+    /**
+     * @param ga a groupId:artifactId.
+     * @return where ga is used, in no particular order.
+     */
+    public List<Occurrence> get( ProjectRef ga )
+    {
+        final List<Occurrence> result = occurrences.get( ga );
+        return result == null ? Collections.emptyList() : Collections.unmodifiableList( result );
+    }
+
+    /**
+     * @return every groupId:artifactId in use.
+     */
+    public Set<ProjectRef> getProjectRefs()
+    {
+        return Collections.unmodifiableSet( occurrences.keySet() );
+    }
+
+    /**
+     * @return the number of occurrences.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Remove a dependency from its model and the index.
+     *
+     * @param occurrence the occurrence to remove.
+     */
+    public void remove( Occurrence occurrence )
+    {
+        occurrence.getDependencies().remove( occurrence.dependency );
+        removeFromIndex( occurrence );
+    }
+
+    /**
+     * Update the index after the groupId and artifactId of a dependency have been changed.
+     *
+     * @param occurrence the occurrence of the dependency before it was changed.
+     * @param groupId the new groupId.
+     * @param artifactId the new artifactId.
+     * @return the occurrence of the changed dependency.
+     */
+    public Occurrence relocate( Occurrence occurrence, String groupId, String artifactId )
+    {
+        removeFromIndex( occurrence );
+
+        final ArtifactRef artifact = occurrence.artifact;
+        final Occurrence result = new Occurrence( occurrence.project, occurrence.profile, occurrence.section,
+                                                  occurrence.dependency,
+                                                  new SimpleArtifactRef( groupId, artifactId,
+                                                                         artifact.getVersionString(),
+                                                                         artifact.getType(),
+                                                                         artifact.getClassifier() ) );
+        add( result );
+        return result;
+    }
+
+    private void removeFromIndex( Occurrence occurrence )
+    {
+        final ProjectRef key = key( occurrence.artifact );
+        final List<Occurrence> list = occurrences.get( key );
+
+        if ( list != null && list.remove( occurrence ) )
+        {
+            size--;
+            if ( list.isEmpty() )
+            {
+                occurrences.remove( key );
+            }
+        }
+    }
+
+    /**
+     * A dependency within the dependencies or dependencyManagement of a project or one of its profiles.
+     */
+    public static final class Occurrence
+    {
+        private final Project project;
+
+        private final Profile profile;
+
+        private final Section section;
+
+        private final Dependency dependency;
+
+        private final ArtifactRef artifact;
+
+        private Occurrence( Project project, Profile profile, Section section, Dependency dependency,
+                            ArtifactRef artifact )
+        {
+            this.project = project;
+            this.profile = profile;
+            this.section = section;
+            this.dependency = dependency;
+            this.artifact = artifact;
+        }
+
+        public Project getProject()
+        {
+            return project;
+        }
+
+        /**
+         * @return the profile, or null if the dependency is in the project itself.
+         */
+        public Profile getProfile()
+        {
+            return profile;
+        }
+
+        public Section getSection()
+        {
+            return section;
+        }
+
+        /**
+         * @return the dependency within the model.
+         */
+        public Dependency getDependency()
+        {
+            return dependency;
+        }
+
+        /**
+         * @return the resolved coordinates of the dependency.
+         */
+        public ArtifactRef getArtifact()
+        {
+            return artifact;
+        }
+
+        /**
+         * @return the list the dependency is held in.
+         */
+        List<Dependency> getDependencies()
+        {
+            final ModelBase base = profile == null ? project.getModel() : profile;
+            return section == Section.DEPENDENCIES ?
+                            base.getDependencies() :
+                            base.getDependencyManagement().getDependencies();
+        }
+
+        @Override
+        public String toString()
+        {
+            return artifact + " in " + section + ( profile == null ? "" : " of profile " + profile.getId() ) + " of "
+                            + project;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.common.util.Deadline;
+import org.commonjava.maven.ext.core.impl.Manipulator;
+import org.commonjava.maven.ext.core.impl.ModelSection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs an ordered list of {@link Manipulator}s, concurrently where their declared {@link ModelSection} reads and
+ * writes allow. Each manipulator depends upon every earlier manipulator it conflicts with, where two manipulators
+ * conflict if either writes a section the other reads or writes. Conflicting manipulators therefore always run in
+ * list order, and as manipulators default to {@link ModelSection#ALL} an undeclared manipulator acts as a barrier.
+ */
+public class ManipulatorScheduler
+{
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final List<Manipulator> manipulators;
+
+    private final List<List<Integer>> dependencies = new ArrayList<>();
+
+    private final ManipulatorTimings timings;
+
+    private final Deadline deadline;
+
+    /**
+     * @param manipulators the manipulators, already sorted into execution order.
+     */
+    public ManipulatorScheduler( List<Manipulator> manipulators )
+    {
+        this( manipulators, new ManipulatorTimings() );
+    }
+
+    /**
+     * @param manipulators the manipulators, already sorted into execution order.
+     * @param timings records the cost of each manipulator's applyChanges call.
+     */
+    public ManipulatorScheduler( List<Manipulator> manipulators, ManipulatorTimings timings )
+    {
+        this( manipulators, timings, Deadline.NONE );
+    }
+
+    /**
+     * @param manipulators the manipulators, already sorted into execution order.
+     * @param timings records the cost of each manipulator's applyChanges call.
+     * @param deadline the deadline of the run; no manipulator starts once it has expired and those running are
+     * interrupted when it does.
+     */
+    public ManipulatorScheduler( List<Manipulator> manipulators, ManipulatorTimings timings, Deadline deadline )
+    {
+        this.manipulators = manipulators;
+        this.timings = timings;
+        this.deadline = deadline;
+
+        for ( int i = 0; i < manipulators.size(); i++ )
+        {
+            final List<Integer> predecessors = new ArrayList<>();
+            for ( int j = 0; j < i; j++ )
+            {
+                if ( conflicts( manipulators.get( j ), manipulators.get( i ) ) )
+                {
+                    predecessors.add( j );
+                }
+            }
+            dependencies.add( predecessors );
+        }
+    }
+
+    static boolean conflicts( Manipulator first, Manipulator second )
+    {
+        return ModelSection.overlaps( first.getWrites(), second.getWrites() )
+                        || ModelSection.overlaps( first.getWrites(), second.getReads() )
+                        || ModelSection.overlaps( first.getReads(), second.getWrites() );
+    }
+
+    /**
+     * @param index the position of a manipulator.
+     * @return the positions of the earlier manipulators that it must wait for.
+     */
+    public List<Integer> getDependencies( int index )
+    {
+        return Collections.unmodifiableList( dependencies.get( index ) );
+    }
+
+    /**
+     * Apply all manipulators to the projects.
+     *
+     * @param projects the projects to manipulate.
+     * @param threads the maximum number of manipulators to run concurrently; one runs them sequentially.
+     * @return the set of changed projects.
+     * @throws ManipulationException if any manipulator fails. Where several fail, the earliest in execution order
+     * is reported.
+     */
+    public Set<Project> apply( List<Project> projects, int threads ) throws ManipulationException
+    {
+        return apply( projects, threads, m -> {} );
+    }
+
+    /**
+     * Apply all manipulators to the projects.
+     *
+     * @param projects the projects to manipulate.
+     * @param threads the maximum number of manipulators to run concurrently; one runs them sequentially.
+     * @param completed called as each manipulator successfully completes; may be called concurrently.
+     * @return the set of changed projects.
+     * @throws ManipulationException if any manipulator fails. Where several fail, the earliest in execution order
+     * is reported.
+     */
+    public Set<Project> apply( List<Project> projects, int threads, Consumer<Manipulator> completed )
+                    throws ManipulationException
+    {
+        final Set<Project> changed = new HashSet<>();
+
+        if ( threads <= 1 )
+        {
+            for ( final Manipulator manipulator : manipulators )
+            {
+                addChanges( changed, applyChanges( manipulator, projects, completed ) );
+            }
+            return changed;
+        }
+
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool( threads, r -> {
+            Thread t = new Thread( r, "pme-manipulator-" + threadCount.incrementAndGet() );
+            t.setDaemon( true );
+            return t;
+        } );
+        final AtomicBoolean failed = new AtomicBoolean();
+        final List<CompletableFuture<Set<Project>>> futures = new ArrayList<>( manipulators.size() );
+
+        try
+        {
+            for ( int i = 0; i < manipulators.size(); i++ )
+            {
+                final Manipulator manipulator = manipulators.get( i );
+                final CompletableFuture<?>[] predecessors =
+                                dependencies.get( i ).stream().map( futures::get ).toArray( CompletableFuture[]::new );
+
+                futures.add( CompletableFuture.allOf( predecessors )
+                                              .thenApplyAsync( v -> run( manipulator, projects, completed, failed ),
+                                                               executor ) );
+            }
+
+            ManipulationException error = null;
+            for ( int i = 0; i < futures.size(); i++ )
+            {
+                try
+                {
+                    addChanges( changed, futures.get( i ).join() );
+                }
+                catch ( CompletionException e )
+                {
+                    if ( error == null )
+                    {
+                        error = e.getCause() instanceof ManipulationException ?
+                                        (ManipulationException) e.getCause() :
+                                        new ManipulationException( "Manipulator {} failed", e.getCause(),
+                                                                   manipulators.get( i ).getClass().getSimpleName() );
+                    }
+                }
+            }
+            if ( error != null )
+            {
+                throw error;
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+        return changed;
+    }
+
+    private Set<Project> run( Manipulator manipulator, List<Project> projects, Consumer<Manipulator> completed,
+                              AtomicBoolean failed )
+    {
+        // Once any manipulator has failed there is no point starting further ones.
+        if ( failed.get() )
+        {
+            return Collections.emptySet();
+        }
+        logger.debug( "Running manipulator {} on {}", manipulator.getClass().getSimpleName(),
+                      Thread.currentThread().getName() );
+        try
+        {
+            return applyChanges( manipulator, projects, completed );
+        }
+        catch ( ManipulationException | RuntimeException e )
+        {
+            failed.set( true );
+            throw new CompletionException( e );
+        }
+    }
+
+    private Set<Project> applyChanges( Manipulator manipulator, List<Project> projects,
+                                       Consumer<Manipulator> completed ) throws ManipulationException
+    {
+        deadline.check();
+
+        final ManipulatorTimings.Sample sample = ManipulatorTimings.start();
+        final Set<Project> result;
+        try ( Deadline.Pending ignored = deadline.track( manipulator.getClass().getSimpleName() ) )
+        {
+            result = manipulator.applyChanges( projects );
+        }
+        catch ( ManipulationException | RuntimeException e )
+        {
+            // Whatever the manipulator failed with, if the deadline expired that is the cause.
+            if ( deadline.isExpired() )
+            {
+                throw deadline.exceeded( e );
+            }
+            throw e;
+        }
+        timings.recordApply( manipulator, sample, result == null ? 0 : result.size() );
+        completed.accept( manipulator );
+        return result;
+    }
+
+    private static void addChanges( Set<Project> changed, Set<Project> result )
+    {
+        if ( result != null )
+        {
+            changed.addAll( result );
+        }
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.commonjava.maven.ext.core.impl.Manipulator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Records the wall time, CPU time and allocated bytes of each {@link Manipulator}'s <code>init</code> and
+ * <code>applyChanges</code> calls, together with the number of projects changed. CPU time and allocation are
+ * measured on the calling thread and are reported as -1 where the JVM does not support them.
+ */
+public class ManipulatorTimings
+{
+    private static final Logger logger = LoggerFactory.getLogger( ManipulatorTimings.class );
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /**
+     * <code>com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)</code>, if available. Accessed reflectively
+     * as it is not part of the Java SE API.
+     */
+    private static final Method ALLOCATED_BYTES = findAllocatedBytes();
+
+    @JsonProperty
+    private final Map<String, Timing> manipulators = new ConcurrentSkipListMap<>();
+
+    /**
+     * @return a sample of the current thread's counters, to be passed to {@link #recordInit} or
+     * {@link #recordApply} once the measured call completes.
+     */
+    public static Sample start()
+    {
+        return new Sample();
+    }
+
+    public void recordInit( Manipulator manipulator, Sample sample )
+    {
+        getTiming( manipulator ).init = sample.stop();
+    }
+
+    public void recordApply( Manipulator manipulator, Sample sample, int changed )
+    {
+        final Timing timing = getTiming( manipulator );
+        timing.apply = sample.stop();
+        timing.changedProjects = changed;
+    }
+
+    public Map<String, Timing> getManipulators()
+    {
+        return manipulators;
+    }
+
+    /**
+     * Write the timings in the Prometheus text exposition format.
+     *
+     * @param target the file to write to.
+     * @throws IOException if an error occurs writing the file.
+     */
+    public void writePrometheus( File target ) throws IOException
+    {
+        if ( target.getParentFile() != null )
+        {
+            target.getParentFile().mkdirs();
+        }
+        try (Writer writer = Files.newBufferedWriter( target.toPath(), StandardCharsets.UTF_8 ))
+        {
+            writeMetric( writer, "pme_manipulator_wall_seconds", "Wall clock time per manipulator phase.",
+                         m -> m.wallNanos, 1e9 );
+            writeMetric( writer, "pme_manipulator_cpu_seconds", "CPU time per manipulator phase.",
+                         m -> m.cpuNanos, 1e9 );
+            writeMetric( writer, "pme_manipulator_allocated_bytes", "Bytes allocated per manipulator phase.",
+                         m -> m.allocatedBytes, 1 );
+
+            writer.write( "# HELP pme_manipulator_changed_projects Projects changed per manipulator.\n" );
+            writer.write( "# TYPE pme_manipulator_changed_projects gauge\n" );
+            for ( Map.Entry<String, Timing> entry : manipulators.entrySet() )
+            {
+                writer.write( String.format( "pme_manipulator_changed_projects{manipulator=\"%s\"} %d\n",
+                                             entry.getKey(), entry.getValue().changedProjects ) );
+            }
+        }
+    }
+
+    private void writeMetric( Writer writer, String name, String help, ToLongFunction<Measurement> value,
+                              double scale ) throws IOException
+    {
+        writer.write( "# HELP " + name + ' ' + help + '\n' );
+        writer.write( "# TYPE " + name + " gauge\n" );
+        for ( Map.Entry<String, Timing> entry : manipulators.entrySet() )
+        {
+            writeSample( writer, name, entry.getKey(), "init", entry.getValue().init, value, scale );
+            writeSample( writer, name, entry.getKey(), "apply", entry.getValue().apply, value, scale );
+        }
+    }
+
+    private void writeSample( Writer writer, String name, String manipulator, String phase, Measurement m,
+                              ToLongFunction<Measurement> value, double scale ) throws IOException
+    {
+        if ( m == null || value.applyAsLong( m ) < 0 )
+        {
+            return;
+        }
+        writer.write( String.format( Locale.ROOT, "%s{manipulator=\"%s\",phase=\"%s\"} %s\n", name, manipulator,
+                                     phase, scale == 1 ?
+                                                     Long.toString( value.applyAsLong( m ) ) :
+                                                     Double.toString( value.applyAsLong( m ) / scale ) ) );
+    }
+
+    private Timing getTiming( Manipulator manipulator )
+    {
+        return manipulators.computeIfAbsent( manipulator.getClass().getSimpleName(),
+                                             k -> new Timing( manipulator.getExecutionIndex() ) );
+    }
+
+    private static Method findAllocatedBytes()
+    {
+        try
+        {
+            final Method method = Class.forName( "com.sun.management.ThreadMXBean" )
+                                       .getMethod( "getThreadAllocatedBytes", long.class );
+            return method.getDeclaringClass().isInstance( THREADS ) ? method : null;
+        }
+        catch ( ClassNotFoundException | NoSuchMethodException e )
+        {
+            logger.debug( "Thread allocation measurement unavailable", e );
+            return null;
+        }
+    }
+
+    private static long cpuTime()
+    {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long allocatedBytes()
+    {
+        if ( ALLOCATED_BYTES != null )
+        {
+            try
+            {
+                return (Long) ALLOCATED_BYTES.invoke( THREADS, Thread.currentThread().getId() );
+            }
+            catch ( ReflectiveOperationException | UnsupportedOperationException e )
+            {
+                logger.debug( "Unable to measure thread allocation", e );
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Counters of the current thread at the start of a measured call.
+     */
+    public static class Sample
+    {
+        private final long wall = System.nanoTime();
+
+        private final long cpu = cpuTime();
+
+        private final long allocated = allocatedBytes();
+
+        private Measurement stop()
+        {
+            final long endCpu = cpuTime();
+            final long endAllocated = allocatedBytes();
+
+            return new Measurement( System.nanoTime() - wall, cpu < 0 || endCpu < 0 ? -1 : endCpu - cpu,
+                                    allocated < 0 || endAllocated < 0 ? -1 : endAllocated - allocated );
+        }
+    }
+
+    /**
+     * Timings for one manipulator.
+     */
+    public static class Timing
+    {
+        @JsonProperty
+        private final int executionIndex;
+
+        @JsonProperty
+        private volatile Measurement init;
+
+        @JsonProperty
+        private volatile Measurement apply;
+
+        @JsonProperty
+        private volatile int changedProjects;
+
+        Timing( int executionIndex )
+        {
+            this.executionIndex = executionIndex;
+        }
+
+        public int getExecutionIndex()
+        {
+            return executionIndex;
+        }
+
+        public Measurement getInit()
+        {
+            return init;
+        }
+
+        public Measurement getApply()
+        {
+            return apply;
+        }
+
+        public int getChangedProjects()
+        {
+            return changedProjects;
+        }
+    }
+
+    /**
+     * Cost of a single call.
+     */
+    public static class Measurement
+    {
+        @JsonProperty
+        private final long wallNanos;
+
+        @JsonProperty
+        private final long cpuNanos;
+
+        @JsonProperty
+        private final long allocatedBytes;
+
+        Measurement( long wallNanos, long cpuNanos, long allocatedBytes )
+        {
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public long getWallNanos()
+        {
+            return wallNanos;
+        }
+
+        public long getCpuNanos()
+        {
+            return cpuNanos;
+        }
+
+        public long getAllocatedBytes()
+        {
+            return allocatedBytes;
+        }
+    }
+}
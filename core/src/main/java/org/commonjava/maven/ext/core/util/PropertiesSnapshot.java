@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A read only copy of the user properties (including those from any configuration file) taken once for the
+ * {@link org.commonjava.maven.ext.core.state.State}s to initialise from. As well as being usable as plain
+ * {@link Properties}, the names are indexed in order so that all properties sharing a prefix (e.g. every
+ * <code>dependencyOverride.</code>) are found without examining every property; see
+ * {@link PropertiesUtils#getPropertiesByPrefix(Properties, String)}.
+ * <p>
+ * Any defaults of the original properties are flattened into the copy, and entries whose name or value is not a
+ * String are ignored, as by {@link Properties#stringPropertyNames()}. Every mutator (including those of the key, value
+ * and entry views) throws {@link UnsupportedOperationException}, and a clone is another read only snapshot.
+ */
+public final class PropertiesSnapshot
+    extends Properties
+{
+    private static final long serialVersionUID = 1L;
+
+    private final NavigableMap<String, String> index = new TreeMap<>();
+
+    private final Map<Object, Object> view;
+
+    private final boolean sealed;
+
+    private PropertiesSnapshot( Properties source )
+    {
+        for ( final String name : source.stringPropertyNames() )
+        {
+            index.put( name, source.getProperty( name ) );
+        }
+        super.putAll( index );
+        view = Collections.unmodifiableMap( new HashMap<Object, Object>( index ) );
+        sealed = true;
+    }
+
+    /**
+     * @param source the properties to copy.
+     * @return a snapshot of the current content of source.
+     */
+    public static PropertiesSnapshot of( Properties source )
+    {
+        return new PropertiesSnapshot( source );
+    }
+
+    /**
+     * @param prefix the prefix of the property names.
+     * @return a new mutable map of the properties whose names start with prefix, keyed by name without the prefix.
+     */
+    Map<String, String> getByPrefix( String prefix )
+    {
+        final Map<String, String> result = new HashMap<>();
+
+        for ( final Map.Entry<String, String> entry : index.tailMap( prefix, true ).entrySet() )
+        {
+            if ( !entry.getKey().startsWith( prefix ) )
+            {
+                break;
+            }
+            result.put( entry.getKey().substring( prefix.length() ), entry.getValue() );
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized Object put( Object key, Object value )
+    {
+        if ( sealed )
+        {
+            throw readOnly();
+        }
+        return super.put( key, value );
+    }
+
+    @Override
+    public synchronized Object setProperty( String key, String value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized void putAll( Map<?, ?> t )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized Object putIfAbsent( Object key, Object value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized Object remove( Object key )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized boolean remove( Object key, Object value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized Object replace( Object key, Object value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized boolean replace( Object key, Object oldValue, Object newValue )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized void replaceAll( BiFunction<? super Object, ? super Object, ?> function )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized Object compute( Object key, BiFunction<? super Object, ? super Object, ?> remappingFunction )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized Object computeIfAbsent( Object key, Function<? super Object, ?> mappingFunction )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized Object computeIfPresent( Object key,
+                                                 BiFunction<? super Object, ? super Object, ?> remappingFunction )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized Object merge( Object key, Object value,
+                                      BiFunction<? super Object, ? super Object, ?> remappingFunction )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized void clear()
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized void load( Reader reader )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized void load( InputStream inStream )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized void loadFromXML( InputStream in )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public Set<Object> keySet()
+    {
+        return view.keySet();
+    }
+
+    @Override
+    public Set<Map.Entry<Object, Object>> entrySet()
+    {
+        return view.entrySet();
+    }
+
+    @Override
+    public Collection<Object> values()
+    {
+        return view.values();
+    }
+
+    /**
+     * @return an equal snapshot, which is equally read only; use {@link Properties#putAll(Map)} on new
+     * {@link Properties} for a mutable copy.
+     */
+    @Override
+    public synchronized Object clone()
+    {
+        return new PropertiesSnapshot( this );
+    }
+
+    private static UnsupportedOperationException readOnly()
+    {
+        return new UnsupportedOperationException( "Properties snapshot is read only" );
+    }
+}
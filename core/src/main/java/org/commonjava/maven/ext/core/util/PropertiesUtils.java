@@ -55,29 +55,40 @@ public final class PropertiesUtils
 
     /**
      * Filter Properties by accepting only properties with names that start with prefix. Trims the prefix
-     * from the property names when inserting them into the returned Map.
+     * from the property names when inserting them into the returned Map. A {@link PropertiesSnapshot} is searched by
+     * its index rather than by examining every property.
      * @param properties the properties to filter.
      * @param prefix The String that must be at the start of the property names
      * @return map of properties with matching prepend and their values
      */
     public static Map<String, String> getPropertiesByPrefix( final Properties properties, final String prefix )
     {
-        final Map<String, String> matchedProperties = new HashMap<>();
-        final int prefixLength = prefix.length();
+        final Map<String, String> matchedProperties;
 
-        for ( final String propertyName : properties.stringPropertyNames() )
+        if ( properties instanceof PropertiesSnapshot )
         {
-            if ( propertyName.startsWith( prefix ) )
+            matchedProperties = ( (PropertiesSnapshot) properties ).getByPrefix( prefix );
+        }
+        else
+        {
+            matchedProperties = new HashMap<>();
+            for ( final String propertyName : properties.stringPropertyNames() )
             {
-                final String trimmedPropertyName = propertyName.substring( prefixLength );
-                String value = properties.getProperty( propertyName );
-                if ( value != null && value.equals( "true" ) )
+                if ( propertyName.startsWith( prefix ) )
                 {
-                    logger.warn( "Work around Brew/Maven bug - removing erroneous 'true' value for {}.",
-                                 trimmedPropertyName );
-                    value = "";
+                    matchedProperties.put( propertyName.substring( prefix.length() ),
+                                           properties.getProperty( propertyName ) );
                 }
-                matchedProperties.put( trimmedPropertyName, value );
+            }
+        }
+
+        for ( final Map.Entry<String, String> entry : matchedProperties.entrySet() )
+        {
+            if ( "true".equals( entry.getValue() ) )
+            {
+                logger.warn( "Work around Brew/Maven bug - removing erroneous 'true' value for {}.",
+                             entry.getKey() );
+                entry.setValue( "" );
             }
         }
 
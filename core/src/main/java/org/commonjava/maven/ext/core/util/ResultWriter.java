@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.introspect.VisibilityChecker;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streams the result of a run to a file. The result consists of named sections, each serialized from the fields and
+ * methods explicitly marked with {@link JsonProperty}; sections without any such properties are omitted. The sections
+ * are written directly to the file as they are serialized, rather than first building a tree of the whole result.
+ */
+public class ResultWriter
+{
+    /**
+     * Output formats.
+     */
+    public enum Format
+    {
+        /**
+         * A single JSON object holding each section under its name.
+         */
+        JSON,
+        /**
+         * Newline delimited JSON: one object per line, each holding a single section under its name. Each line may be
+         * processed independently, which suits consumers of the result of large reactors.
+         */
+        NDJSON
+    }
+
+    static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static
+    {
+        VisibilityChecker<?> vc = MAPPER.getSerializationConfig()
+                                        .getDefaultVisibilityChecker()
+                                        .withCreatorVisibility( JsonAutoDetect.Visibility.NONE )
+                                        .withFieldVisibility( JsonAutoDetect.Visibility.NONE )
+                                        .withGetterVisibility( JsonAutoDetect.Visibility.NONE )
+                                        .withIsGetterVisibility( JsonAutoDetect.Visibility.NONE )
+                                        .withSetterVisibility( JsonAutoDetect.Visibility.NONE );
+        MAPPER.setVisibility( vc );
+        MAPPER.configure( SerializationFeature.FAIL_ON_EMPTY_BEANS, false );
+        MAPPER.configure( SerializationFeature.FLUSH_AFTER_WRITE_VALUE, false );
+    }
+
+    private static final Map<Class<?>, Boolean> HAS_PROPERTIES = new ConcurrentHashMap<>();
+
+    private final Map<String, Object> sections = new LinkedHashMap<>();
+
+    /**
+     * Add a section to the result. Null values and beans without any {@link JsonProperty} are ignored.
+     *
+     * @param name the name of the section.
+     * @param value the value to serialize.
+     * @return this writer.
+     * @throws IOException if the type of the value cannot be serialized.
+     */
+    public ResultWriter add( String name, Object value ) throws IOException
+    {
+        if ( value != null && ( value instanceof Map || hasProperties( value.getClass() ) ) )
+        {
+            sections.put( name, value );
+        }
+        return this;
+    }
+
+    /**
+     * Write the result.
+     *
+     * @param file the file to write to.
+     * @param format the output format.
+     * @throws IOException if an error occurs.
+     */
+    public void write( File file, Format format ) throws IOException
+    {
+        try ( OutputStream out = Files.newOutputStream( file.toPath() );
+              JsonGenerator generator = MAPPER.getFactory().createGenerator( out, JsonEncoding.UTF8 ) )
+        {
+            if ( format == Format.JSON )
+            {
+                generator.writeStartObject();
+            }
+            else
+            {
+                // Lines are terminated explicitly rather than separated.
+                generator.setRootValueSeparator( null );
+            }
+            for ( Map.Entry<String, Object> section : sections.entrySet() )
+            {
+                if ( format == Format.NDJSON )
+                {
+                    generator.writeStartObject();
+                }
+                generator.writeFieldName( section.getKey() );
+                MAPPER.writeValue( generator, section.getValue() );
+                if ( format == Format.NDJSON )
+                {
+                    generator.writeEndObject();
+                    generator.writeRaw( '\n' );
+                }
+            }
+            if ( format == Format.JSON )
+            {
+                generator.writeEndObject();
+            }
+        }
+    }
+
+    /**
+     * Whether the serializer for the type writes any properties; with only {@link JsonProperty} visible a bean may well
+     * have none. Cached as this depends only upon the type.
+     */
+    private static boolean hasProperties( Class<?> type ) throws JsonMappingException
+    {
+        Boolean result = HAS_PROPERTIES.get( type );
+        if ( result == null )
+        {
+            result = MAPPER.getSerializerProviderInstance().findValueSerializer( type ).properties().hasNext();
+            HAS_PROPERTIES.put( type, result );
+        }
+        return result;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.groovy;
+
+import groovy.lang.Script;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class CompiledScriptsTest
+{
+    @Test
+    public void testKeyedByNameAndSource()
+    {
+        final CompiledScripts scripts = new CompiledScripts( 10 );
+
+        final Class<? extends Script> compiled = scripts.compile( "First", "println 'hello'" );
+        assertEquals( "First", compiled.getName() );
+        assertSame( compiled, scripts.compile( "First", "println 'hello'" ) );
+        assertNotSame( compiled, scripts.compile( "First", "println 'goodbye'" ) );
+        assertEquals( "Second", scripts.compile( "Second", "println 'hello'" ).getName() );
+        assertEquals( 3, scripts.size() );
+
+        scripts.clear();
+        assertEquals( 0, scripts.size() );
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted()
+    {
+        final CompiledScripts scripts = new CompiledScripts( 2 );
+
+        final Class<? extends Script> first = scripts.compile( "First", "1" );
+        final Class<? extends Script> second = scripts.compile( "Second", "2" );
+        // Using First makes Second the eldest.
+        assertSame( first, scripts.compile( "First", "1" ) );
+        scripts.compile( "Third", "3" );
+
+        assertEquals( 2, scripts.size() );
+        assertSame( first, scripts.compile( "First", "1" ) );
+        assertNotSame( second, scripts.compile( "Second", "2" ) );
+    }
+}
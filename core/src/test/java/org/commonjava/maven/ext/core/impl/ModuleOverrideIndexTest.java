@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.impl;
+
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ModuleOverrideIndexTest
+{
+    @Test
+    public void testRules() throws Exception
+    {
+        final Map<String, String> overrides = new HashMap<>();
+        overrides.put( "org.foo:bar", "1.0" );
+        overrides.put( "org.foo:bar@org.acme:module", "2.0" );
+        overrides.put( "org.foo:baz@org.acme:*", "" );
+        overrides.put( "org.foo:*@*", "3.0" );
+
+        final ModuleOverrideIndex index = new ModuleOverrideIndex( overrides );
+        assertEquals( 3, index.size() );
+
+        assertEquals( new HashSet<>( Arrays.asList( "org.foo:bar@org.acme:module", "org.foo:baz@org.acme:*" ) ),
+                      new HashSet<>( keys( index.getModuleRules( "org.acme:module" ) ) ) );
+        assertEquals( Arrays.asList( "org.foo:baz@org.acme:*" ), keys( index.getModuleRules( "org.acme:other" ) ) );
+        assertTrue( index.getModuleRules( "org.other:module" ).isEmpty() );
+
+        assertEquals( 1, index.getWildcardRules().size() );
+        assertEquals( "org.foo:*", index.getWildcardRules().get( 0 ).getArtifactGA() );
+        assertEquals( "*", index.getWildcardRules().get( 0 ).getArtifact().getArtifactId() );
+    }
+
+    @Test( expected = ManipulationException.class )
+    public void testInvalidKey() throws Exception
+    {
+        new ModuleOverrideIndex( Collections.singletonMap( "org.foo:bar@org.acme:module@org.acme:other", "1.0" ) );
+    }
+
+    @Test
+    public void testRuleOrder() throws Exception
+    {
+        final Random random = new Random( 0 );
+        final String[] groups = { "org.a", "org.b", "org.c" };
+        final String[] artifacts = { "one", "two", "three", "*" };
+        final Map<String, String> overrides = new HashMap<>();
+
+        for ( int i = 0; i < 500; i++ )
+        {
+            final String module = random.nextInt( 10 ) == 0 ? "*" :
+                            groups[random.nextInt( groups.length )] + ':' + artifacts[random.nextInt( artifacts.length )];
+            overrides.put( "org.dep:artifact" + i + '@' + module, Integer.toString( i ) );
+        }
+        final ModuleOverrideIndex index = new ModuleOverrideIndex( overrides );
+
+        // The rules must be in the order they would be found by examining every key in turn.
+        final List<String> all = new ArrayList<>( new HashSet<>( overrides.keySet() ) );
+        for ( String group : groups )
+        {
+            for ( String artifact : artifacts )
+            {
+                final String module = group + ':' + artifact;
+                final List<String> expected = all.stream()
+                                                 .filter( k -> !k.endsWith( "@*" ) )
+                                                 .filter( k -> k.endsWith( '@' + module ) || k.endsWith(
+                                                                 '@' + group + ":*" ) )
+                                                 .collect( Collectors.toList() );
+                assertEquals( expected, keys( index.getModuleRules( module ) ) );
+            }
+        }
+        assertEquals( all.stream().filter( k -> k.endsWith( "@*" ) ).collect( Collectors.toList() ),
+                      keys( index.getWildcardRules() ) );
+    }
+
+    private static List<String> keys( List<ModuleOverrideIndex.Rule> rules )
+    {
+        return rules.stream().map( ModuleOverrideIndex.Rule::getKey ).collect( Collectors.toList() );
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.impl;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class ParsedVersionTest
+{
+    private static final List<String> VERSIONS = Arrays.asList(
+                    "", "1", "1.0", "1.0.0", "1.0.0.0", "1.0-SNAPSHOT", "1.0.0.Beta1", "1.0.0.Beta10-rebuild-1",
+                    "1.0.0.GA-rebuild1", "1.0.0.Final-Beta-1", "1.0.beta.1-2", "Beta3", "1.x.2.beta4t",
+                    "1.0.0.Beta11-SNAPSHOT", "1.0.0.Beta1-SNAPSHOT-10", "7.18.1.20190312-prod", "13_2-43",
+                    "GA-1-GA-foo", "1.2.3.foo-final-1", "-beta1", "12.beta1_3-5.hello", "1.2.3.4.beta",
+                    "1-2.3beta4", "SNAPSHOT", "-SNAPSHOT", "1SNAPSHOT", "1.0snapshot", "1.0--SNAPSHOT",
+                    "1.0-.SNAPSHOT", "1.0.0-redhat-00001", "1.0.0.redhat-1-SnapShot", "${project.version}",
+                    "${project.version}-foo", "1.0.${micro}", "2.10.0-000164.fuse-000001-redhat", "1..2", "1.-2",
+                    ".1", "_", "1.0\n", "1.0\nfoo-1-SNAPSHOT", "\u0661.0", "1.0-\u017fNAPSHOT", "1.0-\u2028-1" );
+
+    private static final String[] TOKENS = {
+                    "0", "1", "23", "007", ".", "-", "_", "SNAPSHOT", "snapshot", "SnApShOt", "NAPSHOT", "Beta", "GA",
+                    "redhat", "x", " ", "\n", "\u2029", "\u0663", "$" };
+
+    @Test
+    public void testMatchesRegularExpressions()
+    {
+        VERSIONS.forEach( ParsedVersionTest::verify );
+    }
+
+    @Test
+    public void testMatchesRegularExpressionsRandomly()
+    {
+        final Random random = new Random( 42 );
+        final List<String> versions = new ArrayList<>();
+
+        for ( int i = 0; i < 20000; i++ )
+        {
+            final StringBuilder version = new StringBuilder();
+            for ( int j = random.nextInt( 8 ); j >= 0; j-- )
+            {
+                version.append( TOKENS[random.nextInt( TOKENS.length )] );
+            }
+            versions.add( version.toString() );
+        }
+        versions.forEach( ParsedVersionTest::verify );
+    }
+
+    @Test
+    public void testInterned()
+    {
+        final String version = "1.0.0.redhat-1";
+        assertSame( ParsedVersion.parse( version ), ParsedVersion.parse( new String( version ) ) );
+    }
+
+    private static void verify( String version )
+    {
+        final String message = "Version '" + version + '\'';
+        assertEquals( message, RegexVersion.getMMM( version ), Version.getMMM( version ) );
+        assertEquals( message, RegexVersion.getOsgiMMM( version, true ), Version.getOsgiMMM( version, true ) );
+        assertEquals( message, RegexVersion.getOsgiMMM( version, false ), Version.getOsgiMMM( version, false ) );
+        assertEquals( message, RegexVersion.getQualifier( version ), Version.getQualifier( version ) );
+        assertEquals( message, RegexVersion.getQualifierBase( version ), Version.getQualifierBase( version ) );
+        assertEquals( message, RegexVersion.getQualifierWithDelim( version ), Version.getQualifierWithDelim( version ) );
+        assertEquals( message, RegexVersion.getBuildNumber( version ), Version.getBuildNumber( version ) );
+        assertEquals( message, RegexVersion.isSnapshot( version ), Version.isSnapshot( version ) );
+        assertEquals( message, RegexVersion.getSnapshot( version ), Version.getSnapshot( version ) );
+        assertEquals( message, RegexVersion.getSnapshotWithDelim( version ), Version.getSnapshotWithDelim( version ) );
+        assertEquals( message, RegexVersion.removeSnapshot( version ), Version.removeSnapshot( version ) );
+        assertEquals( message, RegexVersion.removeBuildNumber( version ), Version.removeBuildNumber( version ) );
+        assertEquals( message, RegexVersion.removeLeadingDelimiter( version ), Version.removeLeadingDelimiter( version ) );
+        assertEquals( message, RegexVersion.setBuildNumber( version, "12" ), Version.setBuildNumber( version, "12" ) );
+        assertEquals( message, RegexVersion.setBuildNumber( version, "" ), Version.setBuildNumber( version, "" ) );
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.impl;
+
+import org.apache.maven.artifact.repository.metadata.Metadata;
+import org.apache.maven.artifact.repository.metadata.Versioning;
+import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Writer;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.Profile;
+import org.apache.maven.repository.DefaultMirrorSelector;
+import org.codehaus.plexus.DefaultPlexusContainer;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.core.ManipulationSession;
+import org.commonjava.maven.ext.core.fixture.StubTransport;
+import org.commonjava.maven.ext.core.state.VersioningState;
+import org.commonjava.maven.ext.io.resolver.GalleyAPIWrapper;
+import org.commonjava.maven.ext.io.resolver.GalleyInfrastructure;
+import org.commonjava.maven.ext.io.resolver.MavenLocationExpander;
+import org.commonjava.maven.galley.maven.GalleyMavenException;
+import org.commonjava.maven.galley.maven.model.view.meta.MavenMetadataView;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RangeResolverTest
+{
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testOnlyRangedProjectsChanged() throws Exception
+    {
+        final Model withRange = createModel( "module-a", dependency( "org.foo", "bar", "[1.0,2.0)" ) );
+        final Profile profile = new Profile();
+        profile.setId( "extra" );
+        profile.addDependency( dependency( "org.foo", "bar", "[1.0,)" ) );
+        withRange.addProfile( profile );
+
+        final Model withoutRange = createModel( "module-b", dependency( "org.foo", "bar", "1.0" ) );
+
+        final Project a = new Project( new File( "pom.xml" ), withRange );
+        final Project b = new Project( new File( "pom.xml" ), withoutRange );
+
+        final RangeResolver resolver = createResolver( "1.0", "1.5", "2.0" );
+        final Set<Project> changed = resolver.applyChanges( Arrays.asList( a, b ) );
+
+        assertEquals( Collections.singleton( a ), changed );
+        assertFalse( changed.contains( b ) );
+        assertEquals( "1.5", withRange.getDependencies().get( 0 ).getVersion() );
+        assertEquals( "2.0", profile.getDependencies().get( 0 ).getVersion() );
+        assertEquals( "1.0", withoutRange.getDependencies().get( 0 ).getVersion() );
+    }
+
+    @Test
+    public void testUnmatchedRangeLeftAlone() throws Exception
+    {
+        final Model model = createModel( "module-a", dependency( "org.foo", "bar", "[3.0,)" ) );
+        final Project p = new Project( new File( "pom.xml" ), model );
+
+        final RangeResolver resolver = createResolver( "1.0", "2.0" );
+        final Set<Project> changed = resolver.applyChanges( Collections.singletonList( p ) );
+
+        assertTrue( changed.isEmpty() );
+        assertEquals( "[3.0,)", model.getDependencies().get( 0 ).getVersion() );
+    }
+
+    @Test
+    public void testMetadataResolvedOncePerGA() throws Exception
+    {
+        final Model first = createModel( "module-a", dependency( "org.foo", "bar", "[1.0,2.0)" ),
+                                         dependency( "org.foo", "baz", "[1.0,)" ) );
+        first.setDependencyManagement( new DependencyManagement() );
+        first.getDependencyManagement().addDependency( dependency( "org.foo", "bar", "[1.0,)" ) );
+        final Profile profile = new Profile();
+        profile.setId( "extra" );
+        profile.addDependency( dependency( "org.foo", "bar", "(,2.0]" ) );
+        first.addProfile( profile );
+
+        final Model second = createModel( "module-b", dependency( "org.foo", "bar", "[1.5,)" ),
+                                          dependency( "org.foo", "baz", "[1.0,2.0)" ) );
+        final Plugin plugin = new Plugin();
+        plugin.setGroupId( "org.foo" );
+        plugin.setArtifactId( "baz" );
+        plugin.setVersion( "[1.0,)" );
+        second.setBuild( new Build() );
+        second.getBuild().addPlugin( plugin );
+
+        final Map<String, byte[]> dataMap = new HashMap<>();
+        dataMap.put( "org/foo/bar/maven-metadata.xml", metadata( "1.0", "1.5", "2.0" ) );
+        dataMap.put( "org/foo/baz/maven-metadata.xml", metadata( "1.0", "1.1" ) );
+        final Map<ProjectRef, Integer> reads = new ConcurrentHashMap<>();
+        final RangeResolver resolver = createResolver( dataMap, reads );
+
+        resolver.applyChanges( Arrays.asList( new Project( new File( "pom.xml" ), first ),
+                                              new Project( new File( "module-b/pom.xml" ), second ) ) );
+
+        final Map<ProjectRef, Integer> expected = new HashMap<>();
+        expected.put( new SimpleProjectRef( "org.foo", "bar" ), 1 );
+        expected.put( new SimpleProjectRef( "org.foo", "baz" ), 1 );
+        assertEquals( expected, reads );
+        assertEquals( "2.0", second.getDependencies().get( 0 ).getVersion() );
+        assertEquals( "1.1", plugin.getVersion() );
+    }
+
+    private RangeResolver createResolver( final String... versions ) throws Exception
+    {
+        final Map<String, byte[]> dataMap = new HashMap<>();
+        dataMap.put( "org/foo/bar/maven-metadata.xml", metadata( versions ) );
+
+        return createResolver( dataMap, new ConcurrentHashMap<>() );
+    }
+
+    /**
+     * @param dataMap the remote content.
+     * @param reads records the number of metadata reads of each GA.
+     */
+    private RangeResolver createResolver( final Map<String, byte[]> dataMap, final Map<ProjectRef, Integer> reads )
+                    throws Exception
+    {
+        final Properties props = new Properties();
+        props.setProperty( "versionIncrementalSuffix", "redhat" );
+
+        final MavenExecutionRequest req = new DefaultMavenExecutionRequest().setUserProperties( props );
+        final MavenSession mavenSession = new MavenSession( new DefaultPlexusContainer(), null, req,
+                                                            new DefaultMavenExecutionResult() );
+        final ManipulationSession session = new ManipulationSession();
+        session.setMavenSession( mavenSession );
+        session.setState( new VersioningState( props ) );
+
+        final GalleyAPIWrapper wrapper = new GalleyAPIWrapper(
+                        new GalleyInfrastructure( session, new DefaultMirrorSelector() ).init(
+                                        MavenLocationExpander.EXPANSION_TARGET, new StubTransport( dataMap ),
+                                        temp.newFolder() ) )
+        {
+            @Override
+            public MavenMetadataView readMetadataView( final ProjectRef ref ) throws GalleyMavenException
+            {
+                reads.merge( ref, 1, Integer::sum );
+                return super.readMetadataView( ref );
+            }
+        };
+
+        final RangeResolver resolver = new RangeResolver( wrapper );
+        resolver.init( session );
+        return resolver;
+    }
+
+    private static Model createModel( final String artifactId, final Dependency... dependencies )
+    {
+        final Model model = new Model();
+        model.setGroupId( "org.test" );
+        model.setArtifactId( artifactId );
+        model.setVersion( "1.0" );
+        for ( Dependency d : dependencies )
+        {
+            model.addDependency( d );
+        }
+        return model;
+    }
+
+    private static Dependency dependency( final String groupId, final String artifactId, final String version )
+    {
+        final Dependency d = new Dependency();
+        d.setGroupId( groupId );
+        d.setArtifactId( artifactId );
+        d.setVersion( version );
+        return d;
+    }
+
+    private static byte[] metadata( final String... versions ) throws Exception
+    {
+        final Metadata md = new Metadata();
+        final Versioning v = new Versioning();
+        md.setVersioning( v );
+        v.setVersions( Arrays.asList( versions ) );
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new MetadataXpp3Writer().write( baos, md );
+        return baos.toByteArray();
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.impl;
+
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The regular expression implementation {@link Version} used before {@link ParsedVersion}, kept as the reference its
+ * results must match.
+ */
+final class RegexVersion
+{
+    private static final String DELIMITER_REGEX = "[.\\-_]";
+
+    private static final String LEADING_DELIMITER_REGEX = "^" + DELIMITER_REGEX;
+
+    private static final String MMM_REGEX =
+                    "(\\d+)(" + DELIMITER_REGEX + "(\\d+)(" + DELIMITER_REGEX + "(\\d+))?)?";
+
+    private static final Pattern mmmPattern = Pattern.compile( MMM_REGEX );
+
+    private static final String SNAPSHOT_REGEX = "(.*?)((" + DELIMITER_REGEX + ")?((?i:SNAPSHOT)))$";
+
+    private static final Pattern snapshotPattern = Pattern.compile( SNAPSHOT_REGEX );
+
+    private static final String QUALIFIER_REGEX =
+                    "(.*?)((" + DELIMITER_REGEX + ")?(\\d+))?((" + DELIMITER_REGEX + ")?((?i:SNAPSHOT)))?$";
+
+    private static final Pattern qualifierPattern = Pattern.compile( QUALIFIER_REGEX );
+
+    private static final String VERSION_REGEX =
+                    "(" + MMM_REGEX + ")" + "((" + DELIMITER_REGEX + ")?" + "(" + QUALIFIER_REGEX + "))";
+
+    private static final Pattern versionPattern = Pattern.compile( VERSION_REGEX );
+
+    private RegexVersion()
+    {
+    }
+
+    static String getBuildNumber( String version )
+    {
+        Matcher qualifierMatcher = qualifierPattern.matcher( getQualifier( version ) );
+        if ( qualifierMatcher.matches() && !Version.isEmpty( qualifierMatcher.group( 4 ) ) )
+        {
+            return qualifierMatcher.group( 4 );
+        }
+        return "";
+    }
+
+    static String getMMM( String version )
+    {
+        Matcher versionMatcher = versionPattern.matcher( version );
+        if ( versionMatcher.matches() )
+        {
+            return versionMatcher.group( 1 );
+        }
+        return "";
+    }
+
+    static String getOsgiMMM( String version, boolean fill )
+    {
+        Matcher mmmMatcher = mmmPattern.matcher( getMMM( version ) );
+        if ( mmmMatcher.matches() )
+        {
+            String osgiMMM = mmmMatcher.group( 1 );
+            if ( !Version.isEmpty( mmmMatcher.group( 3 ) ) )
+            {
+                osgiMMM += "." + mmmMatcher.group( 3 );
+            }
+            else if ( fill )
+            {
+                osgiMMM += ".0";
+            }
+            if ( !Version.isEmpty( mmmMatcher.group( 5 ) ) )
+            {
+                osgiMMM += "." + mmmMatcher.group( 5 );
+            }
+            else if ( fill )
+            {
+                osgiMMM += ".0";
+            }
+            return osgiMMM;
+        }
+        return "";
+    }
+
+    static String getQualifier( String version )
+    {
+        Matcher versionMatcher = versionPattern.matcher( version );
+        if ( versionMatcher.matches() )
+        {
+            return versionMatcher.group( 9 );
+        }
+        return removeLeadingDelimiter( version );
+    }
+
+    static String getQualifierBase( String version )
+    {
+        Matcher versionMatcher = versionPattern.matcher( version );
+        if ( versionMatcher.matches() )
+        {
+            return versionMatcher.group( 10 );
+        }
+        Matcher qualifierMatcher = qualifierPattern.matcher( version );
+        if ( qualifierMatcher.matches() )
+        {
+            return qualifierMatcher.group( 1 );
+        }
+        return removeLeadingDelimiter( version );
+    }
+
+    static String getQualifierWithDelim( String version )
+    {
+        Matcher versionMatcher = versionPattern.matcher( version );
+        if ( versionMatcher.matches() )
+        {
+            return versionMatcher.group( 7 );
+        }
+        return version;
+    }
+
+    static String getSnapshot( String version )
+    {
+        Matcher snapshotMatcher = snapshotPattern.matcher( version );
+        if ( snapshotMatcher.matches() )
+        {
+            return snapshotMatcher.group( 4 );
+        }
+        return "";
+    }
+
+    static String getSnapshotWithDelim( String version )
+    {
+        Matcher snapshotMatcher = snapshotPattern.matcher( version );
+        if ( snapshotMatcher.matches() )
+        {
+            return snapshotMatcher.group( 2 );
+        }
+        return "";
+    }
+
+    static boolean isSnapshot( String version )
+    {
+        return snapshotPattern.matcher( version ).matches();
+    }
+
+    static String removeBuildNumber( String version )
+    {
+        Matcher qualifierMatcher = qualifierPattern.matcher( version );
+        if ( qualifierMatcher.matches() )
+        {
+            return qualifierMatcher.replaceFirst( "$1$5" );
+        }
+        return version;
+    }
+
+    static String removeSnapshot( String version )
+    {
+        Matcher snapshotMatcher = snapshotPattern.matcher( version );
+        if ( snapshotMatcher.matches() )
+        {
+            return snapshotMatcher.group( 1 );
+        }
+        return version;
+    }
+
+    static String removeLeadingDelimiter( String versionPart )
+    {
+        return versionPart.replaceAll( LEADING_DELIMITER_REGEX, "" );
+    }
+
+    /**
+     * Only for a numeric build number.
+     */
+    static String setBuildNumber( String version, String buildNumber )
+    {
+        if ( Version.isEmpty( getQualifier( version ) ) )
+        {
+            return version + "." + buildNumber;
+        }
+        Matcher qualifierMatcher = qualifierPattern.matcher( version );
+        if ( qualifierMatcher.matches() )
+        {
+            if ( Version.isEmpty( qualifierMatcher.group( 2 ) ) )
+            {
+                buildNumber = "-" + buildNumber;
+            }
+            return qualifierMatcher.replaceFirst( "$1$3" + buildNumber + "$5" );
+        }
+        return version;
+    }
+
+    static int findHighestMatchingBuildNumber( String version, Set<String> versionSet )
+    {
+        int highestBuildNum = 0;
+
+        String qualifier = getQualifier( Version.getOsgiVersion( version ) );
+        Matcher qualifierMatcher = qualifierPattern.matcher( qualifier );
+        if ( qualifierMatcher.matches() )
+        {
+            qualifier = removeLeadingDelimiter( qualifierMatcher.group( 1 ) );
+        }
+
+        StringBuilder versionPatternBuf = new StringBuilder();
+        versionPatternBuf.append( '(' )
+                         .append( Pattern.quote( getMMM( version ) ) )
+                         .append( '(' )
+                         .append( DELIMITER_REGEX )
+                         .append( "0)*" )
+                         .append( ")?" )
+                         .append( DELIMITER_REGEX );
+        if ( !Version.isEmpty( qualifier ) )
+        {
+            versionPatternBuf.append( Pattern.quote( qualifier ) );
+            versionPatternBuf.append( DELIMITER_REGEX );
+        }
+        versionPatternBuf.append( "(\\d+)" );
+        final Pattern candidateSuffixPattern = Pattern.compile( versionPatternBuf.toString() );
+
+        for ( final String compareVersion : versionSet )
+        {
+            final Matcher candidateSuffixMatcher = candidateSuffixPattern.matcher( compareVersion );
+            if ( candidateSuffixMatcher.matches() )
+            {
+                highestBuildNum = Math.max( highestBuildNum, Integer.parseInt( candidateSuffixMatcher.group( 3 ) ) );
+            }
+        }
+        return highestBuildNum;
+    }
+}
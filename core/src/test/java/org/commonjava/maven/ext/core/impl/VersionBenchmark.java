@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Compares examining versions through {@link ParsedVersion} against the regular expressions {@link Version} used
+ * previously ({@link RegexVersion}). Each pass asks a few hundred distinct versions, each recurring many times as
+ * dependency versions do across a reactor, for the parts the version calculator and REST collector need. Not run as
+ * part of the build; run with e.g.
+ * <pre>
+ * mvn -pl core test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.commonjava.maven.ext.core.impl.VersionBenchmark -Dexec.args="20"
+ * </pre>
+ */
+public class VersionBenchmark
+{
+    private static final String[] QUALIFIERS = {
+                    "", ".Final", "-SNAPSHOT", ".redhat-00001", ".Final-redhat-2", "-beta-3", ".GA-SNAPSHOT" };
+
+    public static void main( String[] args )
+    {
+        final int iterations = args.length > 0 ? Integer.parseInt( args[0] ) : 10;
+        final List<String> versions = new ArrayList<>();
+
+        for ( int i = 0; i < 50; i++ )
+        {
+            final String mmm = ( i % 7 ) + "." + ( i % 13 ) + "." + i;
+            for ( String qualifier : QUALIFIERS )
+            {
+                for ( int repeat = 0; repeat < 20; repeat++ )
+                {
+                    versions.add( mmm + qualifier );
+                }
+            }
+        }
+        Collections.shuffle( versions );
+
+        report( "Regular expressions", iterations, versions,
+                v -> RegexVersion.getQualifier( v ) + RegexVersion.getBuildNumber( v ) + RegexVersion.removeSnapshot(
+                                v ) + RegexVersion.getOsgiMMM( v, true ) );
+        report( "Parsed versions", iterations, versions,
+                v -> Version.getQualifier( v ) + Version.getBuildNumber( v ) + Version.removeSnapshot( v )
+                                + Version.getOsgiMMM( v, true ) );
+    }
+
+    private static void report( String name, int iterations, List<String> versions, Function<String, String> examine )
+    {
+        final List<Long> times = new ArrayList<>();
+        long hash = 0;
+
+        // Warm up before measuring.
+        for ( int i = 0; i < iterations * 2; i++ )
+        {
+            for ( String version : versions )
+            {
+                hash += examine.apply( version ).length();
+            }
+        }
+        for ( int i = 0; i < iterations; i++ )
+        {
+            final long start = System.nanoTime();
+            for ( String version : versions )
+            {
+                hash += examine.apply( version ).length();
+            }
+            times.add( TimeUnit.NANOSECONDS.toMicros( System.nanoTime() - start ) );
+        }
+
+        Collections.sort( times );
+        System.out.println( name + ": examining " + versions.size() + " versions over " + iterations + " runs: min "
+                                            + times.get( 0 ) + " us, median " + times.get( times.size() / 2 )
+                                            + " us (" + hash + ')' );
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.impl;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntSupplier;
+
+import static org.junit.Assert.assertEquals;
+
+public class VersionCandidateIndexTest
+{
+    private static final String[] TOKENS = {
+                    "0", "1", "2", "10", "00002", ".", "-", "_", ".0", "redhat", "Final", "Beta1", "SNAPSHOT", "x" };
+
+    @Test
+    public void testFindHighestMatchingBuildNumber()
+    {
+        final VersionCandidateIndex index = new VersionCandidateIndex(
+                        Arrays.asList( "1.2.0.redhat-1", "1.2.redhat-3", "1.2.0.0.redhat-2", "1.2.1.redhat-7",
+                                       "1.20.redhat-8", ".redhat-4", "1.2-5", "1.2.0.Final-redhat-6" ) );
+
+        assertEquals( 4, index.findHighestMatchingBuildNumber( "1.2.0.redhat" ) );
+        assertEquals( 4, index.findHighestMatchingBuildNumber( "1.2.0" + ".redhat-1" ) );
+        assertEquals( 5, index.findHighestMatchingBuildNumber( "1.2" ) );
+        assertEquals( 6, index.findHighestMatchingBuildNumber( "1.2.Final-redhat" ) );
+        assertEquals( 0, index.findHighestMatchingBuildNumber( "1.3.Final-redhat" ) );
+
+        index.add( "1.2.0.0.0.redhat-9" );
+        assertEquals( 9, index.findHighestMatchingBuildNumber( "1.2.redhat" ) );
+    }
+
+    @Test
+    public void testBuildNumberPadding()
+    {
+        final VersionCandidateIndex index = new VersionCandidateIndex();
+        assertEquals( 0, index.getBuildNumberPadding( 0 ) );
+        index.add( "1.0.redhat-00002" );
+        index.add( "1.0.redhat-3" );
+        assertEquals( 5, index.getBuildNumberPadding( 0 ) );
+        assertEquals( 3, index.getBuildNumberPadding( 3 ) );
+    }
+
+    @Test( expected = NumberFormatException.class )
+    public void testBuildNumberTooLarge()
+    {
+        new VersionCandidateIndex( Arrays.asList( "1.0.redhat-1", "1.0.redhat-99999999999" ) )
+                        .findHighestMatchingBuildNumber( "1.0.redhat" );
+    }
+
+    @Test
+    public void testMatchesRegularExpression()
+    {
+        final Random random = new Random( 42 );
+
+        for ( int i = 0; i < 500; i++ )
+        {
+            final Set<String> candidates = new HashSet<>();
+            for ( int j = random.nextInt( 20 ); j >= 0; j-- )
+            {
+                candidates.add( randomVersion( random ) );
+            }
+            final VersionCandidateIndex index = new VersionCandidateIndex( candidates );
+
+            for ( String candidate : candidates )
+            {
+                // Also the candidates less their build number, which are likely to match.
+                for ( String version : Arrays.asList( randomVersion( random ), Version.removeBuildNumber( candidate ) ) )
+                {
+                    assertEquals( "Version '" + version + "' in " + candidates,
+                                  highest( () -> RegexVersion.findHighestMatchingBuildNumber( version, candidates ) ),
+                                  highest( () -> index.findHighestMatchingBuildNumber( version ) ) );
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the build number, or -1 if a matching one exceeds an int.
+     */
+    private static int highest( IntSupplier lookup )
+    {
+        try
+        {
+            return lookup.getAsInt();
+        }
+        catch ( NumberFormatException e )
+        {
+            return -1;
+        }
+    }
+
+    private static String randomVersion( Random random )
+    {
+        final StringBuilder version = new StringBuilder();
+        for ( int i = random.nextInt( 7 ); i >= 0; i-- )
+        {
+            version.append( TOKENS[random.nextInt( TOKENS.length )] );
+        }
+        return version.toString();
+    }
+}
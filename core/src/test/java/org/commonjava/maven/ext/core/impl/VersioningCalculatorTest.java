@@ -39,6 +39,7 @@ import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.model.Project;
 import org.commonjava.maven.ext.core.ManipulationSession;
 import org.commonjava.maven.ext.core.fixture.StubTransport;
+import org.commonjava.maven.ext.core.state.RESTState;
 import org.commonjava.maven.ext.core.state.VersioningState;
 import org.commonjava.maven.ext.io.resolver.GalleyAPIWrapper;
 import org.commonjava.maven.ext.io.resolver.GalleyInfrastructure;
@@ -59,6 +60,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertEquals;
@@ -1147,6 +1149,31 @@ public class VersioningCalculatorTest
         return modder.calculate( GROUP_ID, ARTIFACT_ID, version, session );
     }
 
+    @Test( timeout = 10000 )
+    public void staticSuffixDoesNotWaitForREST()
+        throws Exception
+    {
+        final Model m1 = new Model();
+        m1.setGroupId( GROUP_ID );
+        m1.setArtifactId( ARTIFACT_ID );
+        m1.setVersion( "1.2.0.GA" );
+        final Project p1 = new Project( m1 );
+
+        final Properties props = new Properties();
+        props.setProperty( VersioningState.VERSION_SUFFIX_SYSPROP.getCurrent(), "foo" );
+        setupSession( props );
+
+        // The REST call never completes, but its metadata is only needed for an incremental suffix.
+        final RESTState restState = new RESTState( session );
+        restState.setPendingResults( new CompletableFuture<>() );
+        session.setState( restState );
+
+        final Map<ProjectVersionRef, String> result =
+                        modder.calculateVersioningChanges( Collections.singletonList( p1 ), session );
+
+        assertEquals( "1.2.0.GA-foo", result.get( p1.getKey() ) );
+    }
+
     private VersioningState setupSession( final Properties properties, final String... versions )
         throws Exception
     {
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.state;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.core.ManipulationSession;
+import org.commonjava.maven.ext.io.rest.Translator;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Properties;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RESTStateTest
+{
+    private ManipulationSession session;
+
+    private RESTState state;
+
+    @Before
+    public void setup() throws ManipulationException
+    {
+        session = new ManipulationSession();
+        session.setState( new VersioningState( new Properties() ) );
+        state = new RESTState( session );
+    }
+
+    @Test
+    public void testNothingPending() throws ManipulationException
+    {
+        state.awaitResults();
+    }
+
+    @Test
+    public void testAwaitPending() throws Exception
+    {
+        final CountDownLatch latch = new CountDownLatch( 1 );
+        final AtomicBoolean completed = new AtomicBoolean();
+
+        state.setPendingResults( CompletableFuture.runAsync( () -> {
+            try
+            {
+                latch.await();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+            completed.set( true );
+        } ) );
+
+        // Independent work proceeds while the results are outstanding.
+        assertFalse( completed.get() );
+        latch.countDown();
+
+        state.awaitResults();
+        assertTrue( completed.get() );
+    }
+
+    @Test
+    public void testAwaitFailure()
+    {
+        final CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally( new ManipulationException( "blacklisted" ) );
+        state.setPendingResults( failed.thenRun( () -> {} ) );
+
+        try
+        {
+            state.awaitResults();
+            fail( "Expected the failure of the REST call" );
+        }
+        catch ( ManipulationException e )
+        {
+            assertEquals( "blacklisted", e.getMessage() );
+        }
+    }
+
+    @Test
+    public void testTranslatorReused() throws ManipulationException
+    {
+        final Properties properties = new Properties();
+        properties.setProperty( "restURL", "http://localhost/" );
+        final Translator translator = newRun( properties ).getVersionTranslator();
+
+        // A later run with the same configuration reuses the translator.
+        assertSame( translator, newRun( properties ).getVersionTranslator() );
+
+        properties.setProperty( "restRepositoryGroup", "other" );
+        assertNotSame( translator, newRun( properties ).getVersionTranslator() );
+    }
+
+    private RESTState newRun( Properties properties ) throws ManipulationException
+    {
+        session.reset();
+        session.setMavenSession( new MavenSession( null, null, new DefaultMavenExecutionRequest().setUserProperties(
+                        properties ), new DefaultMavenExecutionResult() ) );
+        session.setState( new VersioningState( properties ) );
+        return new RESTState( session );
+    }
+
+    @Test
+    public void testCancel() throws Exception
+    {
+        final CountDownLatch started = new CountDownLatch( 1 );
+        final AtomicBoolean interrupted = new AtomicBoolean();
+
+        state.callInBackground( () -> {
+            started.countDown();
+            try
+            {
+                Thread.sleep( TimeUnit.MINUTES.toMillis( 10 ) );
+            }
+            catch ( InterruptedException e )
+            {
+                interrupted.set( true );
+            }
+        } );
+        started.await();
+
+        state.cancel();
+        assertTrue( interrupted.get() );
+
+        try
+        {
+            state.awaitResults();
+            fail( "Expected the REST call to have been cancelled" );
+        }
+        catch ( CancellationException expected )
+        {
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.commonjava.maven.ext.core.util;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.maven.execution.DefaultMavenExecutionRequest;
 import org.apache.maven.execution.DefaultMavenExecutionResult;
 import org.apache.maven.execution.MavenExecutionRequest;
@@ -36,10 +37,12 @@ import org.commonjava.maven.ext.io.PomIO;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.contrib.java.lang.system.SystemOutRule;
+import org.junit.rules.TemporaryFolder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.nio.charset.Charset;
 import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
@@ -48,6 +51,7 @@ import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertNull;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class BaseScriptTest
@@ -56,6 +60,9 @@ public class BaseScriptTest
 
     private final Logger logger = LoggerFactory.getLogger( getClass() );
 
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
     @Rule
     public final SystemOutRule systemRule = new SystemOutRule().enableLog().muteForSuccessfulTests();
 
@@ -89,6 +96,33 @@ public class BaseScriptTest
         assertTrue( systemRule.getLog().contains( "BASESCRIPT" ) );
     }
 
+    @Test
+    public void testCompiledScriptCache() throws Exception
+    {
+        final File first = temp.newFile( "First.groovy" );
+        final File second = temp.newFile( "Second.groovy" );
+        FileUtils.writeStringToFile( first, "println 'hello'", Charset.defaultCharset() );
+        FileUtils.writeStringToFile( second, "println 'hello'", Charset.defaultCharset() );
+
+        final ManipulationSession ms = TestUtils.createSession( null );
+        final InitialGroovyManipulator gm = new InitialGroovyManipulator( null, null );
+        gm.init( ms );
+
+        final Class<?> compiled = (Class<?>) TestUtils.executeMethod( gm, "compile", new Object[] { first } );
+        assertEquals( "First", compiled.getName() );
+        assertSame( compiled, TestUtils.executeMethod( gm, "compile", new Object[] { first } ) );
+
+        // The same source under another name is compiled as its own class.
+        assertEquals( "Second",
+                      ( (Class<?>) TestUtils.executeMethod( gm, "compile", new Object[] { second } ) ).getName() );
+
+        // A later run, even with a reset session, reuses the class.
+        ms.reset();
+        final InitialGroovyManipulator next = new InitialGroovyManipulator( null, null );
+        next.init( TestUtils.createSession( null ) );
+        assertSame( compiled, TestUtils.executeMethod( next, "compile", new Object[] { first } ) );
+    }
+
     @Test
     public void testGroovyAnnotationIgnore() throws Exception
     {
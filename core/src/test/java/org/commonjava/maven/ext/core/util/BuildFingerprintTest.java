@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Properties;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BuildFingerprintTest
+{
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File root;
+
+    private File module;
+
+    private File marker;
+
+    private Properties properties;
+
+    @Before
+    public void before() throws Exception
+    {
+        final File base = temp.newFolder();
+        root = new File( base, "pom.xml" );
+        module = new File( base, "module/pom.xml" );
+        marker = new File( base, "target/pom-manip-ext-marker.txt" );
+
+        FileUtils.writeStringToFile( root, "<project>root</project>", StandardCharsets.UTF_8 );
+        FileUtils.writeStringToFile( module, "<project>module</project>", StandardCharsets.UTF_8 );
+
+        properties = new Properties();
+        properties.setProperty( "restURL", "http://localhost:8080" );
+        properties.setProperty( "dependencyManagement", "org.foo:bom:1.0" );
+    }
+
+    @Test
+    public void testUnchanged() throws Exception
+    {
+        assertFalse( BuildFingerprint.of( properties ).matches( marker ) );
+
+        BuildFingerprint.of( properties ).write( marker, Arrays.asList( root, module ) );
+
+        assertTrue( BuildFingerprint.of( (Properties) properties.clone() ).matches( marker ) );
+    }
+
+    @Test
+    public void testChangedConfiguration() throws Exception
+    {
+        BuildFingerprint.of( properties ).write( marker, Arrays.asList( root, module ) );
+
+        properties.setProperty( "dependencyManagement", "org.foo:bom:1.1" );
+        assertFalse( BuildFingerprint.of( properties ).matches( marker ) );
+    }
+
+    @Test
+    public void testChangedPom() throws Exception
+    {
+        BuildFingerprint.of( properties ).write( marker, Arrays.asList( root, module ) );
+
+        FileUtils.writeStringToFile( module, "<project>changed</project>", StandardCharsets.UTF_8 );
+        assertFalse( BuildFingerprint.of( properties ).matches( marker ) );
+
+        module.delete();
+        assertFalse( BuildFingerprint.of( properties ).matches( marker ) );
+    }
+
+    @Test
+    public void testLegacyMarker() throws Exception
+    {
+        marker.getParentFile().mkdirs();
+        assertTrue( marker.createNewFile() );
+
+        assertTrue( BuildFingerprint.of( properties ).matches( marker ) );
+    }
+}
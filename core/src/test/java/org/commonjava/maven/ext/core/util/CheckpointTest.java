@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import org.apache.commons.io.FileUtils;
+import org.commonjava.maven.ext.io.resolver.ResolutionBundle;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CheckpointTest
+{
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File pom;
+
+    private File file;
+
+    private Properties properties;
+
+    @Before
+    public void before() throws Exception
+    {
+        final File base = temp.newFolder();
+        pom = new File( base, "pom.xml" );
+        file = new File( base, "target/pom-manip-ext-checkpoint.zip" );
+
+        FileUtils.writeStringToFile( pom, "<project>root</project>", StandardCharsets.UTF_8 );
+
+        properties = new Properties();
+        properties.setProperty( "restURL", "http://localhost:8080" );
+        properties.setProperty( "restProtocol", "PNC12" );
+
+        final ResolutionBundle bundle = ResolutionBundle.recording();
+        bundle.recordTranslation( "org.foo:bar:1.0", "1.0.redhat-1" );
+        new Checkpoint( file, bundle, Collections.emptyList(), BuildFingerprint.of( properties ),
+                        () -> Collections.singletonList( pom ) ).write();
+    }
+
+    @Test
+    public void testResume() throws Exception
+    {
+        final ResolutionBundle resumed = Checkpoint.resume( file, BuildFingerprint.of( properties ) );
+
+        assertNotNull( resumed );
+        assertFalse( resumed.isReplaying() );
+        assertEquals( "1.0.redhat-1", resumed.getTranslations().get( "org.foo:bar:1.0" ) );
+    }
+
+    @Test
+    public void testDiscardedForChangedConfiguration() throws Exception
+    {
+        properties.setProperty( "restURL", "http://localhost:8081" );
+
+        assertNull( Checkpoint.resume( file, BuildFingerprint.of( properties ) ) );
+        assertFalse( file.exists() );
+    }
+
+    @Test
+    public void testDiscardedForChangedPom() throws Exception
+    {
+        FileUtils.writeStringToFile( pom, "<project>changed</project>", StandardCharsets.UTF_8 );
+
+        assertNull( Checkpoint.resume( file, BuildFingerprint.of( properties ) ) );
+        assertFalse( file.exists() );
+    }
+
+    @Test
+    public void testDiscardedWithoutFingerprint() throws Exception
+    {
+        assertTrue( new File( file.getParentFile(), file.getName() + ".fingerprint" ).delete() );
+
+        assertNull( Checkpoint.resume( file, BuildFingerprint.of( properties ) ) );
+        assertFalse( file.exists() );
+    }
+
+    @Test
+    public void testNoCheckpoint() throws Exception
+    {
+        new Checkpoint( file, ResolutionBundle.recording(), Collections.emptyList(), BuildFingerprint.of( properties ),
+                        Collections::emptyList ).complete();
+
+        assertFalse( file.exists() );
+        assertNull( Checkpoint.resume( file, BuildFingerprint.of( properties ) ) );
+    }
+}
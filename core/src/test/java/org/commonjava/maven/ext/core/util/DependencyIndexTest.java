@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.Profile;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.core.ManipulationSession;
+import org.commonjava.maven.ext.core.fixture.TestUtils;
+import org.commonjava.maven.ext.core.impl.DependencyRemovalManipulator;
+import org.commonjava.maven.ext.core.impl.RelocationManipulator;
+import org.commonjava.maven.ext.core.state.DependencyState;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DependencyIndexTest
+{
+    private static Dependency dependency( String groupId, String artifactId, String version )
+    {
+        final Dependency d = new Dependency();
+        d.setGroupId( groupId );
+        d.setArtifactId( artifactId );
+        d.setVersion( version );
+        return d;
+    }
+
+    private static List<Project> createProjects() throws Exception
+    {
+        final Model parentModel = new Model();
+        parentModel.setGroupId( "org.foo" );
+        parentModel.setArtifactId( "parent" );
+        parentModel.setVersion( "1.0" );
+        parentModel.addProperty( "junit.groupId", "org.junit" );
+        parentModel.setDependencyManagement( new DependencyManagement() );
+        parentModel.getDependencyManagement().addDependency( dependency( "org.junit", "junit", "4.0" ) );
+        parentModel.getDependencyManagement().addDependency( dependency( "org.slf4j", "slf4j-api", "1.7" ) );
+        final Project parent = new Project( new File( "pom.xml" ), parentModel );
+
+        final Model childModel = new Model();
+        childModel.setArtifactId( "child" );
+        final Parent p = new Parent();
+        p.setGroupId( "org.foo" );
+        p.setArtifactId( "parent" );
+        p.setVersion( "1.0" );
+        childModel.setParent( p );
+        childModel.addDependency( dependency( "${junit.groupId}", "junit", null ) );
+        childModel.addDependency( dependency( "org.junit", "another-library", "1.0" ) );
+        final Profile profile = new Profile();
+        profile.setId( "extra" );
+        profile.addDependency( dependency( "org.slf4j", "slf4j-api", "1.7" ) );
+        childModel.addProfile( profile );
+        final Project child = new Project( new File( "child", "pom.xml" ), childModel );
+        child.setProjectParent( parent );
+
+        return Arrays.asList( parent, child );
+    }
+
+    @Test
+    public void testIndex() throws Exception
+    {
+        final ManipulationSession session = TestUtils.createSession( new Properties() );
+        final List<Project> projects = createProjects();
+        session.setProjects( projects );
+        session.getActiveProfiles().add( "extra" );
+
+        final DependencyIndex index = session.getDependencyIndex();
+        assertSame( index, session.getDependencyIndex() );
+        assertEquals( 5, index.size() );
+
+        // Resolved through the inherited property, and including the unversioned dependency.
+        final List<DependencyIndex.Occurrence> junit = index.get( new SimpleProjectRef( "org.junit", "junit" ) );
+        assertEquals( 2, junit.size() );
+        assertEquals( new HashSet<>( Arrays.asList( DependencyIndex.Section.DEPENDENCIES,
+                                                    DependencyIndex.Section.MANAGED_DEPENDENCIES ) ),
+                      new HashSet<>( Arrays.asList( junit.get( 0 ).getSection(), junit.get( 1 ).getSection() ) ) );
+
+        final List<DependencyIndex.Occurrence> slf4j = index.get( new SimpleProjectRef( "org.slf4j", "slf4j-api" ) );
+        assertEquals( 2, slf4j.size() );
+
+        final DependencyIndex.Occurrence inProfile =
+                        slf4j.get( 0 ).getProfile() == null ? slf4j.get( 1 ) : slf4j.get( 0 );
+        assertEquals( "extra", inProfile.getProfile().getId() );
+        assertSame( projects.get( 1 ), inProfile.getProject() );
+
+        index.remove( inProfile );
+        assertTrue( projects.get( 1 ).getModel().getProfiles().get( 0 ).getDependencies().isEmpty() );
+        assertEquals( 1, index.get( new SimpleProjectRef( "org.slf4j", "slf4j-api" ) ).size() );
+        assertEquals( 4, index.size() );
+
+        final DependencyIndex.Occurrence library =
+                        index.get( new SimpleProjectRef( "org.junit", "another-library" ) ).get( 0 );
+        library.getDependency().setGroupId( "com.junit" );
+        index.relocate( library, "com.junit", "another-library" );
+        assertEquals( Collections.emptyList(), index.get( new SimpleProjectRef( "org.junit", "another-library" ) ) );
+        assertEquals( "com.junit:another-library:1.0",
+                      index.get( new SimpleProjectRef( "com.junit", "another-library" ) )
+                           .get( 0 )
+                           .getArtifact()
+                           .asProjectVersionRef()
+                           .toString() );
+
+        session.invalidateDependencyIndex();
+        assertNotSame( index, session.getDependencyIndex() );
+        assertEquals( 4, session.getDependencyIndex().size() );
+    }
+
+    @Test
+    public void testRemovalAndRelocation() throws Exception
+    {
+        final Properties p = new Properties();
+        p.setProperty( "dependencyRemoval", "org.slf4j:slf4j-api" );
+        p.setProperty( "dependencyRelocations.org.junit:@com.junit:", "4.1" );
+        p.setProperty( "dependencyRelocations.com.junit:another-library@com.junit:special-junit", "4.1" );
+        final ManipulationSession session = TestUtils.createSession( p );
+        final List<Project> projects = createProjects();
+        session.setProjects( projects );
+        session.getActiveProfiles().add( "extra" );
+        session.setState( new DependencyState( session.getConfiguration() ) );
+
+        final RelocationManipulator relocation = new RelocationManipulator();
+        relocation.init( session );
+        assertEquals( new HashSet<>( projects ), relocation.applyChanges( projects ) );
+
+        // Relocated twice, first by groupId and then by artifactId.
+        final List<Dependency> dependencies = projects.get( 1 ).getModel().getDependencies();
+        assertEquals( "com.junit", dependencies.get( 0 ).getGroupId() );
+        assertEquals( "junit", dependencies.get( 0 ).getArtifactId() );
+        assertEquals( "com.junit", dependencies.get( 1 ).getGroupId() );
+        assertEquals( "special-junit", dependencies.get( 1 ).getArtifactId() );
+        assertEquals( "com.junit",
+                      projects.get( 0 ).getModel().getDependencyManagement().getDependencies().get( 0 ).getGroupId() );
+        assertEquals( "4.1", session.getState( DependencyState.class )
+                                    .getDependencyExclusions()
+                                    .get( "com.junit:special-junit@*" ) );
+        assertEquals( 2, session.getDependencyIndex().get( new SimpleProjectRef( "com.junit", "junit" ) ).size() );
+
+        final DependencyRemovalManipulator removal = new DependencyRemovalManipulator();
+        removal.init( session );
+        assertEquals( new HashSet<>( projects ), removal.applyChanges( projects ) );
+
+        assertEquals( 1, projects.get( 0 ).getModel().getDependencyManagement().getDependencies().size() );
+        assertTrue( projects.get( 1 ).getModel().getProfiles().get( 0 ).getDependencies().isEmpty() );
+        assertEquals( 3, session.getDependencyIndex().size() );
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import org.apache.maven.profiles.DefaultProfileManager;
+import org.codehaus.plexus.PlexusContainer;
+import org.commonjava.maven.ext.common.model.Project;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * The profile activation ManipulationManager performed before {@link ActiveProfileResolver}, as a reference for tests
+ * and benchmarks.
+ */
+final class LegacyProfileActivation
+{
+    private LegacyProfileActivation()
+    {
+    }
+
+    @SuppressWarnings( { "unchecked", "deprecation" } )
+    static Set<String> getActiveProfiles( PlexusContainer container, Properties userProperties,
+                                          List<String> explicitlyActivated, List<Project> projects ) throws Exception
+    {
+        final Set<String> activeProfiles = new HashSet<>();
+        final DefaultProfileManager dpm = new DefaultProfileManager( container, userProperties );
+
+        dpm.explicitlyActivate( new ArrayList<>( explicitlyActivated ) );
+
+        for ( Project p : projects )
+        {
+            p.getModel().getProfiles().stream().filter( newProfile -> ! dpm.getProfilesById().containsKey( newProfile.getId() ) ).
+                            forEach( newProfile -> dpm.addProfile( newProfile.clone() ) );
+
+            List<org.apache.maven.model.Profile> ap = dpm.getActiveProfiles();
+            ap.forEach( profile -> activeProfiles.add( profile.getId() ) );
+        }
+        return activeProfiles;
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import org.apache.commons.io.FileUtils;
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.common.util.Deadline;
+import org.commonjava.maven.ext.core.ManipulationSession;
+import org.commonjava.maven.ext.core.impl.DependencyManipulator;
+import org.commonjava.maven.ext.core.impl.DependencyRemovalManipulator;
+import org.commonjava.maven.ext.core.impl.Manipulator;
+import org.commonjava.maven.ext.core.impl.ModelSection;
+import org.commonjava.maven.ext.core.impl.PluginManipulator;
+import org.commonjava.maven.ext.core.impl.PluginRemovalManipulator;
+import org.commonjava.maven.ext.core.impl.ProfileRemovalManipulator;
+import org.commonjava.maven.ext.core.impl.RepoAndReportingRemovalManipulator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ManipulatorSchedulerTest
+{
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testRemovalManipulatorDependencies()
+    {
+        final ManipulatorScheduler scheduler = new ManipulatorScheduler(
+                        Arrays.asList( new RepoAndReportingRemovalManipulator( null ), new DependencyRemovalManipulator(),
+                                       new PluginRemovalManipulator(), new ProfileRemovalManipulator(),
+                                       new TestManipulator( 60, null ) ) );
+
+        assertEquals( Collections.emptyList(), scheduler.getDependencies( 0 ) );
+        assertEquals( Collections.emptyList(), scheduler.getDependencies( 1 ) );
+        assertEquals( Collections.emptyList(), scheduler.getDependencies( 2 ) );
+        // Profile removal conflicts with everything that reads profiles.
+        assertEquals( Arrays.asList( 0, 1, 2 ), scheduler.getDependencies( 3 ) );
+        // Undeclared manipulators act as a barrier.
+        assertEquals( Arrays.asList( 0, 1, 2, 3 ), scheduler.getDependencies( 4 ) );
+    }
+
+    @Test
+    public void testAlignmentManipulatorDependencies()
+    {
+        final ManipulatorScheduler scheduler = new ManipulatorScheduler(
+                        Arrays.asList( new PluginManipulator( null ), new DependencyManipulator( null ),
+                                       new RepoAndReportingRemovalManipulator( null ),
+                                       new PluginRemovalManipulator() ) );
+
+        // Both update version properties.
+        assertEquals( Collections.singletonList( 0 ), scheduler.getDependencies( 1 ) );
+        assertEquals( Arrays.asList( 0, 1 ), scheduler.getDependencies( 2 ) );
+        // Plugin removal need not wait for dependency alignment, which may be waiting for the REST call.
+        assertEquals( Collections.singletonList( 0 ), scheduler.getDependencies( 3 ) );
+    }
+
+    @Test
+    public void testConcurrentAndOrdered() throws Exception
+    {
+        final List<Integer> order = Collections.synchronizedList( new ArrayList<>() );
+        final CountDownLatch latch = new CountDownLatch( 2 );
+
+        // The first two only complete if run concurrently; the third must wait for both.
+        final Manipulator first = new TestManipulator( 1, order, ModelSection.DEPENDENCIES, latch );
+        final Manipulator second = new TestManipulator( 2, order, ModelSection.PLUGINS, latch );
+        final Manipulator third = new TestManipulator( 3, order, ModelSection.ALL, null );
+
+        new ManipulatorScheduler( Arrays.asList( first, second, third ) ).apply( Collections.emptyList(), 4 );
+
+        assertEquals( 3, order.size() );
+        assertEquals( Integer.valueOf( 3 ), order.get( 2 ) );
+    }
+
+    @Test
+    public void testSequential() throws Exception
+    {
+        final List<Integer> order = Collections.synchronizedList( new ArrayList<>() );
+
+        new ManipulatorScheduler( Arrays.asList( new TestManipulator( 1, order, ModelSection.DEPENDENCIES, null ),
+                                                 new TestManipulator( 2, order, ModelSection.PLUGINS, null ),
+                                                 new TestManipulator( 3, order ) ) ).apply( Collections.emptyList(),
+                                                                                            1 );
+
+        assertEquals( Arrays.asList( 1, 2, 3 ), order );
+    }
+
+    @Test
+    public void testFailure() throws Exception
+    {
+        final List<Integer> order = Collections.synchronizedList( new ArrayList<>() );
+        final Manipulator failing = new TestManipulator( 1, order )
+        {
+            @Override
+            public Set<Project> applyChanges( List<Project> projects ) throws ManipulationException
+            {
+                throw new ManipulationException( "Failed" );
+            }
+        };
+
+        try
+        {
+            new ManipulatorScheduler( Arrays.asList( failing, new TestManipulator( 2, order ) ) ).apply(
+                            Collections.emptyList(), 4 );
+            fail( "No exception thrown" );
+        }
+        catch ( ManipulationException e )
+        {
+            assertEquals( "Failed", e.getMessage() );
+        }
+        assertTrue( order.isEmpty() );
+    }
+
+    @Test
+    public void testDeadline() throws Exception
+    {
+        final List<Integer> order = Collections.synchronizedList( new ArrayList<>() );
+        final Manipulator hanging = new HangingManipulator( order );
+
+        try ( Deadline deadline = Deadline.after( 1, TimeUnit.SECONDS ) )
+        {
+            new ManipulatorScheduler( Arrays.asList( hanging, new TestManipulator( 2, order ) ),
+                                      new ManipulatorTimings(), deadline ).apply( Collections.emptyList(), 1 );
+            fail( "No exception thrown" );
+        }
+        catch ( ManipulationException e )
+        {
+            assertTrue( e.getMessage(), e.getMessage().contains( "deadline of 1 seconds" ) );
+            assertTrue( e.getMessage(), e.getMessage().endsWith( "still pending: HangingManipulator" ) );
+        }
+        assertTrue( order.isEmpty() );
+        assertFalse( Thread.currentThread().isInterrupted() );
+    }
+
+    @Test
+    public void testTimings() throws Exception
+    {
+        final ManipulatorTimings timings = new ManipulatorTimings();
+        new ManipulatorScheduler( Collections.singletonList( new TestManipulator( 7, new ArrayList<>() ) ),
+                                  timings ).apply( Collections.emptyList(), 1 );
+
+        final ManipulatorTimings.Timing timing = timings.getManipulators().get( "TestManipulator" );
+        assertEquals( 7, timing.getExecutionIndex() );
+        assertEquals( 0, timing.getChangedProjects() );
+        assertTrue( timing.getApply().getWallNanos() >= 0 );
+        assertNull( timing.getInit() );
+
+        final File prometheus = temp.newFile();
+        timings.writePrometheus( prometheus );
+        final String content = FileUtils.readFileToString( prometheus, StandardCharsets.UTF_8 );
+        assertTrue( content.contains( "pme_manipulator_wall_seconds{manipulator=\"TestManipulator\",phase=\"apply\"}" ) );
+        assertTrue( content.contains( "pme_manipulator_changed_projects{manipulator=\"TestManipulator\"} 0" ) );
+    }
+
+    private static class TestManipulator
+                    implements Manipulator
+    {
+        private final int index;
+
+        private final List<Integer> order;
+
+        private final Set<ModelSection> sections;
+
+        private final CountDownLatch latch;
+
+        TestManipulator( int index, List<Integer> order )
+        {
+            this( index, order, ModelSection.ALL, null );
+        }
+
+        TestManipulator( int index, List<Integer> order, ModelSection section, CountDownLatch latch )
+        {
+            this.index = index;
+            this.order = order;
+            this.sections = EnumSet.of( section );
+            this.latch = latch;
+        }
+
+        @Override
+        public void init( ManipulationSession session )
+        {
+        }
+
+        @Override
+        public Set<Project> applyChanges( List<Project> projects ) throws ManipulationException
+        {
+            if ( latch != null )
+            {
+                latch.countDown();
+                try
+                {
+                    if ( !latch.await( 10, TimeUnit.SECONDS ) )
+                    {
+                        throw new ManipulationException( "Not run concurrently" );
+                    }
+                }
+                catch ( InterruptedException e )
+                {
+                    throw new ManipulationException( "Interrupted", e );
+                }
+            }
+            order.add( index );
+            return Collections.emptySet();
+        }
+
+        @Override
+        public int getExecutionIndex()
+        {
+            return index;
+        }
+
+        @Override
+        public Set<ModelSection> getReads()
+        {
+            return sections;
+        }
+
+        @Override
+        public Set<ModelSection> getWrites()
+        {
+            return sections;
+        }
+    }
+
+    private static class HangingManipulator
+                    extends TestManipulator
+    {
+        HangingManipulator( List<Integer> order )
+        {
+            super( 1, order );
+        }
+
+        @Override
+        public Set<Project> applyChanges( List<Project> projects ) throws ManipulationException
+        {
+            try
+            {
+                Thread.sleep( TimeUnit.MINUTES.toMillis( 1 ) );
+            }
+            catch ( InterruptedException e )
+            {
+                throw new ManipulationException( "Interrupted", e );
+            }
+            return Collections.emptySet();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import org.apache.maven.model.profile.ProfileSelector;
+import org.codehaus.plexus.DefaultPlexusContainer;
+import org.codehaus.plexus.PlexusContainer;
+import org.commonjava.maven.ext.common.model.Project;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares detecting the active profiles of a reactor through {@link ActiveProfileResolver} against the
+ * DefaultProfileManager loop ManipulationManager used previously ({@link LegacyProfileActivation}). The reactor has a
+ * few hundred modules each declaring profiles, thousands in total, mostly sharing a handful of activation conditions.
+ * Not run as part of the build; run with e.g.
+ * <pre>
+ * mvn -pl core test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.commonjava.maven.ext.core.util.ProfileActivationBenchmark -Dexec.args="10 300 10"
+ * </pre>
+ * where the arguments are the iterations, the number of modules and the number of profiles per module.
+ */
+public class ProfileActivationBenchmark
+{
+    public static void main( String[] args ) throws Exception
+    {
+        final int iterations = args.length > 0 ? Integer.parseInt( args[0] ) : 10;
+        final int modules = args.length > 1 ? Integer.parseInt( args[1] ) : 300;
+        final int profiles = args.length > 2 ? Integer.parseInt( args[2] ) : 10;
+
+        final PlexusContainer container = new DefaultPlexusContainer();
+        final ProfileSelector selector = container.lookup( ProfileSelector.class );
+        final List<Project> projects = ProfileFixtures.reactor( new Random( 0 ), modules, profiles, modules * profiles );
+        final Properties properties = new Properties();
+        properties.setProperty( "property1", "value0" );
+        properties.setProperty( "property2", "value1" );
+
+        final String description = modules * profiles + " profiles in " + modules + " modules";
+        report( "Profile manager", description, iterations,
+                () -> LegacyProfileActivation.getActiveProfiles( container, properties, Collections.emptyList(),
+                                                                 projects ).size() );
+        report( "Active profile resolver", description, iterations,
+                () -> new ActiveProfileResolver( selector, properties, Collections.emptyList() ).getActiveProfiles(
+                                projects ).size() );
+        container.dispose();
+    }
+
+    private static void report( String name, String description, int iterations, Callable<Integer> detect )
+                    throws Exception
+    {
+        final List<Long> times = new ArrayList<>();
+        int active = 0;
+
+        // Warm up before measuring.
+        detect.call();
+        for ( int i = 0; i < iterations; i++ )
+        {
+            final long start = System.nanoTime();
+            active = detect.call();
+            times.add( TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ) );
+        }
+
+        Collections.sort( times );
+        System.out.println( name + ": " + active + " active of " + description + " over " + iterations + " runs: min "
+                                            + times.get( 0 ) + " ms, median " + times.get( times.size() / 2 )
+                                            + " ms, max " + times.get( times.size() - 1 ) + " ms" );
+    }
+}
@@ -15,6 +15,9 @@
  */
 package org.commonjava.maven.ext.core.util;
 
+import org.apache.maven.model.profile.ProfileSelector;
+import org.codehaus.plexus.DefaultPlexusContainer;
+import org.codehaus.plexus.PlexusContainer;
 import org.commonjava.maven.ext.common.model.Project;
 import org.commonjava.maven.ext.core.ManipulationManager;
 import org.commonjava.maven.ext.core.ManipulationSession;
@@ -30,6 +33,7 @@ import java.io.File;
 import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
+import java.util.Random;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
@@ -94,4 +98,28 @@ public class ProfileActivationTest
 
     }
 
+    @Test
+    public void testMatchesProfileManager() throws Exception
+    {
+        final Random random = new Random( 0 );
+        final PlexusContainer container = new DefaultPlexusContainer();
+        final ProfileSelector selector = container.lookup( ProfileSelector.class );
+
+        for ( int i = 0; i < 200; i++ )
+        {
+            final List<Project> projects = ProfileFixtures.reactor( random, 1 + random.nextInt( 6 ),
+                                                                    random.nextInt( 5 ), 1 + random.nextInt( 20 ) );
+            final Properties properties = new Properties();
+            for ( int j = 0; j < 4; j++ )
+            {
+                properties.setProperty( "property" + random.nextInt( 8 ), "value" + random.nextInt( 2 ) );
+            }
+            final List<String> activated = random.nextInt( 4 ) == 0 ?
+                            Collections.singletonList( "profile" + random.nextInt( 20 ) ) :
+                            Collections.emptyList();
+
+            assertEquals( LegacyProfileActivation.getActiveProfiles( container, properties, activated, projects ),
+                          new ActiveProfileResolver( selector, properties, activated ).getActiveProfiles( projects ) );
+        }
+    }
 }
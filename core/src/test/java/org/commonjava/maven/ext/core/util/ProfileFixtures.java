@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import org.apache.maven.model.Activation;
+import org.apache.maven.model.ActivationFile;
+import org.apache.maven.model.ActivationOS;
+import org.apache.maven.model.ActivationProperty;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Profile;
+import org.commonjava.maven.ext.common.model.Project;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates reactors of projects with profiles using a mix of activation conditions, many of them shared.
+ */
+final class ProfileFixtures
+{
+    private ProfileFixtures()
+    {
+    }
+
+    static List<Project> reactor( Random random, int projects, int profilesPerProject, int distinctIds )
+                    throws Exception
+    {
+        final List<Project> result = new ArrayList<>();
+
+        for ( int i = 0; i < projects; i++ )
+        {
+            final Model model = new Model();
+            model.setModelVersion( "4.0.0" );
+            model.setGroupId( "org.foo" );
+            model.setArtifactId( "module" + i );
+            model.setVersion( "1.0" );
+            model.setPomFile( new File( "module" + i, "pom.xml" ) );
+
+            for ( int j = 0; j < profilesPerProject; j++ )
+            {
+                model.addProfile( profile( random, "profile" + random.nextInt( distinctIds ) ) );
+            }
+            result.add( new Project( model ) );
+        }
+        return result;
+    }
+
+    private static Profile profile( Random random, String id )
+    {
+        final Profile profile = new Profile();
+        profile.setId( id );
+        if ( random.nextInt( 20 ) == 0 )
+        {
+            profile.setSource( "settings.xml" );
+        }
+
+        final Activation activation = new Activation();
+        switch ( random.nextInt( 10 ) )
+        {
+            case 0:
+                // No activation.
+                return profile;
+            case 1:
+                activation.setActiveByDefault( true );
+                break;
+            case 2:
+            {
+                activation.setJdk( random.nextBoolean() ? "[1.8," : "!1." + random.nextInt( 12 ) );
+                break;
+            }
+            case 3:
+            {
+                final ActivationOS os = new ActivationOS();
+                os.setFamily( random.nextBoolean() ? "unix" : "windows" );
+                activation.setOs( os );
+                break;
+            }
+            case 4:
+            {
+                final ActivationFile file = new ActivationFile();
+                file.setMissing( "missing" + random.nextInt( 3 ) );
+                activation.setFile( file );
+                break;
+            }
+            default:
+            {
+                final ActivationProperty property = new ActivationProperty();
+                property.setName( ( random.nextInt( 4 ) == 0 ? "!" : "" ) + "property" + random.nextInt( 8 ) );
+                if ( random.nextBoolean() )
+                {
+                    property.setValue( "value" + random.nextInt( 2 ) );
+                }
+                activation.setProperty( property );
+                activation.setActiveByDefault( random.nextInt( 4 ) == 0 );
+                break;
+            }
+        }
+        profile.setActivation( activation );
+        return profile;
+    }
+}
@@ -15,6 +15,8 @@
  */
 package org.commonjava.maven.ext.core.util;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.io.FileUtils;
 import org.apache.maven.execution.DefaultMavenExecutionRequest;
 import org.apache.maven.execution.DefaultMavenExecutionResult;
@@ -239,6 +241,75 @@ public class ProjectComparatorTest
     }
 
 
+    @Test
+    public void testCompareChangesWithJSON() throws Exception
+    {
+        File jsonFile = temporaryFolder.newFile();
+        File ndjsonFile = temporaryFolder.newFile();
+
+        ManipulationSession session = createUpdateSession();
+        session.getUserProperties().put( RelocationState.DEPENDENCY_RELOCATIONS + "ch.qos.logback:@org.foobar.logback:", "" );
+        RelocationState relocationState = new RelocationState( session.getUserProperties() );
+        session.setState( relocationState );
+
+        final File projectroot = new File (TestUtils.resolveFileResource( RESOURCE_BASE, "" )
+                                                    .getParentFile()
+                                                    .getParentFile()
+                                                    .getParentFile()
+                                                    .getParentFile(), "pom.xml" );
+        PomIO pomIO = new PomIO();
+
+        List<Project> projectOriginal = pomIO.parseProject( projectroot );
+        List<Project> projectNew = pomIO.parseProject( projectroot );
+
+        projectNew.forEach( project -> project.getModel().setVersion( project.getVersion() + "-redhat-1" ) );
+        projectNew.forEach( project -> {
+            if ( project.getModel().getDependencyManagement() != null )
+            {
+                project.getModel().getDependencyManagement().getDependencies().forEach( dependency -> dependency.setVersion( dependency.getVersion() + "-redhat-1" ) );
+            }
+        } );
+
+        session.getUserProperties().put( ProjectComparator.REPORT_JSON_OUTPUT_FILE, jsonFile.getAbsolutePath() );
+        ProjectComparator.compareProjects( session, relocationState.getDependencyRelocations(), projectOriginal,
+                                           projectNew );
+
+        session.getUserProperties().put( ProjectComparator.REPORT_JSON_OUTPUT_FILE, ndjsonFile.getAbsolutePath() );
+        session.getUserProperties().put( ProjectComparator.REPORT_JSON_OUTPUT_FORMAT, "ndjson" );
+        ProjectComparator.compareProjects( session, relocationState.getDependencyRelocations(), projectOriginal,
+                                           projectNew );
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode differences = mapper.readTree( jsonFile );
+        List<String> lines = FileUtils.readLines( ndjsonFile, Charset.defaultCharset() );
+
+        assertTrue( differences.isArray() );
+        assertEquals( differences.size(), lines.size() );
+        for ( int i = 0; i < lines.size(); i++ )
+        {
+            assertEquals( differences.get( i ), mapper.readTree( lines.get( i ) ) );
+        }
+
+        JsonNode version = differences.get( 0 );
+        assertEquals( "org.commonjava.maven.ext:pom-manipulation-parent", version.get( "project" ).asText() );
+        assertEquals( "VERSION", version.get( "change" ).asText() );
+        assertFalse( version.has( "type" ) );
+        assertEquals( version.get( "from" ).asText() + "-redhat-1", version.get( "to" ).asText() );
+
+        boolean managed = false;
+        boolean relocation = false;
+        for ( JsonNode difference : differences )
+        {
+            managed |= "MANAGED_DEPENDENCIES".equals( difference.path( "type" ).asText() )
+                            && difference.get( "to" ).asText().endsWith( "-redhat-1" );
+            relocation |= "RELOCATION".equals( difference.get( "change" ).asText() )
+                            && difference.get( "to" ).asText().startsWith( "org.foobar.logback:" );
+        }
+        assertTrue( managed );
+        assertTrue( relocation );
+    }
+
+
     @Test
     public void messageFormatterTest()
     {
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import org.commonjava.maven.ext.core.ManipulationSession;
+import org.commonjava.maven.ext.core.fixture.TestUtils;
+import org.commonjava.maven.ext.core.state.DependencyState;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class PropertiesSnapshotTest
+{
+    @Test
+    public void testPropertiesByPrefix()
+    {
+        final Properties defaults = new Properties();
+        defaults.setProperty( "dependencyOverride.org.foo:bar@*", "1.0" );
+        final Properties p = new Properties( defaults );
+        p.setProperty( "dependencyOverride.org.foo:baz@*", "true" );
+        p.setProperty( "dependencyOverride", "2.0" );
+        p.setProperty( "dependencyOverride.", "3.0" );
+        p.setProperty( "dependencyOverridf.org.foo:bar@*", "4.0" );
+        p.setProperty( "dependencyExclusion.org.foo:bar@*", "5.0" );
+        p.put( "dependencyOverride.ignored", Boolean.TRUE );
+
+        final PropertiesSnapshot snapshot = PropertiesSnapshot.of( p );
+        assertEquals( p.stringPropertyNames(), snapshot.stringPropertyNames() );
+        assertEquals( "1.0", snapshot.getProperty( "dependencyOverride.org.foo:bar@*" ) );
+
+        for ( String prefix : Arrays.asList( "dependencyOverride.", "dependencyOverride", "dependencyExclusion.", "",
+                                             "missing" ) )
+        {
+            assertEquals( PropertiesUtils.getPropertiesByPrefix( p, prefix ),
+                          PropertiesUtils.getPropertiesByPrefix( snapshot, prefix ) );
+        }
+        assertEquals( "", PropertiesUtils.getPropertiesByPrefix( snapshot, "dependencyOverride." )
+                                         .get( "org.foo:baz@*" ) );
+    }
+
+    @Test
+    public void testReadOnly()
+    {
+        final Properties p = new Properties();
+        p.setProperty( "versionSuffix", "redhat-1" );
+        final PropertiesSnapshot snapshot = PropertiesSnapshot.of( p );
+
+        final List<Runnable> mutators = Arrays.asList(
+                        () -> snapshot.setProperty( "versionSuffix", "redhat-2" ),
+                        () -> snapshot.put( "versionSuffix", "redhat-2" ),
+                        () -> snapshot.putAll( p ),
+                        () -> snapshot.putIfAbsent( "versionIncrementalSuffix", "redhat" ),
+                        () -> snapshot.remove( "versionSuffix" ),
+                        () -> snapshot.remove( "versionSuffix", "redhat-1" ),
+                        () -> snapshot.replace( "versionSuffix", "redhat-2" ),
+                        () -> snapshot.replace( "versionSuffix", "redhat-1", "redhat-2" ),
+                        () -> snapshot.replaceAll( ( k, v ) -> "redhat-2" ),
+                        () -> snapshot.compute( "versionSuffix", ( k, v ) -> "redhat-2" ),
+                        () -> snapshot.computeIfAbsent( "versionIncrementalSuffix", k -> "redhat" ),
+                        () -> snapshot.computeIfPresent( "versionSuffix", ( k, v ) -> "redhat-2" ),
+                        () -> snapshot.merge( "versionSuffix", "redhat-2", ( a, b ) -> b ),
+                        () -> snapshot.load( new StringReader( "versionSuffix=redhat-2" ) ),
+                        () -> snapshot.keySet().remove( "versionSuffix" ),
+                        () -> snapshot.values().clear(),
+                        () -> snapshot.entrySet().iterator().next().setValue( "redhat-2" ),
+                        () -> ( (Properties) snapshot.clone() ).setProperty( "versionSuffix", "redhat-2" ),
+                        snapshot::clear );
+        for ( Runnable mutator : mutators )
+        {
+            try
+            {
+                mutator.run();
+                throw new AssertionError( "Snapshot should be read only" );
+            }
+            catch ( UnsupportedOperationException ignored )
+            {
+            }
+        }
+        assertEquals( "redhat-1", snapshot.getProperty( "versionSuffix" ) );
+        assertEquals( 1, snapshot.size() );
+        assertEquals( snapshot, snapshot.clone() );
+
+        final Properties copy = new Properties();
+        copy.putAll( snapshot );
+        copy.setProperty( "versionSuffix", "redhat-2" );
+        assertEquals( "redhat-1", snapshot.getProperty( "versionSuffix" ) );
+
+        p.setProperty( "versionSuffix", "redhat-3" );
+        assertEquals( "redhat-1", snapshot.getProperty( "versionSuffix" ) );
+    }
+
+    @Test
+    public void testReinitialiseStates() throws Exception
+    {
+        final Properties p = new Properties();
+        p.setProperty( "dependencyOverride.org.foo:bar@*", "1.0" );
+        final ManipulationSession session = TestUtils.createSession( p );
+        session.setState( new DependencyState( session.getConfiguration() ) );
+
+        final DependencyState state = session.getState( DependencyState.class );
+        state.updateExclusions( "org.foo:baz@*", "2.0" );
+
+        // Even if no property changed the states are reinitialised, discarding any updates made since.
+        session.reinitialiseStates();
+        assertSame( state, session.getState( DependencyState.class ) );
+        assertEquals( "1.0", state.getDependencyExclusions().get( "org.foo:bar@*" ) );
+        assertFalse( state.getDependencyExclusions().containsKey( "org.foo:baz@*" ) );
+        state.updateExclusions( "org.foo:baz@*", "2.0" );
+
+        final PropertiesSnapshot previous = session.getConfiguration();
+        session.getUserProperties().setProperty( "dependencyOverride.org.foo:bar@*", "3.0" );
+        session.reinitialiseStates();
+
+        assertNotSame( previous, session.getConfiguration() );
+        assertEquals( "3.0", state.getDependencyExclusions().get( "org.foo:bar@*" ) );
+        assertFalse( state.getDependencyExclusions().containsKey( "org.foo:baz@*" ) );
+    }
+}
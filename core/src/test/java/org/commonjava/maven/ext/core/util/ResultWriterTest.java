@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class ResultWriterTest
+{
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testJson() throws Exception
+    {
+        final File result = temp.newFile();
+        createWriter().write( result, ResultWriter.Format.JSON );
+
+        assertEquals( "{\"Marked\":{\"name\":\"first\",\"versions\":[\"1.0\",\"1.1\"],\"missing\":null},"
+                                      + "\"timings\":{\"Manipulator\":1}}",
+                      FileUtils.readFileToString( result, StandardCharsets.UTF_8 ) );
+    }
+
+    @Test
+    public void testNdjson() throws Exception
+    {
+        final File result = temp.newFile();
+        createWriter().write( result, ResultWriter.Format.NDJSON );
+
+        assertEquals( Arrays.asList( "{\"Marked\":{\"name\":\"first\",\"versions\":[\"1.0\",\"1.1\"],\"missing\":null}}",
+                                     "{\"timings\":{\"Manipulator\":1}}" ),
+                      FileUtils.readLines( result, StandardCharsets.UTF_8 ) );
+    }
+
+    private ResultWriter createWriter() throws Exception
+    {
+        return new ResultWriter().add( "Marked", new Marked() )
+                                 .add( "Unmarked", new Unmarked() )
+                                 .add( "Missing", null )
+                                 .add( "timings", Collections.singletonMap( "Manipulator", 1 ) );
+    }
+
+    @SuppressWarnings( "unused" )
+    private static class Marked
+    {
+        @JsonProperty
+        private String name = "first";
+
+        @JsonProperty
+        private String[] versions = { "1.0", "1.1" };
+
+        @JsonProperty
+        private String missing;
+
+        private String unmarked = "ignored";
+
+        public String getUnmarked()
+        {
+            return unmarked;
+        }
+    }
+
+    @SuppressWarnings( "unused" )
+    private static class Unmarked
+    {
+        private String name = "ignored";
+
+        public String getName()
+        {
+            return name;
+        }
+    }
+}
@@ -28,7 +28,6 @@ import org.slf4j.LoggerFactory;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
-import java.io.File;
 import java.util.Properties;
 
 import static org.apache.commons.lang.StringUtils.isNotEmpty;
@@ -102,8 +101,6 @@ public class ManipulatingEventSpy
                                 }
                             }
                         }
-
-                        manipulationManager.init( session );
                     }
                     else
                     {
@@ -121,13 +118,16 @@ public class ManipulatingEventSpy
                         logger.info( "Manipulation engine disabled. No project found." );
                         return;
                     }
-                    else if ( new File( ee.getSession().getRequest().getPom().getParentFile(),
-                                        ManipulationManager.MARKER_FILE ).exists() )
+                    // Checked before initialising, which sets up the remote infrastructure that is only released
+                    // by scanAndApply, so that a build with nothing to do stays cheap.
+                    else if ( ManipulationManager.isUpToDate( ee.getSession().getRequest().getPom(),
+                                                              session.getUserProperties() ) )
                     {
                         logger.info( "Skipping manipulation as previous execution found." );
                         return;
                     }
 
+                    manipulationManager.init( session );
                     manipulationManager.scanAndApply( session );
                 }
             }
@@ -17,6 +17,7 @@ package org.commonjava.maven.ext.io;
 
 import org.apache.commons.io.FileUtils;
 import org.commonjava.maven.ext.io.resolver.GalleyInfrastructure;
+import org.commonjava.maven.ext.io.resolver.ResolutionBundle;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -43,7 +44,8 @@ public class FileIO
 
     /**
      * Read the raw file from a given URL. Useful if we need to read
-     * a remote file.
+     * a remote file. Remote content is cached in the cache directory and
+     * revalidated on later calls, so the returned file must not be modified.
      *
      * @param ref the ArtifactRef to read.
      * @return the file for the URL
@@ -52,10 +54,26 @@ public class FileIO
     public File resolveURL( final URL ref ) throws IOException
     {
         File cache = infra.getCacheDir();
-        File result = new File( cache, UUID.randomUUID().toString() );
+        ResolutionBundle bundle = infra.getResolutionBundle();
 
-        FileUtils.copyURLToFile( ref, result );
+        if ( bundle != null && bundle.isReplaying() )
+        {
+            byte[] content = bundle.getURL( ref.toString() );
+            if ( content == null )
+            {
+                throw new IOException( "Unable to find " + ref + " in resolution bundle" );
+            }
+            File result = new File( cache, UUID.randomUUID().toString() );
+            FileUtils.writeByteArrayToFile( result, content );
+            return result;
+        }
 
+        File result = infra.getURLCache().resolve( ref, cache );
+
+        if ( bundle != null )
+        {
+            bundle.recordURL( ref.toString(), FileUtils.readFileToByteArray( result ) );
+        }
         return result;
     }
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.resolver;
+
+import org.commonjava.maven.galley.TransferException;
+import org.commonjava.maven.galley.event.EventMetadata;
+import org.commonjava.maven.galley.model.ConcreteResource;
+import org.commonjava.maven.galley.model.Location;
+import org.commonjava.maven.galley.model.Transfer;
+import org.commonjava.maven.galley.spi.transport.DownloadJob;
+import org.commonjava.maven.galley.spi.transport.ExistenceJob;
+import org.commonjava.maven.galley.spi.transport.ListingJob;
+import org.commonjava.maven.galley.spi.transport.PublishJob;
+import org.commonjava.maven.galley.spi.transport.Transport;
+import org.commonjava.maven.galley.spi.transport.TransportManager;
+
+import java.io.InputStream;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link Transport} that forwards every call to a delegate. Subclasses override the jobs they wish to decorate.
+ */
+class ForwardingTransport
+    implements Transport
+{
+    private final Transport delegate;
+
+    ForwardingTransport( final Transport delegate )
+    {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Wraps a TransportManager so that every Transport it returns is decorated.
+     *
+     * @param manager the TransportManager to wrap.
+     * @param decorator the function to decorate each (non-null) Transport with.
+     * @return the wrapped TransportManager.
+     */
+    static TransportManager decorate( final TransportManager manager, final UnaryOperator<Transport> decorator )
+    {
+        return new TransportManager()
+        {
+            @Override
+            public Transport getTransport( final Location location ) throws TransferException
+            {
+                final Transport t = manager.getTransport( location );
+                return t == null ? null : decorator.apply( t );
+            }
+
+            @Override
+            public Transport getTransport( final ConcreteResource resource ) throws TransferException
+            {
+                final Transport t = manager.getTransport( resource );
+                return t == null ? null : decorator.apply( t );
+            }
+        };
+    }
+
+    @Override
+    public ListingJob createListingJob( ConcreteResource resource, Transfer target, int timeoutSeconds )
+                    throws TransferException
+    {
+        return delegate.createListingJob( resource, target, timeoutSeconds );
+    }
+
+    @Override
+    public DownloadJob createDownloadJob( ConcreteResource resource, Transfer target, Map<Transfer, Long> transferSizes,
+                                          int timeoutSeconds, EventMetadata eventMetadata ) throws TransferException
+    {
+        return delegate.createDownloadJob( resource, target, transferSizes, timeoutSeconds, eventMetadata );
+    }
+
+    @Override
+    public PublishJob createPublishJob( ConcreteResource resource, InputStream stream, long length, int timeoutSeconds )
+                    throws TransferException
+    {
+        return delegate.createPublishJob( resource, stream, length, timeoutSeconds );
+    }
+
+    @Override
+    public PublishJob createPublishJob( ConcreteResource resource, InputStream stream, long length, String contentType,
+                                        int timeoutSeconds ) throws TransferException
+    {
+        return delegate.createPublishJob( resource, stream, length, contentType, timeoutSeconds );
+    }
+
+    @Override
+    public ExistenceJob createExistenceJob( ConcreteResource resource, Transfer target, int timeoutSeconds )
+                    throws TransferException
+    {
+        return delegate.createExistenceJob( resource, target, timeoutSeconds );
+    }
+
+    @Override
+    public boolean handles( Location location )
+    {
+        return delegate.handles( location );
+    }
+
+    @Override
+    public boolean allowsCaching()
+    {
+        return delegate.allowsCaching();
+    }
+}
@@ -21,6 +21,7 @@ import org.apache.maven.settings.Settings;
 import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.session.MavenSessionHandler;
+import org.commonjava.maven.ext.common.util.Deadline;
 import org.commonjava.maven.galley.TransferException;
 import org.commonjava.maven.galley.TransferManager;
 import org.commonjava.maven.galley.auth.MemoryPasswordManager;
@@ -62,12 +63,13 @@ import org.commonjava.maven.galley.nfc.MemoryNotFoundCache;
 import org.commonjava.maven.galley.spi.cache.CacheProvider;
 import org.commonjava.maven.galley.spi.event.FileEventManager;
 import org.commonjava.maven.galley.spi.nfc.NotFoundCache;
-import org.commonjava.maven.galley.spi.transport.LocationExpander;
 import org.commonjava.maven.galley.spi.transport.Transport;
 import org.commonjava.maven.galley.spi.transport.TransportManager;
 import org.commonjava.maven.galley.transport.TransportManagerImpl;
 import org.commonjava.maven.galley.transport.htcli.HttpClientTransport;
 import org.commonjava.maven.galley.transport.htcli.HttpImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -78,8 +80,9 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
+import static org.apache.commons.lang.StringUtils.isNotEmpty;
 import static org.commonjava.maven.galley.maven.util.ArtifactPathUtils.formatMetadataPath;
 
 /**
@@ -98,6 +101,29 @@ public class GalleyInfrastructure
      */
     private static final String LOCAL_REPO_SCANNING_PROP = "manipulator.local.repo.scanning";
 
+    /**
+     * Maximum number of concurrent Galley transfers.
+     */
+    private static final String TRANSFER_THREADS_PROP = "manipulator.transfer.threads";
+
+    /**
+     * Maximum number of concurrent Galley transfers against a single repository host.
+     */
+    private static final String TRANSFER_HOST_THREADS_PROP = "manipulator.transfer.host.threads";
+
+    /**
+     * Maximum number of queued Galley transfers before they are run on the requesting thread.
+     */
+    private static final String TRANSFER_QUEUE_PROP = "manipulator.transfer.queue";
+
+    /**
+     * Directory for the Galley file cache. Defaults to a manipulator-cache directory in the target directory; setting
+     * it allows several builds to share the cache.
+     */
+    private static final String CACHE_DIR_PROP = "manipulator.cache.dir";
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
     private MirrorSelector mirrorSelector;
 
     private MavenPomReader pomReader;
@@ -110,7 +136,20 @@ public class GalleyInfrastructure
 
     private XPathManager xpaths;
 
-    private ExecutorService executor;
+    private TransferExecutor executor;
+
+    private ResolutionBundle resolutionBundle;
+
+    private URLCache urlCache = new URLCache();
+
+    private NotFoundCache nfc;
+
+    private TransferManager transfers;
+
+    /**
+     * Identifies the configuration the transfer components were created with; null if they may not be reused.
+     */
+    private String transfersKey;
 
     private MavenSessionHandler sessionHandler;
 
@@ -133,7 +172,11 @@ public class GalleyInfrastructure
     public GalleyInfrastructure init()
                     throws ManipulationException
     {
-        if ( sessionHandler == null )
+        if ( resolutionBundle != null && resolutionBundle.isReplaying() )
+        {
+            return init( resolutionBundle.getLocation(), resolutionBundle.getTransport(), null );
+        }
+        else if ( sessionHandler == null )
         {
             return init( null, null, null, null, null,
                          null, null, null );
@@ -167,7 +210,7 @@ public class GalleyInfrastructure
                        final Transport customTransport, File cacheDir_ )
         throws ManipulationException
     {
-        LocationExpander locationExpander;
+        MavenLocationExpander locationExpander;
         try
         {
             final List<Location> custom =
@@ -183,43 +226,39 @@ public class GalleyInfrastructure
             throw new ManipulationException( "Failed to setup Maven-specific LocationExpander: %s", e, e.getMessage() );
         }
 
-        xml = new XMLInfrastructure();
-        xpaths = new XPathManager();
-
-        final TransportManager transports;
-        if ( customTransport != null )
-        {
-            transports = new TransportManagerImpl( customTransport );
-        }
-        else
+        cacheDir = cacheDir_;
+        if ( cacheDir == null && sessionHandler != null && isNotEmpty(
+                        sessionHandler.getUserProperties().getProperty( CACHE_DIR_PROP ) ) )
         {
-            transports =
-                new TransportManagerImpl( new HttpClientTransport( new HttpImpl( new MemoryPasswordManager() ) ),
-                                          new FileTransport(), new ZipJarTransport() );
+            cacheDir = new File( sessionHandler.getUserProperties().getProperty( CACHE_DIR_PROP ) );
         }
-
-        cacheDir = cacheDir_;
         if ( cacheDir == null )
         {
             cacheDir = new File( targetDirectory, "manipulator-cache" );
         }
 
-        final FileEventManager fileEvents = new NoOpFileEventManager();
-
-        final CacheProvider cache =
-            new FileCacheProvider( cacheDir, new HashedLocationPathGenerator(), fileEvents, new NoOpTransferDecorator() );
-
-        final NotFoundCache nfc = new MemoryNotFoundCache();
-        executor = Executors.newCachedThreadPool();
-
-        final TransportManagerConfig config = new TransportManagerConfig(  );
+        final int threads = getIntegerProperty( TRANSFER_THREADS_PROP, 16 );
+        final int hostThreads = getIntegerProperty( TRANSFER_HOST_THREADS_PROP, 8 );
+        final int queue = getIntegerProperty( TRANSFER_QUEUE_PROP, 1000 );
 
-        final TransferManager transfers =
-            new TransferManagerImpl( transports, cache, nfc, fileEvents, new DownloadHandler( nfc, config, executor ),
-                                     new UploadHandler( nfc, config, executor ), new ListingHandler( nfc ),
-                                     new ExistenceHandler( nfc ),
-                                     new SpecialPathManagerImpl(),
-                                     executor );
+        // A custom transport or a resolution bundle belongs to a single run.
+        final String key = customTransport == null && resolutionBundle == null ?
+                        String.join( "|", cacheDir.getAbsolutePath(), Integer.toString( threads ),
+                                     Integer.toString( hostThreads ), Integer.toString( queue ) ) :
+                        null;
+        if ( key != null && key.equals( transfersKey ) )
+        {
+            logger.debug( "Reusing Galley transfers for {}", cacheDir );
+            nfc.clearAllMissing();
+            urlCache.clear();
+            executor.resetMetrics();
+        }
+        else
+        {
+            initTransfers( threads, hostThreads, queue, customTransport );
+            transfersKey = key;
+        }
+        final TransferManager transfers = this.transfers;
 
         final TypeMapper types = new StandardTypeMapper();
         final ArtifactMetadataManager metadataManager = new ArtifactMetadataManagerImpl( transfers, locationExpander )
@@ -231,25 +270,16 @@ public class GalleyInfrastructure
             {
                 if ( localMetadataScanningEnabled() )
                 {
-                    final List<ConcreteResource> resources = new ArrayList<>();
-                    for ( Location l : locationExpander.expand( locations ) )
-                    {
-                        String p;
-                        if ( l.getUri().startsWith( "file:" ) )
-                        {
-                            p = formatMetadataPath( groupId, "maven-metadata-local.xml" );
-                        }
-                        else
-                        {
-                            p = formatMetadataPath( groupId, filename );
-                        }
-                        resources.add( new ConcreteResource( l, p ) );
-                    }
-                    return transfers.retrieveAll( new VirtualResource( resources ), eventMetadata );
+                    return retrieveEach( transfers,
+                                         metadataResources( locationExpander, locations,
+                                                            formatMetadataPath( groupId, "maven-metadata-local.xml" ),
+                                                            formatMetadataPath( groupId, filename ) ), eventMetadata );
                 }
                 else
                 {
-                    return super.retrieveAll( locations, groupId, filename, eventMetadata );
+                    return retrieveEach( transfers, new VirtualResource( locationExpander.expand( locations ),
+                                                                         formatMetadataPath( groupId, filename ) ),
+                                         eventMetadata );
                 }
             }
 
@@ -259,25 +289,16 @@ public class GalleyInfrastructure
             {
                 if ( localMetadataScanningEnabled() )
                 {
-                    final List<ConcreteResource> resources = new ArrayList<>();
-                    for ( Location l : locationExpander.expand( locations ) )
-                    {
-                        String p;
-                        if ( l.getUri().startsWith( "file:" ) )
-                        {
-                            p = formatMetadataPath( ref, "maven-metadata-local.xml" );
-                        }
-                        else
-                        {
-                            p = formatMetadataPath( ref, filename );
-                        }
-                        resources.add( new ConcreteResource( l, p ) );
-                    }
-                    return transfers.retrieveAll( new VirtualResource( resources ), eventMetadata );
+                    return retrieveEach( transfers,
+                                         metadataResources( locationExpander, locations,
+                                                            formatMetadataPath( ref, "maven-metadata-local.xml" ),
+                                                            formatMetadataPath( ref, filename ) ), eventMetadata );
                 }
                 else
                 {
-                    return super.retrieveAll( locations, ref, filename, eventMetadata );
+                    return retrieveEach( transfers, new VirtualResource( locationExpander.expand( locations ),
+                                                                         formatMetadataPath( ref, filename ) ),
+                                         eventMetadata );
                 }
             }
         };
@@ -300,12 +321,168 @@ public class GalleyInfrastructure
         return this;
     }
 
+    /**
+     * Create the components that do not depend on the repositories or settings of a run: the transfer executor,
+     * transports, file and URL caches. While the cache directory and transfer limits are unchanged a long lived
+     * container (e.g. the daemon) reuses them, and with them their threads and connections, for the next run.
+     */
+    private void initTransfers( final int threads, final int hostThreads, final int queue,
+                                final Transport customTransport )
+    {
+        xml = new XMLInfrastructure();
+        xpaths = new XPathManager();
+
+        if ( executor != null )
+        {
+            executor.shutdown();
+        }
+        // The deadline is read from the session on use, as these components may outlive the run.
+        final Supplier<Deadline> deadlines = () -> sessionHandler == null ? Deadline.NONE : sessionHandler.getDeadline();
+        urlCache = new URLCache( deadlines );
+        executor = new TransferExecutor( threads, hostThreads, queue );
+
+        TransportManager transports;
+        if ( customTransport != null )
+        {
+            transports = new TransportManagerImpl( customTransport );
+        }
+        else
+        {
+            transports =
+                new TransportManagerImpl( new HttpClientTransport( new HttpImpl( new MemoryPasswordManager() ) ),
+                                          new FileTransport(), new ZipJarTransport() );
+        }
+        if ( resolutionBundle != null && !resolutionBundle.isReplaying() )
+        {
+            transports = resolutionBundle.record( transports );
+        }
+        transports = executor.instrument( transports, deadlines );
+
+        final FileEventManager fileEvents = new NoOpFileEventManager();
+
+        final CacheProvider cache =
+            new FileCacheProvider( cacheDir, new HashedLocationPathGenerator(), fileEvents, new NoOpTransferDecorator() );
+
+        nfc = new MemoryNotFoundCache();
+        final ExecutorService executorService = executor.getExecutorService();
+
+        final TransportManagerConfig config = new TransportManagerConfig(  );
+
+        transfers =
+            new TransferManagerImpl( transports, cache, nfc, fileEvents, new DownloadHandler( nfc, config, executorService ),
+                                     new UploadHandler( nfc, config, executorService ), new ListingHandler( nfc ),
+                                     new ExistenceHandler( nfc ),
+                                     new SpecialPathManagerImpl(),
+                                     executorService );
+    }
+
+    /**
+     * Builds the metadata resources for the expanded locations. The two candidate paths are formatted once per call
+     * rather than once per location, and local file locations are identified from the expander's precomputed table.
+     */
+    private static VirtualResource metadataResources( final MavenLocationExpander locationExpander,
+                                                      final List<? extends Location> locations,
+                                                      final String localPath, final String remotePath )
+                    throws TransferException
+    {
+        final List<Location> expanded = locationExpander.expand( locations );
+        final List<ConcreteResource> resources = new ArrayList<>( expanded.size() );
+        for ( Location l : expanded )
+        {
+            resources.add( new ConcreteResource( l, locationExpander.isFileLocation( l ) ? localPath : remotePath ) );
+        }
+        return new VirtualResource( resources );
+    }
+
+    /**
+     * Equivalent to {@link TransferManager#retrieveAll(VirtualResource, EventMetadata)}, which shares a single
+     * completion service between all callers so that concurrent calls (e.g. metadata for several GAs being resolved
+     * at once) may receive each other's transfers. The resources are instead retrieved in turn on the calling thread;
+     * as with retrieveAll, a failure for one resource is logged and the remaining resources are still retrieved.
+     */
+    private List<Transfer> retrieveEach( final TransferManager transfers, final VirtualResource resources,
+                                         final EventMetadata eventMetadata )
+    {
+        final List<Transfer> result = new ArrayList<>();
+        for ( ConcreteResource resource : resources )
+        {
+            try
+            {
+                final Transfer transfer = transfers.retrieve( resource, false, eventMetadata );
+                if ( transfer != null && transfer.exists() )
+                {
+                    result.add( transfer );
+                }
+            }
+            catch ( TransferException e )
+            {
+                logger.warn( "Failed to retrieve {}: {}", resource, e.getMessage() );
+            }
+        }
+        return result;
+    }
+
     private boolean localMetadataScanningEnabled()
     {
         return sessionHandler == null ? true : Boolean.valueOf( sessionHandler.getUserProperties().getProperty(
                         LOCAL_REPO_SCANNING_PROP, "true" ) );
     }
 
+    private int getIntegerProperty( String key, int defaultValue ) throws ManipulationException
+    {
+        final String value = sessionHandler == null ? null : sessionHandler.getUserProperties().getProperty( key );
+        if ( value == null )
+        {
+            return defaultValue;
+        }
+        try
+        {
+            final int result = Integer.parseInt( value.trim() );
+            if ( result < 1 )
+            {
+                throw new ManipulationException( "Value for {} must be positive but was {}", key, value );
+            }
+            return result;
+        }
+        catch ( NumberFormatException e )
+        {
+            throw new ManipulationException( "Unable to parse {} value {}", e, key, value );
+        }
+    }
+
+    /**
+     * Sets the bundle used by this run. A recording bundle captures every download made after the next
+     * {@link #init()}; with a replaying bundle {@link #init()} passes the bundle's Location and Transport to
+     * {@link #init(Location, Transport, File)} so that it is the only source.
+     *
+     * @param resolutionBundle the bundle, or null to disable.
+     */
+    public void setResolutionBundle( ResolutionBundle resolutionBundle )
+    {
+        this.resolutionBundle = resolutionBundle;
+    }
+
+    public ResolutionBundle getResolutionBundle()
+    {
+        return resolutionBundle;
+    }
+
+    /**
+     * @return the cache for URLs resolved during this run; cleared or replaced on each initialisation.
+     */
+    public URLCache getURLCache()
+    {
+        return urlCache;
+    }
+
+    /**
+     * @return a snapshot of the transfer statistics, or null if this has not been initialised.
+     */
+    public TransferMetrics getTransferMetrics()
+    {
+        return executor == null ? null : executor.getMetrics();
+    }
+
     public MavenPomReader getPomReader()
     {
         return pomReader;
@@ -331,7 +508,14 @@ public class GalleyInfrastructure
         return xpaths;
     }
 
+    /**
+     * Reusable transfer components are kept for the next run, as their idle threads time out and will not keep the JVM
+     * alive; otherwise the executor is shut down.
+     */
     public void finish() {
-        executor.shutdown();
+        if ( executor != null && transfersKey == null )
+        {
+            executor.shutdown();
+        }
     }
 }
@@ -42,6 +42,8 @@ import java.io.File;
 import java.net.MalformedURLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -67,6 +69,13 @@ public class MavenLocationExpander
 
     private final List<Location> locations;
 
+    /**
+     * Immutable expansion table, built once on construction, mapping each expandable location to its targets.
+     */
+    private final Map<Location, List<Location>> expansions;
+
+    private final Map<Location, Boolean> fileLocations = new HashMap<>();
+
     private final Logger logger = LoggerFactory.getLogger( getClass() );
 
     public MavenLocationExpander( final List<Location> customLocations,
@@ -94,7 +103,31 @@ public class MavenLocationExpander
         if ( locs.size() > 0 && logger.isDebugEnabled()) {
             logger.debug("Configured to use Maven locations:\n  {}", new JoinString("\n  ", locs));
         }
-        this.locations = new ArrayList<>( locs );
+        this.locations = Collections.unmodifiableList( new ArrayList<>( locs ) );
+        this.expansions = Collections.singletonMap( EXPANSION_TARGET, this.locations );
+
+        for ( final Location loc : this.locations )
+        {
+            fileLocations.put( loc, hasFileUri( loc ) );
+        }
+    }
+
+    /**
+     * Determine whether the location is a local file location. Locations known to this expander are answered from a
+     * table precomputed on construction.
+     *
+     * @param location the location to check.
+     * @return true if the location URI uses the file scheme.
+     */
+    public boolean isFileLocation( final Location location )
+    {
+        final Boolean result = fileLocations.get( location );
+        return result != null ? result : hasFileUri( location );
+    }
+
+    private static boolean hasFileUri( final Location location )
+    {
+        return location.getUri() != null && location.getUri().startsWith( "file:" );
     }
 
     private void addRequestRepositoriesTo( final Set<Location> locs,
@@ -222,13 +255,15 @@ public class MavenLocationExpander
     public List<Location> expand( final Location... locations )
         throws TransferException
     {
-        final List<Location> result = new ArrayList<>();
+        final List<Location> result = new ArrayList<>( locations.length + this.locations.size() );
         for ( final Location loc : locations )
         {
             expandSingle( loc, result );
         }
 
-        logger.debug( "Expanded to:\n {}", new JoinString( "\n  ", result ) );
+        if (logger.isDebugEnabled()) {
+            logger.debug("Expanded to:\n {}", new JoinString("\n  ", result));
+        }
         return result;
     }
 
@@ -236,7 +271,7 @@ public class MavenLocationExpander
     public <T extends Location> List<Location> expand( final Collection<T> locations )
         throws TransferException
     {
-        final List<Location> result = new ArrayList<>();
+        final List<Location> result = new ArrayList<>( locations.size() + this.locations.size() );
         for ( final Location loc : locations )
         {
             expandSingle( loc, result );
@@ -276,8 +311,13 @@ public class MavenLocationExpander
     private void expandSingle( final ConcreteResource cr, final List<ConcreteResource> result )
     {
         final Location loc = cr.getLocation();
-        final List<Location> expanded = new ArrayList<>();
-        expandSingle( loc, expanded );
+        final List<Location> expanded = expansions.get( loc );
+
+        if ( expanded == null )
+        {
+            result.add( cr );
+            return;
+        }
 
         final String path = cr.getPath();
         for ( final Location location : expanded )
@@ -288,15 +328,13 @@ public class MavenLocationExpander
 
     private void expandSingle( final Location loc, final List<Location> result )
     {
-        logger.debug( "Expanding: {}", loc );
-        if ( EXPANSION_TARGET.equals( loc ) )
+        final List<Location> expanded = expansions.get( loc );
+        if ( expanded != null )
         {
-            logger.debug( "Expanding..." );
-            result.addAll( this.locations );
+            result.addAll( expanded );
         }
         else
         {
-            logger.debug( "No expansion available." );
             result.add( loc );
         }
     }
@@ -0,0 +1,528 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.resolver;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.IOUtils;
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.galley.TransferException;
+import org.commonjava.maven.galley.event.EventMetadata;
+import org.commonjava.maven.galley.model.ConcreteResource;
+import org.commonjava.maven.galley.model.ListingResult;
+import org.commonjava.maven.galley.model.Location;
+import org.commonjava.maven.galley.model.SimpleLocation;
+import org.commonjava.maven.galley.model.Transfer;
+import org.commonjava.maven.galley.model.TransferOperation;
+import org.commonjava.maven.galley.spi.transport.DownloadJob;
+import org.commonjava.maven.galley.spi.transport.ExistenceJob;
+import org.commonjava.maven.galley.spi.transport.ListingJob;
+import org.commonjava.maven.galley.spi.transport.PublishJob;
+import org.commonjava.maven.galley.spi.transport.Transport;
+import org.commonjava.maven.galley.spi.transport.TransportManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * A single file archive of every remote artifact, metadata document, URL and REST response consumed by a run. A
+ * bundle is either recording (populated as the run proceeds and then written out) or replaying (loaded from a
+ * previous run and used as the only source of remote content). A recording bundle may be seeded from a previous
+ * run, in which case recorded remote artifacts, metadata and REST responses are served from the bundle and anything else
+ * is fetched and recorded; URLs, typically scripts, are always fetched again.
+ * <p>
+ * The archive is a zip file containing:
+ * <ul>
+ *   <li><code>resources/&lt;location name&gt;/&lt;path&gt;</code> for each Galley download.</li>
+ *   <li><code>urls/&lt;url&gt;</code> for each file resolved by URL.</li>
+ *   <li><code>rest/translations.json</code> and <code>rest/blacklist.json</code> for the REST responses.</li>
+ * </ul>
+ */
+public class ResolutionBundle
+{
+    private static final String RESOURCES = "resources/";
+
+    private static final String URLS = "urls/";
+
+    private static final String TRANSLATIONS = "rest/translations.json";
+
+    private static final String BLACKLIST = "rest/blacklist.json";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final boolean replaying;
+
+    private final Map<String, byte[]> resources = new ConcurrentHashMap<>();
+
+    /**
+     * Recorded resources indexed by path, to the sorted names of the locations that recorded them. Used to find the
+     * content for a location this bundle does not know.
+     */
+    private final Map<String, SortedSet<String>> locationsByPath = new ConcurrentHashMap<>();
+
+    private final Set<String> locations = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, byte[]> urls = new ConcurrentHashMap<>();
+
+    private final Map<String, String> translations = new ConcurrentHashMap<>();
+
+    private final Map<String, List<String>> blacklist = new ConcurrentHashMap<>();
+
+    private ResolutionBundle( boolean replaying )
+    {
+        this.replaying = replaying;
+    }
+
+    /**
+     * @return a new, empty, bundle that records the content consumed by this run.
+     */
+    public static ResolutionBundle recording()
+    {
+        return new ResolutionBundle( false );
+    }
+
+    /**
+     * Loads a previously written bundle to replay.
+     *
+     * @param file the bundle file.
+     * @return the loaded bundle.
+     * @throws ManipulationException if the bundle cannot be read.
+     */
+    public static ResolutionBundle load( File file ) throws ManipulationException
+    {
+        return load( file, true );
+    }
+
+    /**
+     * Loads a previously written bundle as the starting point of a recording bundle, e.g. to resume from a
+     * checkpoint. Remote content is only fetched if not found in the bundle.
+     *
+     * @param file the bundle file.
+     * @return the loaded bundle.
+     * @throws ManipulationException if the bundle cannot be read.
+     */
+    public static ResolutionBundle resume( File file ) throws ManipulationException
+    {
+        return load( file, false );
+    }
+
+    private static ResolutionBundle load( File file, boolean replaying ) throws ManipulationException
+    {
+        final ResolutionBundle result = new ResolutionBundle( replaying );
+
+        try ( ZipInputStream zip = new ZipInputStream( new FileInputStream( file ) ) )
+        {
+            ZipEntry entry;
+            while ( ( entry = zip.getNextEntry() ) != null )
+            {
+                final String name = entry.getName();
+                final byte[] content = IOUtils.toByteArray( zip );
+
+                if ( name.startsWith( RESOURCES ) )
+                {
+                    result.putResource( name.substring( RESOURCES.length() ), content );
+                }
+                else if ( name.startsWith( URLS ) )
+                {
+                    result.urls.put( name.substring( URLS.length() ), content );
+                }
+                else if ( name.equals( TRANSLATIONS ) )
+                {
+                    result.translations.putAll( MAPPER.readValue( content, new TypeReference<Map<String, String>>() {} ) );
+                }
+                else if ( name.equals( BLACKLIST ) )
+                {
+                    result.blacklist.putAll(
+                                    MAPPER.readValue( content, new TypeReference<Map<String, List<String>>>() {} ) );
+                }
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new ManipulationException( "Unable to read resolution bundle {}", e, file );
+        }
+
+        result.logger.info( "Loaded resolution bundle {} with {} resources, {} URLs and {} REST translations", file,
+                            result.resources.size(), result.urls.size(), result.translations.size() );
+        return result;
+    }
+
+    /**
+     * Writes this bundle. Entries are sorted so that identical runs produce identical bundles.
+     *
+     * @param file the file to write to.
+     * @throws ManipulationException if the bundle cannot be written.
+     */
+    public void write( File file ) throws ManipulationException
+    {
+        if ( file.getParentFile() != null )
+        {
+            file.getParentFile().mkdirs();
+        }
+
+        try ( ZipOutputStream zip = new ZipOutputStream( new FileOutputStream( file ) ) )
+        {
+            for ( Map.Entry<String, byte[]> e : new TreeMap<>( resources ).entrySet() )
+            {
+                writeEntry( zip, RESOURCES + e.getKey(), e.getValue() );
+            }
+            for ( Map.Entry<String, byte[]> e : new TreeMap<>( urls ).entrySet() )
+            {
+                writeEntry( zip, URLS + e.getKey(), e.getValue() );
+            }
+            writeEntry( zip, TRANSLATIONS, MAPPER.writeValueAsBytes( new TreeMap<>( translations ) ) );
+            writeEntry( zip, BLACKLIST, MAPPER.writeValueAsBytes( new TreeMap<>( blacklist ) ) );
+        }
+        catch ( IOException e )
+        {
+            throw new ManipulationException( "Unable to write resolution bundle {}", e, file );
+        }
+
+        logger.info( "Wrote resolution bundle {} with {} resources, {} URLs and {} REST translations", file,
+                     resources.size(), urls.size(), translations.size() );
+    }
+
+    private static void writeEntry( ZipOutputStream zip, String name, byte[] content ) throws IOException
+    {
+        final ZipEntry entry = new ZipEntry( name );
+        // Fixed timestamp so bundle content is reproducible.
+        entry.setTime( 0 );
+        zip.putNextEntry( entry );
+        zip.write( content );
+        zip.closeEntry();
+    }
+
+    public boolean isReplaying()
+    {
+        return replaying;
+    }
+
+    /**
+     * @return the Location to pass to {@link GalleyInfrastructure#init(Location, Transport, File)} when replaying.
+     */
+    public Location getLocation()
+    {
+        return new SimpleLocation( "resolution-bundle", "bundle:resolution" );
+    }
+
+    /**
+     * @return the Transport to pass to {@link GalleyInfrastructure#init(Location, Transport, File)} when replaying.
+     */
+    public Transport getTransport()
+    {
+        return new ReplayingTransport();
+    }
+
+    /**
+     * Wraps the supplied TransportManager so the content of every successful download is recorded. Content already in
+     * the bundle is served from it.
+     *
+     * @param delegate the TransportManager to wrap.
+     * @return the wrapped TransportManager.
+     */
+    TransportManager record( final TransportManager delegate )
+    {
+        return ForwardingTransport.decorate( delegate, transport -> new ForwardingTransport( transport )
+        {
+            @Override
+            public DownloadJob createDownloadJob( ConcreteResource resource, Transfer target,
+                                                  Map<Transfer, Long> transferSizes, int timeoutSeconds,
+                                                  EventMetadata eventMetadata ) throws TransferException
+            {
+                if ( resources.containsKey( key( resource ) ) )
+                {
+                    return new ReplayingTransport().createDownloadJob( resource, target, transferSizes,
+                                                                      timeoutSeconds, eventMetadata );
+                }
+                return new RecordingDownloadJob( resource, target,
+                                                 super.createDownloadJob( resource, target, transferSizes,
+                                                                          timeoutSeconds, eventMetadata ) );
+            }
+        } );
+    }
+
+    public void recordURL( String url, byte[] content )
+    {
+        urls.put( url, content );
+    }
+
+    /**
+     * @param url the URL to look up.
+     * @return the recorded content or null.
+     */
+    public byte[] getURL( String url )
+    {
+        return urls.get( url );
+    }
+
+    public void recordTranslation( String gav, String version )
+    {
+        translations.put( gav, version );
+    }
+
+    /**
+     * @return the recorded translations, keyed by GAV. A GAV the endpoint had no translation for maps to an empty
+     * string.
+     */
+    public Map<String, String> getTranslations()
+    {
+        return translations;
+    }
+
+    public void recordBlacklist( String ga, List<String> gavs )
+    {
+        blacklist.put( ga, gavs );
+    }
+
+    /**
+     * @param ga the GA to look up.
+     * @return the recorded blacklist or null.
+     */
+    public List<String> getBlacklist( String ga )
+    {
+        return blacklist.get( ga );
+    }
+
+    private static String key( ConcreteResource resource )
+    {
+        return resource.getLocation().getName() + '/' + resource.getPath();
+    }
+
+    private void putResource( String key, byte[] content )
+    {
+        resources.put( key, content );
+
+        final int separator = key.indexOf( '/' );
+        final String location = key.substring( 0, separator );
+        locations.add( location );
+        locationsByPath.computeIfAbsent( key.substring( separator + 1 ), p -> new ConcurrentSkipListSet<>() )
+                       .add( location );
+    }
+
+    /**
+     * Looks up the content for a resource. If the location name is not known to this bundle (e.g. the repository
+     * identifiers differ on the replaying host) the resource recorded with the same path is used instead. Should
+     * several locations have recorded that path the first location by name is used, so replay is deterministic.
+     */
+    byte[] lookup( ConcreteResource resource )
+    {
+        byte[] result = resources.get( key( resource ) );
+        if ( result == null && !locations.contains( resource.getLocation().getName() ) )
+        {
+            final SortedSet<String> candidates = locationsByPath.get( resource.getPath() );
+            if ( candidates != null && !candidates.isEmpty() )
+            {
+                final String location = candidates.first();
+                if ( candidates.size() > 1 )
+                {
+                    logger.warn( "Path {} was recorded by locations {}; replaying the content from {} for {}",
+                                 resource.getPath(), candidates, location, resource.getLocation().getName() );
+                }
+                result = resources.get( location + '/' + resource.getPath() );
+            }
+        }
+        return result;
+    }
+
+    private class RecordingDownloadJob
+                    implements DownloadJob
+    {
+        private final ConcreteResource resource;
+
+        private final Transfer target;
+
+        private final DownloadJob delegate;
+
+        RecordingDownloadJob( ConcreteResource resource, Transfer target, DownloadJob delegate )
+        {
+            this.resource = resource;
+            this.target = target;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public DownloadJob call() throws Exception
+        {
+            final DownloadJob result = delegate.call();
+            if ( result != null && delegate.getError() == null )
+            {
+                final Transfer transfer = delegate.getTransfer() == null ? target : delegate.getTransfer();
+                if ( transfer != null && transfer.exists() )
+                {
+                    try ( InputStream in = transfer.openInputStream( false ) )
+                    {
+                        putResource( key( resource ), IOUtils.toByteArray( in ) );
+                    }
+                }
+            }
+            return result == delegate ? this : result;
+        }
+
+        @Override
+        public long getTransferSize()
+        {
+            return delegate.getTransferSize();
+        }
+
+        @Override
+        public Transfer getTransfer()
+        {
+            return delegate.getTransfer();
+        }
+
+        @Override
+        public TransferException getError()
+        {
+            return delegate.getError();
+        }
+    }
+
+    private class ReplayingTransport
+                    implements Transport
+    {
+        @Override
+        public DownloadJob createDownloadJob( final ConcreteResource resource, final Transfer target,
+                                              Map<Transfer, Long> transferSizes, int timeoutSeconds,
+                                              EventMetadata eventMetadata )
+        {
+            return new DownloadJob()
+            {
+                private Transfer transfer;
+
+                @Override
+                public long getTransferSize()
+                {
+                    final byte[] data = lookup( resource );
+                    return data == null ? 0 : data.length;
+                }
+
+                @Override
+                public Transfer getTransfer()
+                {
+                    return transfer;
+                }
+
+                @Override
+                public TransferException getError()
+                {
+                    return null;
+                }
+
+                @Override
+                public DownloadJob call() throws Exception
+                {
+                    final byte[] data = lookup( resource );
+                    if ( data == null )
+                    {
+                        logger.debug( "No bundle content for {}", resource );
+                        return null;
+                    }
+
+                    transfer = target;
+                    transfer.delete( false );
+
+                    try ( OutputStream out = transfer.openOutputStream( TransferOperation.DOWNLOAD ) )
+                    {
+                        out.write( data );
+                    }
+                    return this;
+                }
+            };
+        }
+
+        @Override
+        public ExistenceJob createExistenceJob( final ConcreteResource resource, Transfer target, int timeoutSeconds )
+        {
+            return new ExistenceJob()
+            {
+                @Override
+                public TransferException getError()
+                {
+                    return null;
+                }
+
+                @Override
+                public Boolean call()
+                {
+                    return lookup( resource ) != null;
+                }
+            };
+        }
+
+        @Override
+        public ListingJob createListingJob( final ConcreteResource resource, Transfer target, int timeoutSeconds )
+        {
+            return new ListingJob()
+            {
+                @Override
+                public TransferException getError()
+                {
+                    return null;
+                }
+
+                @Override
+                public ListingResult call()
+                {
+                    return null;
+                }
+            };
+        }
+
+        @Override
+        public PublishJob createPublishJob( ConcreteResource resource, InputStream stream, long length,
+                                            int timeoutSeconds ) throws TransferException
+        {
+            throw new TransferException( "Publishing is not supported when replaying a resolution bundle" );
+        }
+
+        @Override
+        public PublishJob createPublishJob( ConcreteResource resource, InputStream stream, long length,
+                                            String contentType, int timeoutSeconds ) throws TransferException
+        {
+            throw new TransferException( "Publishing is not supported when replaying a resolution bundle" );
+        }
+
+        @Override
+        public boolean handles( Location location )
+        {
+            return true;
+        }
+
+        @Override
+        public boolean allowsCaching()
+        {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.resolver;
+
+import org.commonjava.maven.ext.common.util.Deadline;
+import org.commonjava.maven.galley.TransferException;
+import org.commonjava.maven.galley.event.EventMetadata;
+import org.commonjava.maven.galley.model.ConcreteResource;
+import org.commonjava.maven.galley.model.Location;
+import org.commonjava.maven.galley.model.Transfer;
+import org.commonjava.maven.galley.spi.transport.DownloadJob;
+import org.commonjava.maven.galley.spi.transport.TransportManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Bounded executor used for the Galley transfer handlers. It limits the total number of transfer threads, the
+ * number of concurrent transfers against any single repository host and records per host latency statistics.
+ * <p>
+ * As the metrics are usually read once every transfer has completed, concurrency is reported as the peak reached
+ * during the run rather than the current value, and the latency of each transfer is split between the time spent
+ * waiting (for a thread or the host limit) and the time spent transferring.
+ * <p>
+ * Threads are named, daemon and time out when idle so an executor that is never explicitly shut down will not
+ * keep the JVM alive.
+ */
+public class TransferExecutor
+{
+    private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final ThreadPoolExecutor executor;
+
+    private final int hostLimit;
+
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    private final Map<String, HostStatistics> hostStatistics = new ConcurrentHashMap<>();
+
+    private final AtomicInteger largestQueue = new AtomicInteger();
+
+    private final AtomicInteger largestPoolSize = new AtomicInteger();
+
+    private final AtomicInteger activeTransfers = new AtomicInteger();
+
+    private final AtomicInteger peakActiveTransfers = new AtomicInteger();
+
+    /**
+     * @param threads the maximum number of transfer threads.
+     * @param hostLimit the maximum number of concurrent transfers to a single host.
+     * @param queueSize the maximum number of queued transfers; once full, transfers run on the calling thread.
+     */
+    public TransferExecutor( int threads, int hostLimit, int queueSize )
+    {
+        this.hostLimit = hostLimit;
+
+        final int pool = POOL_COUNT.incrementAndGet();
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ThreadFactory factory = r -> {
+            Thread t = new Thread( r, "pme-transfer-" + pool + '-' + threadCount.incrementAndGet() );
+            t.setDaemon( true );
+            return t;
+        };
+
+        this.executor = new ThreadPoolExecutor( threads, threads, 30, TimeUnit.SECONDS,
+                                                new LinkedBlockingQueue<>( queueSize ), factory,
+                                                new ThreadPoolExecutor.CallerRunsPolicy() )
+        {
+            @Override
+            public void execute( Runnable command )
+            {
+                super.execute( command );
+                largestQueue.accumulateAndGet( getQueue().size(), Math::max );
+                largestPoolSize.accumulateAndGet( getPoolSize(), Math::max );
+            }
+        };
+        this.executor.allowCoreThreadTimeOut( true );
+
+        logger.debug( "Created transfer executor with {} threads, {} per host and a queue of {}", threads, hostLimit,
+                      queueSize );
+    }
+
+    public ExecutorService getExecutorService()
+    {
+        return executor;
+    }
+
+    /**
+     * Wraps the supplied TransportManager so that downloads are subject to the per host limit and timed.
+     *
+     * @param delegate the TransportManager to wrap.
+     * @return a wrapped TransportManager.
+     */
+    public TransportManager instrument( final TransportManager delegate )
+    {
+        return instrument( delegate, Deadline.NONE );
+    }
+
+    /**
+     * Wraps the supplied TransportManager so that downloads are subject to the per host limit, timed and bounded by
+     * the deadline: their timeout is limited to the time remaining, no download starts once it has expired and any
+     * in flight are interrupted when it expires.
+     *
+     * @param delegate the TransportManager to wrap.
+     * @param deadline the deadline of the run.
+     * @return a wrapped TransportManager.
+     */
+    public TransportManager instrument( final TransportManager delegate, final Deadline deadline )
+    {
+        return instrument( delegate, () -> deadline );
+    }
+
+    /**
+     * As {@link #instrument(TransportManager, Deadline)}, for an executor that outlives a single run: the deadline
+     * of the current run is obtained as each download is created.
+     *
+     * @param delegate the TransportManager to wrap.
+     * @param deadlines supplies the deadline of the current run.
+     * @return a wrapped TransportManager.
+     */
+    public TransportManager instrument( final TransportManager delegate, final Supplier<Deadline> deadlines )
+    {
+        return ForwardingTransport.decorate( delegate, transport -> new ForwardingTransport( transport )
+        {
+            @Override
+            public DownloadJob createDownloadJob( ConcreteResource resource, Transfer target,
+                                                  Map<Transfer, Long> transferSizes, int timeoutSeconds,
+                                                  EventMetadata eventMetadata ) throws TransferException
+            {
+                final Deadline deadline = deadlines.get();
+                return new HostLimitedDownloadJob( getHost( resource.getLocation() ), resource, deadline,
+                                                   super.createDownloadJob( resource, target, transferSizes,
+                                                                            deadline.limitSeconds( timeoutSeconds ),
+                                                                            eventMetadata ) );
+            }
+        } );
+    }
+
+    public TransferMetrics getMetrics()
+    {
+        final TransferMetrics result = new TransferMetrics( peakActiveTransfers.get(), largestPoolSize.get(),
+                                                            largestQueue.get() );
+        hostStatistics.forEach( ( host, stats ) -> result.addHost( host, stats.snapshot() ) );
+        return result;
+    }
+
+    /**
+     * Discard the metrics recorded so far, so that an executor reused for another run reports that run alone.
+     */
+    public void resetMetrics()
+    {
+        hostStatistics.clear();
+        largestQueue.set( 0 );
+        largestPoolSize.set( executor.getPoolSize() );
+        peakActiveTransfers.set( activeTransfers.get() );
+    }
+
+    public void shutdown()
+    {
+        executor.shutdown();
+    }
+
+    private static String getHost( final Location location )
+    {
+        try
+        {
+            final URI uri = new URI( location.getUri() );
+            if ( uri.getHost() != null )
+            {
+                return uri.getHost() + ( uri.getPort() == -1 ? "" : ":" + uri.getPort() );
+            }
+            return uri.getScheme() == null ? location.getUri() : uri.getScheme();
+        }
+        catch ( Exception e )
+        {
+            return location.getUri();
+        }
+    }
+
+    private class HostLimitedDownloadJob
+                    implements DownloadJob
+    {
+        private final String host;
+
+        private final ConcreteResource resource;
+
+        private final Deadline deadline;
+
+        private final DownloadJob delegate;
+
+        private final long created = System.nanoTime();
+
+        HostLimitedDownloadJob( String host, ConcreteResource resource, Deadline deadline, DownloadJob delegate )
+        {
+            this.host = host;
+            this.resource = resource;
+            this.deadline = deadline;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public DownloadJob call() throws Exception
+        {
+            deadline.check();
+            try ( Deadline.Pending ignored = deadline.track( "download of " + resource ) )
+            {
+                return download();
+            }
+        }
+
+        private DownloadJob download() throws Exception
+        {
+            final Semaphore permits = hostPermits.computeIfAbsent( host, h -> new Semaphore( hostLimit ) );
+            final HostStatistics stats = hostStatistics.computeIfAbsent( host, h -> new HostStatistics() );
+
+            permits.acquire();
+            final long start = System.nanoTime();
+            peakActiveTransfers.accumulateAndGet( activeTransfers.incrementAndGet(), Math::max );
+            stats.start();
+            boolean failed = true;
+            try
+            {
+                final DownloadJob result = delegate.call();
+                failed = delegate.getError() != null;
+                return result == delegate ? this : result;
+            }
+            finally
+            {
+                activeTransfers.decrementAndGet();
+                stats.record( TimeUnit.NANOSECONDS.toMillis( start - created ),
+                              TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ), failed );
+                permits.release();
+            }
+        }
+
+        @Override
+        public long getTransferSize()
+        {
+            return delegate.getTransferSize();
+        }
+
+        @Override
+        public Transfer getTransfer()
+        {
+            return delegate.getTransfer();
+        }
+
+        @Override
+        public TransferException getError()
+        {
+            return delegate.getError();
+        }
+    }
+
+    private static class HostStatistics
+    {
+        private final AtomicLong transfers = new AtomicLong();
+
+        private final AtomicLong failures = new AtomicLong();
+
+        private final AtomicLong totalMillis = new AtomicLong();
+
+        private final AtomicLong maxMillis = new AtomicLong();
+
+        private final AtomicLong totalWaitMillis = new AtomicLong();
+
+        private final AtomicLong maxWaitMillis = new AtomicLong();
+
+        private final AtomicInteger active = new AtomicInteger();
+
+        private final AtomicInteger peakActive = new AtomicInteger();
+
+        private final AtomicLongArray histogram = new AtomicLongArray( TransferMetrics.HISTOGRAM_BOUNDS.length + 1 );
+
+        void start()
+        {
+            peakActive.accumulateAndGet( active.incrementAndGet(), Math::max );
+        }
+
+        void record( long waitMillis, long millis, boolean failed )
+        {
+            active.decrementAndGet();
+            transfers.incrementAndGet();
+            if ( failed )
+            {
+                failures.incrementAndGet();
+            }
+            totalMillis.addAndGet( millis );
+            maxMillis.accumulateAndGet( millis, Math::max );
+            totalWaitMillis.addAndGet( waitMillis );
+            maxWaitMillis.accumulateAndGet( waitMillis, Math::max );
+
+            int bucket = 0;
+            while ( bucket < TransferMetrics.HISTOGRAM_BOUNDS.length
+                            && millis >= TransferMetrics.HISTOGRAM_BOUNDS[bucket] )
+            {
+                bucket++;
+            }
+            histogram.incrementAndGet( bucket );
+        }
+
+        TransferMetrics.HostMetrics snapshot()
+        {
+            final long[] counts = new long[histogram.length()];
+            for ( int i = 0; i < counts.length; i++ )
+            {
+                counts[i] = histogram.get( i );
+            }
+            return new TransferMetrics.HostMetrics( transfers.get(), failures.get(), totalMillis.get(),
+                                                    maxMillis.get(), totalWaitMillis.get(), maxWaitMillis.get(),
+                                                    peakActive.get(), counts );
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.resolver;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Snapshot of the statistics gathered by a {@link TransferExecutor} over a run. Serialised into the
+ * result file so callers are able to see how much time was spent downloading and from where.
+ */
+public class TransferMetrics
+{
+    /**
+     * Upper bounds (exclusive) in milliseconds of the buckets of {@link HostMetrics#getHistogram()}; the final bucket
+     * holds every slower transfer.
+     */
+    static final long[] HISTOGRAM_BOUNDS = { 10, 100, 1000, 10000 };
+
+    @JsonProperty
+    private final int peakActiveTransfers;
+
+    @JsonProperty
+    private final int largestPoolSize;
+
+    @JsonProperty
+    private final int largestQueue;
+
+    @JsonProperty
+    private final Map<String, HostMetrics> hosts = new TreeMap<>();
+
+    TransferMetrics( int peakActiveTransfers, int largestPoolSize, int largestQueue )
+    {
+        this.peakActiveTransfers = peakActiveTransfers;
+        this.largestPoolSize = largestPoolSize;
+        this.largestQueue = largestQueue;
+    }
+
+    void addHost( String host, HostMetrics metrics )
+    {
+        hosts.put( host, metrics );
+    }
+
+    /**
+     * @return the largest number of downloads in progress at once, over all hosts.
+     */
+    public int getPeakActiveTransfers()
+    {
+        return peakActiveTransfers;
+    }
+
+    /**
+     * @return the largest number of transfer threads that existed at once.
+     */
+    public int getLargestPoolSize()
+    {
+        return largestPoolSize;
+    }
+
+    /**
+     * @return the largest number of transfers waiting for a thread at once.
+     */
+    public int getLargestQueue()
+    {
+        return largestQueue;
+    }
+
+    public Map<String, HostMetrics> getHosts()
+    {
+        return hosts;
+    }
+
+    /**
+     * Transfer statistics for a single repository host. The wait time of a transfer is from its creation until it
+     * starts, i.e. waiting for a transfer thread and the per host limit; the transfer time is the remainder.
+     */
+    public static class HostMetrics
+    {
+        @JsonProperty
+        private final long transfers;
+
+        @JsonProperty
+        private final long failures;
+
+        @JsonProperty
+        private final long totalMillis;
+
+        @JsonProperty
+        private final long maxMillis;
+
+        @JsonProperty
+        private final long totalWaitMillis;
+
+        @JsonProperty
+        private final long maxWaitMillis;
+
+        @JsonProperty
+        private final int peakActiveTransfers;
+
+        private final long[] histogram;
+
+        HostMetrics( long transfers, long failures, long totalMillis, long maxMillis, long totalWaitMillis,
+                     long maxWaitMillis, int peakActiveTransfers, long[] histogram )
+        {
+            this.transfers = transfers;
+            this.failures = failures;
+            this.totalMillis = totalMillis;
+            this.maxMillis = maxMillis;
+            this.totalWaitMillis = totalWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+            this.peakActiveTransfers = peakActiveTransfers;
+            this.histogram = histogram;
+        }
+
+        public long getTransfers()
+        {
+            return transfers;
+        }
+
+        public long getFailures()
+        {
+            return failures;
+        }
+
+        public long getTotalMillis()
+        {
+            return totalMillis;
+        }
+
+        public long getMaxMillis()
+        {
+            return maxMillis;
+        }
+
+        @JsonProperty
+        public long getAverageMillis()
+        {
+            return transfers == 0 ? 0 : totalMillis / transfers;
+        }
+
+        public long getTotalWaitMillis()
+        {
+            return totalWaitMillis;
+        }
+
+        public long getMaxWaitMillis()
+        {
+            return maxWaitMillis;
+        }
+
+        @JsonProperty
+        public long getAverageWaitMillis()
+        {
+            return transfers == 0 ? 0 : totalWaitMillis / transfers;
+        }
+
+        /**
+         * @return the largest number of downloads from this host in progress at once.
+         */
+        public int getPeakActiveTransfers()
+        {
+            return peakActiveTransfers;
+        }
+
+        /**
+         * @return the number of transfers by duration, keyed by the upper bound of each bucket, e.g.
+         * <code>&lt;100ms</code>, and finally <code>&gt;=10000ms</code>.
+         */
+        @JsonProperty
+        public Map<String, Long> getHistogram()
+        {
+            final Map<String, Long> result = new LinkedHashMap<>();
+            for ( int i = 0; i < HISTOGRAM_BOUNDS.length; i++ )
+            {
+                result.put( "<" + HISTOGRAM_BOUNDS[i] + "ms", histogram[i] );
+            }
+            result.put( ">=" + HISTOGRAM_BOUNDS[HISTOGRAM_BOUNDS.length - 1] + "ms",
+                        histogram[HISTOGRAM_BOUNDS.length] );
+            return result;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.resolver;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.commonjava.maven.ext.common.util.Deadline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Caches the content of remote URLs on disk. Each entry is keyed by the normalized URL and stores the ETag and
+ * Last-Modified headers of the response, so later runs revalidate with a conditional request rather than downloading
+ * again. If the server cannot be reached a previously cached copy is used, but an error response is always reported.
+ * Until {@link #clear()} is called, which {@link GalleyInfrastructure} does at the start of each run, each URL is
+ * only resolved once; concurrent requests for the same URL share a single download.
+ */
+public class URLCache
+{
+    private static final String CACHE_DIR = "url-cache";
+
+    private static final String URL = "url";
+
+    private static final String ETAG = "etag";
+
+    private static final String LAST_MODIFIED = "last-modified";
+
+    private static final int TIMEOUT_MILLIS = 60 * 1000;
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final Map<String, CompletableFuture<File>> resolved = new ConcurrentHashMap<>();
+
+    private final Supplier<Deadline> deadlines;
+
+    public URLCache()
+    {
+        this( Deadline.NONE );
+    }
+
+    /**
+     * @param deadline the deadline of the run, limiting the connect and read timeouts.
+     */
+    public URLCache( final Deadline deadline )
+    {
+        this( () -> deadline );
+    }
+
+    /**
+     * @param deadlines supplies the deadline of the current run, limiting the connect and read timeouts.
+     */
+    public URLCache( final Supplier<Deadline> deadlines )
+    {
+        this.deadlines = deadlines;
+    }
+
+    /**
+     * Forget which URLs have been resolved, so that the next request for each revalidates the cached copy.
+     */
+    public void clear()
+    {
+        resolved.clear();
+    }
+
+    /**
+     * Resolve the URL into the cache directory.
+     *
+     * @param url the URL to resolve.
+     * @param cacheDir the root cache directory.
+     * @return the cached file holding the URL content.
+     * @throws IOException if the URL cannot be retrieved and no cached copy exists.
+     */
+    public File resolve( final URL url, final File cacheDir ) throws IOException
+    {
+        final String normalized = normalize( url );
+        final File entry = new File( new File( cacheDir, CACHE_DIR ), DigestUtils.sha1Hex( normalized ) );
+
+        final CompletableFuture<File> future = new CompletableFuture<>();
+        final CompletableFuture<File> existing = resolved.putIfAbsent( entry.getAbsolutePath(), future );
+
+        if ( existing == null )
+        {
+            try
+            {
+                future.complete( fetch( url, normalized, entry ) );
+            }
+            catch ( IOException | RuntimeException e )
+            {
+                // Don't memoize failures; a later request may succeed.
+                resolved.remove( entry.getAbsolutePath(), future );
+                future.completeExceptionally( e );
+                throw e;
+            }
+            return future.join();
+        }
+
+        try
+        {
+            return existing.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException( "Interrupted while waiting for " + url, e );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof IOException )
+            {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException( "Unable to resolve " + url, e.getCause() );
+        }
+    }
+
+    private File fetch( final URL url, final String normalized, final File entry ) throws IOException
+    {
+        final File metadataFile = new File( entry.getPath() + ".properties" );
+        final Properties metadata = readMetadata( metadataFile, normalized );
+        final boolean cached = entry.exists() && metadata != null;
+
+        final URLConnection connection;
+        try
+        {
+            final Deadline deadline = deadlines.get();
+            connection = url.openConnection();
+            connection.setConnectTimeout( deadline.limitMillis( TIMEOUT_MILLIS ) );
+            connection.setReadTimeout( deadline.limitMillis( TIMEOUT_MILLIS ) );
+
+            if ( !( connection instanceof HttpURLConnection ) )
+            {
+                // Local (file, jar) URLs are cheap to read and have no validators.
+                store( connection, entry, null );
+                return entry;
+            }
+
+            final HttpURLConnection http = (HttpURLConnection) connection;
+            if ( cached )
+            {
+                if ( metadata.getProperty( ETAG ) != null )
+                {
+                    http.setRequestProperty( "If-None-Match", metadata.getProperty( ETAG ) );
+                }
+                if ( metadata.getProperty( LAST_MODIFIED ) != null )
+                {
+                    http.setRequestProperty( "If-Modified-Since", metadata.getProperty( LAST_MODIFIED ) );
+                }
+            }
+
+            final int status = http.getResponseCode();
+            if ( cached && status == HttpURLConnection.HTTP_NOT_MODIFIED )
+            {
+                logger.debug( "Cached copy of {} is up to date", url );
+                http.disconnect();
+                return entry;
+            }
+            if ( status != HttpURLConnection.HTTP_OK )
+            {
+                http.disconnect();
+                throw new IOException( "Server returned HTTP response code " + status + " for URL " + url );
+            }
+
+            final Properties updated = new Properties();
+            updated.setProperty( URL, normalized );
+            if ( http.getHeaderField( "ETag" ) != null )
+            {
+                updated.setProperty( ETAG, http.getHeaderField( "ETag" ) );
+            }
+            if ( http.getHeaderField( "Last-Modified" ) != null )
+            {
+                updated.setProperty( LAST_MODIFIED, http.getHeaderField( "Last-Modified" ) );
+            }
+            store( http, entry, updated );
+            return entry;
+        }
+        catch ( IOException e )
+        {
+            if ( cached && isUnreachable( e ) )
+            {
+                logger.warn( "Unable to reach {} ({}); using cached copy", url, e.getMessage() );
+                return entry;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Only a server that cannot be reached in time falls back to the cached copy; an error response (e.g. the content
+     * was removed) must not be masked by stale content.
+     */
+    private static boolean isUnreachable( final IOException e )
+    {
+        return e instanceof SocketException || e instanceof SocketTimeoutException
+                        || e instanceof UnknownHostException;
+    }
+
+    private void store( final URLConnection connection, final File entry, final Properties metadata )
+                    throws IOException
+    {
+        FileUtils.forceMkdir( entry.getParentFile() );
+
+        // Write to a temporary file first so an interrupted download never replaces a valid cached copy.
+        final File temp = File.createTempFile( entry.getName(), ".tmp", entry.getParentFile() );
+        try
+        {
+            try (InputStream in = connection.getInputStream(); OutputStream out = new FileOutputStream( temp ))
+            {
+                IOUtils.copy( in, out );
+            }
+            Files.move( temp.toPath(), entry.toPath(), StandardCopyOption.REPLACE_EXISTING );
+        }
+        finally
+        {
+            FileUtils.deleteQuietly( temp );
+        }
+
+        final File metadataFile = new File( entry.getPath() + ".properties" );
+        if ( metadata == null )
+        {
+            FileUtils.deleteQuietly( metadataFile );
+        }
+        else
+        {
+            try (OutputStream out = new FileOutputStream( metadataFile ))
+            {
+                metadata.store( out, null );
+            }
+        }
+    }
+
+    private Properties readMetadata( final File metadataFile, final String normalized )
+    {
+        if ( !metadataFile.exists() )
+        {
+            return null;
+        }
+
+        final Properties result = new Properties();
+        try (InputStream in = new FileInputStream( metadataFile ))
+        {
+            result.load( in );
+        }
+        catch ( IOException e )
+        {
+            logger.debug( "Ignoring unreadable cache metadata {}", metadataFile, e );
+            return null;
+        }
+        // Guard against (unlikely) digest collisions.
+        return normalized.equals( result.getProperty( URL ) ) ? result : null;
+    }
+
+    /**
+     * Normalize the URL so trivially different spellings share one cache entry: the scheme and host are lower cased,
+     * default ports, dot segments and fragments are removed.
+     */
+    static String normalize( final URL url )
+    {
+        try
+        {
+            final URI uri = url.toURI().normalize();
+            final String scheme = uri.getScheme() == null ? null : uri.getScheme().toLowerCase();
+            final String host = uri.getHost() == null ? null : uri.getHost().toLowerCase();
+            int port = uri.getPort();
+            if ( port == url.getDefaultPort() )
+            {
+                port = -1;
+            }
+            if ( host == null )
+            {
+                return new URI( scheme, uri.getSchemeSpecificPart(), null ).toString();
+            }
+            return new URI( scheme, uri.getUserInfo(), host, port, uri.getPath(), uri.getQuery(), null ).toString();
+        }
+        catch ( URISyntaxException e )
+        {
+            return url.toExternalForm();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.rest;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.commonjava.maven.ext.io.resolver.ResolutionBundle;
+import org.commonjava.maven.ext.io.rest.exception.RestException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * {@link Translator} backed by a {@link ResolutionBundle}. When the bundle is recording, calls for anything not yet
+ * in the bundle are passed to the delegate and the responses stored; when replaying, responses are served purely from
+ * the bundle.
+ */
+public class BundleTranslator
+    implements Translator
+{
+    private final ResolutionBundle bundle;
+
+    private final Translator delegate;
+
+    /**
+     * @param bundle the bundle to record to or replay from.
+     * @param delegate the translator to record; unused when replaying.
+     */
+    public BundleTranslator( ResolutionBundle bundle, Translator delegate )
+    {
+        this.bundle = bundle;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Map<ProjectVersionRef, String> translateVersions( List<ProjectVersionRef> projects )
+    {
+        final Map<ProjectVersionRef, String> result = new HashMap<>();
+        final Map<String, String> translations = bundle.getTranslations();
+        final List<ProjectVersionRef> missing = new ArrayList<>();
+
+        for ( ProjectVersionRef p : projects )
+        {
+            final String version = translations.get( p.toString() );
+            if ( version == null )
+            {
+                missing.add( p );
+            }
+            else if ( !version.isEmpty() )
+            {
+                result.put( p, version );
+            }
+        }
+
+        if ( !bundle.isReplaying() && !missing.isEmpty() )
+        {
+            final Map<ProjectVersionRef, String> translated = delegate.translateVersions( missing );
+            result.putAll( translated );
+            translated.forEach( ( k, v ) -> bundle.recordTranslation( k.toString(), v ) );
+            // Also record what the endpoint has no translation for, so that it need not be asked again.
+            missing.stream()
+                   .filter( p -> !translated.containsKey( p ) )
+                   .forEach( p -> bundle.recordTranslation( p.toString(), "" ) );
+        }
+        return result;
+    }
+
+    @Override
+    public List<ProjectVersionRef> findBlacklisted( ProjectRef project )
+    {
+        final List<String> recorded = bundle.getBlacklist( project.toString() );
+        if ( recorded != null )
+        {
+            return recorded.stream().map( SimpleProjectVersionRef::parse ).collect( Collectors.toList() );
+        }
+        else if ( bundle.isReplaying() )
+        {
+            throw new RestException( "Unable to find blacklist for " + project + " in resolution bundle" );
+        }
+
+        final List<ProjectVersionRef> result = delegate.findBlacklisted( project );
+        bundle.recordBlacklist( project.toString(),
+                                result.stream().map( ProjectVersionRef::toString ).collect( Collectors.toList() ) );
+        return result;
+    }
+}
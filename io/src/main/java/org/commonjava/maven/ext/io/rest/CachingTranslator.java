@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.rest;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.ext.common.util.BoundedCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link Translator} that remembers the responses of its delegate until {@link #clear()} is called, so that several
+ * builds run in one process (e.g. a batch of related repositories) only ask the REST endpoint about each GAV once.
+ * Responses are shared between all instances created with the same key, which should identify the endpoint and every
+ * option that affects its answers. The responses kept for each key are bounded.
+ */
+public class CachingTranslator
+    implements Translator
+{
+    /**
+     * Marks a GAV the endpoint has no translation for.
+     */
+    private static final String NO_TRANSLATION = "";
+
+    private static final int TRANSLATIONS_LIMIT = 100000;
+
+    private static final int BLACKLISTS_LIMIT = 10000;
+
+    private static final Map<String, BoundedCache<ProjectVersionRef, String>> TRANSLATIONS = new ConcurrentHashMap<>();
+
+    private static final Map<String, BoundedCache<ProjectRef, List<ProjectVersionRef>>> BLACKLISTS =
+                    new ConcurrentHashMap<>();
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final Translator delegate;
+
+    private final BoundedCache<ProjectVersionRef, String> translations;
+
+    private final BoundedCache<ProjectRef, List<ProjectVersionRef>> blacklists;
+
+    /**
+     * @param key identifies the endpoint and configuration; instances with the same key share responses.
+     * @param delegate the translator to call for anything not yet known.
+     */
+    public CachingTranslator( String key, Translator delegate )
+    {
+        this.delegate = delegate;
+        this.translations = TRANSLATIONS.computeIfAbsent( key, k -> new BoundedCache<>( TRANSLATIONS_LIMIT ) );
+        this.blacklists = BLACKLISTS.computeIfAbsent( key, k -> new BoundedCache<>( BLACKLISTS_LIMIT ) );
+    }
+
+    /**
+     * Forget all responses; called once the builds that should share them have completed.
+     */
+    public static void clear()
+    {
+        TRANSLATIONS.clear();
+        BLACKLISTS.clear();
+    }
+
+    @Override
+    public Map<ProjectVersionRef, String> translateVersions( List<ProjectVersionRef> projects )
+    {
+        final Map<ProjectVersionRef, String> result = new HashMap<>();
+        final List<ProjectVersionRef> missing = new ArrayList<>();
+
+        for ( ProjectVersionRef p : projects )
+        {
+            final String version = translations.get( p );
+            if ( version == null )
+            {
+                missing.add( p );
+            }
+            else if ( !NO_TRANSLATION.equals( version ) )
+            {
+                result.put( p, version );
+            }
+        }
+        logger.debug( "Found {} of {} translations in cache", projects.size() - missing.size(), projects.size() );
+
+        if ( !missing.isEmpty() )
+        {
+            final Map<ProjectVersionRef, String> translated = delegate.translateVersions( missing );
+            for ( ProjectVersionRef p : missing )
+            {
+                final String version = translated.get( p );
+                translations.computeIfAbsent( p, k -> version == null ? NO_TRANSLATION : version );
+            }
+            result.putAll( translated );
+        }
+        return result;
+    }
+
+    @Override
+    public List<ProjectVersionRef> findBlacklisted( ProjectRef project )
+    {
+        return blacklists.computeIfAbsent( project, delegate::findBlacklisted );
+    }
+}
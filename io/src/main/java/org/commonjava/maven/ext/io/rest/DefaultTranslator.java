@@ -19,10 +19,14 @@ import com.mashape.unirest.http.HttpResponse;
 import com.mashape.unirest.http.ObjectMapper;
 import com.mashape.unirest.http.Unirest;
 import com.mashape.unirest.http.exceptions.UnirestException;
+import com.mashape.unirest.request.BaseRequest;
 import org.apache.commons.codec.binary.Base32;
 import org.apache.http.HttpStatus;
 import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.common.util.CoordinatePool;
+import org.commonjava.maven.ext.common.util.Deadline;
 import org.commonjava.maven.ext.common.util.ListUtils;
 import org.commonjava.maven.ext.io.rest.exception.RestException;
 import org.commonjava.maven.ext.io.rest.mapper.ListingBlacklistMapper;
@@ -37,7 +41,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static org.apache.commons.lang.StringUtils.isNotBlank;
 import static org.apache.commons.lang.StringUtils.isNotEmpty;
@@ -73,6 +81,8 @@ public class DefaultTranslator
 
     private int retryDuration = 30;
 
+    private Deadline deadline = Deadline.NONE;
+
     /**
      * @param endpointUrl is the URL to talk to.
      * @param protocol determines what REST format PME should use. The two formats
@@ -96,7 +106,9 @@ public class DefaultTranslator
     {
         // According to https://github.com/Mashape/unirest-java the default connection timeout is 10000
         // and the default socketTimeout is 60000.
-        // We have increased the first to 30 seconds and the second to 10 minutes.
+        // We have increased the first to 30 seconds and the second to 10 minutes. These are process wide (Unirest
+        // has no per request timeouts) so they are not derived from the deadline of this run, which would affect any
+        // other run in the same process; instead each request is abandoned once the deadline expires, see execute.
         Unirest.setTimeouts( 30000, 600000 );
         Unirest.setObjectMapper( objectMapper );
     }
@@ -179,13 +191,13 @@ public class DefaultTranslator
 
         try
         {
-            r = Unirest.get( blacklistEndpointUrl )
-                       .header( "accept", "application/json" )
-                       .header( "Content-Type", "application/json" )
-                       .header( "Log-Context", getHeaderContext() )
-                       .queryString( "groupid", ga.getGroupId() )
-                       .queryString( "artifactid", ga.getArtifactId() )
-                       .asObject( List.class );
+            r = execute( Unirest.get( blacklistEndpointUrl )
+                                .header( "accept", "application/json" )
+                                .header( "Content-Type", "application/json" )
+                                .header( "Log-Context", getHeaderContext() )
+                                .queryString( "groupid", ga.getGroupId() )
+                                .queryString( "artifactid", ga.getArtifactId() ), List.class,
+                         "REST blacklist call for " + ga );
 
             int status = r.getStatus();
             if ( status == SC_OK )
@@ -245,6 +257,7 @@ public class DefaultTranslator
 
         while ( !queue.isEmpty() )
         {
+            checkDeadline( null );
             Task task = queue.remove();
             task.executeTranslate();
             if ( task.isSuccess() )
@@ -302,12 +315,55 @@ public class DefaultTranslator
 
     private void waitBeforeRetry(int seconds) {
         try {
-            Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+            Thread.sleep( Math.min( TimeUnit.SECONDS.toMillis( seconds ), deadline.remainingMillis() ) );
         } catch (InterruptedException e) {
 
         }
     }
 
+    /**
+     * Perform the request. If the run has a deadline the request is made asynchronously so that it may be abandoned
+     * once the deadline expires.
+     */
+    private <T> HttpResponse<T> execute( BaseRequest request, Class<? extends T> type, String description )
+                    throws UnirestException
+    {
+        if ( !deadline.isEnabled() )
+        {
+            return request.asObject( type );
+        }
+        checkDeadline( null );
+
+        final Future<HttpResponse<T>> response = request.asObjectAsync( type );
+        try ( Deadline.Pending ignored = deadline.track( description, () -> response.cancel( true ) ) )
+        {
+            return response.get( deadline.remainingMillis(), TimeUnit.MILLISECONDS );
+        }
+        catch ( InterruptedException | TimeoutException | CancellationException e )
+        {
+            response.cancel( true );
+            checkDeadline( e );
+            throw new RestException( "Interrupted during " + description, e );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof UnirestException )
+            {
+                throw (UnirestException) e.getCause();
+            }
+            throw new UnirestException( e );
+        }
+    }
+
+    private void checkDeadline( Exception cause )
+    {
+        if ( deadline.isExpired() )
+        {
+            final ManipulationException exceeded = deadline.exceeded( cause );
+            throw new RestException( exceeded.getMessage(), exceeded );
+        }
+    }
+
     /**
      * Returns the current log header. Protected so it can be overridden.
      * @return a String header
@@ -361,12 +417,12 @@ public class DefaultTranslator
 
             try
             {
-                r = Unirest.post( this.endpointUrl )
-                           .header( "accept", "application/json" )
-                           .header( "Content-Type", "application/json" )
-                           .header( "Log-Context", getHeaderContext() )
-                           .body( chunk )
-                           .asObject( Map.class );
+                r = execute( Unirest.post( this.endpointUrl )
+                                    .header( "accept", "application/json" )
+                                    .header( "Content-Type", "application/json" )
+                                    .header( "Log-Context", getHeaderContext() )
+                                    .body( chunk ), Map.class,
+                             "REST call with " + chunk.size() + " GAVs" );
 
                 status = r.getStatus();
                 if ( status == SC_OK )
@@ -448,4 +504,18 @@ public class DefaultTranslator
     public void setRetryDuration(int retryDuration) {
         this.retryDuration = retryDuration;
     }
+
+    /**
+     * @param deadline the deadline of the run, bounding the duration of every REST call.
+     */
+    public void setDeadline( Deadline deadline ) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * @param coordinatePool the pool of the run, through which the coordinates of responses are allocated.
+     */
+    public void setCoordinatePool( CoordinatePool coordinatePool ) {
+        rgm.setCoordinatePool( coordinatePool );
+    }
 }
@@ -18,7 +18,7 @@ package org.commonjava.maven.ext.io.rest.mapper;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.mashape.unirest.http.ObjectMapper;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
-import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.commonjava.maven.ext.common.util.CoordinatePool;
 import org.commonjava.maven.ext.io.rest.Translator;
 import org.commonjava.maven.ext.io.rest.exception.RestException;
 import org.slf4j.Logger;
@@ -49,6 +49,8 @@ public class ReportGAVMapper
 
     private Translator.RestProtocol protocol;
 
+    private CoordinatePool coordinatePool = CoordinatePool.NONE;
+
     public ReportGAVMapper( Translator.RestProtocol protocol, String repositoryGroup, String incrementalSerialSuffix )
     {
         this.protocol = protocol;
@@ -101,8 +103,8 @@ public class ReportGAVMapper
 
                 if ( bestMatchVersion != null )
                 {
-                    ProjectVersionRef project = new SimpleProjectVersionRef( groupId, artifactId, version );
-                    result.put( project, bestMatchVersion );
+                    ProjectVersionRef project = coordinatePool.projectVersionRef( groupId, artifactId, version );
+                    result.put( project, coordinatePool.intern( bestMatchVersion ) );
                 }
             }
         }
@@ -153,6 +155,14 @@ public class ReportGAVMapper
         }
     }
 
+    /**
+     * @param coordinatePool the pool to allocate the coordinates read through.
+     */
+    public void setCoordinatePool( CoordinatePool coordinatePool )
+    {
+        this.coordinatePool = coordinatePool;
+    }
+
     public String getErrorString()
     {
         return errorString;
@@ -19,16 +19,24 @@ import org.apache.commons.io.FileUtils;
 import org.commonjava.maven.ext.io.resolver.GalleyInfrastructure;
 import org.commonjava.maven.ext.io.rest.handler.StaticResourceHandler;
 import org.commonjava.maven.ext.io.rest.rule.MockServer;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.AbstractHandler;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
 import java.nio.charset.Charset;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class FileIOTest
 {
@@ -42,12 +50,14 @@ public class FileIOTest
 
     private FileIO fileIO;
 
+    private GalleyInfrastructure galleyInfra;
+
     @Before
     public void before()
         throws Exception
     {
         File res = folder.newFolder();
-        GalleyInfrastructure galleyInfra = new GalleyInfrastructure
+        galleyInfra = new GalleyInfrastructure
                         ( null, null).init( null, null, res );
         fileIO = new FileIO( galleyInfra );
    }
@@ -61,4 +71,62 @@ public class FileIOTest
 
         assertEquals( urlPom, filePom );
     }
+
+    @Test
+    public void testCachedURL() throws Exception
+    {
+        final URL url = new URL( mockServer.getUrl() );
+        final File first = fileIO.resolveURL( url );
+
+        assertSame( first, fileIO.resolveURL( new URL( mockServer.getUrl() + "#fragment" ) ) );
+
+        // A new run revalidates against the server...
+        final String expected = FileUtils.readFileToString( first, Charset.defaultCharset() );
+        galleyInfra.init( null, null, galleyInfra.getCacheDir() );
+        assertEquals( expected, FileUtils.readFileToString( fileIO.resolveURL( url ), Charset.defaultCharset() ) );
+
+        // ...and falls back to the cached copy once the server is unavailable.
+        mockServer.after();
+        galleyInfra.init( null, null, galleyInfra.getCacheDir() );
+        assertEquals( expected, FileUtils.readFileToString( fileIO.resolveURL( url ), Charset.defaultCharset() ) );
+    }
+
+    @Test
+    public void testErrorResponseNotMaskedByCache() throws Exception
+    {
+        final int[] status = { HttpServletResponse.SC_OK };
+        final MockServer server = new MockServer( new AbstractHandler()
+        {
+            @Override
+            public void handle( String target, Request baseRequest, HttpServletRequest request,
+                                HttpServletResponse response ) throws IOException
+            {
+                response.setStatus( status[0] );
+                response.getWriter().print( "content" );
+                baseRequest.setHandled( true );
+            }
+        } );
+        server.before();
+        try
+        {
+            final URL url = new URL( server.getUrl() );
+            assertEquals( "content", FileUtils.readFileToString( fileIO.resolveURL( url ), Charset.defaultCharset() ) );
+
+            status[0] = HttpServletResponse.SC_NOT_FOUND;
+            galleyInfra.init( null, null, galleyInfra.getCacheDir() );
+            try
+            {
+                fileIO.resolveURL( url );
+                fail( "Expected the error response to be reported" );
+            }
+            catch ( IOException e )
+            {
+                assertTrue( e.getMessage().contains( "404" ) );
+            }
+        }
+        finally
+        {
+            server.after();
+        }
+    }
 }
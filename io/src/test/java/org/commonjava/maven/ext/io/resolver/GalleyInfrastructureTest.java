@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.resolver;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class GalleyInfrastructureTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testTransfersReused() throws Exception
+    {
+        final File cacheDir = folder.newFolder();
+        final GalleyInfrastructure infra = new GalleyInfrastructure( null, null ).init( null, null, cacheDir );
+        final URLCache urlCache = infra.getURLCache();
+        final Object pomReader = infra.getPomReader();
+        infra.finish();
+
+        // The next run with the same cache directory reuses the transfers, but not the per run readers.
+        infra.init( null, null, cacheDir );
+        assertSame( urlCache, infra.getURLCache() );
+        assertNotSame( pomReader, infra.getPomReader() );
+
+        infra.init( null, null, folder.newFolder() );
+        assertNotSame( urlCache, infra.getURLCache() );
+        infra.finish();
+    }
+}
@@ -25,7 +25,10 @@ import org.apache.maven.settings.Mirror;
 import org.apache.maven.settings.Profile;
 import org.apache.maven.settings.Repository;
 import org.apache.maven.settings.Settings;
+import org.commonjava.maven.galley.model.ConcreteResource;
 import org.commonjava.maven.galley.model.Location;
+import org.commonjava.maven.galley.model.SimpleLocation;
+import org.commonjava.maven.galley.model.VirtualResource;
 import org.junit.Test;
 
 import java.io.File;
@@ -34,7 +37,9 @@ import java.util.Iterator;
 import java.util.List;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 public class MavenLocationExpanderTest
 {
@@ -146,4 +151,39 @@ public class MavenLocationExpanderTest
         assertThat( loc.getUri(), equalTo( remote.getUrl() ) );
     }
 
+    @Test
+    public void expansionTableIsStableAcrossCalls()
+        throws Exception
+    {
+        final File localRepo = File.createTempFile( "local.repo.", ".dir" );
+        localRepo.deleteOnExit();
+
+        final ArtifactRepositoryLayout layout = new DefaultRepositoryLayout();
+        final ArtifactRepositoryPolicy policy = new ArtifactRepositoryPolicy();
+        final ArtifactRepository local =
+            new MavenArtifactRepository( "local", localRepo.toURI().toString(), layout, policy, policy );
+        final ArtifactRepository remote =
+            new MavenArtifactRepository( "remote", "http:///repo.maven.apache.org/maven2", layout, policy, policy );
+
+        final MavenLocationExpander ex =
+            new MavenLocationExpander( Collections.<Location> emptyList(),
+                                       Collections.<ArtifactRepository> singletonList( remote ), local,
+                                       new DefaultMirrorSelector(), new Settings(), Collections.<String> emptyList() );
+
+        final List<Location> first = ex.expand( MavenLocationExpander.EXPANSION_TARGET );
+        first.clear();
+        final List<Location> second = ex.expand( MavenLocationExpander.EXPANSION_TARGET );
+        assertThat( second.size(), equalTo( 2 ) );
+
+        assertTrue( ex.isFileLocation( second.get( 0 ) ) );
+        assertFalse( ex.isFileLocation( second.get( 1 ) ) );
+        assertTrue( ex.isFileLocation( new SimpleLocation( "other", "file:///tmp/other" ) ) );
+
+        final Location unrelated = new SimpleLocation( "unrelated", "http://example.com" );
+        final VirtualResource resources =
+            ex.expand( new VirtualResource( Collections.singletonList( new ConcreteResource( unrelated, "a/b" ) ) ) );
+        final Iterator<ConcreteResource> iterator = resources.iterator();
+        assertThat( iterator.next().getLocation(), equalTo( unrelated ) );
+        assertFalse( iterator.hasNext() );
+    }
 }
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.resolver;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.commonjava.maven.ext.io.rest.BundleTranslator;
+import org.commonjava.maven.galley.model.ConcreteResource;
+import org.commonjava.maven.galley.model.SimpleLocation;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ResolutionBundleTest
+{
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws Exception
+    {
+        final ProjectVersionRef gav = SimpleProjectVersionRef.parse( "org.foo:bar:1.0" );
+        final ProjectVersionRef blacklisted = SimpleProjectVersionRef.parse( "org.foo:bar:0.9" );
+
+        final ResolutionBundle recording = ResolutionBundle.recording();
+        assertFalse( recording.isReplaying() );
+
+        recording.recordURL( "http://example.com/script.groovy", "println 'hi'".getBytes( StandardCharsets.UTF_8 ) );
+
+        final BundleTranslator recorder = new BundleTranslator( recording, new StaticTranslator( gav, blacklisted ) );
+        recorder.translateVersions( Collections.singletonList( gav ) );
+        recorder.findBlacklisted( gav.asProjectRef() );
+
+        final File file = temp.newFile( "bundle.zip" );
+        recording.write( file );
+
+        final ResolutionBundle replaying = ResolutionBundle.load( file );
+        assertTrue( replaying.isReplaying() );
+        assertArrayEquals( "println 'hi'".getBytes( StandardCharsets.UTF_8 ),
+                           replaying.getURL( "http://example.com/script.groovy" ) );
+        assertNull( replaying.getURL( "http://example.com/other.groovy" ) );
+
+        // Replaying must never reach the delegate.
+        final BundleTranslator replay = new BundleTranslator( replaying, null );
+        final Map<ProjectVersionRef, String> result =
+                        replay.translateVersions( Arrays.asList( gav, SimpleProjectVersionRef.parse( "org.foo:baz:1.0" ) ) );
+
+        assertEquals( Collections.singletonMap( gav, "1.0.redhat-00001" ), result );
+        assertEquals( Collections.singletonList( blacklisted ),
+                      replay.findBlacklisted( new SimpleProjectRef( "org.foo", "bar" ) ) );
+    }
+
+    @Test
+    public void testResume() throws Exception
+    {
+        final ProjectVersionRef gav = SimpleProjectVersionRef.parse( "org.foo:bar:1.0" );
+        final ProjectVersionRef untranslated = SimpleProjectVersionRef.parse( "org.foo:none:1.0" );
+        final ProjectVersionRef added = SimpleProjectVersionRef.parse( "org.foo:added:1.0" );
+        final ProjectVersionRef blacklisted = SimpleProjectVersionRef.parse( "org.foo:bar:0.9" );
+
+        final ResolutionBundle recording = ResolutionBundle.recording();
+        new BundleTranslator( recording, new StaticTranslator( gav, blacklisted ) ).translateVersions(
+                        Arrays.asList( gav, untranslated ) );
+        final File file = temp.newFile( "checkpoint.zip" );
+        recording.write( file );
+
+        final ResolutionBundle resumed = ResolutionBundle.resume( file );
+        assertFalse( resumed.isReplaying() );
+
+        // Only what the checkpoint has no answer for, including negative answers, is passed on.
+        final StaticTranslator delegate = new StaticTranslator( gav, blacklisted );
+        final BundleTranslator translator = new BundleTranslator( resumed, delegate );
+        assertEquals( Collections.singletonMap( gav, "1.0.redhat-00001" ),
+                      translator.translateVersions( Arrays.asList( gav, untranslated, added ) ) );
+        assertEquals( Collections.singletonList( Collections.singletonList( added ) ), delegate.requests );
+
+        translator.translateVersions( Collections.singletonList( added ) );
+        assertEquals( 1, delegate.requests.size() );
+    }
+
+    @Test
+    public void testLookupByPathIsDeterministic() throws Exception
+    {
+        final File file = temp.newFile( "ambiguous.zip" );
+        try ( ZipOutputStream zip = new ZipOutputStream( new FileOutputStream( file ) ) )
+        {
+            // Written out of order, as only the location name should decide.
+            for ( String location : Arrays.asList( "zeta", "alpha", "mid" ) )
+            {
+                zip.putNextEntry( new ZipEntry( "resources/" + location + "/org/foo/bar/1.0/bar-1.0.pom" ) );
+                zip.write( location.getBytes( StandardCharsets.UTF_8 ) );
+                zip.closeEntry();
+            }
+        }
+
+        final ResolutionBundle bundle = ResolutionBundle.load( file );
+        final String path = "org/foo/bar/1.0/bar-1.0.pom";
+
+        assertArrayEquals( "mid".getBytes( StandardCharsets.UTF_8 ),
+                           bundle.lookup( new ConcreteResource( new SimpleLocation( "mid", "http://mid" ), path ) ) );
+        assertArrayEquals( "alpha".getBytes( StandardCharsets.UTF_8 ),
+                           bundle.lookup( new ConcreteResource( new SimpleLocation( "other", "http://other" ),
+                                                                path ) ) );
+        // A known location never falls back to another location's content.
+        assertNull( bundle.lookup( new ConcreteResource( new SimpleLocation( "zeta", "http://zeta" ),
+                                                         "org/foo/bar/2.0/bar-2.0.pom" ) ) );
+        assertNull( bundle.lookup( new ConcreteResource( new SimpleLocation( "other", "http://other" ),
+                                                         "org/foo/bar/2.0/bar-2.0.pom" ) ) );
+    }
+
+    private static class StaticTranslator
+                    implements org.commonjava.maven.ext.io.rest.Translator
+    {
+        private final List<List<ProjectVersionRef>> requests = new ArrayList<>();
+
+        private final ProjectVersionRef gav;
+
+        private final ProjectVersionRef blacklisted;
+
+        StaticTranslator( ProjectVersionRef gav, ProjectVersionRef blacklisted )
+        {
+            this.gav = gav;
+            this.blacklisted = blacklisted;
+        }
+
+        @Override
+        public Map<ProjectVersionRef, String> translateVersions( List<ProjectVersionRef> projects )
+        {
+            requests.add( projects );
+            return projects.contains( gav ) ?
+                            Collections.singletonMap( gav, "1.0.redhat-00001" ) :
+                            Collections.emptyMap();
+        }
+
+        @Override
+        public List<ProjectVersionRef> findBlacklisted( org.commonjava.maven.atlas.ident.ref.ProjectRef project )
+        {
+            return Collections.singletonList( blacklisted );
+        }
+    }
+}
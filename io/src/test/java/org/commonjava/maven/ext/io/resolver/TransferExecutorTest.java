@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.resolver;
+
+import org.commonjava.maven.galley.TransferException;
+import org.commonjava.maven.galley.event.EventMetadata;
+import org.commonjava.maven.galley.model.ConcreteResource;
+import org.commonjava.maven.galley.model.Location;
+import org.commonjava.maven.galley.model.SimpleLocation;
+import org.commonjava.maven.galley.model.Transfer;
+import org.commonjava.maven.galley.spi.transport.DownloadJob;
+import org.commonjava.maven.galley.spi.transport.ExistenceJob;
+import org.commonjava.maven.galley.spi.transport.ListingJob;
+import org.commonjava.maven.galley.spi.transport.PublishJob;
+import org.commonjava.maven.galley.spi.transport.Transport;
+import org.commonjava.maven.galley.spi.transport.TransportManager;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TransferExecutorTest
+{
+    private final AtomicInteger running = new AtomicInteger();
+
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    @Test
+    public void testHostLimitAndMetrics() throws Exception
+    {
+        final TransferExecutor executor = new TransferExecutor( 4, 1, 10 );
+        try
+        {
+            final Location location = new SimpleLocation( "test", "http://repo.example.com/maven2" );
+            final Transport transport = executor.instrument( new SleepingTransportManager() ).getTransport( location );
+
+            final List<Future<DownloadJob>> futures = new ArrayList<>();
+            for ( int i = 0; i < 4; i++ )
+            {
+                futures.add( executor.getExecutorService()
+                                     .submit( transport.createDownloadJob( new ConcreteResource( location, "a/b" + i ),
+                                                                           null, null, 10, null ) ) );
+            }
+            for ( Future<DownloadJob> f : futures )
+            {
+                f.get();
+            }
+
+            assertEquals( 1, maxRunning.get() );
+
+            final TransferMetrics metrics = executor.getMetrics();
+            assertTrue( metrics.getHosts().containsKey( "repo.example.com" ) );
+            assertEquals( 4, metrics.getHosts().get( "repo.example.com" ).getTransfers() );
+            assertEquals( 0, metrics.getHosts().get( "repo.example.com" ).getFailures() );
+
+            // Read after every transfer completed, so these are the peaks reached during the run.
+            assertEquals( 1, metrics.getPeakActiveTransfers() );
+            assertEquals( 4, metrics.getLargestPoolSize() );
+
+            final TransferMetrics.HostMetrics host = metrics.getHosts().get( "repo.example.com" );
+            assertEquals( 1, host.getPeakActiveTransfers() );
+            // The last transfer waited for the three before it to finish.
+            assertTrue( host.getMaxWaitMillis() >= 100 );
+            assertTrue( host.getTotalMillis() >= 200 );
+            assertEquals( 4, host.getHistogram().values().stream().mapToLong( Long::longValue ).sum() );
+            assertEquals( Long.valueOf( 4 ), host.getHistogram().get( "<100ms" ) );
+
+            // An executor reused for another run reports that run alone.
+            executor.resetMetrics();
+            assertTrue( executor.getMetrics().getHosts().isEmpty() );
+            assertEquals( 0, executor.getMetrics().getPeakActiveTransfers() );
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private class SleepingTransportManager
+                    implements TransportManager
+    {
+        @Override
+        public Transport getTransport( Location location )
+        {
+            return new SleepingTransport();
+        }
+
+        @Override
+        public Transport getTransport( ConcreteResource resource )
+        {
+            return new SleepingTransport();
+        }
+    }
+
+    private class SleepingTransport
+                    implements Transport
+    {
+        @Override
+        public DownloadJob createDownloadJob( ConcreteResource resource, Transfer target,
+                                              Map<Transfer, Long> transferSizes, int timeoutSeconds,
+                                              EventMetadata eventMetadata )
+        {
+            return new DownloadJob()
+            {
+                @Override
+                public long getTransferSize()
+                {
+                    return 0;
+                }
+
+                @Override
+                public Transfer getTransfer()
+                {
+                    return null;
+                }
+
+                @Override
+                public TransferException getError()
+                {
+                    return null;
+                }
+
+                @Override
+                public DownloadJob call() throws Exception
+                {
+                    maxRunning.accumulateAndGet( running.incrementAndGet(), Math::max );
+                    Thread.sleep( 50 );
+                    running.decrementAndGet();
+                    return this;
+                }
+            };
+        }
+
+        @Override
+        public ListingJob createListingJob( ConcreteResource resource, Transfer target, int timeoutSeconds )
+        {
+            return null;
+        }
+
+        @Override
+        public PublishJob createPublishJob( ConcreteResource resource, InputStream stream, long length,
+                                            int timeoutSeconds )
+        {
+            return null;
+        }
+
+        @Override
+        public PublishJob createPublishJob( ConcreteResource resource, InputStream stream, long length,
+                                            String contentType, int timeoutSeconds )
+        {
+            return null;
+        }
+
+        @Override
+        public ExistenceJob createExistenceJob( ConcreteResource resource, Transfer target, int timeoutSeconds )
+        {
+            return null;
+        }
+
+        @Override
+        public boolean handles( Location location )
+        {
+            return true;
+        }
+
+        @Override
+        public boolean allowsCaching()
+        {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.rest;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CachingTranslatorTest
+{
+    private final AtomicInteger requested = new AtomicInteger();
+
+    private final Translator delegate = new Translator()
+    {
+        @Override
+        public Map<ProjectVersionRef, String> translateVersions( List<ProjectVersionRef> projects )
+        {
+            requested.addAndGet( projects.size() );
+            final Map<ProjectVersionRef, String> result = new HashMap<>();
+            // Only the first project has a translation.
+            result.put( projects.get( 0 ), projects.get( 0 ).getVersionString() + "-redhat-1" );
+            return result;
+        }
+
+        @Override
+        public List<ProjectVersionRef> findBlacklisted( ProjectRef project )
+        {
+            requested.incrementAndGet();
+            return Collections.emptyList();
+        }
+    };
+
+    @After
+    public void after()
+    {
+        CachingTranslator.clear();
+    }
+
+    @Test
+    public void testSharedUntilCleared()
+    {
+        final ProjectVersionRef first = new SimpleProjectVersionRef( "org.foo", "bar", "1.0" );
+        final ProjectVersionRef second = new SimpleProjectVersionRef( "org.foo", "baz", "1.0" );
+        final List<ProjectVersionRef> projects = Arrays.asList( first, second );
+
+        final Map<ProjectVersionRef, String> translated =
+                        new CachingTranslator( "a", delegate ).translateVersions( projects );
+        assertEquals( Collections.singletonMap( first, "1.0-redhat-1" ), translated );
+        assertEquals( 2, requested.get() );
+
+        // Another instance with the same key needs no requests, including for the project without a translation.
+        assertEquals( translated, new CachingTranslator( "a", delegate ).translateVersions( projects ) );
+        assertEquals( 2, requested.get() );
+
+        // Another key does not share the responses.
+        new CachingTranslator( "b", delegate ).translateVersions( projects );
+        assertEquals( 4, requested.get() );
+
+        CachingTranslator.clear();
+        new CachingTranslator( "a", delegate ).translateVersions( projects );
+        assertEquals( 6, requested.get() );
+    }
+
+    @Test
+    public void testBlacklist()
+    {
+        final CachingTranslator translator = new CachingTranslator( "a", delegate );
+        final ProjectRef project = new SimpleProjectVersionRef( "org.foo", "bar", "1.0" ).asProjectRef();
+
+        assertTrue( translator.findBlacklisted( project ).isEmpty() );
+        assertTrue( translator.findBlacklisted( project ).isEmpty() );
+        assertEquals( 1, requested.get() );
+    }
+}